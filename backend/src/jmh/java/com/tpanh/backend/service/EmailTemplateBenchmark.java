@@ -0,0 +1,95 @@
+package com.tpanh.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Chi phí dựng nội dung 1 email (ns/op). {@code *Legacy} là cách cũ: đọc lại file template từ
+ * classpath rồi {@code String.replace} từng placeholder, hoặc {@code String.format} trên cả khối
+ * HTML; {@code *Precompiled} đi qua {@link EmailService} với template tách sẵn lúc khởi động.
+ *
+ * <p>Chạy: {@code ./gradlew jmh -PjmhIncludes=EmailTemplate}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = EmailTemplateBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = EmailTemplateBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailTemplateBenchmark {
+    static final int ITERATIONS = 5;
+
+    private static final String EMAIL = "tenant@example.com";
+    private static final String FULL_NAME = "Nguyễn Văn A";
+    private static final String TOKEN = "0f8c2a7e-5b1d-4c3e-9a6f-2d7b8e1c4f90";
+    private static final String ROOM_NO = "P.101";
+    private static final String PERIOD = "2025-01";
+    private static final int TOTAL_AMOUNT = 3_512_500;
+    private static final LocalDate DUE_DATE = LocalDate.of(2025, 2, 10);
+    private static final String ACTIVATION_TEMPLATE_PATH = "templates/activation-email.html";
+    private static final String FRONTEND_URL = "http://localhost:5173";
+
+    // Nội dung email hóa đơn trước khi tách ra templates/invoice-email.html
+    private static final String LEGACY_INVOICE_FORMAT =
+            """
+            <html>
+            <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
+                <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
+                    <h2 style="color: #2c3e50;">Xin chào %s,</h2>
+                    <p>Hóa đơn phòng <strong>%s</strong> tháng <strong>%s</strong> của bạn là \
+            <strong style="color: #e74c3c; font-size: 1.2em;">%s VNĐ</strong>.</p>
+                    <p>Vui lòng thanh toán trước ngày \
+            <strong style="color: #e74c3c;">%s</strong>.</p>
+                    <p>Trân trọng,<br>Ban quản lý</p>
+                </div>
+            </body>
+            </html>
+            """;
+
+    private final EmailService emailService = new EmailService(null, new EmailTemplates());
+
+    @Benchmark
+    public String activationLegacy() throws IOException {
+        try (InputStream input = new ClassPathResource(ACTIVATION_TEMPLATE_PATH).getInputStream()) {
+            return StreamUtils.copyToString(input, StandardCharsets.UTF_8)
+                    .replace("{{fullName}}", FULL_NAME)
+                    .replace("{{activationLink}}", FRONTEND_URL + "/activate?token=" + TOKEN);
+        }
+    }
+
+    @Benchmark
+    public EmailMessage activationPrecompiled() {
+        return emailService.activationEmail(EMAIL, FULL_NAME, TOKEN);
+    }
+
+    @Benchmark
+    public String invoiceLegacy() {
+        return String.format(
+                LEGACY_INVOICE_FORMAT,
+                FULL_NAME,
+                ROOM_NO,
+                PERIOD,
+                String.format("%,d", TOTAL_AMOUNT),
+                DUE_DATE.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+    }
+
+    @Benchmark
+    public EmailMessage invoicePrecompiled() {
+        return emailService.invoiceEmail(EMAIL, FULL_NAME, ROOM_NO, PERIOD, TOTAL_AMOUNT, DUE_DATE);
+    }
+}
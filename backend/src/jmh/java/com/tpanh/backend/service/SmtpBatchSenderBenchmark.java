@@ -0,0 +1,100 @@
+package com.tpanh.backend.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.tpanh.backend.config.EmailOutboxProperties;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+/**
+ * Thời gian gửi 1 đợt email (ms/op) tới GreenMail chạy cùng JVM, thay cho máy chủ SMTP thật.
+ * {@code perMessageConnection} là cách cũ: {@code JavaMailSender.send} mở 1 kết nối cho mỗi email;
+ * {@code oneConnection} đi qua {@link SmtpBatchSender}. Không giới hạn tốc độ gửi, nên chênh lệch
+ * chỉ là chi phí mở kết nối; với SMTP thật còn thêm TLS và AUTH cho mỗi kết nối.
+ *
+ * <p>Chạy: {@code ./gradlew jmh -PjmhIncludes=SmtpBatchSender}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = SmtpBatchSenderBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = SmtpBatchSenderBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmtpBatchSenderBenchmark {
+    static final int ITERATIONS = 5;
+
+    @Param({"10", "50"})
+    private int batchSize;
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private GreenMail greenMail;
+    private SmtpBatchSender smtpBatchSender;
+    private List<MimeMessage> messages;
+
+    @Setup
+    public void setUp() throws MessagingException {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        final EmailOutboxProperties emailOutboxProperties = new EmailOutboxProperties();
+        emailOutboxProperties.setSendRate(0);
+        smtpBatchSender = new SmtpBatchSender(mailSender, emailOutboxProperties);
+        messages = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final MimeMessage message = mailSender.createMimeMessage();
+            final MimeMessageHelper helper =
+                    new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+            helper.setFrom("noreply@phongtro.com");
+            helper.setTo("tenant" + i + "@example.com");
+            helper.setSubject("Hóa đơn phòng P." + i);
+            helper.setText("<p>Hóa đơn tháng 2025-01</p>", true);
+            message.saveChanges();
+            messages.add(message);
+        }
+    }
+
+    // Email nhận được nằm trong bộ nhớ GreenMail, xóa sau mỗi vòng để heap không phình
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        greenMail.stop();
+    }
+
+    @Benchmark
+    public int perMessageConnection() {
+        for (final MimeMessage message : messages) {
+            mailSender.send(message);
+        }
+        return messages.size();
+    }
+
+    @Benchmark
+    public Map<Integer, Exception> oneConnection() {
+        return smtpBatchSender.send(messages);
+    }
+}
@@ -0,0 +1,141 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chi phí tính tiền cho 1 phòng (ns/op). {@code engine*} đo riêng công thức của {@link
+ * TariffEngine}, {@code calculateInvoice} đo cả bước chọn chỉ số từ {@link BillingSnapshot} và dựng
+ * {@link Invoice} như khi tạo hóa đơn thật.
+ *
+ * <p>Mỗi benchmark chạy với giá điện 1 giá và biểu EVN 6 bậc; thời gian 2 chế độ phải xấp xỉ nhau
+ * vì bậc thang chỉ thêm 1 lần tìm nhị phân trên mảng tính sẵn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = TariffEngineBenchmark.ITERATIONS, time = 1)
+@Measurement(iterations = TariffEngineBenchmark.ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffEngineBenchmark {
+    static final int ITERATIONS = 5;
+
+    private static final int ROOM_ID = 1;
+    private static final int ROOM_PRICE = 3_000_000;
+    private static final int ELEC_UNIT_PRICE = 3_500;
+    private static final int WATER_UNIT_PRICE = 20_000;
+    private static final int PREVIOUS_ELEC_INDEX = 1_250;
+    private static final int CURRENT_ELEC_INDEX = 1_420;
+    private static final int PREVIOUS_WATER_INDEX = 310;
+    private static final int CURRENT_WATER_INDEX = 322;
+    private static final int TENANT_COUNT = 3;
+    private static final int[] EVN_THRESHOLDS = {50, 100, 200, 300, 400};
+    private static final int[] EVN_PRICES = {1_806, 1_866, 2_167, 2_729, 3_050, 3_151};
+
+    @Param({"FLAT", "EVN_TIERED"})
+    public String tariffMode;
+
+    private final TariffEngine tariffEngine = new TariffEngine();
+    private final InvoiceCalculator invoiceCalculator = new InvoiceCalculator(tariffEngine);
+
+    private Room room;
+    private Tenant tenant;
+    private BillingSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        final Building building = newBuilding();
+        room = new Room();
+        room.setId(ROOM_ID);
+        room.setPrice(ROOM_PRICE);
+        room.setBuilding(building);
+        tenant = new Tenant();
+
+        final Map<Integer, UtilityReading> currentReadings = new HashMap<>();
+        currentReadings.put(ROOM_ID, reading(CURRENT_ELEC_INDEX, CURRENT_WATER_INDEX));
+        final Map<Integer, UtilityReading> previousReadings = new HashMap<>();
+        previousReadings.put(ROOM_ID, reading(PREVIOUS_ELEC_INDEX, PREVIOUS_WATER_INDEX));
+        snapshot =
+                new BillingSnapshot(
+                        building,
+                        "2025-01",
+                        List.of(room),
+                        Set.of(),
+                        Map.of(ROOM_ID, tenant),
+                        Map.of(ROOM_ID, TENANT_COUNT),
+                        currentReadings,
+                        previousReadings,
+                        Set.of(ROOM_ID),
+                        Map.of(),
+                        Map.of());
+    }
+
+    @Benchmark
+    public int engineCostOnly() {
+        final int elecUsage = tariffEngine.usage(PREVIOUS_ELEC_INDEX, CURRENT_ELEC_INDEX);
+        final int waterUsage = tariffEngine.usage(PREVIOUS_WATER_INDEX, CURRENT_WATER_INDEX);
+        return tariffEngine.electricityCost(elecUsage, snapshot.tariff().electricity())
+                + tariffEngine.waterCost(
+                        WaterCalcMethod.BY_METER, waterUsage, WATER_UNIT_PRICE, TENANT_COUNT);
+    }
+
+    @Benchmark
+    public int engineBreakdown() {
+        final ElectricityTariff elecTariff = snapshot.tariff().electricity();
+        return tariffEngine
+                        .electricity(PREVIOUS_ELEC_INDEX, CURRENT_ELEC_INDEX, elecTariff)
+                        .amount()
+                + tariffEngine
+                        .water(
+                                WaterCalcMethod.BY_METER,
+                                PREVIOUS_WATER_INDEX,
+                                CURRENT_WATER_INDEX,
+                                WATER_UNIT_PRICE,
+                                TENANT_COUNT)
+                        .amount();
+    }
+
+    @Benchmark
+    public Invoice calculateInvoice() {
+        return invoiceCalculator.calculate(room, tenant, snapshot);
+    }
+
+    private Building newBuilding() {
+        final Building building = new Building();
+        building.setElecUnitPrice(ELEC_UNIT_PRICE);
+        if ("EVN_TIERED".equals(tariffMode)) {
+            building.setElecTierThresholds(EVN_THRESHOLDS);
+            building.setElecTierPrices(EVN_PRICES);
+        }
+        building.setWaterUnitPrice(WATER_UNIT_PRICE);
+        building.setWaterCalcMethod(WaterCalcMethod.BY_METER);
+        return building;
+    }
+
+    private static UtilityReading reading(final int electricIndex, final int waterIndex) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setElectricIndex(electricIndex);
+        reading.setWaterIndex(waterIndex);
+        return reading;
+    }
+}
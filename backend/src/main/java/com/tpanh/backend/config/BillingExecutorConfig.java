@@ -0,0 +1,89 @@
+package com.tpanh.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.sql.DataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class BillingExecutorConfig {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public ThreadPoolTaskExecutor billingExecutor(
+            final BillingProperties billingProperties, final DataSource dataSource) {
+        final int parallelism = billingParallelism(billingProperties, dataSource);
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(billingProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("billing-");
+        // Hàng đợi đầy thì thread gọi tự chạy task, tránh mất building nào trong lần chạy. Thread
+        // gọi là thread của scheduler nên queueCapacity cần đủ cho số building của 1 phân vùng
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Số luồng tính hóa đơn theo building: {@code app.billing.parallelism} nếu có cấu hình, không
+     * thì số CPU; luôn chừa {@code poolHeadroom} kết nối của pool Hikari cho phần còn lại của ứng
+     * dụng.
+     *
+     * @throws IllegalStateException nếu parallelism cấu hình vượt quá số kết nối được dùng
+     */
+    static int billingParallelism(
+            final BillingProperties billingProperties, final DataSource dataSource) {
+        final int headroom = billingProperties.getPoolHeadroom();
+        final int limit =
+                dataSource instanceof final HikariDataSource hikari
+                        ? Math.max(1, poolSize(hikari) - headroom)
+                        : Integer.MAX_VALUE;
+        final int configured = billingProperties.getParallelism();
+        if (configured <= 0) {
+            return Math.min(Runtime.getRuntime().availableProcessors(), limit);
+        }
+        if (configured > limit) {
+            throw new IllegalStateException(
+                    "app.billing.parallelism="
+                            + configured
+                            + " exceeds the connection pool size minus app.billing.pool-headroom ("
+                            + limit
+                            + ")");
+        }
+        return configured;
+    }
+
+    // Pool chưa khởi động thì maximumPoolSize chưa cấu hình vẫn là -1, Hikari dùng mặc định
+    private static int poolSize(final HikariDataSource hikari) {
+        final int configured = hikari.getMaximumPoolSize();
+        return configured > 0 ? configured : HIKARI_DEFAULT_POOL_SIZE;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor invoiceJobExecutor(final BillingProperties billingProperties) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(billingProperties.getJobParallelism());
+        executor.setMaxPoolSize(billingProperties.getJobParallelism());
+        executor.setQueueCapacity(billingProperties.getJobQueueCapacity());
+        executor.setThreadNamePrefix("invoice-job-");
+        // Mặc định AbortPolicy: hàng đợi đầy thì submit bị từ chối thay vì chạy trên request thread
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor reminderExecutor(final BillingProperties billingProperties) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(billingProperties.getReminderParallelism());
+        executor.setMaxPoolSize(billingProperties.getReminderParallelism());
+        executor.setQueueCapacity(billingProperties.getReminderBatchSize());
+        executor.setThreadNamePrefix("reminder-");
+        // Giới hạn số kết nối SMTP đồng thời; hàng đợi đầy thì thread của job tự gửi
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tpanh.backend.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.billing")
+@Data
+public class BillingProperties {
+    private static final int DEFAULT_POOL_HEADROOM = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 500;
+    private static final int DEFAULT_JOB_PARALLELISM = 2;
+    private static final int DEFAULT_JOB_QUEUE_CAPACITY = 100;
+    private static final int DEFAULT_JOB_CHUNK_SIZE = 50;
+    private static final Duration DEFAULT_JOB_STALE_AFTER = Duration.ofMinutes(30);
+    private static final int DEFAULT_REMINDER_DAYS_BEFORE = 3;
+    private static final int DEFAULT_REMINDER_PARALLELISM = 4;
+    private static final int DEFAULT_REMINDER_BATCH_SIZE = 50;
+
+    /**
+     * Số building được tính hóa đơn song song trong 1 lần chạy tự động. Mỗi building giữ 1 kết nối
+     * DB suốt lúc tính nên không được vượt quá pool kết nối trừ {@code poolHeadroom}; 0 = số CPU,
+     * chặn ở giới hạn đó.
+     */
+    private int parallelism;
+
+    /** Số kết nối của pool chừa lại cho request và các job khác khi tính hóa đơn song song. */
+    private int poolHeadroom = DEFAULT_POOL_HEADROOM;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /** Số job tạo hóa đơn (do người dùng submit) chạy đồng thời. */
+    private int jobParallelism = DEFAULT_JOB_PARALLELISM;
+
+    /** Số job được xếp hàng chờ; vượt quá thì từ chối submit. */
+    private int jobQueueCapacity = DEFAULT_JOB_QUEUE_CAPACITY;
+
+    /** Số phòng xử lý trong 1 transaction của job, tiến độ được cập nhật sau mỗi chunk. */
+    private int jobChunkSize = DEFAULT_JOB_CHUNK_SIZE;
+
+    /**
+     * Job PENDING/RUNNING không cập nhật tiến độ quá lâu này được coi là của node đã chết và bị
+     * chuyển sang FAILED; phải lớn hơn thời gian xử lý 1 chunk và thời gian chờ trong hàng đợi.
+     */
+    private Duration jobStaleAfter = DEFAULT_JOB_STALE_AFTER;
+
+    /** Nhắc hạn thanh toán cho hóa đơn đến hạn trong số ngày này, tính từ hôm nay. */
+    private int reminderDaysBefore = DEFAULT_REMINDER_DAYS_BEFORE;
+
+    /** Số email nhắc hạn gửi đồng thời. */
+    private int reminderParallelism = DEFAULT_REMINDER_PARALLELISM;
+
+    /** Số khách thuê trong 1 đợt gửi nhắc hạn, kết quả được ghi sau mỗi đợt. */
+    private int reminderBatchSize = DEFAULT_REMINDER_BATCH_SIZE;
+}
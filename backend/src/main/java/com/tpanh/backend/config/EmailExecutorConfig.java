@@ -0,0 +1,21 @@
+package com.tpanh.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class EmailExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor(final EmailOutboxProperties emailOutboxProperties) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emailOutboxProperties.getParallelism());
+        executor.setMaxPoolSize(emailOutboxProperties.getParallelism());
+        // Worker chỉ nhận tối đa batchSize email mỗi lần nên hàng đợi không bao giờ tràn
+        executor.setQueueCapacity(emailOutboxProperties.getBatchSize());
+        executor.setThreadNamePrefix("email-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
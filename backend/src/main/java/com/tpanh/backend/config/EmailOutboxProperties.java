@@ -0,0 +1,42 @@
+package com.tpanh.backend.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.email-outbox")
+@Data
+public class EmailOutboxProperties {
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_MAX_ATTEMPTS = 8;
+    private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration DEFAULT_LEASE_TIME = Duration.ofMinutes(5);
+    private static final double DEFAULT_SEND_RATE = 10;
+
+    /** Số luồng dựng MimeMessage song song trước khi cả đợt được gửi qua 1 kết nối SMTP. */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /** Số email worker nhận trong 1 lần lấy từ outbox. */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Gửi lỗi quá số lần này thì email chuyển sang DEAD, không thử lại nữa. */
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    /** Chờ trước lần thử lại đầu tiên; mỗi lần lỗi tiếp theo chờ gấp đôi, tối đa maxBackoff. */
+    private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    /**
+     * Thời gian giữ email đã nhận; worker chết giữa chừng thì email được gửi lại sau lease. Worker
+     * còn sống gia hạn lease cho phần chưa gửi của đợt mỗi khi đã qua nửa lease.
+     */
+    private Duration leaseTime = DEFAULT_LEASE_TIME;
+
+    /** Số email tối đa mỗi giây trên 1 node, tránh bị máy chủ SMTP chặn; 0 = không giới hạn. */
+    private double sendRate = DEFAULT_SEND_RATE;
+}
@@ -0,0 +1,22 @@
+package com.tpanh.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.reconciliation")
+@Data
+public class ReconciliationProperties {
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final int DEFAULT_MAX_REPORTED_LINES = 1000;
+
+    /** Số hóa đơn khớp được thanh toán trong 1 transaction khi đối chiếu sao kê. */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Số dòng không khớp tối đa liệt kê trong báo cáo; dòng vượt quá vẫn được đếm, để file lớn
+     * không làm báo cáo phình theo số dòng.
+     */
+    private int maxReportedLines = DEFAULT_MAX_REPORTED_LINES;
+}
@@ -11,6 +11,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -19,26 +20,59 @@ public class RedisConfig {
 
     private static final String CACHE_KEY_PREFIX = "room-management:";
 
+    public static final Duration CACHE_TTL = Duration.ofHours(1);
+
+    /** Cache tổng số dòng của danh sách phân trang, không bị xóa khi ghi nên TTL ngắn. */
+    public static final String LISTING_COUNT_CACHE = "listingCounts";
+
+    public static final Duration LISTING_COUNT_TTL = Duration.ofSeconds(30);
+
+    /** Serializer giá trị của mọi cache, dùng chung khi cần đọc/ghi cache trực tiếp qua Redis. */
+    public static final RedisSerializer<Object> CACHE_VALUE_SERIALIZER =
+            new GenericJackson2JsonRedisSerializer();
+
     @Bean
     public CacheManager cacheManager(final RedisConnectionFactory redisConnectionFactory) {
         final RedisCacheConfiguration defaultConfig =
                 RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofHours(1))
+                        .entryTtl(CACHE_TTL)
                         .prefixCacheNameWith(CACHE_KEY_PREFIX)
                         .serializeKeysWith(
                                 RedisSerializationContext.SerializationPair.fromSerializer(
                                         new StringRedisSerializer()))
                         .serializeValuesWith(
                                 RedisSerializationContext.SerializationPair.fromSerializer(
-                                        new GenericJackson2JsonRedisSerializer()))
+                                        CACHE_VALUE_SERIALIZER))
                         .disableCachingNullValues();
 
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(defaultConfig)
+                .withCacheConfiguration(
+                        LISTING_COUNT_CACHE, defaultConfig.entryTtl(LISTING_COUNT_TTL))
                 .transactionAware()
                 .build();
     }
 
+    /** Key Redis mà {@link #cacheManager} dùng cho {@code key} trong cache {@code cacheName}. */
+    public static String cacheKey(final String cacheName, final Object key) {
+        return CACHE_KEY_PREFIX + cacheName + "::" + key;
+    }
+
+    /**
+     * Template đọc/ghi entry cache trực tiếp (multi-get, pipeline) mà Spring Cache không hỗ trợ;
+     * key và value serialize giống hệt {@link #cacheManager}.
+     */
+    @Bean(name = "cacheRedisTemplate")
+    public RedisTemplate<String, Object> cacheRedisTemplate(
+            final RedisConnectionFactory redisConnectionFactory) {
+        final RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(CACHE_VALUE_SERIALIZER);
+        template.afterPropertiesSet();
+        return template;
+    }
+
     @Bean(name = "customStringRedisTemplate")
     @org.springframework.context.annotation.Primary
     public RedisTemplate<String, String> customStringRedisTemplate(
@@ -0,0 +1,24 @@
+package com.tpanh.backend.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.scheduler")
+@Data
+public class SchedulerProperties {
+    private static final int DEFAULT_SHARD_COUNT = 8;
+    private static final Duration DEFAULT_LEASE_TIME = Duration.ofMinutes(15);
+    private static final Duration DEFAULT_COMPLETED_TTL = Duration.ofHours(6);
+
+    /** Số phân vùng của mỗi job chạy định kỳ; nên lớn hơn số node để các node chia đều việc. */
+    private int shardCount = DEFAULT_SHARD_COUNT;
+
+    /** Thời hạn lease của 1 phân vùng: node chết giữa chừng thì phân vùng được nhả sau lease. */
+    private Duration leaseTime = DEFAULT_LEASE_TIME;
+
+    /** Thời gian giữ dấu "đã xong" của phân vùng, để node chạy trễ không làm lại cùng lượt. */
+    private Duration completedTtl = DEFAULT_COMPLETED_TTL;
+}
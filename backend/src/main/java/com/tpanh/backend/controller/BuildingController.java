@@ -81,10 +81,13 @@ public class BuildingController {
     @GetMapping
     @PreAuthorize("hasRole('MANAGER')")
     public PageResponse<BuildingResponse> getBuildings(
+            @Parameter(description = "false = bỏ tổng số phần tử/trang, chỉ trả hasNext")
+                    @RequestParam(value = "withTotal", defaultValue = "true")
+                    final boolean withTotal,
             @Parameter(description = "Thông tin phân trang (page, size, sort)")
                     @PageableDefault(size = PaginationConfig.DEFAULT_PAGE_SIZE, sort = "id")
                     final Pageable pageable) {
-        return buildingService.getMyBuildings(pageable);
+        return buildingService.getMyBuildings(withTotal, pageable);
     }
 
     @Operation(
@@ -163,7 +166,8 @@ public class BuildingController {
             summary = "Danh sách phòng trong tòa nhà",
             description =
                     "Lấy danh sách tất cả phòng trong một tòa nhà (chỉ Manager, có phân trang). "
-                            + "Sử dụng query parameters: page, size, sort, status (lọc theo trạng thái: VACANT, OCCUPIED, MAINTENANCE)")
+                            + "Sử dụng query parameters: page, size, sort, status (lọc theo trạng thái: VACANT, OCCUPIED, MAINTENANCE). "
+                            + "Truyền cursor để phân trang keyset theo số phòng (không đếm tổng)")
     @ApiResponses(
             value = {
                 @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -183,9 +187,18 @@ public class BuildingController {
             @Parameter(description = "Lọc theo trạng thái phòng", example = "VACANT")
                     @RequestParam(value = "status", required = false)
                     final RoomStatus status,
+            @Parameter(description = "Cursor keyset: nextCursor của trang trước, rỗng = trang đầu")
+                    @RequestParam(value = "cursor", required = false)
+                    final String cursor,
+            @Parameter(description = "false = bỏ tổng số phần tử/trang, chỉ trả hasNext")
+                    @RequestParam(value = "withTotal", defaultValue = "true")
+                    final boolean withTotal,
             @Parameter(description = "Thông tin phân trang (page, size, sort)")
                     @PageableDefault(size = PaginationConfig.DEFAULT_PAGE_SIZE, sort = "roomNo")
                     final Pageable pageable) {
-        return roomService.getRoomsByBuildingId(id, status, pageable);
+        if (cursor != null) {
+            return roomService.scrollRoomsByBuildingId(id, status, cursor, pageable.getPageSize());
+        }
+        return roomService.getRoomsByBuildingId(id, status, withTotal, pageable);
     }
 }
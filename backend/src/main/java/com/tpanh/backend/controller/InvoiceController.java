@@ -4,9 +4,17 @@ import com.tpanh.backend.config.PaginationConfig;
 import com.tpanh.backend.dto.ApiResponse;
 import com.tpanh.backend.dto.InvoiceCreationRequest;
 import com.tpanh.backend.dto.InvoiceDetailResponse;
+import com.tpanh.backend.dto.InvoiceDetailsRequest;
+import com.tpanh.backend.dto.InvoiceEmailBatchResponse;
+import com.tpanh.backend.dto.InvoicePaymentsRequest;
+import com.tpanh.backend.dto.InvoicePreviewRequest;
+import com.tpanh.backend.dto.InvoicePreviewResponse;
 import com.tpanh.backend.dto.InvoiceResponse;
 import com.tpanh.backend.dto.PageResponse;
+import com.tpanh.backend.dto.ReconciliationReport;
 import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.service.BankReconciliationService;
+import com.tpanh.backend.service.InvoicePreviewService;
 import com.tpanh.backend.service.InvoiceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +26,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,6 +36,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("${app.api-prefix}/invoices")
@@ -35,6 +45,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final InvoicePreviewService invoicePreviewService;
+    private final BankReconciliationService bankReconciliationService;
 
     @Operation(
             summary = "Tạo hóa đơn cho tòa nhà",
@@ -71,12 +83,44 @@ public class InvoiceController {
                 .build();
     }
 
+    @Operation(
+            summary = "Xem trước hóa đơn của tòa nhà",
+            description =
+                    "Tính hóa đơn dự kiến cho từng phòng giống như khi tạo hóa đơn nhưng không lưu gì."
+                            + " Có thể truyền giá điện nước thử để xem ảnh hưởng trước khi cập nhật"
+                            + " tòa nhà.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Xem trước hóa đơn thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "Dữ liệu không hợp lệ"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy tòa nhà")
+            })
+    @PostMapping("/preview")
+    @PreAuthorize("hasRole('MANAGER')")
+    public ApiResponse<InvoicePreviewResponse> previewInvoices(
+            @RequestBody @Valid final InvoicePreviewRequest request) {
+        return ApiResponse.<InvoicePreviewResponse>builder()
+                .result(invoicePreviewService.previewInvoices(request))
+                .message("Xem trước hóa đơn thành công")
+                .build();
+    }
+
     @Operation(
             summary = "Danh sách hóa đơn",
             description =
                     "Lấy danh sách hóa đơn của tòa nhà (có phân trang). "
                             + "Có thể lọc theo period (kỳ thanh toán) và status (trạng thái). "
-                            + "Sử dụng query parameters: page, size, sort, period, status")
+                            + "Sử dụng query parameters: page, size, sort, period, status. "
+                            + "Truyền cursor để phân trang keyset (mới nhất trước, không đếm tổng)")
     @ApiResponses(
             value = {
                 @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -100,13 +144,23 @@ public class InvoiceController {
             @Parameter(description = "Trạng thái hóa đơn", example = "UNPAID")
                     @RequestParam(value = "status", required = false)
                     final InvoiceStatus status,
+            @Parameter(description = "Cursor keyset: nextCursor của trang trước, rỗng = trang đầu")
+                    @RequestParam(value = "cursor", required = false)
+                    final String cursor,
+            @Parameter(description = "false = bỏ tổng số phần tử/trang, chỉ trả hasNext")
+                    @RequestParam(value = "withTotal", defaultValue = "true")
+                    final boolean withTotal,
             @Parameter(description = "Thông tin phân trang (page, size, sort)")
                     @PageableDefault(
                             size = PaginationConfig.DEFAULT_PAGE_SIZE,
                             sort = "createdAt",
                             direction = Sort.Direction.DESC)
                     final Pageable pageable) {
-        return invoiceService.getInvoices(buildingId, period, status, pageable);
+        if (cursor != null) {
+            return invoiceService.scrollInvoices(
+                    buildingId, period, status, cursor, pageable.getPageSize());
+        }
+        return invoiceService.getInvoices(buildingId, period, status, withTotal, pageable);
     }
 
     @Operation(
@@ -137,6 +191,36 @@ public class InvoiceController {
                 .build();
     }
 
+    @Operation(
+            summary = "Chi tiết nhiều hóa đơn",
+            description =
+                    "Lấy chi tiết tối đa 300 hóa đơn trong 1 request (VD: in hóa đơn cả tòa nhà),"
+                            + " theo thứ tự ID truyền vào. Cần quyền xem trên tất cả hóa đơn.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Lấy chi tiết hóa đơn thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "Danh sách ID rỗng hoặc quá 300 phần tử"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy hóa đơn")
+            })
+    @PostMapping("/details")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ApiResponse<List<InvoiceDetailResponse>> getInvoiceDetails(
+            @RequestBody @Valid final InvoiceDetailsRequest request) {
+        return ApiResponse.<List<InvoiceDetailResponse>>builder()
+                .result(invoiceService.getInvoiceDetails(request.getIds()))
+                .message("Lấy chi tiết hóa đơn thành công")
+                .build();
+    }
+
     @Operation(
             summary = "Thanh toán hóa đơn",
             description =
@@ -167,6 +251,39 @@ public class InvoiceController {
                 .build();
     }
 
+    @Operation(
+            summary = "Thanh toán nhiều hóa đơn",
+            description =
+                    "Xác nhận khách đã đóng tiền cho tối đa 300 hóa đơn trong 1 request (VD: ngày"
+                            + " thu tiền cả tòa nhà). Tất cả hóa đơn phải ở trạng thái UNPAID/DRAFT;"
+                            + " có 1 hóa đơn không hợp lệ thì không hóa đơn nào được thanh toán.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Thanh toán hóa đơn thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description =
+                                "Danh sách ID không hợp lệ, hoặc có hóa đơn đã thanh toán hay"
+                                        + " không thể thanh toán"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy hóa đơn")
+            })
+    @PutMapping("/pay")
+    @PreAuthorize("hasRole('MANAGER')")
+    public ApiResponse<List<InvoiceResponse>> payInvoices(
+            @RequestBody @Valid final InvoicePaymentsRequest request) {
+        return ApiResponse.<List<InvoiceResponse>>builder()
+                .result(invoiceService.payInvoices(request.getIds()))
+                .message("Thanh toán hóa đơn thành công")
+                .build();
+    }
+
     @Operation(
             summary = "Gửi email hóa đơn",
             description =
@@ -176,7 +293,7 @@ public class InvoiceController {
             value = {
                 @io.swagger.v3.oas.annotations.responses.ApiResponse(
                         responseCode = "200",
-                        description = "Gửi email thành công"),
+                        description = "Email đã được xếp hàng gửi"),
                 @io.swagger.v3.oas.annotations.responses.ApiResponse(
                         responseCode = "400",
                         description = "Khách thuê chưa có email"),
@@ -192,8 +309,77 @@ public class InvoiceController {
     public ApiResponse<String> sendInvoiceEmail(@PathVariable("id") final Integer id) {
         invoiceService.sendInvoiceEmail(id);
         return ApiResponse.<String>builder()
-                .result("Email đã được gửi thành công")
-                .message("Hóa đơn đã được gửi đến email của khách thuê")
+                .result("Email đã được xếp hàng gửi")
+                .message("Hóa đơn sẽ được gửi đến email của khách thuê trong giây lát")
+                .build();
+    }
+
+    @Operation(
+            summary = "Gửi email hóa đơn cho cả tòa nhà",
+            description =
+                    "Xếp email hóa đơn của mọi phòng trong tòa nhà theo kỳ thanh toán (trừ hóa đơn"
+                            + " đã hủy) vào hàng đợi; email được gửi theo đợt qua 1 kết nối SMTP."
+                            + " Kết quả liệt kê từng hóa đơn: đã xếp hàng, chưa có khách thuê"
+                            + " hoặc khách thuê chưa có email.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Email đã được xếp hàng gửi"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy tòa nhà")
+            })
+    @PostMapping("/send-email")
+    @PreAuthorize("hasRole('MANAGER')")
+    public ApiResponse<InvoiceEmailBatchResponse> sendInvoiceEmails(
+            @Parameter(description = "ID tòa nhà", required = true) @RequestParam("buildingId")
+                    final Integer buildingId,
+            @Parameter(description = "Kỳ thanh toán (VD: 2025-01)", required = true)
+                    @RequestParam("period")
+                    final String period) {
+        return ApiResponse.<InvoiceEmailBatchResponse>builder()
+                .result(invoiceService.sendInvoiceEmails(buildingId, period))
+                .message("Hóa đơn sẽ được gửi đến email của khách thuê trong giây lát")
+                .build();
+    }
+
+    @Operation(
+            summary = "Đối chiếu sao kê ngân hàng",
+            description =
+                    "Tải lên file sao kê CSV (UTF-8, có dòng tiêu đề gồm cột số tiền và cột nội"
+                            + " dung). Mỗi giao dịch tiền vào được khớp với hóa đơn chờ thanh toán"
+                            + " của tòa nhà theo số tiền, số phòng và kỳ ghi trong nội dung chuyển"
+                            + " khoản; hóa đơn khớp được đánh dấu đã thanh toán. Kết quả liệt kê"
+                            + " các dòng đã thanh toán và các dòng cần xử lý tay.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Đối chiếu thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "File không phải CSV UTF-8 hoặc thiếu cột"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy tòa nhà")
+            })
+    @PostMapping(value = "/reconciliation", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('MANAGER')")
+    public ApiResponse<ReconciliationReport> reconcileStatement(
+            @Parameter(description = "ID tòa nhà", required = true) @RequestParam("buildingId")
+                    final Integer buildingId,
+            @Parameter(description = "File sao kê CSV", required = true) @RequestParam("file")
+                    final MultipartFile file) {
+        return ApiResponse.<ReconciliationReport>builder()
+                .result(bankReconciliationService.reconcile(buildingId, file))
+                .message("Đối soát sao kê thành công")
                 .build();
     }
 }
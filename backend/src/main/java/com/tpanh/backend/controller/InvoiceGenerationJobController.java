@@ -0,0 +1,127 @@
+package com.tpanh.backend.controller;
+
+import com.tpanh.backend.config.PaginationConfig;
+import com.tpanh.backend.dto.ApiResponse;
+import com.tpanh.backend.dto.InvoiceCreationRequest;
+import com.tpanh.backend.dto.InvoiceGenerationJobResponse;
+import com.tpanh.backend.dto.InvoiceResponse;
+import com.tpanh.backend.dto.PageResponse;
+import com.tpanh.backend.service.InvoiceGenerationJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("${app.api-prefix}/invoices/generation-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Invoice Generation Jobs", description = "API tạo hóa đơn bất đồng bộ")
+public class InvoiceGenerationJobController {
+
+    private final InvoiceGenerationJobService invoiceGenerationJobService;
+
+    @Operation(
+            summary = "Tạo job tạo hóa đơn cho tòa nhà",
+            description =
+                    "Trả về job id ngay lập tức, hóa đơn được tạo ở background. "
+                            + "Dùng API trạng thái để theo dõi tiến độ và API kết quả để lấy hóa đơn đã tạo.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "202",
+                        description = "Đã tiếp nhận job"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "Dữ liệu không hợp lệ hoặc hệ thống đang quá tải"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "404",
+                        description = "Không tìm thấy tòa nhà")
+            })
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasRole('MANAGER')")
+    public ApiResponse<InvoiceGenerationJobResponse> submitJob(
+            @RequestBody @Valid final InvoiceCreationRequest request) {
+        final var response =
+                invoiceGenerationJobService.submitJob(request.getBuildingId(), request.getPeriod());
+        return ApiResponse.<InvoiceGenerationJobResponse>builder()
+                .result(response)
+                .message("Đã tiếp nhận job tạo hóa đơn")
+                .build();
+    }
+
+    @Operation(
+            summary = "Trạng thái job tạo hóa đơn",
+            description =
+                    "Số phòng đã xử lý, bỏ qua, lỗi và số hóa đơn đã tạo của job. "
+                            + "processedRooms = totalRooms khi job chạy xong.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Lấy trạng thái job thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "Không tìm thấy job")
+            })
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ApiResponse<InvoiceGenerationJobResponse> getJob(
+            @PathVariable("jobId") final UUID jobId) {
+        return ApiResponse.<InvoiceGenerationJobResponse>builder()
+                .result(invoiceGenerationJobService.getJob(jobId))
+                .message("Lấy trạng thái job thành công")
+                .build();
+    }
+
+    @Operation(
+            summary = "Hóa đơn đã tạo bởi job",
+            description =
+                    "Danh sách hóa đơn do job tạo ra (có phân trang). "
+                            + "Có thể gọi khi job đang chạy để lấy các hóa đơn đã tạo xong.")
+    @ApiResponses(
+            value = {
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "200",
+                        description = "Lấy danh sách hóa đơn thành công"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "403",
+                        description = "Không có quyền truy cập"),
+                @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                        responseCode = "400",
+                        description = "Không tìm thấy job")
+            })
+    @GetMapping("/{jobId}/invoices")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public PageResponse<InvoiceResponse> getJobInvoices(
+            @PathVariable("jobId") final UUID jobId,
+            @Parameter(description = "Thông tin phân trang (page, size, sort)")
+                    @PageableDefault(
+                            size = PaginationConfig.DEFAULT_PAGE_SIZE,
+                            sort = "id",
+                            direction = Sort.Direction.ASC)
+                    final Pageable pageable) {
+        return invoiceGenerationJobService.getJobInvoices(jobId, pageable);
+    }
+}
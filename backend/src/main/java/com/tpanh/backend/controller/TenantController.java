@@ -6,7 +6,6 @@ import com.tpanh.backend.dto.PageResponse;
 import com.tpanh.backend.dto.TenantCreationRequest;
 import com.tpanh.backend.dto.TenantResponse;
 import com.tpanh.backend.dto.TenantUpdateRequest;
-import com.tpanh.backend.security.UserPrincipal;
 import com.tpanh.backend.service.TenantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,7 +18,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -73,7 +71,8 @@ public class TenantController {
             description =
                     "Lấy danh sách khách thuê với filter (có phân trang). "
                             + "Có thể filter theo buildingId, roomId, active (true = đang thuê, false = đã kết thúc). "
-                            + "Sử dụng query parameters: page, size, sort, buildingId, roomId, active")
+                            + "Sử dụng query parameters: page, size, sort, buildingId, roomId, active. "
+                            + "Truyền cursor để phân trang keyset (thêm sau trước, không đếm tổng)")
     @ApiResponses(
             value = {
                 @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -89,27 +88,32 @@ public class TenantController {
     @GetMapping
     @PreAuthorize("hasRole('MANAGER')")
     public PageResponse<TenantResponse> getTenants(
-            @AuthenticationPrincipal final UserPrincipal principal,
             @Parameter(description = "ID tòa nhà", example = "1")
                     @RequestParam(value = "buildingId", required = false)
                     final Integer buildingId,
             @Parameter(description = "ID phòng", example = "1")
                     @RequestParam(value = "roomId", required = false)
                     final Integer roomId,
-            @Parameter(
-                            description =
-                                    "Lọc theo trạng thái hợp đồng (true = đang thuê, false = đã kết thúc)",
-                            example = "true")
+            @Parameter(description = "Lọc theo trạng thái hợp đồng", example = "true")
                     @RequestParam(value = "active", required = false)
                     final Boolean active,
+            @Parameter(description = "Cursor keyset: nextCursor của trang trước, rỗng = trang đầu")
+                    @RequestParam(value = "cursor", required = false)
+                    final String cursor,
+            @Parameter(description = "false = bỏ tổng số phần tử/trang, chỉ trả hasNext")
+                    @RequestParam(value = "withTotal", defaultValue = "true")
+                    final boolean withTotal,
             @Parameter(description = "Thông tin phân trang (page, size, sort)")
                     @PageableDefault(
                             size = PaginationConfig.DEFAULT_PAGE_SIZE,
                             sort = "startDate",
                             direction = Sort.Direction.DESC)
                     final Pageable pageable) {
-
-        return tenantService.getTenants(buildingId, roomId, active, pageable);
+        if (cursor != null) {
+            return tenantService.scrollTenants(
+                    buildingId, roomId, active, cursor, pageable.getPageSize());
+        }
+        return tenantService.getTenants(buildingId, roomId, active, withTotal, pageable);
     }
 
     @Operation(
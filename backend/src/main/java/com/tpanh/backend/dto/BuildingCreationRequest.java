@@ -2,9 +2,11 @@ package com.tpanh.backend.dto;
 
 import com.tpanh.backend.enums.WaterCalcMethod;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -24,6 +26,10 @@ public class BuildingCreationRequest {
     @Schema(description = "Đơn giá điện (VNĐ/kWh)", example = "3500")
     private Integer elecUnitPrice;
 
+    @Valid
+    @Schema(description = "Biểu giá điện bậc thang, ưu tiên hơn đơn giá điện nếu có")
+    private List<ElectricityTier> elecTiers;
+
     @Min(value = 0, message = "WATER_PRICE_INVALID")
     @Schema(description = "Đơn giá nước (VNĐ/m3 hoặc VNĐ/người)", example = "20000")
     private Integer waterUnitPrice;
@@ -2,6 +2,7 @@ package com.tpanh.backend.dto;
 
 import com.tpanh.backend.enums.WaterCalcMethod;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,6 +29,9 @@ public class BuildingResponse {
     @Schema(description = "Đơn giá điện (VNĐ/kWh)", example = "3500")
     private Integer elecUnitPrice;
 
+    @Schema(description = "Biểu giá điện bậc thang, null nếu tính theo đơn giá điện")
+    private List<ElectricityTier> elecTiers;
+
     @Schema(description = "Đơn giá nước (VNĐ/m3 hoặc VNĐ/người)", example = "20000")
     private Integer waterUnitPrice;
 
@@ -2,6 +2,8 @@ package com.tpanh.backend.dto;
 
 import com.tpanh.backend.enums.WaterCalcMethod;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -19,6 +21,13 @@ public class BuildingUpdateRequest {
     @Schema(description = "Đơn giá điện (VNĐ/kWh)", example = "3500")
     private Integer elecUnitPrice;
 
+    @Valid
+    @Schema(
+            description =
+                    "Biểu giá điện bậc thang, ưu tiên hơn đơn giá điện."
+                            + " Danh sách rỗng để quay lại tính theo đơn giá điện")
+    private List<ElectricityTier> elecTiers;
+
     @Schema(description = "Đơn giá nước (VNĐ/m3 hoặc VNĐ/người)", example = "20000")
     private Integer waterUnitPrice;
 
@@ -0,0 +1,22 @@
+package com.tpanh.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "1 bậc trong biểu giá điện bậc thang")
+public class ElectricityTier {
+    @Schema(description = "Ngưỡng kWh tích lũy kết thúc bậc, để trống ở bậc cuối", example = "50")
+    private Integer upToKwh;
+
+    @NotNull(message = "ELEC_TIERS_INVALID")
+    @Min(value = 0, message = "ELEC_TIERS_INVALID")
+    @Schema(description = "Đơn giá của bậc (VNĐ/kWh)", example = "1806")
+    private Integer unitPrice;
+}
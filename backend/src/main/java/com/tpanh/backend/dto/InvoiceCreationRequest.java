@@ -3,6 +3,7 @@ package com.tpanh.backend.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 @Data
@@ -14,5 +15,6 @@ public class InvoiceCreationRequest {
 
     @Schema(description = "Kỳ thanh toán (định dạng YYYY-MM)", example = "2025-01")
     @NotBlank(message = "INVALID_PERIOD")
+    @Pattern(regexp = "\\d{4}-(0[1-9]|1[0-2])", message = "INVALID_PERIOD_FORMAT")
     private String period;
 }
@@ -1,8 +1,10 @@
 package com.tpanh.backend.dto;
 
 import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -25,12 +27,14 @@ public class InvoiceDetailResponse {
     private Integer elecCurrentValue;
     private Integer elecUsage;
     private Integer elecUnitPrice;
+    private List<ElectricityTier> elecTiers; // null nếu hóa đơn tính theo đơn giá điện
     private Integer elecAmount;
 
     private Integer waterPreviousValue;
     private Integer waterCurrentValue;
     private Integer waterUsage;
     private Integer waterUnitPrice;
+    private WaterCalcMethod waterCalcMethod;
     private Integer waterAmount;
 
     // Thành phần tiền
@@ -0,0 +1,19 @@
+package com.tpanh.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@Schema(description = "Yêu cầu lấy chi tiết nhiều hóa đơn")
+public class InvoiceDetailsRequest {
+    public static final int MAX_IDS = 300;
+
+    @Schema(description = "Danh sách ID hóa đơn, tối đa 300", example = "[1, 2, 3]")
+    @NotEmpty(message = "INVOICE_IDS_INVALID")
+    @Size(max = MAX_IDS, message = "INVOICE_IDS_INVALID")
+    private List<@NotNull(message = "INVOICE_IDS_INVALID") Integer> ids;
+}
@@ -0,0 +1,26 @@
+package com.tpanh.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Kết quả gửi email hóa đơn cho cả tòa nhà trong 1 kỳ")
+public class InvoiceEmailBatchResponse {
+    @Schema(description = "ID tòa nhà", example = "1")
+    private Integer buildingId;
+
+    @Schema(description = "Kỳ thanh toán", example = "2025-01")
+    private String period;
+
+    @Schema(description = "Số email đã xếp hàng gửi", example = "11")
+    private int queuedCount;
+
+    @Schema(description = "Số hóa đơn bỏ qua vì chưa có khách thuê hoặc email", example = "1")
+    private int skippedCount;
+
+    @Schema(description = "Kết quả từng hóa đơn, theo số phòng")
+    private List<InvoiceEmailItem> invoices;
+}
@@ -0,0 +1,29 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.InvoiceEmailStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Kết quả gửi email hóa đơn của 1 phòng")
+public class InvoiceEmailItem {
+    @Schema(description = "ID hóa đơn", example = "1")
+    private Integer invoiceId;
+
+    @Schema(description = "Số phòng", example = "P.101")
+    private String roomNo;
+
+    @Schema(description = "Tên khách thuê", example = "Nguyễn Văn A")
+    private String tenantName;
+
+    @Schema(description = "Email nhận hóa đơn", example = "tenant@example.com")
+    private String email;
+
+    @Schema(
+            description = "Kết quả của hóa đơn",
+            example = "QUEUED",
+            allowableValues = {"QUEUED", "NO_TENANT", "NO_EMAIL"})
+    private InvoiceEmailStatus status;
+}
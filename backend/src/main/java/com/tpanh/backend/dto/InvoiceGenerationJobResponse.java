@@ -0,0 +1,55 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+@Schema(description = "Trạng thái job tạo hóa đơn bất đồng bộ")
+public class InvoiceGenerationJobResponse {
+    @Schema(description = "ID job", example = "3f1c2a4e-8b7d-4c2a-9e1f-5a6b7c8d9e0f")
+    private UUID id;
+
+    @Schema(description = "ID tòa nhà", example = "1")
+    private Integer buildingId;
+
+    @Schema(description = "Kỳ thanh toán (định dạng YYYY-MM)", example = "2025-01")
+    private String period;
+
+    @Schema(
+            description = "Trạng thái job",
+            example = "RUNNING",
+            allowableValues = {"PENDING", "RUNNING", "COMPLETED", "FAILED"})
+    private InvoiceGenerationJobStatus status;
+
+    @Schema(description = "Tổng số phòng của tòa nhà", example = "40")
+    private int totalRooms;
+
+    @Schema(description = "Số phòng đã xử lý (gồm cả bỏ qua và lỗi)", example = "25")
+    private int processedRooms;
+
+    @Schema(
+            description = "Số phòng bỏ qua (đã có hóa đơn hoặc không có người đại diện)",
+            example = "3")
+    private int skippedRooms;
+
+    @Schema(description = "Số phòng lỗi (VD: thiếu chỉ số tháng trước)", example = "1")
+    private int failedRooms;
+
+    @Schema(description = "Số hóa đơn đã tạo", example = "21")
+    private int createdInvoices;
+
+    @Schema(description = "Lỗi gần nhất (nếu có)")
+    private String errorMessage;
+
+    @Schema(description = "Thời điểm tạo job")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Thời điểm bắt đầu xử lý")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Thời điểm kết thúc")
+    private LocalDateTime finishedAt;
+}
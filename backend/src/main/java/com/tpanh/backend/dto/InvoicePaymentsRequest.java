@@ -0,0 +1,17 @@
+package com.tpanh.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@Schema(description = "Yêu cầu thanh toán nhiều hóa đơn")
+public class InvoicePaymentsRequest {
+    @Schema(description = "Danh sách ID hóa đơn, tối đa 300", example = "[1, 2, 3]")
+    @NotEmpty(message = "INVOICE_IDS_INVALID")
+    @Size(max = InvoiceDetailsRequest.MAX_IDS, message = "INVOICE_IDS_INVALID")
+    private List<@NotNull(message = "INVOICE_IDS_INVALID") Integer> ids;
+}
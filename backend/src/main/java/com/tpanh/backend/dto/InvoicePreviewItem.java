@@ -0,0 +1,47 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.InvoicePreviewStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Hóa đơn dự kiến của 1 phòng")
+public class InvoicePreviewItem {
+    @Schema(description = "ID phòng", example = "1")
+    private Integer roomId;
+
+    @Schema(description = "Số phòng", example = "P.101")
+    private String roomNo;
+
+    @Schema(description = "Tên người đại diện hợp đồng", example = "Nguyễn Văn A")
+    private String tenantName;
+
+    @Schema(
+            description = "Kết quả xem trước của phòng",
+            example = "READY",
+            allowableValues = {"READY", "ALREADY_INVOICED", "NO_CONTRACT_HOLDER", "ERROR"})
+    private InvoicePreviewStatus status;
+
+    @Schema(description = "Lý do khi status là ERROR")
+    private String error;
+
+    @Schema(description = "Tiền phòng", example = "3000000")
+    private Integer roomPrice;
+
+    @Schema(description = "Số điện tiêu thụ (kWh)", example = "50")
+    private Integer elecUsage;
+
+    @Schema(description = "Tiền điện", example = "175000")
+    private Integer elecAmount;
+
+    @Schema(description = "Số nước tiêu thụ (m3)", example = "10")
+    private Integer waterUsage;
+
+    @Schema(description = "Tiền nước", example = "200000")
+    private Integer waterAmount;
+
+    @Schema(description = "Tổng tiền", example = "3375000")
+    private Integer totalAmount;
+}
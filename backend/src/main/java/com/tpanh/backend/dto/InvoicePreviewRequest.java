@@ -0,0 +1,42 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.WaterCalcMethod;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@Schema(
+        description =
+                "Yêu cầu xem trước hóa đơn của tòa nhà. Các trường giá là tùy chọn, để trống thì"
+                        + " dùng giá đang lưu của tòa nhà")
+public class InvoicePreviewRequest {
+    @Schema(description = "ID tòa nhà", example = "1")
+    @NotNull(message = "INVALID_BUILDING_ID")
+    private Integer buildingId;
+
+    @Schema(description = "Kỳ thanh toán (định dạng YYYY-MM)", example = "2025-01")
+    @NotBlank(message = "INVALID_PERIOD")
+    @Pattern(regexp = "\\d{4}-(0[1-9]|1[0-2])", message = "INVALID_PERIOD_FORMAT")
+    private String period;
+
+    @Min(value = 0, message = "ELEC_PRICE_INVALID")
+    @Schema(description = "Đơn giá điện thử (VNĐ/kWh)", example = "3500")
+    private Integer elecUnitPrice;
+
+    @Valid
+    @Schema(description = "Biểu giá điện bậc thang thử, danh sách rỗng để tính theo đơn giá điện")
+    private List<ElectricityTier> elecTiers;
+
+    @Min(value = 0, message = "WATER_PRICE_INVALID")
+    @Schema(description = "Đơn giá nước thử (VNĐ/m3 hoặc VNĐ/người)", example = "20000")
+    private Integer waterUnitPrice;
+
+    @Schema(description = "Phương pháp tính nước thử", example = "BY_METER")
+    private WaterCalcMethod waterCalcMethod;
+}
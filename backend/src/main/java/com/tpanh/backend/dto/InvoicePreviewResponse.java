@@ -0,0 +1,26 @@
+package com.tpanh.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Kết quả xem trước hóa đơn của tòa nhà, không ghi gì vào DB")
+public class InvoicePreviewResponse {
+    @Schema(description = "ID tòa nhà", example = "1")
+    private Integer buildingId;
+
+    @Schema(description = "Kỳ thanh toán", example = "2025-01")
+    private String period;
+
+    @Schema(description = "Số hóa đơn sẽ được tạo", example = "12")
+    private int invoiceCount;
+
+    @Schema(description = "Tổng tiền của các hóa đơn sẽ được tạo", example = "40500000")
+    private long totalAmount;
+
+    @Schema(description = "Chi tiết từng phòng của tòa nhà")
+    private List<InvoicePreviewItem> rooms;
+}
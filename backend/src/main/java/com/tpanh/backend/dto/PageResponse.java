@@ -3,10 +3,13 @@ package com.tpanh.backend.dto;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
+import java.util.function.LongSupplier;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 @Data
 @Builder
@@ -27,13 +30,19 @@ public class PageResponse<T> {
     @Schema(description = "Danh sách dữ liệu")
     private List<T> content;
 
-    @Schema(description = "Thông tin phân trang")
+    @Schema(description = "Thông tin phân trang (chỉ có khi phân trang theo số trang)")
     private PageInfo page;
 
+    @Schema(
+            description =
+                    "Cursor của trang kế tiếp khi phân trang keyset, không có nếu đã hết dữ liệu")
+    private String nextCursor;
+
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @Schema(description = "Thông tin phân trang")
     public static class PageInfo {
         @Schema(description = "Số trang hiện tại (bắt đầu từ 0)", example = "0")
@@ -42,16 +51,67 @@ public class PageResponse<T> {
         @Schema(description = "Kích thước trang", example = "20")
         private int size;
 
-        @Schema(description = "Tổng số phần tử", example = "100")
-        private long totalElements;
+        @Schema(
+                description = "Tổng số phần tử, không có khi gọi với withTotal=false",
+                example = "100")
+        private Long totalElements;
 
-        @Schema(description = "Tổng số trang", example = "5")
-        private int totalPages;
+        @Schema(
+                description = "Tổng số trang, không có khi gọi với withTotal=false",
+                example = "5")
+        private Integer totalPages;
+
+        @Schema(description = "Còn trang sau không", example = "true")
+        private boolean hasNext;
 
         @Schema(description = "Có phải trang đầu tiên không", example = "true")
         private boolean first;
 
         @Schema(description = "Có phải trang cuối cùng không", example = "false")
         private boolean last;
+
+        public static PageInfo of(final Page<?> page) {
+            return of(page, page.getTotalElements());
+        }
+
+        /**
+         * Thông tin phân trang cho 1 {@link Slice} (trang lấy {@code size + 1} dòng, không COUNT).
+         * Ở trang cuối tổng số suy ra được từ offset nên {@code count} chỉ được gọi khi còn trang
+         * sau.
+         *
+         * @param withTotal {@code false} để bỏ {@code totalElements}/{@code totalPages}
+         * @param count tổng số dòng của bộ lọc, thường đọc từ cache
+         */
+        public static PageInfo of(
+                final Slice<?> slice, final boolean withTotal, final LongSupplier count) {
+            if (!withTotal) {
+                return of(slice, null);
+            }
+            // Trang rỗng sau trang cuối không suy ra được tổng
+            final boolean lastWithRows =
+                    !slice.hasNext() && (slice.hasContent() || slice.isFirst());
+            if (lastWithRows && slice.getPageable().isPaged()) {
+                return of(slice, slice.getPageable().getOffset() + slice.getNumberOfElements());
+            }
+            return of(slice, count.getAsLong());
+        }
+
+        private static PageInfo of(final Slice<?> slice, final Long totalElements) {
+            return PageInfo.builder()
+                    .page(slice.getNumber())
+                    .size(slice.getSize())
+                    .totalElements(totalElements)
+                    .totalPages(totalElements == null ? null : totalPages(slice, totalElements))
+                    .hasNext(slice.hasNext())
+                    .first(slice.isFirst())
+                    .last(slice.isLast())
+                    .build();
+        }
+
+        private static int totalPages(final Slice<?> slice, final long totalElements) {
+            return slice.getSize() == 0
+                    ? 1
+                    : (int) Math.ceil((double) totalElements / slice.getSize());
+        }
     }
 }
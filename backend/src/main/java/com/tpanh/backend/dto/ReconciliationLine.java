@@ -0,0 +1,45 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.ReconciliationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Kết quả đối chiếu 1 giao dịch trong sao kê")
+public class ReconciliationLine {
+    @Schema(description = "Thứ tự bản ghi trong file, dòng tiêu đề là 1", example = "2")
+    private int row;
+
+    @Schema(description = "Số tiền giao dịch, rỗng nếu không đọc được", example = "3500000")
+    private Long amount;
+
+    @Schema(description = "Nội dung chuyển khoản", example = "P101 thanh toan tien phong T1")
+    private String note;
+
+    @Schema(
+            description = "Kết quả đối chiếu",
+            example = "MATCHED",
+            allowableValues = {
+                "MATCHED",
+                "DUPLICATE",
+                "AMBIGUOUS",
+                "UNMATCHED",
+                "INVALID",
+                "FAILED"
+            })
+    private ReconciliationStatus status;
+
+    @Schema(description = "ID hóa đơn khớp", example = "1")
+    private Integer invoiceId;
+
+    @Schema(description = "Số phòng của hóa đơn khớp", example = "P.101")
+    private String roomNo;
+
+    @Schema(description = "Kỳ thanh toán của hóa đơn khớp", example = "2025-01")
+    private String period;
+
+    @Schema(description = "Mã lỗi khi không thanh toán được", example = "INVOICE_ALREADY_PAID")
+    private String error;
+}
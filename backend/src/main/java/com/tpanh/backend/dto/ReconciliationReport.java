@@ -0,0 +1,36 @@
+package com.tpanh.backend.dto;
+
+import com.tpanh.backend.enums.ReconciliationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Kết quả đối chiếu sao kê ngân hàng với hóa đơn chờ thanh toán của tòa nhà")
+public class ReconciliationReport {
+    @Schema(description = "ID tòa nhà", example = "1")
+    private Integer buildingId;
+
+    @Schema(description = "Số giao dịch trong file, không tính dòng tiêu đề", example = "120")
+    private int totalRows;
+
+    @Schema(description = "Số dòng bỏ qua vì không phải tiền vào (rỗng, ghi nợ)", example = "80")
+    private int ignoredCount;
+
+    @Schema(description = "Số dòng theo từng kết quả đối chiếu")
+    private Map<ReconciliationStatus, Integer> counts;
+
+    @Schema(description = "Tổng tiền các hóa đơn đã thanh toán", example = "120000000")
+    private long paidAmount;
+
+    @Schema(description = "true nếu danh sách dòng không khớp bị cắt bớt", example = "false")
+    private boolean truncated;
+
+    @Schema(
+            description =
+                    "Mọi dòng đã thanh toán và các dòng đầu tiên cần xử lý tay, theo thứ tự trong file")
+    private List<ReconciliationLine> lines;
+}
@@ -13,6 +13,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "buildings")
@@ -37,10 +39,25 @@ public class Building {
     @Column(name = "water_unit_price")
     private Integer waterUnitPrice;
 
+    // Giá điện bậc thang: ngưỡng kWh tích lũy (trừ bậc cuối) và đơn giá từng bậc. Để trống nếu
+    // tính theo elecUnitPrice
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "elec_tier_thresholds")
+    private int[] elecTierThresholds;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "elec_tier_prices")
+    private int[] elecTierPrices;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "water_calc_method")
     private WaterCalcMethod waterCalcMethod;
 
+    // Tăng mỗi lần đổi giá điện nước, dùng làm key cho cache giá đã tính sẵn. Chỉ tăng bằng
+    // BuildingRepository.incrementTariffVersion để 2 lần đổi giá đồng thời không ra cùng 1 version
+    @Column(name = "tariff_version", updatable = false)
+    private int tariffVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manager_id")
     private User manager;
@@ -0,0 +1,12 @@
+package com.tpanh.backend.entity;
+
+/**
+ * Cấu hình cấp phát ID theo block cho các bảng ghi số lượng lớn (hóa đơn, log, chỉ số). Giá trị
+ * phải khớp với {@code INCREMENT BY} của sequence trong migration V15.
+ */
+public final class IdGeneration {
+
+    private IdGeneration() {}
+
+    public static final int ALLOCATION_SIZE = 50;
+}
@@ -1,6 +1,7 @@
 package com.tpanh.backend.entity;
 
 import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -11,10 +12,14 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.UUID;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "invoices")
@@ -22,7 +27,11 @@ import lombok.Data;
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_id_seq")
+    @SequenceGenerator(
+            name = "invoices_id_seq",
+            sequenceName = "invoices_id_seq",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Integer id;
 
     // Quan hệ Many-to-One: Nhiều hóa đơn thuộc về 1 Phòng
@@ -30,6 +39,11 @@ public class Invoice {
     @JoinColumn(name = "room_id") // Tên cột khóa ngoại trong DB
     private Room room;
 
+    // Tòa nhà của phòng, chép sang để danh sách hóa đơn của 1 tòa nhà đi thẳng theo index
+    // (building_id, period, id). Phòng không đổi tòa nhà nên không phải đồng bộ lại
+    @Column(name = "building_id")
+    private Integer buildingId;
+
     // Quan hệ Many-to-One: Nhiều hóa đơn thuộc về 1 Khách (người trả tiền)
     @ManyToOne
     @JoinColumn(name = "tenant_id")
@@ -49,6 +63,45 @@ public class Invoice {
     @Column(name = "total_amount")
     private Integer totalAmount;
 
+    // Chỉ số, lượng tiêu thụ và giá tại thời điểm tính tiền; không đổi khi chỉ số hay giá của
+    // tòa nhà bị sửa sau đó. Chỉ số null nếu kỳ này phòng không có chỉ số
+    @Column(name = "elec_previous_index")
+    private Integer elecPreviousIndex;
+
+    @Column(name = "elec_current_index")
+    private Integer elecCurrentIndex;
+
+    @Column(name = "elec_usage")
+    private Integer elecUsage;
+
+    @Column(name = "elec_unit_price")
+    private Integer elecUnitPrice;
+
+    // null nếu tính theo đơn giá điện
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "elec_tier_thresholds")
+    private int[] elecTierThresholds;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "elec_tier_prices")
+    private int[] elecTierPrices;
+
+    @Column(name = "water_previous_index")
+    private Integer waterPreviousIndex;
+
+    @Column(name = "water_current_index")
+    private Integer waterCurrentIndex;
+
+    @Column(name = "water_usage")
+    private Integer waterUsage;
+
+    @Column(name = "water_unit_price")
+    private Integer waterUnitPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "water_calc_method")
+    private WaterCalcMethod waterCalcMethod;
+
     // Mapping Enum vào Database
     @Enumerated(EnumType.STRING) // Lưu dưới dạng chuỗi ("UNPAID") thay vì số (0,1)
     private InvoiceStatus status;
@@ -62,11 +115,18 @@ public class Invoice {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Job bất đồng bộ đã tạo hóa đơn này (null nếu tạo đồng bộ)
+    @Column(name = "generation_job_id")
+    private UUID generationJobId;
+
     @PrePersist // Tự động gán ngày tạo trước khi lưu vào DB
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (status == null) {
             status = InvoiceStatus.DRAFT;
         }
+        if (buildingId == null && room != null) {
+            buildingId = room.getBuilding().getId();
+        }
     }
 }
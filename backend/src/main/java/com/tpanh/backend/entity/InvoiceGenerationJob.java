@@ -0,0 +1,82 @@
+package com.tpanh.backend.entity;
+
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/** Job tạo hóa đơn bất đồng bộ cho 1 tòa nhà / 1 kỳ, lưu tiến độ để client polling. */
+@Entity
+@Table(name = "invoice_generation_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceGenerationJob {
+
+    private static final int STATUS_LENGTH = 20;
+
+    @Id private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "building_id", nullable = false)
+    private Building building;
+
+    @Column(nullable = false)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = STATUS_LENGTH)
+    private InvoiceGenerationJobStatus status;
+
+    @Column(name = "total_rooms")
+    private int totalRooms;
+
+    /** Số phòng đã xử lý, bao gồm cả phòng bị bỏ qua và phòng lỗi. */
+    @Column(name = "processed_rooms")
+    private int processedRooms;
+
+    @Column(name = "skipped_rooms")
+    private int skippedRooms;
+
+    @Column(name = "failed_rooms")
+    private int failedRooms;
+
+    @Column(name = "created_invoices")
+    private int createdInvoices;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /** Lần cập nhật tiến độ cuối; job đang chạy mà quá lâu không đổi là job của node đã chết. */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.tpanh.backend.entity;
+
+import com.tpanh.backend.enums.ReminderStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Kết quả nhắc hạn thanh toán của 1 hóa đơn theo 1 hạn thanh toán. Chỉ được ghi bằng upsert của
+ * {@code InvoiceReminderRepository}, entity dùng để truy vấn.
+ */
+@Entity
+@Table(name = "invoice_reminders")
+@Data
+public class InvoiceReminder {
+
+    private static final int STATUS_LENGTH = 20;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id", nullable = false)
+    private Invoice invoice;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = STATUS_LENGTH)
+    private ReminderStatus status;
+
+    @Column(name = "attempted_at", nullable = false)
+    private LocalDateTime attemptedAt;
+}
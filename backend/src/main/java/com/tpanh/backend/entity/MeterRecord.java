@@ -11,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.Data;
@@ -21,7 +22,11 @@ import lombok.Data;
 public class MeterRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meter_records_id_seq")
+    @SequenceGenerator(
+            name = "meter_records_id_seq",
+            sequenceName = "meter_records_id_seq",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Integer id;
 
     @ManyToOne
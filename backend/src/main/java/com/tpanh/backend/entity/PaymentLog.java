@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -25,7 +26,11 @@ import org.hibernate.annotations.CreationTimestamp;
 public class PaymentLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_logs_id_seq")
+    @SequenceGenerator(
+            name = "payment_logs_id_seq",
+            sequenceName = "payment_logs_id_seq",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Integer id;
 
     private static final int ACTION_MAX_LENGTH = 30;
@@ -8,6 +8,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.Data;
@@ -20,7 +21,11 @@ public class UtilityReading {
     private static final int IMAGE_EVIDENCE_MAX_LENGTH = 500;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "utility_readings_id_seq")
+    @SequenceGenerator(
+            name = "utility_readings_id_seq",
+            sequenceName = "utility_readings_id_seq",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Integer id;
 
     @ManyToOne
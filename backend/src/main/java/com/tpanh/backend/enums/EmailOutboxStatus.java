@@ -0,0 +1,7 @@
+package com.tpanh.backend.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
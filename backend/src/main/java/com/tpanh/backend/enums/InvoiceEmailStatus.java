@@ -0,0 +1,7 @@
+package com.tpanh.backend.enums;
+
+public enum InvoiceEmailStatus {
+    QUEUED, // Đã xếp vào outbox, worker sẽ gửi
+    NO_TENANT,
+    NO_EMAIL
+}
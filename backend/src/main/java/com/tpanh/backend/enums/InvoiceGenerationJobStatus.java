@@ -0,0 +1,8 @@
+package com.tpanh.backend.enums;
+
+public enum InvoiceGenerationJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.tpanh.backend.enums;
+
+public enum InvoicePreviewStatus {
+    READY, // Sẽ được tạo hóa đơn
+    ALREADY_INVOICED,
+    NO_CONTRACT_HOLDER,
+    ERROR
+}
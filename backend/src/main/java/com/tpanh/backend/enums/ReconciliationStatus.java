@@ -0,0 +1,10 @@
+package com.tpanh.backend.enums;
+
+public enum ReconciliationStatus {
+    MATCHED, // Đã thanh toán hóa đơn khớp
+    DUPLICATE, // Hóa đơn khớp đã được 1 dòng trước đó thanh toán
+    AMBIGUOUS, // Nhiều hóa đơn cùng khớp, cần xử lý tay
+    UNMATCHED,
+    INVALID, // Số tiền không đọc được
+    FAILED // Hóa đơn khớp nhưng không thanh toán được
+}
@@ -0,0 +1,6 @@
+package com.tpanh.backend.enums;
+
+public enum ReminderStatus {
+    SENT,
+    FAILED
+}
@@ -20,6 +20,13 @@ public enum ErrorCode {
     PRICE_INVALID(1011, "Giá thuê không hợp lệ"),
     ROOM_ID_REQUIRED(1012, "ID phòng không được để trống"),
     TENANT_NAME_REQUIRED(1013, "Tên khách thuê không được để trống"),
+    ELEC_TIERS_INVALID(
+            1014, "Bậc thang giá điện không hợp lệ: ngưỡng phải tăng dần và đơn giá không âm"),
+    INVOICE_IDS_INVALID(1015, "Danh sách hóa đơn phải có từ 1 đến 300 ID hợp lệ"),
+    INVALID_CURSOR(1016, "Cursor phân trang không hợp lệ"),
+    STATEMENT_INVALID(
+            1017, "File sao kê phải là CSV UTF-8 có dòng tiêu đề gồm cột số tiền và nội dung"),
+    INVALID_PERIOD_FORMAT(1018, "Kỳ thanh toán phải có định dạng YYYY-MM"),
     // Nhóm lỗi Nghiệp vụ (20xx) - Business Logic
     BUILDING_NOT_FOUND(2001, "Không tìm thấy tòa nhà này trong hệ thống"),
     ROOM_NOT_FOUND(2002, "Không tìm thấy phòng trọ"),
@@ -46,6 +53,10 @@ public enum ErrorCode {
     INVITATION_EMAIL_MISMATCH(2021, "Email xác thực không khớp với lời mời"),
     INVITATION_ALREADY_ACCEPTED(2022, "Lời mời đã được chấp nhận trước đó"),
     CONTRACT_END_DATE_MUST_BE_FUTURE(2023, "Ngày kết thúc hợp đồng phải ở tương lai"),
+    INVOICE_GENERATION_JOB_NOT_FOUND(2024, "Không tìm thấy job tạo hóa đơn"),
+    INVOICE_GENERATION_JOB_REJECTED(
+            2025, "Hệ thống đang xử lý quá nhiều job tạo hóa đơn, vui lòng thử lại sau"),
+    INVOICE_GENERATION_JOB_STALE(2026, "Job tạo hóa đơn bị gián đoạn, vui lòng tạo lại"),
     // Nhóm lỗi Xác thực (30xx) - Authentication
     USERNAME_REQUIRED(3001, "Tên đăng nhập không được để trống"),
     PASSWORD_REQUIRED(3002, "Mật khẩu không được để trống"),
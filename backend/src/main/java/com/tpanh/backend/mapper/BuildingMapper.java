@@ -1,7 +1,10 @@
 package com.tpanh.backend.mapper;
 
 import com.tpanh.backend.dto.BuildingResponse;
+import com.tpanh.backend.dto.ElectricityTier;
 import com.tpanh.backend.entity.Building;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -9,5 +12,23 @@ import org.mapstruct.Mapping;
 public interface BuildingMapper {
 
     @Mapping(source = "manager.id", target = "managerId")
+    @Mapping(source = "building", target = "elecTiers")
     BuildingResponse toResponse(Building building);
+
+    default List<ElectricityTier> toElecTiers(final Building building) {
+        return toElecTiers(building.getElecTierThresholds(), building.getElecTierPrices());
+    }
+
+    /** {@code null} nếu tòa nhà tính theo đơn giá điện. */
+    static List<ElectricityTier> toElecTiers(final int[] thresholds, final int[] prices) {
+        if (prices == null || prices.length == 0) {
+            return null;
+        }
+        return IntStream.range(0, prices.length)
+                .mapToObj(
+                        i ->
+                                new ElectricityTier(
+                                        i < thresholds.length ? thresholds[i] : null, prices[i]))
+                .toList();
+    }
 }
@@ -0,0 +1,13 @@
+package com.tpanh.backend.mapper;
+
+import com.tpanh.backend.dto.InvoiceGenerationJobResponse;
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface InvoiceGenerationJobMapper {
+
+    @Mapping(source = "building.id", target = "buildingId")
+    InvoiceGenerationJobResponse toResponse(InvoiceGenerationJob job);
+}
@@ -3,6 +3,8 @@ package com.tpanh.backend.mapper;
 import com.tpanh.backend.dto.InvoiceDetailResponse;
 import com.tpanh.backend.dto.InvoiceResponse;
 import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.repository.InvoiceDetailView;
+import com.tpanh.backend.repository.InvoiceSummaryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,20 +15,20 @@ public interface InvoiceMapper {
     @Mapping(source = "tenant.name", target = "tenantName")
     InvoiceResponse toResponse(Invoice invoice);
 
-    @Mapping(source = "room.roomNo", target = "roomNo")
-    @Mapping(source = "room.id", target = "roomId")
-    @Mapping(source = "room.building.name", target = "buildingName")
-    @Mapping(source = "room.building.id", target = "buildingId")
-    @Mapping(source = "tenant.name", target = "tenantName")
-    @Mapping(source = "tenant.phone", target = "tenantPhone")
-    @Mapping(source = "tenant.id", target = "tenantId")
-    @Mapping(target = "elecPreviousValue", ignore = true)
-    @Mapping(target = "elecCurrentValue", ignore = true)
-    @Mapping(target = "elecUsage", ignore = true)
-    @Mapping(target = "elecUnitPrice", ignore = true)
-    @Mapping(target = "waterPreviousValue", ignore = true)
-    @Mapping(target = "waterCurrentValue", ignore = true)
-    @Mapping(target = "waterUsage", ignore = true)
-    @Mapping(target = "waterUnitPrice", ignore = true)
-    InvoiceDetailResponse toDetailResponse(Invoice invoice);
+    InvoiceResponse toResponse(InvoiceSummaryView view);
+
+    @Mapping(source = "elec.previousIndex", target = "elecPreviousValue")
+    @Mapping(source = "elec.currentIndex", target = "elecCurrentValue")
+    @Mapping(source = "elec.usage", target = "elecUsage")
+    @Mapping(source = "elec.unitPrice", target = "elecUnitPrice")
+    @Mapping(
+            target = "elecTiers",
+            expression =
+                    "java(BuildingMapper.toElecTiers(view.elecTierThresholds(),"
+                            + " view.elecTierPrices()))")
+    @Mapping(source = "water.previousIndex", target = "waterPreviousValue")
+    @Mapping(source = "water.currentIndex", target = "waterCurrentValue")
+    @Mapping(source = "water.usage", target = "waterUsage")
+    @Mapping(source = "water.unitPrice", target = "waterUnitPrice")
+    InvoiceDetailResponse toDetailResponse(InvoiceDetailView view);
 }
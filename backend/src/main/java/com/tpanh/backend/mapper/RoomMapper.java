@@ -2,6 +2,7 @@ package com.tpanh.backend.mapper;
 
 import com.tpanh.backend.dto.RoomResponse;
 import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.repository.RoomSummaryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -12,6 +13,8 @@ public interface RoomMapper {
     @Mapping(source = "building.name", target = "buildingName")
     RoomResponse toResponse(Room room);
 
+    RoomResponse toResponse(RoomSummaryView view);
+
     @org.mapstruct.BeanMapping(
             nullValuePropertyMappingStrategy =
                     org.mapstruct.NullValuePropertyMappingStrategy.IGNORE)
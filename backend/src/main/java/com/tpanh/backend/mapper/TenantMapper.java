@@ -2,6 +2,7 @@ package com.tpanh.backend.mapper;
 
 import com.tpanh.backend.dto.TenantResponse;
 import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.repository.TenantSummaryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,4 +12,6 @@ public interface TenantMapper {
     @Mapping(source = "room.id", target = "roomId")
     @Mapping(source = "room.roomNo", target = "roomNo")
     TenantResponse toResponse(Tenant tenant);
+
+    TenantResponse toResponse(TenantSummaryView view);
 }
@@ -2,6 +2,7 @@ package com.tpanh.backend.mapper;
 
 import com.tpanh.backend.dto.UtilityReadingResponse;
 import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.repository.UtilityReadingSummaryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,4 +12,6 @@ public interface UtilityReadingMapper {
     @Mapping(source = "room.id", target = "roomId")
     @Mapping(source = "room.roomNo", target = "roomNo")
     UtilityReadingResponse toResponse(UtilityReading utilityReading);
+
+    UtilityReadingResponse toResponse(UtilityReadingSummaryView view);
 }
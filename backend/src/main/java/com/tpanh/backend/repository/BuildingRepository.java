@@ -3,16 +3,29 @@ package com.tpanh.backend.repository;
 import com.tpanh.backend.entity.Building;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface BuildingRepository extends JpaRepository<Building, Integer> {
     List<Building> findByManagerId(String managerId);
 
-    Page<Building> findByManagerId(String managerId, Pageable pageable);
+    Slice<Building> findByManagerId(String managerId, Pageable pageable);
+
+    long countByManagerId(String managerId);
 
     Optional<Building> findByIdAndManagerId(Integer id, String managerId);
 
     boolean existsByIdAndManagerId(Integer id, String managerId);
+
+    @Query("SELECT b.id FROM Building b ORDER BY b.id")
+    List<Integer> findAllIds();
+
+    /** Tăng version giá ngay trong DB (không đọc rồi ghi) trong transaction đang đổi giá. */
+    @Modifying
+    @Query("UPDATE Building b SET b.tariffVersion = b.tariffVersion + 1 WHERE b.id = :id")
+    int incrementTariffVersion(@Param("id") Integer id);
 }
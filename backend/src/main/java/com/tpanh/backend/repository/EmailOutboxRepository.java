@@ -0,0 +1,48 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.entity.EmailOutbox;
+import com.tpanh.backend.enums.EmailOutboxStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface EmailOutboxRepository
+        extends JpaRepository<EmailOutbox, Integer>, EmailOutboxRepositoryCustom {
+
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE EmailOutbox o SET o.status = com.tpanh.backend.enums.EmailOutboxStatus.SENT, "
+                    + "o.attempts = o.attempts + 1, o.sentAt = :sentAt, o.lastError = NULL "
+                    + "WHERE o.id = :id")
+    int markSent(@Param("id") Integer id, @Param("sentAt") LocalDateTime sentAt);
+
+    /** Dời hạn lease của các email worker đang giữ mà chưa gửi xong. */
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE EmailOutbox o SET o.nextAttemptAt = :leaseUntil "
+                    + "WHERE o.id IN :ids "
+                    + "AND o.status = com.tpanh.backend.enums.EmailOutboxStatus.PENDING")
+    int renewLease(
+            @Param("ids") Collection<Integer> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /** Ghi 1 lần gửi lỗi: hẹn lần thử tiếp theo (PENDING) hoặc dừng hẳn (DEAD). */
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE EmailOutbox o SET o.status = :status, o.attempts = o.attempts + 1, "
+                    + "o.nextAttemptAt = :nextAttemptAt, o.lastError = :error "
+                    + "WHERE o.id = :id")
+    int markFailed(
+            @Param("id") Integer id,
+            @Param("status") EmailOutboxStatus status,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+}
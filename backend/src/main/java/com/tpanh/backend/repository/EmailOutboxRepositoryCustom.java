@@ -0,0 +1,15 @@
+package com.tpanh.backend.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface EmailOutboxRepositoryCustom {
+
+    /**
+     * Nhận tối đa {@code limit} email PENDING đã đến lượt gửi bằng 1 câu {@code UPDATE ...
+     * RETURNING}: {@code next_attempt_at} được dời thêm {@code lease} nên worker khác (kể cả trên
+     * node khác) không nhận trùng, worker chết giữa chừng thì email được nhận lại sau lease. Dòng
+     * đang bị transaction khác khóa được bỏ qua.
+     */
+    List<PendingEmailView> claimDue(int limit, Duration lease);
+}
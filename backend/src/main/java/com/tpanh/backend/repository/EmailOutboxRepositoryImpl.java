@@ -0,0 +1,37 @@
+package com.tpanh.backend.repository;
+
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+public class EmailOutboxRepositoryImpl implements EmailOutboxRepositoryCustom {
+
+    private static final String CLAIM_DUE_SQL =
+            "UPDATE email_outbox o SET next_attempt_at = now() + ? * INTERVAL '1 millisecond'"
+                    + " FROM (SELECT id FROM email_outbox"
+                    + " WHERE status = 'PENDING' AND next_attempt_at <= now()"
+                    + " ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) due"
+                    + " WHERE o.id = due.id"
+                    + " RETURNING o.id, o.recipient, o.subject, o.body, o.attempts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<PendingEmailView> claimDue(final int limit, final Duration lease) {
+        return jdbcTemplate.query(
+                CLAIM_DUE_SQL,
+                (resultSet, rowNum) ->
+                        new PendingEmailView(
+                                resultSet.getInt("id"),
+                                resultSet.getString("recipient"),
+                                resultSet.getString("subject"),
+                                resultSet.getString("body"),
+                                resultSet.getInt("attempts")),
+                lease.toMillis(),
+                limit);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 1 dòng của {@link InvoiceRepositoryCustom#findDetailById}: hóa đơn cùng phòng, tòa nhà, người
+ * thuê, đọc bằng 1 query. Chỉ số và giá điện nước là ảnh chụp lưu trên hóa đơn lúc tính tiền.
+ */
+public record InvoiceDetailView(
+        Integer id,
+        String period,
+        Integer roomPrice,
+        Integer elecAmount,
+        Integer waterAmount,
+        Integer totalAmount,
+        InvoiceStatus status,
+        LocalDate dueDate,
+        LocalDateTime paidAt,
+        LocalDateTime createdAt,
+        Integer roomId,
+        String roomNo,
+        Integer buildingId,
+        String buildingName,
+        Integer tenantId,
+        String tenantName,
+        String tenantPhone,
+        Usage elec,
+        Usage water,
+        int[] elecTierThresholds,
+        int[] elecTierPrices,
+        WaterCalcMethod waterCalcMethod) {
+
+    /** Chỉ số cũ/mới, lượng tiêu thụ và đơn giá của 1 loại tiện ích, {@code null} nếu không có. */
+    public record Usage(
+            Integer previousIndex, Integer currentIndex, Integer usage, Integer unitPrice) {}
+}
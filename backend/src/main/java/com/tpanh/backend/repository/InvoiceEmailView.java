@@ -0,0 +1,14 @@
+package com.tpanh.backend.repository;
+
+import java.time.LocalDate;
+
+/** 1 hóa đơn cần gửi email kèm khách thuê nhận; {@code tenantId} null nếu chưa có khách thuê. */
+public record InvoiceEmailView(
+        Integer invoiceId,
+        String roomNo,
+        Integer tenantId,
+        String tenantName,
+        String email,
+        String period,
+        Integer totalAmount,
+        LocalDate dueDate) {}
@@ -0,0 +1,31 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface InvoiceGenerationJobRepository extends JpaRepository<InvoiceGenerationJob, UUID> {
+
+    boolean existsByIdAndBuildingManagerId(UUID id, String managerId);
+
+    /** Chuyển sang FAILED các job còn dở không cập nhật tiến độ từ trước {@code before}. */
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE InvoiceGenerationJob j SET j.status = :failed, j.errorMessage = :error, "
+                    + "j.finishedAt = :now, j.updatedAt = :now "
+                    + "WHERE j.status IN :active AND j.updatedAt < :before")
+    int failStale(
+            @Param("active") Collection<InvoiceGenerationJobStatus> active,
+            @Param("failed") InvoiceGenerationJobStatus failed,
+            @Param("before") LocalDateTime before,
+            @Param("now") LocalDateTime now,
+            @Param("error") String error);
+}
@@ -0,0 +1,6 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.enums.InvoiceStatus;
+
+/** Trạng thái và số tiền của 1 hóa đơn đã khóa để thanh toán, đủ để kiểm tra và ghi log. */
+public record InvoicePaymentView(Integer id, InvoiceStatus status, Integer totalAmount) {}
@@ -0,0 +1,31 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.entity.InvoiceReminder;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface InvoiceReminderRepository extends JpaRepository<InvoiceReminder, Integer> {
+
+    /**
+     * Ghi kết quả nhắc hạn của nhiều hóa đơn trong 1 câu lệnh, theo hạn thanh toán hiện tại của hóa
+     * đơn. Lần gửi lại sau lỗi ghi đè kết quả cũ.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    "INSERT INTO invoice_reminders (invoice_id, due_date, status, attempted_at) "
+                            + "SELECT id, due_date, :status, now() FROM invoices "
+                            + "WHERE id IN (:invoiceIds) "
+                            + "ON CONFLICT (invoice_id, due_date) DO UPDATE "
+                            + "SET status = EXCLUDED.status, attempted_at = EXCLUDED.attempted_at",
+            nativeQuery = true)
+    int record(
+            @Param("invoiceIds") Collection<Integer> invoiceIds, @Param("status") String status);
+}
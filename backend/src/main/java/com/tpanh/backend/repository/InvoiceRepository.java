@@ -2,16 +2,33 @@ package com.tpanh.backend.repository;
 
 import com.tpanh.backend.entity.Invoice;
 import com.tpanh.backend.enums.InvoiceStatus;
+import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
+public interface InvoiceRepository
+        extends JpaRepository<Invoice, Integer>,
+                JpaSpecificationExecutor<Invoice>,
+                InvoiceRepositoryCustom {
 
-    boolean existsByRoomIdAndPeriod(Integer roomId, String period);
+    /** Các cột của {@link InvoiceSummaryView} cho các query phân trang keyset. */
+    String SCROLL_SELECT =
+            "SELECT new com.tpanh.backend.repository.InvoiceSummaryView(i.id, r.roomNo, t.name, "
+                    + "i.period, i.roomPrice, i.elecAmount, i.waterAmount, i.totalAmount, "
+                    + "i.status, i.dueDate) "
+                    + "FROM Invoice i JOIN i.room r LEFT JOIN i.tenant t ";
 
     Page<Invoice> findByRoomBuildingIdAndPeriod(
             Integer buildingId, String period, Pageable pageable);
@@ -23,21 +40,146 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
             Integer buildingId, String period, InvoiceStatus status, Pageable pageable);
 
     @Query(
-            "SELECT i FROM Invoice i WHERE i.room.building.id = :buildingId "
+            "SELECT new com.tpanh.backend.repository.InvoiceSummaryView(i.id, r.roomNo, t.name, "
+                    + "i.period, i.roomPrice, i.elecAmount, i.waterAmount, i.totalAmount, "
+                    + "i.status, i.dueDate) "
+                    + "FROM Invoice i JOIN i.room r LEFT JOIN i.tenant t "
+                    + "WHERE r.building.id = :buildingId "
                     + "AND (:period IS NULL OR i.period = :period) "
                     + "AND (:status IS NULL OR i.status = :status)")
-    Page<Invoice> findByBuildingIdWithFilters(
+    Slice<InvoiceSummaryView> findByBuildingIdWithFilters(
             @Param("buildingId") Integer buildingId,
             @Param("period") String period,
             @Param("status") InvoiceStatus status,
             Pageable pageable);
 
+    /**
+     * Trang đầu của phân trang keyset theo {@link #findByBuildingIdWithFilters}: sắp theo kỳ rồi id
+     * giảm dần, đi theo index {@code (building_id, period DESC, id DESC)}.
+     */
+    @Query(
+            SCROLL_SELECT
+                    + "WHERE i.buildingId = :buildingId "
+                    + "AND (:period IS NULL OR i.period = :period) "
+                    + "AND (:status IS NULL OR i.status = :status) "
+                    + "ORDER BY i.period DESC, i.id DESC")
+    List<InvoiceSummaryView> scrollByBuildingIdWithFilters(
+            @Param("buildingId") Integer buildingId,
+            @Param("period") String period,
+            @Param("status") InvoiceStatus status,
+            Limit limit);
+
+    /**
+     * Các trang sau của {@link #scrollByBuildingIdWithFilters}: so sánh bộ {@code (period, id)} để
+     * cursor là cận của lần quét index thay vì điều kiện lọc từng dòng.
+     */
+    @Query(
+            SCROLL_SELECT
+                    + "WHERE i.buildingId = :buildingId "
+                    + "AND (:period IS NULL OR i.period = :period) "
+                    + "AND (:status IS NULL OR i.status = :status) "
+                    + "AND (i.period, i.id) < (:afterPeriod, :afterId) "
+                    + "ORDER BY i.period DESC, i.id DESC")
+    List<InvoiceSummaryView> scrollByBuildingIdWithFiltersAfter(
+            @Param("buildingId") Integer buildingId,
+            @Param("period") String period,
+            @Param("status") InvoiceStatus status,
+            @Param("afterPeriod") String afterPeriod,
+            @Param("afterId") Integer afterId,
+            Limit limit);
+
     List<Invoice> findByRoomBuildingIdAndPeriod(Integer buildingId, String period);
 
+    @Query(
+            "SELECT i.room.id FROM Invoice i WHERE i.room.building.id = :buildingId "
+                    + "AND i.period = :period")
+    List<Integer> findRoomIdsByBuildingIdAndPeriod(
+            @Param("buildingId") Integer buildingId, @Param("period") String period);
+
+    List<Invoice> findByRoomIdAndPeriodInAndStatus(
+            Integer roomId, Collection<String> periods, InvoiceStatus status);
+
     boolean existsByIdAndRoomBuildingManagerId(Integer id, String managerId);
 
+    long countByIdInAndRoomBuildingManagerId(Collection<Integer> ids, String managerId);
+
+    @Query(
+            value =
+                    "SELECT new com.tpanh.backend.repository.InvoiceSummaryView(i.id, r.roomNo, "
+                            + "t.name, i.period, i.roomPrice, i.elecAmount, i.waterAmount, "
+                            + "i.totalAmount, i.status, i.dueDate) "
+                            + "FROM Invoice i JOIN i.room r LEFT JOIN i.tenant t "
+                            + "WHERE i.generationJobId = :jobId",
+            countQuery = "SELECT COUNT(i) FROM Invoice i WHERE i.generationJobId = :jobId")
+    Page<InvoiceSummaryView> findSummariesByGenerationJobId(
+            @Param("jobId") UUID jobId, Pageable pageable);
+
+    /**
+     * Hóa đơn đến hạn trong {@code [from, to]} chưa được nhắc thành công theo hạn hiện tại, sắp
+     * theo khách thuê để gom thành 1 email mỗi người. Khách thuê chia phân vùng theo
+     * {@code tenantId mod shardCount}, nên hóa đơn của 1 người luôn nằm chung 1 phân vùng.
+     */
+    @Query(
+            "SELECT new com.tpanh.backend.repository.ReminderCandidateView(i.id, t.id, t.name, "
+                    + "t.email, r.roomNo, i.period, i.totalAmount, i.dueDate) "
+                    + "FROM Invoice i JOIN i.room r JOIN i.tenant t "
+                    + "WHERE i.status IN :statuses AND i.dueDate BETWEEN :from AND :to "
+                    + "AND t.email IS NOT NULL AND MOD(t.id, :shardCount) = :shardIndex "
+                    + "AND NOT EXISTS (SELECT 1 FROM InvoiceReminder ir WHERE ir.invoice = i "
+                    + "AND ir.dueDate = i.dueDate "
+                    + "AND ir.status = com.tpanh.backend.enums.ReminderStatus.SENT) "
+                    + "ORDER BY t.id, i.dueDate, i.id")
+    List<ReminderCandidateView> findReminderCandidates(
+            @Param("statuses") Collection<InvoiceStatus> statuses,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("shardCount") int shardCount,
+            @Param("shardIndex") int shardIndex);
+
     @Query(
-            "SELECT i FROM Invoice i WHERE i.status IN ('DRAFT', 'UNPAID') "
-                    + "AND i.dueDate < :today")
-    List<Invoice> findOverdueInvoices(@Param("today") java.time.LocalDate today);
+            "SELECT new com.tpanh.backend.repository.InvoiceSummaryView(i.id, r.roomNo, t.name, "
+                    + "i.period, i.roomPrice, i.elecAmount, i.waterAmount, i.totalAmount, "
+                    + "i.status, i.dueDate) "
+                    + "FROM Invoice i JOIN i.room r LEFT JOIN i.tenant t "
+                    + "WHERE i.id IN :ids")
+    List<InvoiceSummaryView> findSummariesByIds(@Param("ids") Collection<Integer> ids);
+
+    /** Hóa đơn của tòa nhà theo trạng thái, dùng để dựng chỉ mục đối chiếu sao kê ngân hàng. */
+    @Query(
+            "SELECT new com.tpanh.backend.repository.OpenInvoiceView(i.id, r.roomNo, i.period, "
+                    + "i.totalAmount) "
+                    + "FROM Invoice i JOIN i.room r "
+                    + "WHERE r.building.id = :buildingId AND i.status IN :statuses")
+    List<OpenInvoiceView> findOpenInvoices(
+            @Param("buildingId") Integer buildingId,
+            @Param("statuses") Collection<InvoiceStatus> statuses);
+
+    /** Hóa đơn của tòa nhà trong kỳ (trừ hóa đơn đã hủy) kèm email khách thuê, theo số phòng. */
+    @Query(
+            "SELECT new com.tpanh.backend.repository.InvoiceEmailView(i.id, r.roomNo, t.id, "
+                    + "t.name, t.email, i.period, i.totalAmount, i.dueDate) "
+                    + "FROM Invoice i JOIN i.room r LEFT JOIN i.tenant t "
+                    + "WHERE r.building.id = :buildingId AND i.period = :period "
+                    + "AND i.status <> com.tpanh.backend.enums.InvoiceStatus.VOID "
+                    + "ORDER BY r.roomNo, i.id")
+    List<InvoiceEmailView> findEmailRecipients(
+            @Param("buildingId") Integer buildingId, @Param("period") String period);
+
+    /**
+     * Điều kiện lọc giống {@link #findByBuildingIdWithFilters}, dùng để đếm tổng số dòng.
+     */
+    static Specification<Invoice> byBuildingWithFilters(
+            final Integer buildingId, final String period, final InvoiceStatus status) {
+        return (root, query, cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("room").get("building").get("id"), buildingId));
+            if (period != null) {
+                predicates.add(cb.equal(root.get("period"), period));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
 }
@@ -0,0 +1,55 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.util.JobShard;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface InvoiceRepositoryCustom {
+
+    /**
+     * Thêm hàng loạt hóa đơn bằng 1 câu {@code INSERT ... ON CONFLICT (room_id, period) DO NOTHING
+     * RETURNING}. Phòng đã có hóa đơn trong kỳ (kể cả do request khác chèn đồng thời) bị bỏ qua.
+     *
+     * @return các hóa đơn thực sự được thêm, đã gán id
+     */
+    List<Invoice> insertIfAbsent(List<Invoice> invoices);
+
+    /**
+     * Chuyển tối đa {@code limit} hóa đơn DRAFT/UNPAID có {@code due_date < today} thuộc phân vùng
+     * {@code shard} sang OVERDUE và ghi 1 log MARKED_OVERDUE cho mỗi hóa đơn, bằng 1 câu {@code
+     * UPDATE ... RETURNING} và {@code INSERT ... SELECT} trong cùng 1 transaction. Hóa đơn đang bị
+     * transaction khác khóa được bỏ qua, đợt sau sẽ lấy lại.
+     *
+     * @return id các hóa đơn vừa chuyển sang OVERDUE, ít hơn {@code limit} nghĩa là đã hết
+     */
+    List<Integer> markOverdue(LocalDate today, JobShard shard, int limit);
+
+    /**
+     * Chi tiết hóa đơn bằng 1 query: join phòng, tòa nhà, người thuê; chỉ số và giá điện nước
+     * đọc từ ảnh chụp lưu trên hóa đơn.
+     */
+    Optional<InvoiceDetailView> findDetailById(Integer id);
+
+    /**
+     * Như {@link #findDetailById} cho nhiều hóa đơn trong cùng 1 query ({@code id = ANY(?)}). Id
+     * không tồn tại bị bỏ qua, thứ tự kết quả không theo thứ tự {@code ids}.
+     */
+    List<InvoiceDetailView> findDetailsByIds(Collection<Integer> ids);
+
+    /**
+     * Khóa các hóa đơn ({@code SELECT ... FOR UPDATE}, theo thứ tự id để 2 request thanh toán
+     * chồng nhau không deadlock) và đọc trạng thái hiện tại. Id không tồn tại bị bỏ qua.
+     */
+    List<InvoicePaymentView> lockForPayment(Collection<Integer> ids);
+
+    /**
+     * Chuyển các hóa đơn DRAFT/UNPAID trong {@code ids} sang PAID bằng 1 câu UPDATE.
+     *
+     * @return số hóa đơn đã chuyển
+     */
+    int markPaid(Collection<Integer> ids, LocalDateTime paidAt);
+}
@@ -0,0 +1,356 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.entity.IdGeneration;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import com.tpanh.backend.util.JobShard;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+
+    // Mỗi giá trị nextval là đầu trên của 1 block ALLOCATION_SIZE id, giống pooled optimizer của
+    // Hibernate, nên id cấp ở đây không trùng với id Hibernate tự cấp
+    private static final String NEXT_ID_BLOCKS_SQL =
+            "SELECT nextval('invoices_id_seq') FROM generate_series(1, ?)";
+
+    // Mảng 2 chiều bị unnest trải phẳng nên bậc thang giá điện đi qua dạng text '{50,100}' rồi cast
+    // lại int[] theo từng dòng
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO invoices (id, room_id, building_id, tenant_id, period, room_price,"
+                    + " elec_amount, water_amount, total_amount, status, due_date, created_at,"
+                    + " generation_job_id, elec_previous_index, elec_current_index, elec_usage,"
+                    + " elec_unit_price, elec_tier_thresholds, elec_tier_prices,"
+                    + " water_previous_index, water_current_index, water_usage, water_unit_price,"
+                    + " water_calc_method)"
+                    + " SELECT id, room_id, building_id, tenant_id, period, room_price,"
+                    + " elec_amount, water_amount, total_amount, status, due_date, created_at,"
+                    + " generation_job_id, elec_previous_index, elec_current_index, elec_usage,"
+                    + " elec_unit_price, elec_tier_thresholds::int[], elec_tier_prices::int[],"
+                    + " water_previous_index, water_current_index, water_usage, water_unit_price,"
+                    + " water_calc_method"
+                    + " FROM unnest(?::int[], ?::int[], ?::int[], ?::int[], ?::varchar[], ?::int[],"
+                    + " ?::int[], ?::int[], ?::int[], ?::varchar[], ?::date[], ?::timestamp[],"
+                    + " ?::uuid[], ?::int[], ?::int[], ?::int[], ?::int[], ?::text[], ?::text[],"
+                    + " ?::int[], ?::int[], ?::int[], ?::int[], ?::varchar[])"
+                    + " AS t(id, room_id, building_id, tenant_id, period, room_price,"
+                    + " elec_amount, water_amount, total_amount, status, due_date, created_at,"
+                    + " generation_job_id, elec_previous_index, elec_current_index, elec_usage,"
+                    + " elec_unit_price, elec_tier_thresholds, elec_tier_prices,"
+                    + " water_previous_index, water_current_index, water_usage, water_unit_price,"
+                    + " water_calc_method)"
+                    + " ON CONFLICT (room_id, period) DO NOTHING"
+                    + " RETURNING id";
+
+    private static final int BLOCK = IdGeneration.ALLOCATION_SIZE;
+
+    // 1 câu cho cả đợt: khóa và đổi trạng thái, rồi ghi log cho đúng các dòng RETURNING. Id log lấy
+    // theo block như NEXT_ID_BLOCKS_SQL: dòng thứ n dùng block n / ALLOCATION_SIZE
+    private static final String MARK_OVERDUE_SQL =
+            "WITH due AS ("
+                    + " SELECT id, status FROM invoices"
+                    + " WHERE status IN ('DRAFT', 'UNPAID') AND due_date < ? AND id % ? = ?"
+                    + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED),"
+                    + " marked AS ("
+                    + " UPDATE invoices i SET status = 'OVERDUE', updated_at = now() FROM due"
+                    + " WHERE i.id = due.id"
+                    + " RETURNING i.id, due.status AS old_status, i.total_amount),"
+                    + " numbered AS ("
+                    + " SELECT id, old_status, total_amount, row_number() OVER (ORDER BY id) - 1 AS n"
+                    + " FROM marked),"
+                    + " blocks AS ("
+                    + " SELECT b, nextval('payment_logs_id_seq') AS upper_bound"
+                    + " FROM generate_series(1, (SELECT (count(*) + "
+                    + (BLOCK - 1)
+                    + ") / "
+                    + BLOCK
+                    + " FROM marked)) b),"
+                    + " logged AS ("
+                    + " INSERT INTO payment_logs (id, invoice_id, action, old_status, new_status,"
+                    + " amount, performed_by, note)"
+                    + " SELECT upper_bound - "
+                    + (BLOCK - 1)
+                    + " + n % "
+                    + BLOCK
+                    + ", id, 'MARKED_OVERDUE', old_status, 'OVERDUE', total_amount, 'SYSTEM',"
+                    + " 'Auto marked overdue by scheduler'"
+                    + " FROM numbered JOIN blocks ON b = n / "
+                    + BLOCK
+                    + " + 1)"
+                    + " SELECT id FROM marked";
+
+    private static final String FIND_DETAIL_SQL =
+            "SELECT i.id, i.period, i.room_price, i.elec_amount, i.water_amount, i.total_amount,"
+                    + " i.status, i.due_date, i.paid_at, i.created_at,"
+                    + " r.id AS room_id, r.room_no, b.id AS building_id, b.name AS building_name,"
+                    + " t.id AS tenant_id, t.name AS tenant_name, t.phone AS tenant_phone,"
+                    + " i.elec_previous_index, i.elec_current_index, i.elec_usage,"
+                    + " i.elec_unit_price, i.elec_tier_thresholds, i.elec_tier_prices,"
+                    + " i.water_previous_index, i.water_current_index, i.water_usage,"
+                    + " i.water_unit_price, i.water_calc_method"
+                    + " FROM invoices i"
+                    + " JOIN rooms r ON r.id = i.room_id"
+                    + " JOIN buildings b ON b.id = r.building_id"
+                    + " LEFT JOIN tenants t ON t.id = i.tenant_id"
+                    + " WHERE i.id = ANY(?::int[])";
+
+    private static final String LOCK_FOR_PAYMENT_SQL =
+            "SELECT id, status, total_amount FROM invoices WHERE id = ANY(?::int[])"
+                    + " ORDER BY id FOR UPDATE";
+
+    private static final String MARK_PAID_SQL =
+            "UPDATE invoices SET status = 'PAID', paid_at = ?, updated_at = now()"
+                    + " WHERE id = ANY(?::int[]) AND status IN ('DRAFT', 'UNPAID')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Invoice> insertIfAbsent(final List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return List.of();
+        }
+        applyPrePersistDefaults(invoices);
+        assignIds(invoices);
+        final Set<Integer> insertedIds =
+                new HashSet<>(
+                        jdbcTemplate.query(
+                                connection -> prepareInsert(connection, invoices),
+                                (resultSet, rowNum) -> resultSet.getInt("id")));
+        return invoices.stream().filter(invoice -> insertedIds.contains(invoice.getId())).toList();
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> markOverdue(
+            final LocalDate today, final JobShard shard, final int limit) {
+        return jdbcTemplate.queryForList(
+                MARK_OVERDUE_SQL, Integer.class, today, shard.count(), shard.index(), limit);
+    }
+
+    @Override
+    public Optional<InvoiceDetailView> findDetailById(final Integer id) {
+        return findDetailsByIds(List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    public List<InvoiceDetailView> findDetailsByIds(final Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                FIND_DETAIL_SQL,
+                (resultSet, rowNum) -> mapDetail(resultSet),
+                (Object) ids.toArray(Integer[]::new));
+    }
+
+    @Override
+    public List<InvoicePaymentView> lockForPayment(final Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                LOCK_FOR_PAYMENT_SQL,
+                (resultSet, rowNum) ->
+                        new InvoicePaymentView(
+                                resultSet.getInt("id"),
+                                InvoiceStatus.valueOf(resultSet.getString("status")),
+                                resultSet.getObject("total_amount", Integer.class)),
+                (Object) ids.toArray(Integer[]::new));
+    }
+
+    @Override
+    public int markPaid(final Collection<Integer> ids, final LocalDateTime paidAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(MARK_PAID_SQL, paidAt, ids.toArray(Integer[]::new));
+    }
+
+    // INSERT native không đi qua @PrePersist của Invoice
+    private void applyPrePersistDefaults(final List<Invoice> invoices) {
+        final LocalDateTime now = LocalDateTime.now();
+        for (final Invoice invoice : invoices) {
+            if (invoice.getCreatedAt() == null) {
+                invoice.setCreatedAt(now);
+            }
+            if (invoice.getStatus() == null) {
+                invoice.setStatus(InvoiceStatus.DRAFT);
+            }
+            if (invoice.getBuildingId() == null) {
+                invoice.setBuildingId(invoice.getRoom().getBuilding().getId());
+            }
+        }
+    }
+
+    private void assignIds(final List<Invoice> invoices) {
+        final int allocationSize = IdGeneration.ALLOCATION_SIZE;
+        final int blocks = (invoices.size() + allocationSize - 1) / allocationSize;
+        final List<Long> upperBounds =
+                jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks);
+        for (int i = 0; i < invoices.size(); i++) {
+            final long upperBound = upperBounds.get(i / allocationSize);
+            invoices.get(i).setId((int) (upperBound - allocationSize + 1 + i % allocationSize));
+        }
+    }
+
+    private PreparedStatement prepareInsert(
+            final Connection connection, final List<Invoice> invoices) throws SQLException {
+        // Thứ tự phải khớp với danh sách cột trong INSERT_IF_ABSENT_SQL
+        final Array[] columns = {
+            ints(connection, invoices, Invoice::getId),
+            ints(connection, invoices, invoice -> invoice.getRoom().getId()),
+            ints(connection, invoices, Invoice::getBuildingId),
+            ints(connection, invoices, InvoiceRepositoryImpl::tenantId),
+            texts(connection, "varchar", invoices, Invoice::getPeriod),
+            ints(connection, invoices, Invoice::getRoomPrice),
+            ints(connection, invoices, Invoice::getElecAmount),
+            ints(connection, invoices, Invoice::getWaterAmount),
+            ints(connection, invoices, Invoice::getTotalAmount),
+            texts(connection, "varchar", invoices, Invoice::getStatus),
+            texts(connection, "date", invoices, Invoice::getDueDate),
+            texts(connection, "timestamp", invoices, Invoice::getCreatedAt),
+            texts(connection, "uuid", invoices, Invoice::getGenerationJobId)
+        };
+        final PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT_SQL);
+        int index = 1;
+        for (final Array column : columns) {
+            statement.setArray(index++, column);
+        }
+        for (final Array column : usageColumns(connection, invoices)) {
+            statement.setArray(index++, column);
+        }
+        return statement;
+    }
+
+    // Ảnh chụp chỉ số và giá, nối tiếp ngay sau các cột của prepareInsert
+    private Array[] usageColumns(final Connection connection, final List<Invoice> invoices)
+            throws SQLException {
+        return new Array[] {
+            ints(connection, invoices, Invoice::getElecPreviousIndex),
+            ints(connection, invoices, Invoice::getElecCurrentIndex),
+            ints(connection, invoices, Invoice::getElecUsage),
+            ints(connection, invoices, Invoice::getElecUnitPrice),
+            texts(
+                    connection,
+                    "text",
+                    invoices,
+                    invoice -> arrayLiteral(invoice.getElecTierThresholds())),
+            texts(
+                    connection,
+                    "text",
+                    invoices,
+                    invoice -> arrayLiteral(invoice.getElecTierPrices())),
+            ints(connection, invoices, Invoice::getWaterPreviousIndex),
+            ints(connection, invoices, Invoice::getWaterCurrentIndex),
+            ints(connection, invoices, Invoice::getWaterUsage),
+            ints(connection, invoices, Invoice::getWaterUnitPrice),
+            texts(connection, "varchar", invoices, Invoice::getWaterCalcMethod)
+        };
+    }
+
+    private static String arrayLiteral(final int[] values) {
+        if (values == null) {
+            return null;
+        }
+        return Arrays.stream(values)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static Integer tenantId(final Invoice invoice) {
+        return invoice.getTenant() != null ? invoice.getTenant().getId() : null;
+    }
+
+    private Array ints(
+            final Connection connection,
+            final List<Invoice> invoices,
+            final Function<Invoice, Integer> getter)
+            throws SQLException {
+        return connection.createArrayOf("integer", column(invoices, getter, Integer[]::new));
+    }
+
+    private Array texts(
+            final Connection connection,
+            final String type,
+            final List<Invoice> invoices,
+            final Function<Invoice, Object> getter)
+            throws SQLException {
+        final Function<Invoice, String> asText =
+                invoice -> Objects.toString(getter.apply(invoice), null);
+        return connection.createArrayOf(type, column(invoices, asText, String[]::new));
+    }
+
+    private static <T> T[] column(
+            final List<Invoice> invoices,
+            final Function<Invoice, T> getter,
+            final IntFunction<T[]> arrayFactory) {
+        return invoices.stream().map(getter).toArray(arrayFactory);
+    }
+
+    private static InvoiceDetailView mapDetail(final ResultSet rs) throws SQLException {
+        return new InvoiceDetailView(
+                rs.getInt("id"),
+                rs.getString("period"),
+                rs.getObject("room_price", Integer.class),
+                rs.getObject("elec_amount", Integer.class),
+                rs.getObject("water_amount", Integer.class),
+                rs.getObject("total_amount", Integer.class),
+                InvoiceStatus.valueOf(rs.getString("status")),
+                rs.getObject("due_date", LocalDate.class),
+                rs.getObject("paid_at", LocalDateTime.class),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getInt("room_id"),
+                rs.getString("room_no"),
+                rs.getInt("building_id"),
+                rs.getString("building_name"),
+                rs.getObject("tenant_id", Integer.class),
+                rs.getString("tenant_name"),
+                rs.getString("tenant_phone"),
+                mapUsage(rs, "elec"),
+                mapUsage(rs, "water"),
+                intArray(rs, "elec_tier_thresholds"),
+                intArray(rs, "elec_tier_prices"),
+                waterCalcMethod(rs.getString("water_calc_method")));
+    }
+
+    private static InvoiceDetailView.Usage mapUsage(final ResultSet rs, final String prefix)
+            throws SQLException {
+        return new InvoiceDetailView.Usage(
+                rs.getObject(prefix + "_previous_index", Integer.class),
+                rs.getObject(prefix + "_current_index", Integer.class),
+                rs.getObject(prefix + "_usage", Integer.class),
+                rs.getObject(prefix + "_unit_price", Integer.class));
+    }
+
+    private static WaterCalcMethod waterCalcMethod(final String value) {
+        return value != null ? WaterCalcMethod.valueOf(value) : null;
+    }
+
+    private static int[] intArray(final ResultSet rs, final String column) throws SQLException {
+        final Array array = rs.getArray(column);
+        if (array == null) {
+            return null;
+        }
+        return Arrays.stream((Integer[]) array.getArray()).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,20 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.enums.InvoiceStatus;
+import java.time.LocalDate;
+
+/**
+ * 1 dòng của danh sách hóa đơn: chỉ các cột {@code InvoiceResponse} cần, đọc bằng constructor
+ * expression nên không nạp entity phòng/tòa nhà/người thuê (EAGER) theo từng hóa đơn.
+ */
+public record InvoiceSummaryView(
+        Integer id,
+        String roomNo,
+        String tenantName,
+        String period,
+        Integer roomPrice,
+        Integer elecAmount,
+        Integer waterAmount,
+        Integer totalAmount,
+        InvoiceStatus status,
+        LocalDate dueDate) {}
@@ -2,11 +2,23 @@ package com.tpanh.backend.repository;
 
 import com.tpanh.backend.entity.MeterRecord;
 import com.tpanh.backend.enums.MeterType;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface MeterRecordRepository extends JpaRepository<MeterRecord, Integer> {
 
     Optional<MeterRecord> findByRoomIdAndPeriodAndType(
             Integer roomId, String period, MeterType type);
+
+    List<MeterRecord> findByRoomIdAndPeriod(Integer roomId, String period);
+
+    /** Chỉ số đồng hồ của cả tòa nhà trong kỳ, phòng được fetch join trong cùng query. */
+    @Query(
+            "SELECT m FROM MeterRecord m JOIN FETCH m.room r JOIN FETCH r.building b "
+                    + "WHERE b.id = :buildingId AND m.period = :period")
+    List<MeterRecord> findByRoomBuildingIdAndPeriod(
+            @Param("buildingId") Integer buildingId, @Param("period") String period);
 }
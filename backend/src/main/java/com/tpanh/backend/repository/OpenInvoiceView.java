@@ -0,0 +1,4 @@
+package com.tpanh.backend.repository;
+
+/** 1 hóa đơn còn chờ thanh toán, đủ để đối chiếu với giao dịch chuyển khoản. */
+public record OpenInvoiceView(Integer id, String roomNo, String period, Integer totalAmount) {}
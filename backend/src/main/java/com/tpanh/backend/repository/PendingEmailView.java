@@ -0,0 +1,5 @@
+package com.tpanh.backend.repository;
+
+/** Email outbox vừa được worker nhận gửi, kèm số lần đã thử trước đó. */
+public record PendingEmailView(
+        Integer id, String recipient, String subject, String body, int attempts) {}
@@ -0,0 +1,14 @@
+package com.tpanh.backend.repository;
+
+import java.time.LocalDate;
+
+/** 1 hóa đơn sắp đến hạn cần nhắc, kèm khách thuê nhận email nhắc. */
+public record ReminderCandidateView(
+        Integer invoiceId,
+        Integer tenantId,
+        String tenantName,
+        String email,
+        String roomNo,
+        String period,
+        Integer totalAmount,
+        LocalDate dueDate) {}
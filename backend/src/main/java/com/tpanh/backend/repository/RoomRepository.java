@@ -4,11 +4,18 @@ import com.tpanh.backend.entity.Room;
 import com.tpanh.backend.enums.RoomStatus;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RoomRepository extends JpaRepository<Room, Integer> {
+public interface RoomRepository
+        extends JpaRepository<Room, Integer>, JpaSpecificationExecutor<Room> {
 
     boolean existsByIdAndBuildingManagerId(Integer id, String managerId);
 
@@ -24,11 +31,58 @@ public interface RoomRepository extends JpaRepository<Room, Integer> {
 
     List<Room> findByBuildingId(Integer buildingId);
 
-    Page<Room> findByBuildingId(Integer buildingId, Pageable pageable);
+    @Query(
+            "SELECT new com.tpanh.backend.repository.RoomSummaryView(r.id, b.id, b.name, "
+                    + "r.roomNo, r.price, r.status) FROM Room r JOIN r.building b "
+                    + "WHERE b.id = :buildingId AND (:status IS NULL OR r.status = :status)")
+    Slice<RoomSummaryView> findSummariesByBuildingId(
+            @Param("buildingId") Integer buildingId,
+            @Param("status") RoomStatus status,
+            Pageable pageable);
 
-    Page<Room> findByBuildingIdAndStatus(Integer buildingId, RoomStatus status, Pageable pageable);
+    /**
+     * Trang đầu của phân trang keyset theo {@link #findSummariesByBuildingId}: sắp theo số phòng
+     * rồi id tăng dần.
+     */
+    @Query(
+            "SELECT new com.tpanh.backend.repository.RoomSummaryView(r.id, b.id, b.name, "
+                    + "r.roomNo, r.price, r.status) FROM Room r JOIN r.building b "
+                    + "WHERE b.id = :buildingId AND (:status IS NULL OR r.status = :status) "
+                    + "ORDER BY r.roomNo, r.id")
+    List<RoomSummaryView> scrollSummariesByBuildingId(
+            @Param("buildingId") Integer buildingId,
+            @Param("status") RoomStatus status,
+            Limit limit);
+
+    /**
+     * Các trang sau của {@link #scrollSummariesByBuildingId}, bắt đầu ngay sau bộ {@code
+     * (afterRoomNo, afterId)} của cursor.
+     */
+    @Query(
+            "SELECT new com.tpanh.backend.repository.RoomSummaryView(r.id, b.id, b.name, "
+                    + "r.roomNo, r.price, r.status) FROM Room r JOIN r.building b "
+                    + "WHERE b.id = :buildingId AND (:status IS NULL OR r.status = :status) "
+                    + "AND (r.roomNo, r.id) > (:afterRoomNo, :afterId) "
+                    + "ORDER BY r.roomNo, r.id")
+    List<RoomSummaryView> scrollSummariesByBuildingIdAfter(
+            @Param("buildingId") Integer buildingId,
+            @Param("status") RoomStatus status,
+            @Param("afterRoomNo") String afterRoomNo,
+            @Param("afterId") Integer afterId,
+            Limit limit);
 
     List<Room> findByBuildingIdAndStatus(Integer buildingId, RoomStatus status);
 
     boolean existsByBuildingIdAndBuildingManagerId(Integer buildingId, String managerId);
+
+    /** Phòng của tòa nhà, lọc theo trạng thái nếu có; dùng để đếm tổng số dòng. */
+    static Specification<Room> byBuildingAndStatus(
+            final Integer buildingId, final RoomStatus status) {
+        return (root, query, cb) ->
+                status != null
+                        ? cb.and(
+                                cb.equal(root.get("building").get("id"), buildingId),
+                                cb.equal(root.get("status"), status))
+                        : cb.equal(root.get("building").get("id"), buildingId);
+    }
 }
@@ -0,0 +1,12 @@
+package com.tpanh.backend.repository;
+
+import com.tpanh.backend.enums.RoomStatus;
+
+/** 1 dòng của danh sách phòng, gồm tên tòa nhà lấy bằng join trong cùng query. */
+public record RoomSummaryView(
+        Integer id,
+        Integer buildingId,
+        String buildingName,
+        String roomNo,
+        Integer price,
+        RoomStatus status) {}
@@ -1,15 +1,28 @@
 package com.tpanh.backend.repository;
 
 import com.tpanh.backend.entity.Tenant;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface TenantRepository extends JpaRepository<Tenant, Integer> {
+public interface TenantRepository
+        extends JpaRepository<Tenant, Integer>, JpaSpecificationExecutor<Tenant> {
+
+    /** Các cột của {@link TenantSummaryView}; LEFT JOIN vì phòng bị xóa thì room_id về null. */
+    String SUMMARY_SELECT =
+            "SELECT new com.tpanh.backend.repository.TenantSummaryView(t.id, r.id, r.roomNo, "
+                    + "t.name, t.phone, t.email, t.isContractHolder, t.startDate, "
+                    + "t.contractEndDate, t.endDate) FROM Tenant t LEFT JOIN t.room r ";
 
     Optional<Tenant> findByIdAndRoomBuildingManagerId(Integer id, String managerId);
 
@@ -19,30 +32,108 @@ public interface TenantRepository extends JpaRepository<Tenant, Integer> {
 
     Integer countByRoomId(Integer roomId);
 
+    /** Người đại diện đang ở của cả tòa nhà, phòng được fetch join trong cùng query. */
+    @Query(
+            "SELECT t FROM Tenant t JOIN FETCH t.room r JOIN FETCH r.building b "
+                    + "WHERE b.id = :buildingId AND t.isContractHolder = true "
+                    + "AND t.endDate IS NULL")
+    List<Tenant> findByRoomBuildingIdAndIsContractHolderTrueAndEndDateIsNull(
+            @Param("buildingId") Integer buildingId);
+
+    @Query(
+            "SELECT t.room.id AS roomId, COUNT(t) AS tenantCount FROM Tenant t "
+                    + "WHERE t.room.building.id = :buildingId GROUP BY t.room.id")
+    List<RoomTenantCount> countByRoomBuildingIdGroupByRoom(
+            @Param("buildingId") Integer buildingId);
+
     List<Tenant> findByRoomIdOrderByStartDateDesc(Integer roomId);
 
-    Page<Tenant> findByRoomIdOrderByStartDateDesc(Integer roomId, Pageable pageable);
+    @Query(
+            value = SUMMARY_SELECT + "WHERE r.id = :roomId ORDER BY t.startDate DESC",
+            countQuery = "SELECT COUNT(t) FROM Tenant t WHERE t.room.id = :roomId")
+    Page<TenantSummaryView> findSummariesByRoomId(
+            @Param("roomId") Integer roomId, Pageable pageable);
 
     boolean existsByIdAndRoomBuildingManagerId(Integer id, String managerId);
 
     @Query(
-            "SELECT t FROM Tenant t WHERE t.room.building.id = :buildingId "
-                    + "AND (:roomId IS NULL OR t.room.id = :roomId) "
+            SUMMARY_SELECT
+                    + "WHERE r.building.id = :buildingId "
+                    + "AND (:roomId IS NULL OR r.id = :roomId) "
                     + "AND (:active IS NULL OR (:active = true AND t.endDate IS NULL) OR (:active = false AND t.endDate IS NOT NULL))")
-    Page<Tenant> findByRoomBuildingId(
+    Slice<TenantSummaryView> findByRoomBuildingId(
             @Param("buildingId") Integer buildingId,
             @Param("roomId") Integer roomId,
             @Param("active") Boolean active,
             Pageable pageable);
 
     @Query(
-            "SELECT t FROM Tenant t WHERE t.room.id = :roomId "
+            SUMMARY_SELECT
+                    + "WHERE r.id = :roomId "
                     + "AND (:active IS NULL OR (:active = true AND t.endDate IS NULL) OR (:active = false AND t.endDate IS NOT NULL))")
-    Page<Tenant> findByRoomIdWithFilter(
+    Slice<TenantSummaryView> findByRoomIdWithFilter(
             @Param("roomId") Integer roomId, @Param("active") Boolean active, Pageable pageable);
 
     @Query(
-            "SELECT t FROM Tenant t WHERE "
-                    + "(:active IS NULL OR (:active = true AND t.endDate IS NULL) OR (:active = false AND t.endDate IS NOT NULL))")
-    Page<Tenant> findAllWithFilter(@Param("active") Boolean active, Pageable pageable);
+            SUMMARY_SELECT
+                    + "WHERE (:active IS NULL OR (:active = true AND t.endDate IS NULL) OR (:active = false AND t.endDate IS NOT NULL))")
+    Slice<TenantSummaryView> findAllWithFilter(@Param("active") Boolean active, Pageable pageable);
+
+    /** Trang đầu của phân trang keyset theo id giảm dần, cùng bộ lọc như {@link #withFilters}. */
+    @Query(
+            SUMMARY_SELECT
+                    + "WHERE (:buildingId IS NULL OR r.building.id = :buildingId) "
+                    + "AND (:roomId IS NULL OR r.id = :roomId) "
+                    + "AND (:active IS NULL OR (:active = true AND t.endDate IS NULL) "
+                    + "OR (:active = false AND t.endDate IS NOT NULL)) "
+                    + "ORDER BY t.id DESC")
+    List<TenantSummaryView> scrollWithFilters(
+            @Param("buildingId") Integer buildingId,
+            @Param("roomId") Integer roomId,
+            @Param("active") Boolean active,
+            Limit limit);
+
+    /** Các trang sau của {@link #scrollWithFilters}: chỉ các dòng có id nhỏ hơn {@code afterId}. */
+    @Query(
+            SUMMARY_SELECT
+                    + "WHERE (:buildingId IS NULL OR r.building.id = :buildingId) "
+                    + "AND (:roomId IS NULL OR r.id = :roomId) "
+                    + "AND (:active IS NULL OR (:active = true AND t.endDate IS NULL) "
+                    + "OR (:active = false AND t.endDate IS NOT NULL)) "
+                    + "AND t.id < :afterId "
+                    + "ORDER BY t.id DESC")
+    List<TenantSummaryView> scrollWithFiltersAfter(
+            @Param("buildingId") Integer buildingId,
+            @Param("roomId") Integer roomId,
+            @Param("active") Boolean active,
+            @Param("afterId") Integer afterId,
+            Limit limit);
+
+    /**
+     * Điều kiện lọc giống {@link #findByRoomBuildingId}, {@link #findByRoomIdWithFilter}, {@link
+     * #findAllWithFilter} và {@link #scrollWithFilters}, dùng để đếm tổng số dòng.
+     */
+    static Specification<Tenant> withFilters(
+            final Integer buildingId, final Integer roomId, final Boolean active) {
+        return (root, query, cb) -> {
+            final List<Predicate> predicates = new ArrayList<>();
+            if (buildingId != null) {
+                predicates.add(cb.equal(root.get("room").get("building").get("id"), buildingId));
+            }
+            if (roomId != null) {
+                predicates.add(cb.equal(root.get("room").get("id"), roomId));
+            }
+            if (active != null) {
+                final var endDate = root.get("endDate");
+                predicates.add(active ? cb.isNull(endDate) : cb.isNotNull(endDate));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    interface RoomTenantCount {
+        Integer getRoomId();
+
+        Long getTenantCount();
+    }
 }
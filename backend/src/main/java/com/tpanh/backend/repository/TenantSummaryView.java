@@ -0,0 +1,16 @@
+package com.tpanh.backend.repository;
+
+import java.time.LocalDate;
+
+/** 1 dòng của danh sách khách thuê; {@code roomId}/{@code roomNo} null nếu phòng đã bị xóa. */
+public record TenantSummaryView(
+        Integer id,
+        Integer roomId,
+        String roomNo,
+        String name,
+        String phone,
+        String email,
+        Boolean isContractHolder,
+        LocalDate startDate,
+        LocalDate contractEndDate,
+        LocalDate endDate) {}
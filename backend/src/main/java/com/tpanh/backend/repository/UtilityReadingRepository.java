@@ -1,20 +1,47 @@
 package com.tpanh.backend.repository;
 
 import com.tpanh.backend.entity.UtilityReading;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UtilityReadingRepository extends JpaRepository<UtilityReading, Integer> {
 
+    /** Các cột của {@link UtilityReadingSummaryView}, phòng join trong cùng query. */
+    String SUMMARY_SELECT =
+            "SELECT new com.tpanh.backend.repository.UtilityReadingSummaryView(u.id, r.id, "
+                    + "r.roomNo, u.month, u.electricIndex, u.waterIndex, u.imageEvidence, "
+                    + "u.createdAt) FROM UtilityReading u JOIN u.room r ";
+
     Optional<UtilityReading> findByRoomIdAndMonth(Integer roomId, String month);
 
-    List<UtilityReading> findByRoomIdOrderByMonthDesc(Integer roomId);
+    @Query(SUMMARY_SELECT + "WHERE r.id = :roomId ORDER BY u.month DESC")
+    List<UtilityReadingSummaryView> findSummariesByRoomId(@Param("roomId") Integer roomId);
+
+    @Query(SUMMARY_SELECT + "WHERE r.building.id = :buildingId AND u.month = :month")
+    List<UtilityReadingSummaryView> findSummariesByBuildingIdAndMonth(
+            @Param("buildingId") Integer buildingId, @Param("month") String month);
 
-    List<UtilityReading> findByRoomBuildingIdAndMonth(Integer buildingId, String month);
+    /** Chỉ số của cả tòa nhà trong các tháng, phòng được fetch join để không SELECT theo phòng. */
+    @Query(
+            "SELECT u FROM UtilityReading u JOIN FETCH u.room r JOIN FETCH r.building b "
+                    + "WHERE b.id = :buildingId AND u.month IN :months")
+    List<UtilityReading> findByRoomBuildingIdAndMonthIn(
+            @Param("buildingId") Integer buildingId, @Param("months") Collection<String> months);
+
+    List<UtilityReading> findByRoomIdAndMonthIn(Integer roomId, Collection<String> months);
 
     boolean existsByRoomIdAndMonthLessThan(Integer roomId, String month);
 
+    @Query(
+            "SELECT DISTINCT u.room.id FROM UtilityReading u "
+                    + "WHERE u.room.building.id = :buildingId AND u.month < :month")
+    List<Integer> findRoomIdsWithReadingBefore(
+            @Param("buildingId") Integer buildingId, @Param("month") String month);
+
     boolean existsByIdAndRoomBuildingManagerId(Integer id, String managerId);
 
     long countByRoomId(Integer roomId);
@@ -0,0 +1,14 @@
+package com.tpanh.backend.repository;
+
+import java.time.LocalDateTime;
+
+/** 1 dòng của danh sách chỉ số điện nước, kèm số phòng lấy bằng join trong cùng query. */
+public record UtilityReadingSummaryView(
+        Integer id,
+        Integer roomId,
+        String roomNo,
+        String month,
+        Integer electricIndex,
+        Integer waterIndex,
+        String imageEvidence,
+        LocalDateTime createdAt) {}
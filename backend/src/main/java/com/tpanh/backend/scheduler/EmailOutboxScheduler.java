@@ -0,0 +1,28 @@
+package com.tpanh.backend.scheduler;
+
+import com.tpanh.backend.service.EmailOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxScheduler {
+
+    private final EmailOutboxService emailOutboxService;
+
+    /** Worker outbox: chạy trên mọi node, các node nhận email rời nhau nhờ {@code SKIP LOCKED}. */
+    @Scheduled(fixedDelayString = "${app.email-outbox.poll-interval:PT2S}")
+    public void deliverDueEmails() {
+        try {
+            final int sent = emailOutboxService.deliverDue();
+            if (sent > 0) {
+                log.info("Delivered {} outbox emails", sent);
+            }
+        } catch (final Exception e) {
+            log.error("Failed to deliver outbox emails", e);
+        }
+    }
+}
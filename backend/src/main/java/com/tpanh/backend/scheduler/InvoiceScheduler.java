@@ -1,6 +1,13 @@
 package com.tpanh.backend.scheduler;
 
+import com.tpanh.backend.service.BillingRunReport;
+import com.tpanh.backend.service.BillingRunService;
+import com.tpanh.backend.service.InvoiceGenerationJobService;
+import com.tpanh.backend.service.InvoiceReminderService;
 import com.tpanh.backend.service.InvoiceService;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -11,16 +18,90 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class InvoiceScheduler {
 
+    private static final String ZONE = "Asia/Ho_Chi_Minh";
+
     private final InvoiceService invoiceService;
+    private final InvoiceReminderService invoiceReminderService;
+    private final BillingRunService billingRunService;
+    private final InvoiceGenerationJobService invoiceGenerationJobService;
+    private final ShardedJobRunner shardedJobRunner;
 
-    @Scheduled(cron = "0 0 3 * * *", zone = "Asia/Ho_Chi_Minh")
+    @Scheduled(cron = "0 0 3 * * *", zone = ZONE)
     public void markOverdueInvoices() {
-        log.info("Starting scheduled job: markOverdueInvoices");
+        final LocalDate today = LocalDate.now(ZoneId.of(ZONE));
+        log.info("Starting scheduled job: markOverdueInvoices, run={}", today);
         try {
-            final int count = invoiceService.markOverdueInvoices();
-            log.info("Marked {} invoices as OVERDUE", count);
+            final int count =
+                    shardedJobRunner.run(
+                            "mark-overdue",
+                            today.toString(),
+                            shard -> invoiceService.markOverdueInvoices(today, shard));
+            log.info("Marked {} invoices as OVERDUE on this node", count);
         } catch (final Exception e) {
             log.error("Failed to mark overdue invoices", e);
         }
     }
+
+    /** Mỗi sáng nhắc khách thuê các hóa đơn chưa thanh toán sắp đến hạn. */
+    @Scheduled(cron = "${app.billing.reminder-cron:0 0 8 * * *}", zone = ZONE)
+    public void sendDueReminders() {
+        final LocalDate today = LocalDate.now(ZoneId.of(ZONE));
+        log.info("Starting scheduled job: sendDueReminders, run={}", today);
+        try {
+            final int count =
+                    shardedJobRunner.run(
+                            "due-reminders",
+                            today.toString(),
+                            shard -> invoiceReminderService.sendDueReminders(today, shard));
+            log.info("Sent due reminders to {} tenants on this node", count);
+        } catch (final Exception e) {
+            log.error("Failed to send due reminders", e);
+        }
+    }
+
+    /** Đầu mỗi tháng tạo hóa đơn của tháng trước cho tất cả tòa nhà. */
+    @Scheduled(cron = "${app.billing.auto-generate-cron:0 0 6 1 * *}", zone = ZONE)
+    public void generateMonthlyInvoices() {
+        final String period = YearMonth.now(ZoneId.of(ZONE)).minusMonths(1).toString();
+        log.info("Starting scheduled job: generateMonthlyInvoices, period={}", period);
+        try {
+            shardedJobRunner.run(
+                    "monthly-billing",
+                    period,
+                    shard -> logReport(billingRunService.generateForAllBuildings(period, shard)));
+        } catch (final Exception e) {
+            log.error("Failed to generate monthly invoices: period={}", period, e);
+        }
+    }
+
+    /** Đánh dấu FAILED các job tạo hóa đơn bị bỏ dở do node chạy chúng đã chết. */
+    @Scheduled(fixedDelayString = "${app.billing.job-sweep-interval:PT5M}")
+    public void failStaleGenerationJobs() {
+        try {
+            final int failed = invoiceGenerationJobService.failStaleJobs();
+            if (failed > 0) {
+                log.warn("Marked {} stale invoice generation jobs as FAILED", failed);
+            }
+        } catch (final Exception e) {
+            log.error("Failed to sweep stale invoice generation jobs", e);
+        }
+    }
+
+    private int logReport(final BillingRunReport report) {
+        log.info(
+                "Auto billing finished: period={}, succeeded={}, failed={}, invoices={}, elapsedMs={}",
+                report.period(),
+                report.succeededCount(),
+                report.failedCount(),
+                report.invoicesCreated(),
+                report.elapsed().toMillis());
+        report.failures()
+                .forEach(
+                        failure ->
+                                log.warn(
+                                        "Auto billing skipped building: buildingId={}, error={}",
+                                        failure.buildingId(),
+                                        failure.error()));
+        return report.invoicesCreated();
+    }
 }
@@ -0,0 +1,222 @@
+package com.tpanh.backend.scheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Khóa job dùng chung giữa các node. Mặc định là lease trên Redis ({@code SET NX PX} với token
+ * ngẫu nhiên): node chết thì lease tự hết hạn. Khi Redis không truy cập được thì dùng advisory lock
+ * phiên của Postgres, giữ 1 connection riêng cho tới khi nhả; dấu "đã xong" của fallback này được
+ * ghi vào bảng {@code job_lock_completions}.
+ */
+@Slf4j
+@Component
+public class JobLock {
+    private static final String KEY_PREFIX = "room-management:job-lock:";
+    private static final String COMPLETED = "completed";
+
+    // Chỉ chủ lease (đúng token) được đổi hoặc xóa key, lease đã hết hạn và bị node khác nhận thì
+    // không bị xóa nhầm
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if redis.call('get', KEYS[1]) == ARGV[1] then"
+                            + " return redis.call('del', KEYS[1]) end return 0",
+                    Long.class);
+    private static final RedisScript<Long> RENEW_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if redis.call('get', KEYS[1]) == ARGV[1] then"
+                            + " return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0",
+                    Long.class);
+    private static final RedisScript<Long> COMPLETE_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if redis.call('get', KEYS[1]) == ARGV[1] then"
+                            + " redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end"
+                            + " return 0",
+                    Long.class);
+
+    private static final String TRY_ADVISORY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext(?))";
+    private static final String ADVISORY_UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext(?))";
+    private static final String IS_COMPLETED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM job_lock_completions WHERE name = ? AND expires_at > now())";
+    // Dọn luôn dấu đã hết hạn để bảng chỉ giữ các lượt gần đây
+    private static final String RECORD_COMPLETION_SQL =
+            "WITH expired AS (DELETE FROM job_lock_completions WHERE expires_at <= now())"
+                    + " INSERT INTO job_lock_completions (name, expires_at)"
+                    + " VALUES (?, now() + ? * INTERVAL '1 millisecond')"
+                    + " ON CONFLICT (name) DO UPDATE SET expires_at = EXCLUDED.expires_at";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final DataSource dataSource;
+
+    public JobLock(
+            @Qualifier("customStringRedisTemplate")
+                    final RedisTemplate<String, String> redisTemplate,
+            final DataSource dataSource) {
+        this.redisTemplate = redisTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return lease nếu nhận được khóa; rỗng nếu node khác đang giữ hoặc đã làm xong lượt này
+     */
+    public Optional<Lease> tryAcquire(final String name, final Duration leaseTime) {
+        final String key = KEY_PREFIX + name;
+        final String token = UUID.randomUUID().toString();
+        try {
+            final Boolean acquired =
+                    redisTemplate.opsForValue().setIfAbsent(key, token, leaseTime);
+            return Boolean.TRUE.equals(acquired)
+                    ? Optional.of(new RedisLease(key, token))
+                    : Optional.empty();
+        } catch (final DataAccessException e) {
+            log.warn("Redis job lock unavailable, using advisory lock: {}", name, e);
+            return tryAdvisoryLock(key);
+        }
+    }
+
+    private Optional<Lease> tryAdvisoryLock(final String key) {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            if (queryBoolean(connection, TRY_ADVISORY_LOCK_SQL, key)) {
+                if (!queryBoolean(connection, IS_COMPLETED_SQL, key)) {
+                    return Optional.of(new AdvisoryLease(connection, key));
+                }
+                queryBoolean(connection, ADVISORY_UNLOCK_SQL, key);
+            }
+            connection.close();
+            return Optional.empty();
+        } catch (final SQLException e) {
+            closeQuietly(connection);
+            throw new IllegalStateException("Cannot acquire advisory lock " + key, e);
+        }
+    }
+
+    private static boolean queryBoolean(
+            final Connection connection, final String sql, final String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static void closeQuietly(final Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (final SQLException e) {
+            log.warn("Failed to close advisory lock connection", e);
+        }
+    }
+
+    /** Khóa đang giữ; phải gọi đúng 1 trong complete/release khi job xong hoặc lỗi. */
+    public interface Lease {
+        /**
+         * Dời hạn lease thêm {@code leaseTime} tính từ bây giờ.
+         *
+         * @return {@code false} nếu lease đã hết hạn và bị node khác nhận
+         */
+        boolean renew(Duration leaseTime);
+
+        /** Job xong: giữ dấu "đã xong" thêm {@code keepFor} để node khác bỏ qua lượt này. */
+        void complete(Duration keepFor);
+
+        /** Job lỗi: nhả khóa để node khác nhận lại được. */
+        void release();
+    }
+
+    private final class RedisLease implements Lease {
+        private final String key;
+        private final String token;
+
+        private RedisLease(final String key, final String token) {
+            this.key = key;
+            this.token = token;
+        }
+
+        @Override
+        public boolean renew(final Duration leaseTime) {
+            final Long renewed =
+                    redisTemplate.execute(
+                            RENEW_SCRIPT,
+                            List.of(key),
+                            token,
+                            String.valueOf(leaseTime.toMillis()));
+            return Long.valueOf(1).equals(renewed);
+        }
+
+        @Override
+        public void complete(final Duration keepFor) {
+            redisTemplate.execute(
+                    COMPLETE_SCRIPT,
+                    List.of(key),
+                    token,
+                    COMPLETED,
+                    String.valueOf(keepFor.toMillis()));
+        }
+
+        @Override
+        public void release() {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        }
+    }
+
+    private static final class AdvisoryLease implements Lease {
+        private final Connection connection;
+        private final String key;
+
+        private AdvisoryLease(final Connection connection, final String key) {
+            this.connection = connection;
+            this.key = key;
+        }
+
+        // Khóa phiên giữ tới khi nhả, không có hạn để gia hạn
+        @Override
+        public boolean renew(final Duration leaseTime) {
+            return true;
+        }
+
+        @Override
+        public void complete(final Duration keepFor) {
+            try (PreparedStatement statement = connection.prepareStatement(RECORD_COMPLETION_SQL)) {
+                statement.setString(1, key);
+                statement.setLong(2, keepFor.toMillis());
+                statement.executeUpdate();
+            } catch (final SQLException e) {
+                log.warn("Failed to record completion of advisory lock {}", key, e);
+            } finally {
+                release();
+            }
+        }
+
+        // Đóng connection cũng nhả khóa phiên, unlock trước vì pool giữ lại connection vật lý
+        @Override
+        public void release() {
+            try {
+                queryBoolean(connection, ADVISORY_UNLOCK_SQL, key);
+            } catch (final SQLException e) {
+                log.warn("Failed to release advisory lock {}", key, e);
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.tpanh.backend.scheduler;
+
+import com.tpanh.backend.config.SchedulerProperties;
+import com.tpanh.backend.util.JobShard;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chạy 1 lượt job định kỳ trên nhiều node. Job được chia thành {@code app.scheduler.shard-count}
+ * phân vùng, mỗi node lần lượt nhận các phân vùng còn trống qua {@link JobLock} và xử lý phân vùng
+ * nhận được, nên thêm node thì mỗi node làm ít phân vùng hơn và lượt chạy xong sớm hơn. Chạy trên
+ * 1 node thì node đó làm hết các phân vùng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardedJobRunner {
+    private final JobLock jobLock;
+    private final SchedulerProperties schedulerProperties;
+
+    // Thread riêng: job chiếm thread duy nhất của @Scheduled nên không gia hạn từ pool đó được
+    private final ScheduledExecutorService leaseRenewals =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        final Thread thread = new Thread(runnable, "job-lease-renewal");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    /**
+     * @param runKey định danh lượt chạy (ngày, kỳ hóa đơn); phân vùng đã xong trong lượt bị bỏ qua
+     * @return tổng kết quả {@code work} của các phân vùng mà node này đã xử lý
+     */
+    public int run(final String job, final String runKey, final ToIntFunction<JobShard> work) {
+        final int shardCount = schedulerProperties.getShardCount();
+        // Mỗi node bắt đầu từ 1 phân vùng ngẫu nhiên để các node không cùng tranh 1 key
+        final int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        int total = 0;
+        for (int i = 0; i < shardCount; i++) {
+            final JobShard shard = new JobShard((offset + i) % shardCount, shardCount);
+            total += runShard(job + ":" + runKey + ":" + shard.index(), shard, work);
+        }
+        return total;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        leaseRenewals.shutdownNow();
+    }
+
+    private int runShard(
+            final String lockName, final JobShard shard, final ToIntFunction<JobShard> work) {
+        final Optional<JobLock.Lease> lease =
+                jobLock.tryAcquire(lockName, schedulerProperties.getLeaseTime());
+        if (lease.isEmpty()) {
+            return 0;
+        }
+        final ScheduledFuture<?> renewal = scheduleRenewal(lockName, lease.get());
+        final int result;
+        try {
+            result = work.applyAsInt(shard);
+        } catch (final RuntimeException e) {
+            // Lỗi 1 phân vùng không chặn các phân vùng khác; khóa được nhả để lần sau nhận lại
+            log.error("Job shard failed: {}", lockName, e);
+            renewal.cancel(false);
+            finishQuietly(lockName, lease.get()::release);
+            return 0;
+        }
+        renewal.cancel(false);
+        finishQuietly(
+                lockName, () -> lease.get().complete(schedulerProperties.getCompletedTtl()));
+        return result;
+    }
+
+    /**
+     * Gia hạn lease mỗi khi đã qua nửa lease. Phân vùng chạy lâu hơn lease thì lease hết hạn giữa
+     * chừng và node khác nhận lại, chạy trùng phân vùng đang chạy.
+     */
+    private ScheduledFuture<?> scheduleRenewal(final String lockName, final JobLock.Lease lease) {
+        final Duration leaseTime = schedulerProperties.getLeaseTime();
+        final long halfLease = Math.max(1, leaseTime.toMillis() / 2);
+        return leaseRenewals.scheduleAtFixedRate(
+                () -> renew(lockName, lease, leaseTime),
+                halfLease,
+                halfLease,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static void renew(
+            final String lockName, final JobLock.Lease lease, final Duration leaseTime) {
+        try {
+            if (!lease.renew(leaseTime)) {
+                log.warn("Job shard lease lost while running: {}", lockName);
+            }
+        } catch (final RuntimeException e) {
+            // Lần gia hạn sau còn kịp trước khi lease hết hạn, nên chỉ ghi log
+            log.warn("Failed to renew job shard lease: {}", lockName, e);
+        }
+    }
+
+    // Lỗi khi nhả hoặc đánh dấu xong (vd. Redis vừa mất kết nối) không được làm dừng các phân vùng
+    // còn lại; lease của Redis tự hết hạn, advisory lock được nhả khi connection đóng
+    private static void finishQuietly(final String lockName, final Runnable finish) {
+        try {
+            finish.run();
+        } catch (final RuntimeException e) {
+            log.warn("Failed to finish job shard lease: {}", lockName, e);
+        }
+    }
+}
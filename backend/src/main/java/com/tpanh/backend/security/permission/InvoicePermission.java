@@ -1,7 +1,12 @@
 package com.tpanh.backend.security.permission;
 
 import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
 import com.tpanh.backend.repository.InvoiceRepository;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -12,6 +17,7 @@ public class InvoicePermission extends AbstractPermission {
 
     private final InvoiceRepository invoiceRepository;
     private final BuildingRepository buildingRepository;
+    private final InvoiceGenerationJobRepository invoiceGenerationJobRepository;
 
     public boolean canAccessInvoice(final Integer invoiceId, final Authentication authentication) {
         final var principal = extractPrincipal(authentication);
@@ -27,6 +33,25 @@ public class InvoicePermission extends AbstractPermission {
                 invoiceId, principal.getUserId());
     }
 
+    /** Kiểm tra quyền trên nhiều hóa đơn bằng 1 query thay vì 1 query mỗi hóa đơn. */
+    public boolean canAccessInvoices(
+            final Collection<Integer> invoiceIds, final Authentication authentication) {
+        final var principal = extractPrincipal(authentication);
+        if (principal == null) {
+            return false;
+        }
+
+        if (principal.hasRole("ADMIN")) {
+            return true;
+        }
+
+        // Id không tồn tại hoặc thuộc tòa nhà khác làm số lượng đếm được nhỏ hơn
+        final Set<Integer> distinctIds = new HashSet<>(invoiceIds);
+        return invoiceRepository.countByIdInAndRoomBuildingManagerId(
+                        distinctIds, principal.getUserId())
+                == distinctIds.size();
+    }
+
     public boolean canAccessBuildingInvoices(
             final Integer buildingId, final Authentication authentication) {
         final var principal = extractPrincipal(authentication);
@@ -40,4 +65,18 @@ public class InvoicePermission extends AbstractPermission {
 
         return buildingRepository.existsByIdAndManagerId(buildingId, principal.getUserId());
     }
+
+    public boolean canAccessGenerationJob(final UUID jobId, final Authentication authentication) {
+        final var principal = extractPrincipal(authentication);
+        if (principal == null) {
+            return false;
+        }
+
+        if (principal.hasRole("ADMIN")) {
+            return true;
+        }
+
+        return invoiceGenerationJobRepository.existsByIdAndBuildingManagerId(
+                jobId, principal.getUserId());
+    }
 }
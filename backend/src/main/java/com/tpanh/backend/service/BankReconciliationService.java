@@ -0,0 +1,317 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.ReconciliationProperties;
+import com.tpanh.backend.dto.ReconciliationLine;
+import com.tpanh.backend.dto.ReconciliationReport;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.ReconciliationStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.util.CsvReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+/**
+ * Đối chiếu sao kê ngân hàng (CSV) với hóa đơn chờ thanh toán của 1 tòa nhà và thanh toán các hóa
+ * đơn khớp. File được đọc lần lượt từng bản ghi, nên bộ nhớ chỉ gồm chỉ mục hóa đơn của tòa nhà, 1
+ * lô hóa đơn chờ thanh toán và báo cáo, không phụ thuộc số dòng của file.
+ */
+@Service
+@RequiredArgsConstructor
+public class BankReconciliationService {
+    // Trạng thái InvoiceService.payInvoices chấp nhận
+    private static final List<InvoiceStatus> PAYABLE_STATUSES =
+            List.of(InvoiceStatus.DRAFT, InvoiceStatus.UNPAID);
+
+    // Tên cột đã bỏ dấu và viết liền, theo file xuất của các ngân hàng
+    private static final Set<String> AMOUNT_COLUMNS =
+            Set.of("AMOUNT", "CREDIT", "CREDITAMOUNT", "SOTIEN", "GHICO", "SOTIENGHICO", "PSCO");
+    private static final Set<String> NOTE_COLUMNS =
+            Set.of(
+                    "DESCRIPTION",
+                    "NOTE",
+                    "CONTENT",
+                    "REMARK",
+                    "REMARKS",
+                    "NOIDUNG",
+                    "NOIDUNGCHUYENKHOAN",
+                    "DIENGIAI",
+                    "MOTA");
+
+    // Phần lẻ 1-2 chữ số sau dấu phân cách cuối; "1.500" là 1500 đồng
+    private static final Pattern FRACTION = Pattern.compile("[.,](\\d{1,2})$");
+    private static final Pattern GROUPED_DIGITS = Pattern.compile("\\d+([.,]\\d+)*");
+    private static final int MAX_AMOUNT_DIGITS = 15;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final ReconciliationProperties reconciliationProperties;
+
+    /**
+     * File cần dòng tiêu đề có cột số tiền (VD: "Số tiền", "Ghi có", "Amount") và cột nội dung (VD:
+     * "Nội dung", "Diễn giải", "Description"), phân cách bằng dấu phẩy hoặc chấm phẩy. Dòng không
+     * phải tiền vào bị bỏ qua. Hóa đơn khớp được thanh toán theo lô {@code
+     * app.reconciliation.batch-size}, mỗi lô 1 transaction; lô đã thanh toán được giữ nguyên nếu
+     * phần sau của file lỗi.
+     *
+     * @throws AppException {@link ErrorCode#STATEMENT_INVALID} nếu không đọc được dòng tiêu đề hoặc
+     *     thiếu cột
+     */
+    @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
+    public ReconciliationReport reconcile(
+            final Integer buildingId, final InputStreamSource statement) {
+        final PaymentMatcher matcher =
+                new PaymentMatcher(
+                        invoiceRepository.findOpenInvoices(buildingId, PAYABLE_STATUSES));
+        final Tally tally = new Tally(reconciliationProperties.getMaxReportedLines());
+        try (CsvReader csv = open(statement)) {
+            final Columns columns = Columns.of(csv.next());
+            reconcileRows(csv, columns, matcher, tally);
+        } catch (final IOException e) {
+            throw new AppException(ErrorCode.STATEMENT_INVALID);
+        }
+        return tally.toReport(buildingId);
+    }
+
+    private void reconcileRows(
+            final CsvReader csv,
+            final Columns columns,
+            final PaymentMatcher matcher,
+            final Tally tally) {
+        final List<ReconciliationLine> batch = new ArrayList<>();
+        int row = 1;
+        try {
+            for (List<String> record = csv.next(); record != null; record = csv.next()) {
+                row++;
+                final ReconciliationLine line = reconcileRow(row, record, columns, matcher);
+                if (line == null) {
+                    tally.ignore();
+                } else if (line.getStatus() != ReconciliationStatus.MATCHED) {
+                    tally.add(line);
+                } else if (batch.add(line)
+                        && batch.size() >= reconciliationProperties.getBatchSize()) {
+                    payBatch(batch, tally);
+                }
+            }
+        } catch (final IOException e) {
+            // Phần còn lại của file không đọc được: vẫn thanh toán các dòng đã khớp
+            tally.add(unreadable(row + 1));
+        }
+        payBatch(batch, tally);
+    }
+
+    private static ReconciliationLine unreadable(final int row) {
+        return ReconciliationLine.builder()
+                .row(row)
+                .status(ReconciliationStatus.INVALID)
+                .error(ErrorCode.STATEMENT_INVALID.name())
+                .build();
+    }
+
+    /** @return {@code null} nếu dòng không phải tiền vào */
+    private static ReconciliationLine reconcileRow(
+            final int row,
+            final List<String> record,
+            final Columns columns,
+            final PaymentMatcher matcher) {
+        final String amountText = columns.amount(record);
+        final Long amount = amountText.isBlank() ? Long.valueOf(0) : parseAmount(amountText);
+        if (amount != null && amount <= 0) {
+            return null;
+        }
+        final ReconciliationLine line =
+                ReconciliationLine.builder()
+                        .row(row)
+                        .amount(amount)
+                        .note(columns.note(record))
+                        .status(ReconciliationStatus.INVALID)
+                        .build();
+        if (amount != null) {
+            apply(line, matcher.match(amount, line.getNote()));
+        }
+        return line;
+    }
+
+    private static void apply(final ReconciliationLine line, final PaymentMatcher.Match match) {
+        line.setStatus(match.status());
+        if (match.invoice() != null) {
+            line.setInvoiceId(match.invoice().id());
+            line.setRoomNo(match.invoice().roomNo());
+            line.setPeriod(match.invoice().period());
+        }
+    }
+
+    private void payBatch(final List<ReconciliationLine> batch, final Tally tally) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            invoiceService.payInvoices(
+                    batch.stream().map(ReconciliationLine::getInvoiceId).toList());
+        } catch (final AppException e) {
+            // 1 hóa đơn lỗi (VD: vừa được thanh toán tay) làm cả lô rollback: thanh toán lại từng
+            // hóa đơn để các hóa đơn còn lại vẫn được ghi nhận
+            batch.forEach(this::payOne);
+        }
+        batch.forEach(tally::add);
+        batch.clear();
+    }
+
+    private void payOne(final ReconciliationLine line) {
+        try {
+            invoiceService.payInvoices(List.of(line.getInvoiceId()));
+        } catch (final AppException e) {
+            line.setStatus(ReconciliationStatus.FAILED);
+            line.setError(e.getErrorCode().name());
+        }
+    }
+
+    private static CsvReader open(final InputStreamSource statement) throws IOException {
+        // Decoder báo lỗi thay vì thay byte sai bằng ký tự '?', để file không phải UTF-8 bị từ chối
+        final BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(
+                                statement.getInputStream(), StandardCharsets.UTF_8.newDecoder()));
+        try {
+            // Đọc trước dòng tiêu đề để chọn dấu phân cách: Excel tiếng Việt xuất CSV bằng ';'
+            reader.mark(CsvReader.MAX_RECORD_LENGTH);
+            final String header = reader.readLine();
+            reader.reset();
+            final boolean semicolon = header != null && count(header, ';') > count(header, ',');
+            return new CsvReader(reader, semicolon ? ';' : ',');
+        } catch (final IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private static long count(final String text, final char c) {
+        return text.chars().filter(ch -> ch == c).count();
+    }
+
+    /**
+     * VND không có phần lẻ: "3.500.000", "3,500,000.00" và "+3500000" đều là 3500000.
+     *
+     * @return số tiền (âm là ghi nợ), {@code null} nếu không đọc được
+     */
+    private static Long parseAmount(final String text) {
+        String value = text.replace(" ", "").replace("\u00A0", "");
+        final boolean negative = value.startsWith("-");
+        if (negative || value.startsWith("+")) {
+            value = value.substring(1);
+        }
+        final Matcher fraction = FRACTION.matcher(value);
+        if (fraction.find()) {
+            if (Integer.parseInt(fraction.group(1)) != 0) {
+                return null;
+            }
+            value = value.substring(0, fraction.start());
+        }
+        final String digits = value.replace(".", "").replace(",", "");
+        if (!GROUPED_DIGITS.matcher(value).matches() || digits.length() > MAX_AMOUNT_DIGITS) {
+            return null;
+        }
+        final long amount = Long.parseLong(digits);
+        return negative ? -amount : amount;
+    }
+
+    /** Vị trí cột số tiền và nội dung, tìm theo dòng tiêu đề. */
+    private record Columns(int amount, int note) {
+
+        static Columns of(final List<String> header) {
+            int amount = -1;
+            int note = -1;
+            for (int i = 0; header != null && i < header.size(); i++) {
+                final String name = PaymentMatcher.compact(header.get(i));
+                if (amount < 0 && AMOUNT_COLUMNS.contains(name)) {
+                    amount = i;
+                } else if (note < 0 && NOTE_COLUMNS.contains(name)) {
+                    note = i;
+                }
+            }
+            if (amount < 0 || note < 0) {
+                throw new AppException(ErrorCode.STATEMENT_INVALID);
+            }
+            return new Columns(amount, note);
+        }
+
+        String amount(final List<String> record) {
+            return cell(record, amount);
+        }
+
+        String note(final List<String> record) {
+            return cell(record, note);
+        }
+
+        private static String cell(final List<String> record, final int index) {
+            return index < record.size() ? record.get(index) : "";
+        }
+    }
+
+    /**
+     * Đếm mọi dòng nhưng chỉ giữ dòng đã thanh toán (không quá số hóa đơn chờ thanh toán) và tối
+     * đa {@code app.reconciliation.max-reported-lines} dòng còn lại.
+     */
+    private static final class Tally {
+        private final Map<ReconciliationStatus, Integer> counts =
+                new EnumMap<>(ReconciliationStatus.class);
+        private final List<ReconciliationLine> lines = new ArrayList<>();
+        private final int maxReportedLines;
+        private int reportedOthers;
+        private int ignored;
+        private long paidAmount;
+        private boolean truncated;
+
+        Tally(final int maxReportedLines) {
+            this.maxReportedLines = maxReportedLines;
+            for (final ReconciliationStatus status : ReconciliationStatus.values()) {
+                counts.put(status, 0);
+            }
+        }
+
+        void ignore() {
+            ignored++;
+        }
+
+        void add(final ReconciliationLine line) {
+            counts.merge(line.getStatus(), 1, Integer::sum);
+            if (line.getStatus() == ReconciliationStatus.MATCHED) {
+                paidAmount += line.getAmount();
+                lines.add(line);
+            } else if (reportedOthers < maxReportedLines) {
+                reportedOthers++;
+                lines.add(line);
+            } else {
+                truncated = true;
+            }
+        }
+
+        ReconciliationReport toReport(final Integer buildingId) {
+            lines.sort(Comparator.comparingInt(ReconciliationLine::getRow));
+            return ReconciliationReport.builder()
+                    .buildingId(buildingId)
+                    .totalRows(ignored + counts.values().stream().mapToInt(Integer::intValue).sum())
+                    .ignoredCount(ignored)
+                    .counts(counts)
+                    .paidAmount(paidAmount)
+                    .truncated(truncated)
+                    .lines(lines)
+                    .build();
+        }
+    }
+}
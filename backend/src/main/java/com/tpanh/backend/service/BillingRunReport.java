@@ -0,0 +1,41 @@
+package com.tpanh.backend.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/** Kết quả 1 lần tính hóa đơn tự động cho tất cả tòa nhà, kèm kết quả của từng tòa nhà. */
+public record BillingRunReport(String period, List<BuildingResult> results, Duration elapsed) {
+
+    public BillingRunReport {
+        results = List.copyOf(results);
+    }
+
+    public long succeededCount() {
+        return results.stream().filter(BuildingResult::success).count();
+    }
+
+    public long failedCount() {
+        return results.size() - succeededCount();
+    }
+
+    public int invoicesCreated() {
+        return results.stream().mapToInt(BuildingResult::invoicesCreated).sum();
+    }
+
+    public List<BuildingResult> failures() {
+        return results.stream().filter(result -> !result.success()).toList();
+    }
+
+    public record BuildingResult(
+            Integer buildingId, boolean success, int invoicesCreated, String error) {
+
+        public static BuildingResult succeeded(
+                final Integer buildingId, final int invoicesCreated) {
+            return new BuildingResult(buildingId, true, invoicesCreated, null);
+        }
+
+        public static BuildingResult failed(final Integer buildingId, final String error) {
+            return new BuildingResult(buildingId, false, 0, error);
+        }
+    }
+}
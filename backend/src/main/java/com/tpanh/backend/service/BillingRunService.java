@@ -0,0 +1,58 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.util.JobShard;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tính hóa đơn cho tất cả tòa nhà trên worker pool {@code billingExecutor}. Mỗi tòa nhà chạy trong
+ * transaction riêng, lỗi của 1 tòa nhà chỉ được ghi nhận vào report, không chặn các tòa nhà khác.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillingRunService {
+
+    private final BuildingRepository buildingRepository;
+    private final InvoiceService invoiceService;
+    @Qualifier("billingExecutor")
+    private final TaskExecutor billingExecutor;
+
+    /** Tính hóa đơn cho các tòa nhà thuộc phân vùng {@code shard} (theo id tòa nhà). */
+    public BillingRunReport generateForAllBuildings(final String period, final JobShard shard) {
+        final long startedAt = System.nanoTime();
+        final List<CompletableFuture<BillingRunReport.BuildingResult>> futures =
+                buildingRepository.findAllIds().stream()
+                        .filter(shard::contains)
+                        .map(
+                                buildingId ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> generateForBuilding(buildingId, period),
+                                                billingExecutor))
+                        .toList();
+
+        final List<BillingRunReport.BuildingResult> results =
+                futures.stream().map(CompletableFuture::join).toList();
+        return new BillingRunReport(
+                period, results, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    private BillingRunReport.BuildingResult generateForBuilding(
+            final Integer buildingId, final String period) {
+        try {
+            final int created =
+                    invoiceService.generateInvoicesForBuilding(buildingId, period).size();
+            return BillingRunReport.BuildingResult.succeeded(buildingId, created);
+        } catch (final RuntimeException e) {
+            log.error("Auto billing failed: buildingId={}, period={}", buildingId, period, e);
+            return BillingRunReport.BuildingResult.failed(buildingId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Toàn bộ dữ liệu đầu vào của một lần tính hóa đơn cho 1 tòa nhà / 1 kỳ, được nạp bằng một số
+ * lượng query cố định. Mọi phép tra cứu theo phòng đều thực hiện trên bộ nhớ.
+ *
+ * @param tariff giá điện nước của tòa nhà, tính sẵn 1 lần cho cả lượt tạo hóa đơn
+ */
+public record BillingSnapshot(
+        Building building,
+        String period,
+        List<Room> rooms,
+        Set<Integer> invoicedRoomIds,
+        Map<Integer, Tenant> contractHolders,
+        Map<Integer, Integer> tenantCounts,
+        Map<Integer, UtilityReading> currentReadings,
+        Map<Integer, UtilityReading> previousReadings,
+        Set<Integer> roomsWithReadingHistory,
+        Map<Integer, MeterRecord> elecRecords,
+        Map<Integer, MeterRecord> waterRecords,
+        BuildingTariff tariff) {
+
+    public BillingSnapshot(
+            final Building building,
+            final String period,
+            final List<Room> rooms,
+            final Set<Integer> invoicedRoomIds,
+            final Map<Integer, Tenant> contractHolders,
+            final Map<Integer, Integer> tenantCounts,
+            final Map<Integer, UtilityReading> currentReadings,
+            final Map<Integer, UtilityReading> previousReadings,
+            final Set<Integer> roomsWithReadingHistory,
+            final Map<Integer, MeterRecord> elecRecords,
+            final Map<Integer, MeterRecord> waterRecords) {
+        this(
+                building,
+                period,
+                rooms,
+                invoicedRoomIds,
+                contractHolders,
+                tenantCounts,
+                currentReadings,
+                previousReadings,
+                roomsWithReadingHistory,
+                elecRecords,
+                waterRecords,
+                BuildingTariff.of(building));
+    }
+
+    /** Bản sao dùng giá khác, các dữ liệu còn lại giữ nguyên. */
+    public BillingSnapshot withTariff(final BuildingTariff newTariff) {
+        return new BillingSnapshot(
+                building,
+                period,
+                rooms,
+                invoicedRoomIds,
+                contractHolders,
+                tenantCounts,
+                currentReadings,
+                previousReadings,
+                roomsWithReadingHistory,
+                elecRecords,
+                waterRecords,
+                newTariff);
+    }
+
+    public boolean hasInvoice(final Integer roomId) {
+        return invoicedRoomIds.contains(roomId);
+    }
+
+    public Tenant contractHolder(final Integer roomId) {
+        return contractHolders.get(roomId);
+    }
+
+    public int tenantCount(final Integer roomId) {
+        return tenantCounts.getOrDefault(roomId, 0);
+    }
+
+    public UtilityReading currentReading(final Integer roomId) {
+        return currentReadings.get(roomId);
+    }
+
+    public UtilityReading previousReading(final Integer roomId) {
+        return previousReadings.get(roomId);
+    }
+
+    public boolean hasReadingHistory(final Integer roomId) {
+        return roomsWithReadingHistory.contains(roomId);
+    }
+
+    public MeterRecord elecRecord(final Integer roomId) {
+        return elecRecords.get(roomId);
+    }
+
+    public MeterRecord waterRecord(final Integer roomId) {
+        return waterRecords.get(roomId);
+    }
+}
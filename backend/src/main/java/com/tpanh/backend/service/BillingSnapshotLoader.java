@@ -0,0 +1,152 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.MeterType;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.TenantRepository;
+import com.tpanh.backend.repository.UtilityReadingRepository;
+import com.tpanh.backend.util.PeriodUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nạp {@link BillingSnapshot} cho 1 tòa nhà / 1 kỳ bằng các query theo tòa nhà (không query theo
+ * từng phòng), nên số round trip không tăng theo số phòng. Giá điện nước lấy từ {@link
+ * BuildingTariffCache} nên chỉ tính lại khi tòa nhà đổi giá.
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingSnapshotLoader {
+
+    private final BuildingRepository buildingRepository;
+    private final RoomRepository roomRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TenantRepository tenantRepository;
+    private final UtilityReadingRepository utilityReadingRepository;
+    private final MeterRecordRepository meterRecordRepository;
+    private final BuildingTariffCache buildingTariffCache;
+
+    public BillingSnapshot load(final Integer buildingId, final String period) {
+        final Building building =
+                buildingRepository
+                        .findById(buildingId)
+                        .orElseThrow(() -> new AppException(ErrorCode.BUILDING_NOT_FOUND));
+        final var readings =
+                splitReadings(
+                        utilityReadingRepository.findByRoomBuildingIdAndMonthIn(
+                                buildingId, withPreviousMonth(period)),
+                        period);
+        final var meterRecords =
+                splitMeterRecords(
+                        meterRecordRepository.findByRoomBuildingIdAndPeriod(buildingId, period));
+
+        return new BillingSnapshot(
+                building,
+                period,
+                roomRepository.findByBuildingId(buildingId),
+                Set.copyOf(invoiceRepository.findRoomIdsByBuildingIdAndPeriod(buildingId, period)),
+                loadContractHolders(buildingId),
+                loadTenantCounts(buildingId),
+                readings.get(true),
+                readings.get(false),
+                Set.copyOf(
+                        utilityReadingRepository.findRoomIdsWithReadingBefore(buildingId, period)),
+                meterRecords.get(true),
+                meterRecords.get(false),
+                buildingTariffCache.get(building).tariff());
+    }
+
+    /**
+     * Snapshot chỉ chứa 1 phòng, dùng khi tính lại 1 hóa đơn đã có nên không nạp người đại diện và
+     * danh sách hóa đơn của tòa nhà.
+     */
+    public BillingSnapshot loadForRoom(final Room room, final String period) {
+        final Integer roomId = room.getId();
+        final var readings =
+                splitReadings(
+                        utilityReadingRepository.findByRoomIdAndMonthIn(
+                                roomId, withPreviousMonth(period)),
+                        period);
+        final var meterRecords =
+                splitMeterRecords(meterRecordRepository.findByRoomIdAndPeriod(roomId, period));
+
+        return new BillingSnapshot(
+                room.getBuilding(),
+                period,
+                List.of(room),
+                Set.of(),
+                Map.of(),
+                Map.of(roomId, tenantRepository.countByRoomId(roomId)),
+                readings.get(true),
+                readings.get(false),
+                utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, period)
+                        ? Set.of(roomId)
+                        : Set.of(),
+                meterRecords.get(true),
+                meterRecords.get(false),
+                buildingTariffCache.get(room.getBuilding()).tariff());
+    }
+
+    private Map<Integer, Tenant> loadContractHolders(final Integer buildingId) {
+        return tenantRepository
+                .findByRoomBuildingIdAndIsContractHolderTrueAndEndDateIsNull(buildingId)
+                .stream()
+                .collect(
+                        Collectors.toMap(
+                                tenant -> tenant.getRoom().getId(),
+                                Function.identity(),
+                                (first, second) -> first));
+    }
+
+    private Map<Integer, Integer> loadTenantCounts(final Integer buildingId) {
+        return tenantRepository.countByRoomBuildingIdGroupByRoom(buildingId).stream()
+                .collect(
+                        Collectors.toMap(
+                                TenantRepository.RoomTenantCount::getRoomId,
+                                count -> count.getTenantCount().intValue()));
+    }
+
+    private static List<String> withPreviousMonth(final String period) {
+        return List.of(period, PeriodUtils.getPreviousMonth(period));
+    }
+
+    // true: chỉ số kỳ period, false: chỉ số tháng trước
+    private static Map<Boolean, Map<Integer, UtilityReading>> splitReadings(
+            final List<UtilityReading> readings, final String period) {
+        return readings.stream()
+                .collect(
+                        Collectors.partitioningBy(
+                                reading -> period.equals(reading.getMonth()),
+                                byRoomId(UtilityReading::getRoom)));
+    }
+
+    // true: đồng hồ điện, false: đồng hồ nước
+    private static Map<Boolean, Map<Integer, MeterRecord>> splitMeterRecords(
+            final List<MeterRecord> records) {
+        return records.stream()
+                .collect(
+                        Collectors.partitioningBy(
+                                record -> record.getType() == MeterType.ELEC,
+                                byRoomId(MeterRecord::getRoom)));
+    }
+
+    private static <T> Collector<T, ?, Map<Integer, T>> byRoomId(final Function<T, Room> room) {
+        return Collectors.toMap(
+                item -> room.apply(item).getId(), Function.identity(), (first, second) -> second);
+    }
+}
@@ -4,6 +4,7 @@ import com.tpanh.backend.config.BuildingProperties;
 import com.tpanh.backend.dto.BuildingCreationRequest;
 import com.tpanh.backend.dto.BuildingResponse;
 import com.tpanh.backend.dto.BuildingUpdateRequest;
+import com.tpanh.backend.dto.ElectricityTier;
 import com.tpanh.backend.dto.PageResponse;
 import com.tpanh.backend.entity.Building;
 import com.tpanh.backend.exception.AppException;
@@ -12,11 +13,11 @@ import com.tpanh.backend.mapper.BuildingMapper;
 import com.tpanh.backend.repository.BuildingRepository;
 import com.tpanh.backend.repository.UserRepository;
 import com.tpanh.backend.security.CurrentUser;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
@@ -31,6 +32,7 @@ public class BuildingService {
     private final UserRepository userRepository;
     private final BuildingProperties buildingProperties;
     private final CurrentUser currentUser;
+    private final ListingCountCache listingCountCache;
 
     @Transactional
     @CacheEvict(value = "buildings", allEntries = true)
@@ -55,6 +57,9 @@ public class BuildingService {
                         ? request.getWaterUnitPrice()
                         : buildingProperties.getDefaultWaterUnitPrice());
         building.setWaterCalcMethod(request.getWaterCalcMethod());
+        if (request.getElecTiers() != null) {
+            applyElecTiers(building, request.getElecTiers());
+        }
         building.setManager(manager);
 
         final var savedBuilding = buildingRepository.save(building);
@@ -72,29 +77,23 @@ public class BuildingService {
         return buildingMapper.toResponse(building);
     }
 
-    public PageResponse<BuildingResponse> getMyBuildings(final Pageable pageable) {
+    public PageResponse<BuildingResponse> getMyBuildings(
+            final boolean withTotal, final Pageable pageable) {
         final var managerId = currentUser.getUserId();
 
         final var page = buildingRepository.findByManagerId(managerId, pageable);
         final var content = page.getContent().stream().map(buildingMapper::toResponse).toList();
         return PageResponse.<BuildingResponse>builder()
                 .content(content)
-                .page(buildPageInfo(page))
+                .page(
+                        PageResponse.PageInfo.of(
+                                page,
+                                withTotal,
+                                () -> listingCountCache.countBuildings(managerId)))
                 .message("Lấy danh sách tòa nhà thành công")
                 .build();
     }
 
-    private PageResponse.PageInfo buildPageInfo(final Page<?> page) {
-        return PageResponse.PageInfo.builder()
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .first(page.isFirst())
-                .last(page.isLast())
-                .build();
-    }
-
     @Transactional
     @PreAuthorize("@buildingPermission.canAccessBuilding(#id, authentication)")
     @CacheEvict(value = "buildings", key = "#id")
@@ -113,6 +112,22 @@ public class BuildingService {
         if (request.getOwnerPhone() != null) {
             building.setOwnerPhone(request.getOwnerPhone());
         }
+        applyTariffUpdate(building, request);
+
+        final var updatedBuilding = buildingRepository.save(building);
+        log.info("Building updated: id={}", id);
+        return buildingMapper.toResponse(updatedBuilding);
+    }
+
+    /** Mọi thay đổi giá đều tăng {@code tariffVersion} để {@link BuildingTariffCache} bỏ bản cũ. */
+    private void applyTariffUpdate(final Building building, final BuildingUpdateRequest request) {
+        if (request.getElecUnitPrice() == null
+                && request.getWaterUnitPrice() == null
+                && request.getWaterCalcMethod() == null
+                && request.getElecTiers() == null) {
+            return;
+        }
+        buildingRepository.incrementTariffVersion(building.getId());
         if (request.getElecUnitPrice() != null) {
             building.setElecUnitPrice(request.getElecUnitPrice());
         }
@@ -122,10 +137,21 @@ public class BuildingService {
         if (request.getWaterCalcMethod() != null) {
             building.setWaterCalcMethod(request.getWaterCalcMethod());
         }
+        if (request.getElecTiers() != null) {
+            applyElecTiers(building, request.getElecTiers());
+        }
+    }
 
-        final var updatedBuilding = buildingRepository.save(building);
-        log.info("Building updated: id={}", id);
-        return buildingMapper.toResponse(updatedBuilding);
+    /** Danh sách rỗng xóa bậc thang, tòa nhà quay lại tính theo đơn giá điện. */
+    private void applyElecTiers(final Building building, final List<ElectricityTier> tiers) {
+        if (tiers.isEmpty()) {
+            building.setElecTierThresholds(null);
+            building.setElecTierPrices(null);
+            return;
+        }
+        final ElectricityTierTable table = ElectricityTierTable.from(tiers);
+        building.setElecTierThresholds(table.thresholds());
+        building.setElecTierPrices(table.prices());
     }
 
     @Transactional
@@ -0,0 +1,25 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.enums.WaterCalcMethod;
+
+/**
+ * Cấu hình giá điện nước của 1 tòa nhà tại thời điểm tính hóa đơn, tách khỏi entity {@link
+ * Building} để có thể tính thử với giá chưa lưu.
+ *
+ * @param waterUnitPrice {@code 0} nếu tòa nhà chưa cấu hình giá nước
+ * @param waterCalcMethod {@code null} nếu tòa nhà chưa cấu hình, khi đó tiền nước bằng 0
+ */
+public record BuildingTariff(
+        ElectricityTariff electricity, int waterUnitPrice, WaterCalcMethod waterCalcMethod) {
+
+    public static BuildingTariff of(final Building building) {
+        return new BuildingTariff(
+                ElectricityTariff.of(
+                        building.getElecUnitPrice(),
+                        building.getElecTierThresholds(),
+                        building.getElecTierPrices()),
+                building.getWaterUnitPrice() != null ? building.getWaterUnitPrice() : 0,
+                building.getWaterCalcMethod());
+    }
+}
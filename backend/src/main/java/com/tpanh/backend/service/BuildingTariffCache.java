@@ -0,0 +1,38 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache cục bộ {@link TariffSnapshot} theo id tòa nhà + {@code tariffVersion}. Tòa nhà đã được nạp
+ * sẵn ở nơi gọi nên tra cứu chỉ so version, không query và không dựng lại biểu giá bậc thang.
+ *
+ * <p>Version nằm trong dòng {@code buildings} nên khi {@link BuildingService} đổi giá, mọi instance
+ * tự nhận ra bản cũ ở lần đọc tòa nhà kế tiếp mà không cần phát sự kiện xóa cache. Mỗi tòa nhà chỉ
+ * giữ bản có version mới nhất nên kích thước cache bằng số tòa nhà.
+ */
+@Component
+public class BuildingTariffCache {
+
+    private final Map<Integer, TariffSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public TariffSnapshot get(final Building building) {
+        if (building.getId() == null) {
+            return TariffSnapshot.of(building);
+        }
+        final TariffSnapshot cached = snapshots.get(building.getId());
+        if (cached != null && cached.version() == building.getTariffVersion()) {
+            return cached;
+        }
+        final TariffSnapshot loaded = TariffSnapshot.of(building);
+        // Transaction cũ có thể đọc version thấp hơn sau khi transaction mới đã cache version cao
+        snapshots.merge(
+                building.getId(),
+                loaded,
+                (current, candidate) ->
+                        current.version() >= candidate.version() ? current : candidate);
+        return loaded;
+    }
+}
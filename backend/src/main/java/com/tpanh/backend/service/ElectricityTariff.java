@@ -0,0 +1,101 @@
+package com.tpanh.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Biểu giá điện của 1 tòa nhà, tính sẵn để tiền điện của mọi mức tiêu thụ chỉ tốn 1 lần tìm kiếm
+ * nhị phân và 1 phép nhân. Giá 1 giá (flat) được biểu diễn như biểu bậc thang chỉ có 1 bậc.
+ *
+ * <p>Bậc thang lưu dưới dạng ngưỡng kWh tích lũy: với ngưỡng {@code [50, 100]} và giá {@code [1806,
+ * 1866, 2167]}, 50 kWh đầu tính giá 1806, kWh 51-100 giá 1866, phần còn lại giá 2167.
+ */
+public final class ElectricityTariff {
+    /** Tòa nhà chưa cấu hình giá điện. */
+    public static final ElectricityTariff NONE = flat(0);
+
+    // tierStarts[i]: kWh bắt đầu bậc i; baseCosts[i]: tiền của tierStarts[i] kWh đầu tiên
+    private final int[] tierStarts;
+    private final int[] prices;
+    private final int[] baseCosts;
+
+    private ElectricityTariff(final int[] tierStarts, final int[] prices) {
+        this.tierStarts = tierStarts;
+        this.prices = prices;
+        this.baseCosts = new int[prices.length];
+        for (int i = 1; i < prices.length; i++) {
+            baseCosts[i] = baseCosts[i - 1] + (tierStarts[i] - tierStarts[i - 1]) * prices[i - 1];
+        }
+    }
+
+    public static ElectricityTariff flat(final int unitPrice) {
+        return new ElectricityTariff(new int[] {0}, new int[] {unitPrice});
+    }
+
+    /**
+     * @param thresholds ngưỡng kWh tích lũy tăng dần, kết thúc mỗi bậc trừ bậc cuối
+     * @param prices đơn giá từng bậc, nhiều hơn {@code thresholds} đúng 1 phần tử
+     */
+    public static ElectricityTariff tiered(final int[] thresholds, final int[] prices) {
+        if (!isValidTiers(thresholds, prices)) {
+            throw new IllegalArgumentException("Invalid electricity tiers");
+        }
+        final int[] tierStarts = new int[prices.length];
+        System.arraycopy(thresholds, 0, tierStarts, 1, thresholds.length);
+        return new ElectricityTariff(tierStarts, prices.clone());
+    }
+
+    /** Ưu tiên bậc thang nếu tòa nhà đã cấu hình, nếu không dùng đơn giá cố định. */
+    public static ElectricityTariff of(
+            final Integer unitPrice, final int[] thresholds, final int[] prices) {
+        if (prices != null && prices.length > 0) {
+            return tiered(thresholds != null ? thresholds : new int[0], prices);
+        }
+        return unitPrice != null ? flat(unitPrice) : NONE;
+    }
+
+    public static boolean isValidTiers(final int[] thresholds, final int[] prices) {
+        if (thresholds == null || prices == null || prices.length != thresholds.length + 1) {
+            return false;
+        }
+        if (Arrays.stream(prices).anyMatch(price -> price < 0)) {
+            return false;
+        }
+        int previous = 0;
+        for (final int threshold : thresholds) {
+            if (threshold <= previous) {
+                return false;
+            }
+            previous = threshold;
+        }
+        return true;
+    }
+
+    public int cost(final int usage) {
+        final int found = Arrays.binarySearch(tierStarts, usage);
+        final int tier = found >= 0 ? found : -found - 2;
+        return baseCosts[tier] + (usage - tierStarts[tier]) * prices[tier];
+    }
+
+    public boolean isConfigured() {
+        return this != NONE;
+    }
+
+    public boolean isTiered() {
+        return prices.length > 1;
+    }
+
+    /** Ngưỡng kWh tích lũy như khi cấu hình, {@code null} nếu không tính theo bậc thang. */
+    public int[] tierThresholds() {
+        return isTiered() ? Arrays.copyOfRange(tierStarts, 1, tierStarts.length) : null;
+    }
+
+    /** Đơn giá từng bậc, {@code null} nếu không tính theo bậc thang. */
+    public int[] tierPrices() {
+        return isTiered() ? prices.clone() : null;
+    }
+
+    /** Đơn giá bậc đầu tiên, với giá 1 giá chính là đơn giá điện. */
+    public int basePrice() {
+        return prices[0];
+    }
+}
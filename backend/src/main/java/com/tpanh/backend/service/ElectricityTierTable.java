@@ -0,0 +1,35 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.dto.ElectricityTier;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import java.util.List;
+
+/** Bậc thang giá điện dạng 2 mảng ngưỡng / đơn giá như lưu trong bảng {@code buildings}. */
+public record ElectricityTierTable(int[] thresholds, int[] prices) {
+
+    /**
+     * Ngưỡng của bậc cuối bị bỏ qua vì bậc cuối không giới hạn.
+     *
+     * @throws AppException {@link ErrorCode#ELEC_TIERS_INVALID} nếu danh sách rỗng, ngưỡng không
+     *     tăng dần hoặc đơn giá âm
+     */
+    public static ElectricityTierTable from(final List<ElectricityTier> tiers) {
+        final int[] thresholds =
+                tiers.subList(0, Math.max(0, tiers.size() - 1)).stream()
+                        .mapToInt(tier -> tier.getUpToKwh() != null ? tier.getUpToKwh() : 0)
+                        .toArray();
+        final int[] prices =
+                tiers.stream()
+                        .mapToInt(tier -> tier.getUnitPrice() != null ? tier.getUnitPrice() : -1)
+                        .toArray();
+        if (prices.length == 0 || !ElectricityTariff.isValidTiers(thresholds, prices)) {
+            throw new AppException(ErrorCode.ELEC_TIERS_INVALID);
+        }
+        return new ElectricityTierTable(thresholds, prices);
+    }
+
+    public ElectricityTariff toTariff() {
+        return ElectricityTariff.tiered(thresholds, prices);
+    }
+}
@@ -0,0 +1,4 @@
+package com.tpanh.backend.service;
+
+/** Email HTML đã dựng xong nội dung, sẵn sàng gửi hoặc xếp vào outbox. */
+public record EmailMessage(String to, String subject, String html) {}
@@ -0,0 +1,177 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.EmailOutboxProperties;
+import com.tpanh.backend.entity.EmailOutbox;
+import com.tpanh.backend.enums.EmailOutboxStatus;
+import com.tpanh.backend.repository.EmailOutboxRepository;
+import com.tpanh.backend.repository.PendingEmailView;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntConsumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Outbox email. Request ghi email vào bảng {@code email_outbox} trong transaction của mình, worker
+ * nền ({@code EmailOutboxScheduler}) gửi từng đợt qua 1 kết nối SMTP. Gửi lỗi thì thử lại
+ * với thời gian chờ tăng gấp đôi mỗi lần; hết {@code app.email-outbox.max-attempts} lần thì email
+ * chuyển sang DEAD để xử lý tay.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    // 2^20 lần initialBackoff đã vượt xa mọi maxBackoff hợp lý, chặn để phép nhân không tràn
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final EmailOutboxProperties emailOutboxProperties;
+    @Qualifier("emailExecutor")
+    private final TaskExecutor emailExecutor;
+    private final SmtpBatchSender smtpBatchSender;
+
+    /** Email chỉ được gửi nếu transaction hiện tại commit. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(final EmailMessage email) {
+        emailOutboxRepository.save(
+                EmailOutbox.builder()
+                        .recipient(email.to())
+                        .subject(email.subject())
+                        .body(email.html())
+                        .status(EmailOutboxStatus.PENDING)
+                        .nextAttemptAt(LocalDateTime.now())
+                        .build());
+    }
+
+    /**
+     * Gửi các email đã đến lượt theo từng đợt cho tới khi outbox không còn email đến lượt.
+     *
+     * @return số email gửi thành công
+     */
+    public int deliverDue() {
+        final int batchSize = emailOutboxProperties.getBatchSize();
+        int sent = 0;
+        List<PendingEmailView> batch;
+        do {
+            batch = emailOutboxRepository.claimDue(batchSize, emailOutboxProperties.getLeaseTime());
+            sent += deliver(batch);
+        } while (batch.size() == batchSize);
+        return sent;
+    }
+
+    /**
+     * Dựng MimeMessage của cả đợt song song trên {@code emailExecutor}, rồi gửi tuần tự qua 1 kết
+     * nối SMTP ({@link SmtpBatchSender}) và ghi kết quả từng email.
+     */
+    private int deliver(final List<PendingEmailView> batch) {
+        final long claimedAt = System.nanoTime();
+        final List<CompletableFuture<MimeMessage>> built =
+                batch.stream()
+                        .map(
+                                email ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> emailService.toMimeMessage(toMessage(email)),
+                                                emailExecutor))
+                        .toList();
+        final List<PendingEmailView> ready = new ArrayList<>(batch.size());
+        final List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                messages.add(built.get(i).join());
+                ready.add(batch.get(i));
+            } catch (final CompletionException e) {
+                recordFailure(batch.get(i), e.getCause());
+            }
+        }
+        final Map<Integer, Exception> failures =
+                smtpBatchSender.send(messages, new LeaseRenewal(ready, claimedAt));
+        recordResults(ready, failures);
+        return ready.size() - failures.size();
+    }
+
+    /**
+     * Gia hạn lease cho các email chưa gửi của đợt mỗi khi đã qua nửa lease. SMTP chậm có thể làm 1
+     * đợt kéo dài hơn lease; khi đó worker khác nhận lại các email cuối đợt và gửi trùng.
+     */
+    private final class LeaseRenewal implements IntConsumer {
+        private final List<PendingEmailView> emails;
+        private final long halfLease = emailOutboxProperties.getLeaseTime().toNanos() / 2;
+        private long renewAt;
+
+        LeaseRenewal(final List<PendingEmailView> emails, final long leasedAt) {
+            this.emails = emails;
+            this.renewAt = leasedAt + halfLease;
+        }
+
+        @Override
+        public void accept(final int index) {
+            final long now = System.nanoTime();
+            if (now - renewAt < 0) {
+                return;
+            }
+            emailOutboxRepository.renewLease(
+                    emails.subList(index, emails.size()).stream()
+                            .map(PendingEmailView::id)
+                            .toList(),
+                    LocalDateTime.now().plus(emailOutboxProperties.getLeaseTime()));
+            renewAt = now + halfLease;
+        }
+    }
+
+    private void recordResults(
+            final List<PendingEmailView> emails, final Map<Integer, Exception> failures) {
+        for (int i = 0; i < emails.size(); i++) {
+            if (failures.containsKey(i)) {
+                recordFailure(emails.get(i), failures.get(i));
+            } else {
+                emailOutboxRepository.markSent(emails.get(i).id(), LocalDateTime.now());
+            }
+        }
+    }
+
+    private static EmailMessage toMessage(final PendingEmailView email) {
+        return new EmailMessage(email.recipient(), email.subject(), email.body());
+    }
+
+    private void recordFailure(final PendingEmailView email, final Throwable error) {
+        final int attempts = email.attempts() + 1;
+        final LocalDateTime now = LocalDateTime.now();
+        final String reason = NestedExceptionUtils.getMostSpecificCause(error).toString();
+        if (attempts >= emailOutboxProperties.getMaxAttempts()) {
+            log.error("Email moved to DEAD after {} attempts: id={}", attempts, email.id(), error);
+            emailOutboxRepository.markFailed(email.id(), EmailOutboxStatus.DEAD, now, reason);
+            return;
+        }
+        final Duration backoff = backoff(attempts);
+        log.warn(
+                "Email delivery failed, retry in {}: id={}, attempt={}",
+                backoff,
+                email.id(),
+                attempts);
+        emailOutboxRepository.markFailed(
+                email.id(), EmailOutboxStatus.PENDING, now.plus(backoff), reason);
+    }
+
+    /** Chờ {@code initialBackoff * 2^(attempts - 1)}, tối đa {@code maxBackoff}. */
+    Duration backoff(final int attempts) {
+        final Duration delay =
+                emailOutboxProperties
+                        .getInitialBackoff()
+                        .multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_SHIFT));
+        final Duration max = emailOutboxProperties.getMaxBackoff();
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+}
@@ -1,26 +1,31 @@
 package com.tpanh.backend.service;
 
+import com.tpanh.backend.repository.ReminderCandidateView;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     private static final String ACTIVATION_EMAIL_SUBJECT = "Kích hoạt tài khoản Manager";
-    private static final String EMAIL_TEMPLATE_PATH = "templates/activation-email.html";
+    private static final String DUE_REMINDER_SUBJECT = "Nhắc hạn thanh toán hóa đơn phòng";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     private final JavaMailSender mailSender;
+    private final EmailTemplates emailTemplates;
 
     @Value("${app.frontend-url:http://localhost:5173}")
     private String frontendUrl;
@@ -28,59 +33,62 @@ public class EmailService {
     @Value("${spring.mail.username:}")
     private String fromEmail;
 
-    public void sendActivationEmail(final String email, final String fullName, final String token) {
-        try {
-            final var activationLink = frontendUrl + "/activate?token=" + token;
-            final var htmlContent = loadEmailTemplate(fullName, activationLink);
-
-            final MimeMessage message = mailSender.createMimeMessage();
-            final MimeMessageHelper helper =
-                    new MimeMessageHelper(
-                            message,
-                            MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                            StandardCharsets.UTF_8.name());
-
-            helper.setFrom(fromEmail.isEmpty() ? "noreply@phongtro.com" : fromEmail);
-            helper.setTo(email);
-            helper.setSubject(ACTIVATION_EMAIL_SUBJECT);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Activation email sent successfully to: {}", email);
-        } catch (final MessagingException | IOException e) {
-            log.error("Failed to send activation email to: {}", email, e);
-            throw new RuntimeException("Failed to send activation email", e);
-        }
-    }
-
-    private String loadEmailTemplate(final String fullName, final String activationLink)
-            throws IOException {
-        final var resource = new ClassPathResource(EMAIL_TEMPLATE_PATH);
-        final var templateContent =
-                StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
-
-        return templateContent
-                .replace("{{fullName}}", fullName)
-                .replace("{{activationLink}}", activationLink);
+    public EmailMessage activationEmail(
+            final String email, final String fullName, final String token) {
+        final var activationLink = frontendUrl + "/activate?token=" + token;
+        return new EmailMessage(
+                email,
+                ACTIVATION_EMAIL_SUBJECT,
+                emailTemplates
+                        .getActivation()
+                        .render(Map.of("fullName", fullName, "activationLink", activationLink)));
     }
 
-    public void sendInvoiceEmail(
+    public EmailMessage invoiceEmail(
             final String email,
             final String tenantName,
             final String roomNo,
             final String period,
             final Integer totalAmount,
-            final java.time.LocalDate dueDate) {
-        if (email == null || email.isBlank()) {
-            log.warn("Cannot send invoice email: tenant email is missing");
-            return;
-        }
+            final LocalDate dueDate) {
+        final var subject = "Hóa đơn phòng " + roomNo + " - Tháng " + period;
+        return new EmailMessage(
+                email,
+                subject,
+                emailTemplates
+                        .getInvoice()
+                        .render(
+                                Map.of(
+                                        "tenantName",
+                                        tenantName,
+                                        "roomNo",
+                                        roomNo,
+                                        "period",
+                                        period,
+                                        "totalAmount",
+                                        formatAmount(totalAmount),
+                                        "dueDate",
+                                        dueDate.format(DATE_FORMAT))));
+    }
 
-        try {
-            final var subject = String.format("Hóa đơn phòng %s - Tháng %s", roomNo, period);
-            final var htmlContent =
-                    buildInvoiceEmailContent(tenantName, roomNo, period, totalAmount, dueDate);
+    /**
+     * Gửi email qua SMTP ngay trên thread gọi. Email phát sinh trong request được xếp vào outbox
+     * ({@link EmailOutboxService#enqueue}) thay vì gọi trực tiếp method này.
+     *
+     * @throws RuntimeException khi không gửi được
+     */
+    public void send(final EmailMessage email) {
+        mailSender.send(toMimeMessage(email));
+        log.info("Email sent successfully to: {}, subject: {}", email.to(), email.subject());
+    }
 
+    /**
+     * Dựng và mã hóa sẵn MimeMessage ({@code saveChanges}) để khi gửi chỉ còn ghi ra kết nối SMTP.
+     *
+     * @throws RuntimeException khi địa chỉ hoặc nội dung email không hợp lệ
+     */
+    public MimeMessage toMimeMessage(final EmailMessage email) {
+        try {
             final MimeMessage message = mailSender.createMimeMessage();
             final MimeMessageHelper helper =
                     new MimeMessageHelper(
@@ -89,41 +97,55 @@ public class EmailService {
                             StandardCharsets.UTF_8.name());
 
             helper.setFrom(fromEmail.isEmpty() ? "noreply@phongtro.com" : fromEmail);
-            helper.setTo(email);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
-            log.info("Invoice email sent successfully to: {} for room: {}", email, roomNo);
+            helper.setTo(email.to());
+            helper.setSubject(email.subject());
+            helper.setText(email.html(), true);
+            message.setSentDate(new Date());
+            message.saveChanges();
+            return message;
         } catch (final MessagingException e) {
-            log.error("Failed to send invoice email to: {}", email, e);
-            throw new RuntimeException("Failed to send invoice email", e);
+            log.error("Failed to build email to: {}", email.to(), e);
+            throw new RuntimeException("Failed to build email", e);
         }
     }
 
-    private String buildInvoiceEmailContent(
+    /**
+     * 1 email nhắc hạn liệt kê mọi hóa đơn sắp đến hạn của khách thuê.
+     *
+     * @throws RuntimeException khi không gửi được, để người gọi ghi nhận lần gửi lỗi
+     */
+    public void sendDueReminderEmail(
+            final String email,
             final String tenantName,
-            final String roomNo,
-            final String period,
-            final Integer totalAmount,
-            final java.time.LocalDate dueDate) {
-        final var formattedAmount = String.format("%,d", totalAmount);
-        final var formattedDueDate =
-                dueDate.format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+            final List<ReminderCandidateView> invoices) {
+        final String html = buildDueReminderContent(tenantName, invoices);
+        send(new EmailMessage(email, DUE_REMINDER_SUBJECT, html));
+    }
+
+    private String buildDueReminderContent(
+            final String tenantName, final List<ReminderCandidateView> invoices) {
+        final var rows = new StringBuilder();
+        for (final ReminderCandidateView invoice : invoices) {
+            emailTemplates
+                    .getDueReminderItem()
+                    .renderTo(
+                            rows,
+                            Map.of(
+                                    "roomNo",
+                                    invoice.roomNo(),
+                                    "period",
+                                    invoice.period(),
+                                    "totalAmount",
+                                    formatAmount(invoice.totalAmount()),
+                                    "dueDate",
+                                    invoice.dueDate().format(DATE_FORMAT)));
+        }
+        return emailTemplates
+                .getDueReminder()
+                .render(Map.of("tenantName", tenantName, "invoiceRows", rows.toString()));
+    }
 
-        return String.format(
-                """
-                <html>
-                <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333;">
-                    <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                        <h2 style="color: #2c3e50;">Xin chào %s,</h2>
-                        <p>Hóa đơn phòng <strong>%s</strong> tháng <strong>%s</strong> của bạn là <strong style="color: #e74c3c; font-size: 1.2em;">%s VNĐ</strong>.</p>
-                        <p>Vui lòng thanh toán trước ngày <strong style="color: #e74c3c;">%s</strong>.</p>
-                        <p>Trân trọng,<br>Ban quản lý</p>
-                    </div>
-                </body>
-                </html>
-                """,
-                tenantName, roomNo, period, formattedAmount, formattedDueDate);
+    private static String formatAmount(final Integer amount) {
+        return String.format("%,d", amount);
     }
 }
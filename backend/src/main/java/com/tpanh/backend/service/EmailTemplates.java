@@ -0,0 +1,33 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.util.HtmlTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Các template email, đọc từ classpath và tách placeholder 1 lần khi khởi động; thiếu file
+ * template thì ứng dụng không khởi động được thay vì lỗi ở lần gửi đầu tiên.
+ */
+@Getter
+@Component
+public class EmailTemplates {
+    private final HtmlTemplate activation = load("templates/activation-email.html");
+    private final HtmlTemplate invoice = load("templates/invoice-email.html");
+    private final HtmlTemplate dueReminder = load("templates/due-reminder-email.html");
+
+    /** 1 dòng hóa đơn trong email nhắc hạn, chèn vào {@code {{{invoiceRows}}}}. */
+    private final HtmlTemplate dueReminderItem = load("templates/due-reminder-item.html");
+
+    private static HtmlTemplate load(final String path) {
+        try (InputStream input = new ClassPathResource(path).getInputStream()) {
+            return HtmlTemplate.parse(StreamUtils.copyToString(input, StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new IllegalStateException("Cannot load email template " + path, e);
+        }
+    }
+}
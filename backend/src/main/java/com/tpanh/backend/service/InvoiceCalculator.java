@@ -0,0 +1,172 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dựng {@link Invoice} cho 1 phòng từ {@link BillingSnapshot}: chọn chỉ số điện nước áp dụng rồi
+ * giao phần tính tiền cho {@link TariffEngine}. Không truy cập DB, dùng chung cho luồng tạo hóa đơn
+ * đồng bộ và job bất đồng bộ.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceCalculator {
+
+    private static final int DUE_DATE_DAYS = 5;
+
+    private final TariffEngine tariffEngine;
+
+    /**
+     * @throws AppException {@link ErrorCode#MISSING_PREVIOUS_UTILITY_READING} nếu phòng đã có lịch
+     *     sử chỉ số nhưng thiếu chỉ số tháng trước
+     */
+    public Invoice calculate(final Room room, final Tenant tenant, final BillingSnapshot snapshot) {
+        final RoomCharges charges = calculateCharges(room.getId(), snapshot);
+        return buildInvoice(room, tenant, snapshot, charges);
+    }
+
+    /**
+     * Chi tiết tiền điện nước của 1 phòng theo giá trong {@link BillingSnapshot#tariff()}.
+     *
+     * @throws AppException {@link ErrorCode#MISSING_PREVIOUS_UTILITY_READING} như {@link
+     *     #calculate}
+     */
+    public RoomCharges calculateCharges(final Integer roomId, final BillingSnapshot snapshot) {
+        return new RoomCharges(
+                calculateElectricity(roomId, snapshot), calculateWater(roomId, snapshot));
+    }
+
+    private UtilityCharge calculateElectricity(
+            final Integer roomId, final BillingSnapshot snapshot) {
+        final ElectricityTariff elecTariff = snapshot.tariff().electricity();
+        if (!elecTariff.isConfigured()) {
+            return UtilityCharge.NONE;
+        }
+        final UtilityReading currentReading = snapshot.currentReading(roomId);
+        if (currentReading != null && currentReading.getElectricIndex() != null) {
+            final int previousValue = resolvePreviousElectricIndexOrThrow(roomId, snapshot);
+            return tariffEngine.electricity(
+                    previousValue, currentReading.getElectricIndex(), elecTariff);
+        }
+        final MeterRecord elecRecord = snapshot.elecRecord(roomId);
+        if (elecRecord == null) {
+            return UtilityCharge.NONE;
+        }
+        return tariffEngine.electricity(
+                elecRecord.getPreviousValue(), elecRecord.getCurrentValue(), elecTariff);
+    }
+
+    private UtilityCharge calculateWater(final Integer roomId, final BillingSnapshot snapshot) {
+        final BuildingTariff tariff = snapshot.tariff();
+        final int tenantCount = snapshot.tenantCount(roomId);
+        final UtilityReading currentReading = snapshot.currentReading(roomId);
+        if (currentReading != null && currentReading.getWaterIndex() != null) {
+            final int previousValue = resolvePreviousWaterIndexOrThrow(roomId, snapshot);
+            return water(tariff, previousValue, currentReading.getWaterIndex(), tenantCount);
+        }
+        final MeterRecord waterRecord = snapshot.waterRecord(roomId);
+        if (waterRecord == null) {
+            // Không có chỉ số: tính theo đầu người vẫn thu tiền, theo đồng hồ bằng 0
+            final int amount =
+                    tariffEngine.waterCost(
+                            tariff.waterCalcMethod(), 0, tariff.waterUnitPrice(), tenantCount);
+            return new UtilityCharge(null, null, 0, tariff.waterUnitPrice(), amount);
+        }
+        return water(
+                tariff, waterRecord.getPreviousValue(), waterRecord.getCurrentValue(), tenantCount);
+    }
+
+    private UtilityCharge water(
+            final BuildingTariff tariff,
+            final int previousIndex,
+            final int currentIndex,
+            final int tenantCount) {
+        return tariffEngine.water(
+                tariff.waterCalcMethod(),
+                previousIndex,
+                currentIndex,
+                tariff.waterUnitPrice(),
+                tenantCount);
+    }
+
+    private Invoice buildInvoice(
+            final Room room,
+            final Tenant tenant,
+            final BillingSnapshot snapshot,
+            final RoomCharges charges) {
+        final Invoice invoice = new Invoice();
+        invoice.setRoom(room);
+        invoice.setTenant(tenant);
+        invoice.setPeriod(snapshot.period());
+        invoice.setRoomPrice(room.getPrice());
+        applyCharges(invoice, charges, snapshot.tariff());
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        invoice.setDueDate(LocalDate.now().plusDays(DUE_DATE_DAYS));
+        return invoice;
+    }
+
+    /**
+     * Ghi số tiền cùng chỉ số, lượng tiêu thụ và đơn giá đã dùng để tính vào hóa đơn. Chi tiết hóa
+     * đơn đọc lại đúng các giá trị này, nên không đổi khi chỉ số hay giá của tòa nhà bị sửa sau đó.
+     */
+    public void applyCharges(
+            final Invoice invoice, final RoomCharges charges, final BuildingTariff tariff) {
+        applyElectricity(invoice, charges.electricity(), tariff.electricity());
+        applyWater(invoice, charges.water(), tariff);
+        invoice.setTotalAmount(invoice.getRoomPrice() + charges.utilityAmount());
+    }
+
+    private static void applyElectricity(
+            final Invoice invoice, final UtilityCharge charge, final ElectricityTariff tariff) {
+        invoice.setElecAmount(charge.amount());
+        invoice.setElecPreviousIndex(charge.previousIndex());
+        invoice.setElecCurrentIndex(charge.currentIndex());
+        invoice.setElecUsage(charge.currentIndex() != null ? charge.usage() : null);
+        invoice.setElecUnitPrice(tariff.isConfigured() ? charge.unitPrice() : null);
+        invoice.setElecTierThresholds(tariff.tierThresholds());
+        invoice.setElecTierPrices(tariff.tierPrices());
+    }
+
+    private static void applyWater(
+            final Invoice invoice, final UtilityCharge charge, final BuildingTariff tariff) {
+        invoice.setWaterAmount(charge.amount());
+        invoice.setWaterPreviousIndex(charge.previousIndex());
+        invoice.setWaterCurrentIndex(charge.currentIndex());
+        invoice.setWaterUsage(charge.currentIndex() != null ? charge.usage() : null);
+        invoice.setWaterUnitPrice(charge.unitPrice());
+        invoice.setWaterCalcMethod(tariff.waterCalcMethod());
+    }
+
+    private int resolvePreviousElectricIndexOrThrow(
+            final Integer roomId, final BillingSnapshot snapshot) {
+        final UtilityReading previousReading = snapshot.previousReading(roomId);
+        if (previousReading != null && previousReading.getElectricIndex() != null) {
+            return previousReading.getElectricIndex();
+        }
+        if (snapshot.hasReadingHistory(roomId)) {
+            throw new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING);
+        }
+        return 0;
+    }
+
+    private int resolvePreviousWaterIndexOrThrow(
+            final Integer roomId, final BillingSnapshot snapshot) {
+        final UtilityReading previousReading = snapshot.previousReading(roomId);
+        if (previousReading != null && previousReading.getWaterIndex() != null) {
+            return previousReading.getWaterIndex();
+        }
+        if (snapshot.hasReadingHistory(roomId)) {
+            throw new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.RedisConfig;
+import com.tpanh.backend.dto.InvoiceDetailResponse;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Đọc/ghi nhiều entry của cache {@value #CACHE_NAME} với 1 round trip Redis mỗi chiều (MGET và
+ * pipeline SET), việc mà Spring Cache không làm được. Key và serializer giống hệt {@link
+ * RedisConfig#cacheManager}, nên entry ghi ở đây và entry do {@code @Cacheable getInvoiceDetail}
+ * ghi dùng lẫn được, {@code @CacheEvict} theo id xóa được cả hai.
+ */
+@Component
+public class InvoiceDetailCache {
+    public static final String CACHE_NAME = "invoices";
+
+    private final RedisTemplate<String, Object> cacheRedisTemplate;
+
+    public InvoiceDetailCache(
+            @Qualifier("cacheRedisTemplate")
+                    final RedisTemplate<String, Object> cacheRedisTemplate) {
+        this.cacheRedisTemplate = cacheRedisTemplate;
+    }
+
+    /**
+     * @return chi tiết đang có trong cache theo id; id không có trong cache không có trong map
+     */
+    public Map<Integer, InvoiceDetailResponse> getAll(final List<Integer> ids) {
+        final Map<Integer, InvoiceDetailResponse> hits = new HashMap<>();
+        if (ids.isEmpty()) {
+            return hits;
+        }
+        final List<Object> values =
+                cacheRedisTemplate
+                        .opsForValue()
+                        .multiGet(ids.stream().map(InvoiceDetailCache::key).toList());
+        if (values == null) {
+            return hits;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (values.get(i) instanceof final InvoiceDetailResponse detail) {
+                hits.put(ids.get(i), detail);
+            }
+        }
+        return hits;
+    }
+
+    public void putAll(final Collection<InvoiceDetailResponse> details) {
+        if (details.isEmpty()) {
+            return;
+        }
+        final RedisSerializer<String> keySerializer = RedisSerializer.string();
+        final Expiration ttl = Expiration.from(RedisConfig.CACHE_TTL);
+        cacheRedisTemplate.executePipelined(
+                (RedisCallback<Object>)
+                        connection -> {
+                            for (final InvoiceDetailResponse detail : details) {
+                                connection
+                                        .stringCommands()
+                                        .set(
+                                                keySerializer.serialize(key(detail.getId())),
+                                                RedisConfig.CACHE_VALUE_SERIALIZER.serialize(
+                                                        detail),
+                                                ttl,
+                                                SetOption.upsert());
+                            }
+                            return null;
+                        });
+    }
+
+    /**
+     * Như {@link #evictAll} nhưng chờ transaction hiện tại commit mới xóa: xóa trước commit thì 1
+     * request đọc song song có thể nạp lại bản chưa đổi và ghi vào cache tới hết TTL. Transaction
+     * rollback thì dữ liệu không đổi nên không cần xóa; ngoài transaction thì xóa ngay.
+     */
+    public void evictAllAfterCommit(final Collection<Integer> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAll(ids);
+            return;
+        }
+        final List<Integer> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictAll(evicted);
+                    }
+                });
+    }
+
+    /** Xóa nhiều entry bằng 1 lệnh DEL. */
+    public void evictAll(final Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        cacheRedisTemplate.delete(ids.stream().map(InvoiceDetailCache::key).toList());
+    }
+
+    private static String key(final Integer id) {
+        return RedisConfig.cacheKey(CACHE_NAME, id);
+    }
+}
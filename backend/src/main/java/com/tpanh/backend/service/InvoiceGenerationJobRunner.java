@@ -0,0 +1,140 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Thực thi 1 {@link InvoiceGenerationJob} trên {@code invoiceJobExecutor}. Dữ liệu đầu vào được
+ * nạp 1 lần, sau đó phòng được xử lý theo từng chunk, mỗi chunk 1 transaction ngắn và cập nhật
+ * tiến độ của job ngay khi commit. Lỗi của 1 phòng chỉ được đếm vào {@code failedRooms}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceGenerationJobRunner {
+
+    private final InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final BillingSnapshotLoader billingSnapshotLoader;
+    private final InvoiceCalculator invoiceCalculator;
+    private final BillingProperties billingProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public void run(final UUID jobId) {
+        try {
+            final BillingSnapshot snapshot = transactionTemplate.execute(status -> start(jobId));
+            for (final List<Room> chunk : chunks(snapshot.rooms())) {
+                transactionTemplate.execute(status -> processChunk(jobId, snapshot, chunk));
+            }
+            transactionTemplate.execute(
+                    status -> finish(jobId, InvoiceGenerationJobStatus.COMPLETED, null));
+        } catch (final RuntimeException e) {
+            log.error("Invoice generation job failed: jobId={}", jobId, e);
+            transactionTemplate.execute(
+                    status -> finish(jobId, InvoiceGenerationJobStatus.FAILED, e.getMessage()));
+        }
+    }
+
+    private BillingSnapshot start(final UUID jobId) {
+        final InvoiceGenerationJob job =
+                getJobInStatusOrThrow(jobId, InvoiceGenerationJobStatus.PENDING);
+        job.setStatus(InvoiceGenerationJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        final BillingSnapshot snapshot =
+                billingSnapshotLoader.load(job.getBuilding().getId(), job.getPeriod());
+        job.setTotalRooms(snapshot.rooms().size());
+        return snapshot;
+    }
+
+    private Void processChunk(
+            final UUID jobId, final BillingSnapshot snapshot, final List<Room> chunk) {
+        final InvoiceGenerationJob job =
+                getJobInStatusOrThrow(jobId, InvoiceGenerationJobStatus.RUNNING);
+        final List<Invoice> invoices = new ArrayList<>();
+        for (final Room room : chunk) {
+            final Invoice invoice = processRoom(job, snapshot, room);
+            if (invoice != null) {
+                invoices.add(invoice);
+            }
+        }
+        final int created = invoiceRepository.insertIfAbsent(invoices).size();
+        // Phòng bị request khác chèn hóa đơn trước (ON CONFLICT) được tính là bỏ qua
+        job.setSkippedRooms(job.getSkippedRooms() + invoices.size() - created);
+        job.setCreatedInvoices(job.getCreatedInvoices() + created);
+        job.setProcessedRooms(job.getProcessedRooms() + chunk.size());
+        return null;
+    }
+
+    private Invoice processRoom(
+            final InvoiceGenerationJob job, final BillingSnapshot snapshot, final Room room) {
+        final Tenant tenant = snapshot.contractHolder(room.getId());
+        if (snapshot.hasInvoice(room.getId()) || tenant == null) {
+            job.setSkippedRooms(job.getSkippedRooms() + 1);
+            return null;
+        }
+        try {
+            final Invoice invoice = invoiceCalculator.calculate(room, tenant, snapshot);
+            invoice.setGenerationJobId(job.getId());
+            return invoice;
+        } catch (final AppException e) {
+            job.setFailedRooms(job.getFailedRooms() + 1);
+            job.setErrorMessage(room.getRoomNo() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Void finish(
+            final UUID jobId, final InvoiceGenerationJobStatus status, final String errorMessage) {
+        // Job có thể đã bị xóa theo tòa nhà trong lúc chạy
+        invoiceGenerationJobRepository
+                .findById(jobId)
+                .ifPresent(
+                        job -> {
+                            job.setStatus(status);
+                            job.setFinishedAt(LocalDateTime.now());
+                            if (errorMessage != null) {
+                                job.setErrorMessage(errorMessage);
+                            }
+                        });
+        return null;
+    }
+
+    private InvoiceGenerationJob getJobInStatusOrThrow(
+            final UUID jobId, final InvoiceGenerationJobStatus expected) {
+        final InvoiceGenerationJob job =
+                invoiceGenerationJobRepository
+                        .findById(jobId)
+                        .orElseThrow(
+                                () -> new AppException(ErrorCode.INVOICE_GENERATION_JOB_NOT_FOUND));
+        // Job đã bị sweep chuyển sang FAILED (chờ hoặc chạy quá lâu) thì dừng, không ghi đè kết quả
+        if (job.getStatus() != expected) {
+            throw new AppException(ErrorCode.INVOICE_GENERATION_JOB_STALE);
+        }
+        return job;
+    }
+
+    private List<List<Room>> chunks(final List<Room> rooms) {
+        final int chunkSize = billingProperties.getJobChunkSize();
+        final List<List<Room>> chunks = new ArrayList<>();
+        for (int from = 0; from < rooms.size(); from += chunkSize) {
+            chunks.add(rooms.subList(from, Math.min(from + chunkSize, rooms.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,126 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.dto.InvoiceGenerationJobResponse;
+import com.tpanh.backend.dto.InvoiceResponse;
+import com.tpanh.backend.dto.PageResponse;
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.mapper.InvoiceGenerationJobMapper;
+import com.tpanh.backend.mapper.InvoiceMapper;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.InvoiceSummaryView;
+import com.tpanh.backend.security.CurrentUser;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tạo hóa đơn bất đồng bộ: submit trả về job id ngay, việc tính hóa đơn chạy trên {@code
+ * invoiceJobExecutor} nên request thread và transaction không bị giữ trong suốt lần chạy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceGenerationJobService {
+
+    private final InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    private final BuildingRepository buildingRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceGenerationJobMapper invoiceGenerationJobMapper;
+    private final InvoiceMapper invoiceMapper;
+    private final InvoiceGenerationJobRunner invoiceGenerationJobRunner;
+    @Qualifier("invoiceJobExecutor")
+    private final TaskExecutor invoiceJobExecutor;
+    private final CurrentUser currentUser;
+    private final BillingProperties billingProperties;
+
+    // Không dùng @Transactional: job phải được commit trước khi worker đọc
+    @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
+    public InvoiceGenerationJobResponse submitJob(final Integer buildingId, final String period) {
+        final Building building =
+                buildingRepository
+                        .findById(buildingId)
+                        .orElseThrow(() -> new AppException(ErrorCode.BUILDING_NOT_FOUND));
+        final InvoiceGenerationJob job =
+                invoiceGenerationJobRepository.save(
+                        InvoiceGenerationJob.builder()
+                                .id(UUID.randomUUID())
+                                .building(building)
+                                .period(period)
+                                .status(InvoiceGenerationJobStatus.PENDING)
+                                .requestedBy(currentUser.getUserId())
+                                .build());
+        try {
+            invoiceJobExecutor.execute(() -> invoiceGenerationJobRunner.run(job.getId()));
+        } catch (final TaskRejectedException e) {
+            log.warn("Invoice generation job rejected: jobId={}", job.getId());
+            markRejected(job);
+            throw new AppException(ErrorCode.INVOICE_GENERATION_JOB_REJECTED);
+        }
+        return invoiceGenerationJobMapper.toResponse(job);
+    }
+
+    @PreAuthorize("@invoicePermission.canAccessGenerationJob(#jobId, authentication)")
+    public InvoiceGenerationJobResponse getJob(final UUID jobId) {
+        return invoiceGenerationJobMapper.toResponse(getJobOrThrow(jobId));
+    }
+
+    @PreAuthorize("@invoicePermission.canAccessGenerationJob(#jobId, authentication)")
+    public PageResponse<InvoiceResponse> getJobInvoices(
+            final UUID jobId, final Pageable pageable) {
+        getJobOrThrow(jobId);
+        final Page<InvoiceSummaryView> invoicePage =
+                invoiceRepository.findSummariesByGenerationJobId(jobId, pageable);
+
+        final var content =
+                invoicePage.getContent().stream().map(invoiceMapper::toResponse).toList();
+
+        return PageResponse.<InvoiceResponse>builder()
+                .content(content)
+                .page(PageResponse.PageInfo.of(invoicePage))
+                .message("Lấy danh sách hóa đơn của job thành công")
+                .build();
+    }
+
+    /**
+     * Chuyển sang FAILED các job mà node chạy nó đã chết giữa chừng. Job không chạy tiếp được vì
+     * snapshot nằm trong bộ nhớ node đó; job mới tạo lại sẽ bỏ qua các phòng đã có hóa đơn.
+     */
+    public int failStaleJobs() {
+        final LocalDateTime now = LocalDateTime.now();
+        return invoiceGenerationJobRepository.failStale(
+                List.of(InvoiceGenerationJobStatus.PENDING, InvoiceGenerationJobStatus.RUNNING),
+                InvoiceGenerationJobStatus.FAILED,
+                now.minus(billingProperties.getJobStaleAfter()),
+                now,
+                ErrorCode.INVOICE_GENERATION_JOB_STALE.getMessage());
+    }
+
+    private void markRejected(final InvoiceGenerationJob job) {
+        job.setStatus(InvoiceGenerationJobStatus.FAILED);
+        job.setErrorMessage(ErrorCode.INVOICE_GENERATION_JOB_REJECTED.getMessage());
+        job.setFinishedAt(LocalDateTime.now());
+        invoiceGenerationJobRepository.save(job);
+    }
+
+    private InvoiceGenerationJob getJobOrThrow(final UUID jobId) {
+        return invoiceGenerationJobRepository
+                .findById(jobId)
+                .orElseThrow(() -> new AppException(ErrorCode.INVOICE_GENERATION_JOB_NOT_FOUND));
+    }
+}
@@ -0,0 +1,112 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.dto.ElectricityTier;
+import com.tpanh.backend.dto.InvoicePreviewItem;
+import com.tpanh.backend.dto.InvoicePreviewRequest;
+import com.tpanh.backend.dto.InvoicePreviewResponse;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.enums.InvoicePreviewStatus;
+import com.tpanh.backend.exception.AppException;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Xem trước hóa đơn của 1 tòa nhà mà không tạo bản ghi nào. Dùng cùng {@link BillingSnapshot} và
+ * {@link InvoiceCalculator} với luồng tạo hóa đơn thật nên số tiền khớp với khi tạo, và có thể thay
+ * giá điện nước chưa lưu để manager thử giá trước khi cập nhật tòa nhà.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoicePreviewService {
+
+    private final BillingSnapshotLoader billingSnapshotLoader;
+    private final InvoiceCalculator invoiceCalculator;
+
+    // readOnly: Hibernate không flush và Postgres chạy transaction chỉ đọc
+    @Transactional(readOnly = true)
+    @PreAuthorize(
+            "@invoicePermission.canAccessBuildingInvoices(#request.buildingId, authentication)")
+    public InvoicePreviewResponse previewInvoices(final InvoicePreviewRequest request) {
+        final BillingSnapshot loaded =
+                billingSnapshotLoader.load(request.getBuildingId(), request.getPeriod());
+        final BillingSnapshot snapshot = loaded.withTariff(resolveTariff(loaded, request));
+        final List<InvoicePreviewItem> rooms =
+                snapshot.rooms().stream().map(room -> previewRoom(room, snapshot)).toList();
+        final List<InvoicePreviewItem> ready =
+                rooms.stream()
+                        .filter(item -> item.getStatus() == InvoicePreviewStatus.READY)
+                        .toList();
+        return InvoicePreviewResponse.builder()
+                .buildingId(request.getBuildingId())
+                .period(request.getPeriod())
+                .invoiceCount(ready.size())
+                .totalAmount(ready.stream().mapToLong(InvoicePreviewItem::getTotalAmount).sum())
+                .rooms(rooms)
+                .build();
+    }
+
+    private BuildingTariff resolveTariff(
+            final BillingSnapshot snapshot, final InvoicePreviewRequest request) {
+        final BuildingTariff stored = snapshot.tariff();
+        return new BuildingTariff(
+                resolveElectricityTariff(snapshot.building(), stored, request),
+                request.getWaterUnitPrice() != null
+                        ? request.getWaterUnitPrice()
+                        : stored.waterUnitPrice(),
+                request.getWaterCalcMethod() != null
+                        ? request.getWaterCalcMethod()
+                        : stored.waterCalcMethod());
+    }
+
+    private ElectricityTariff resolveElectricityTariff(
+            final Building building,
+            final BuildingTariff stored,
+            final InvoicePreviewRequest request) {
+        final List<ElectricityTier> tiers = request.getElecTiers();
+        if (tiers != null && !tiers.isEmpty()) {
+            return ElectricityTierTable.from(tiers).toTariff();
+        }
+        final Integer elecUnitPrice =
+                request.getElecUnitPrice() != null
+                        ? request.getElecUnitPrice()
+                        : building.getElecUnitPrice();
+        // Danh sách rỗng: bỏ bậc thang đang lưu, tính theo đơn giá điện
+        if (tiers != null || request.getElecUnitPrice() != null) {
+            return ElectricityTariff.of(elecUnitPrice, null, null);
+        }
+        return stored.electricity();
+    }
+
+    private InvoicePreviewItem previewRoom(final Room room, final BillingSnapshot snapshot) {
+        final InvoicePreviewItem.InvoicePreviewItemBuilder item =
+                InvoicePreviewItem.builder().roomId(room.getId()).roomNo(room.getRoomNo());
+        if (snapshot.hasInvoice(room.getId())) {
+            return item.status(InvoicePreviewStatus.ALREADY_INVOICED).build();
+        }
+        final Tenant tenant = snapshot.contractHolder(room.getId());
+        if (tenant == null) {
+            return item.status(InvoicePreviewStatus.NO_CONTRACT_HOLDER).build();
+        }
+        item.tenantName(tenant.getName());
+        try {
+            final RoomCharges charges = invoiceCalculator.calculateCharges(room.getId(), snapshot);
+            return item.status(InvoicePreviewStatus.READY)
+                    .roomPrice(room.getPrice())
+                    .elecUsage(charges.electricity().usage())
+                    .elecAmount(charges.electricity().amount())
+                    .waterUsage(charges.water().usage())
+                    .waterAmount(charges.water().amount())
+                    .totalAmount(room.getPrice() + charges.utilityAmount())
+                    .build();
+        } catch (final AppException e) {
+            return item.status(InvoicePreviewStatus.ERROR)
+                    .error(e.getErrorCode().getMessage())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.util.PeriodUtils;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tính lại hóa đơn DRAFT của 1 phòng khi chỉ số điện nước tháng {@code month} được ghi hoặc sửa.
+ * Chỉ số tháng {@code month} vừa là chỉ số mới của kỳ {@code month} vừa là chỉ số cũ của kỳ sau,
+ * nên chỉ 2 hóa đơn này bị ảnh hưởng; hóa đơn đã gửi (UNPAID, PAID...) giữ nguyên số tiền.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceRebillingService {
+    private static final String INVOICE_CACHE = "invoices";
+
+    private final InvoiceRepository invoiceRepository;
+    private final BillingSnapshotLoader billingSnapshotLoader;
+    private final InvoiceCalculator invoiceCalculator;
+    private final CacheManager cacheManager;
+
+    /**
+     * @return id các hóa đơn đã tính lại
+     */
+    @Transactional
+    public List<Integer> rebillDraftInvoices(final Room room, final String month) {
+        final List<Invoice> drafts =
+                invoiceRepository.findByRoomIdAndPeriodInAndStatus(
+                        room.getId(),
+                        List.of(month, PeriodUtils.getNextMonth(month)),
+                        InvoiceStatus.DRAFT);
+        final List<Invoice> rebilled = new ArrayList<>();
+        for (final Invoice invoice : drafts) {
+            if (rebill(room, invoice)) {
+                rebilled.add(invoice);
+            }
+        }
+        if (rebilled.isEmpty()) {
+            return List.of();
+        }
+        invoiceRepository.saveAll(rebilled);
+        final List<Integer> ids = rebilled.stream().map(Invoice::getId).toList();
+        evictInvoices(ids);
+        return ids;
+    }
+
+    private boolean rebill(final Room room, final Invoice invoice) {
+        final BillingSnapshot snapshot =
+                billingSnapshotLoader.loadForRoom(room, invoice.getPeriod());
+        final RoomCharges charges;
+        try {
+            charges = invoiceCalculator.calculateCharges(room.getId(), snapshot);
+        } catch (final AppException e) {
+            // Không chặn việc ghi chỉ số vì hóa đơn cũ không tính lại được, giữ nguyên số tiền cũ
+            log.warn("Skip re-billing invoice {}: {}", invoice.getId(), e.getErrorCode());
+            return false;
+        }
+        // Hóa đơn nháp chưa gửi nên ảnh chụp chỉ số và giá được chụp lại cùng số tiền
+        invoiceCalculator.applyCharges(invoice, charges, snapshot.tariff());
+        return true;
+    }
+
+    // cacheManager transaction-aware: key chỉ bị xóa sau khi transaction commit
+    private void evictInvoices(final List<Integer> ids) {
+        final Cache cache = cacheManager.getCache(INVOICE_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (final Integer id : ids) {
+            cache.evict(id);
+        }
+    }
+}
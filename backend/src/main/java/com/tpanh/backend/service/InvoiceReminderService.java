@@ -0,0 +1,111 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.ReminderStatus;
+import com.tpanh.backend.repository.InvoiceReminderRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.ReminderCandidateView;
+import com.tpanh.backend.util.JobShard;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Nhắc khách thuê các hóa đơn sắp đến hạn: mỗi khách thuê nhận 1 email cho mọi hóa đơn của mình.
+ * Email được gửi theo từng đợt qua {@code reminderExecutor} (giới hạn số kết nối SMTP đồng thời),
+ * kết quả của đợt được ghi vào {@code invoice_reminders} nên chạy lại không nhắc trùng hóa đơn đã
+ * gửi thành công.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceReminderService {
+    private static final List<InvoiceStatus> REMINDED_STATUSES =
+            List.of(InvoiceStatus.DRAFT, InvoiceStatus.UNPAID);
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceReminderRepository invoiceReminderRepository;
+    private final EmailService emailService;
+    private final BillingProperties billingProperties;
+    @Qualifier("reminderExecutor")
+    private final TaskExecutor reminderExecutor;
+
+    /**
+     * @return số khách thuê đã được gửi nhắc thành công trong phân vùng
+     */
+    public int sendDueReminders(final LocalDate today, final JobShard shard) {
+        final LocalDate until = today.plusDays(billingProperties.getReminderDaysBefore());
+        final List<List<ReminderCandidateView>> byTenant =
+                List.copyOf(
+                        invoiceRepository
+                                .findReminderCandidates(
+                                        REMINDED_STATUSES,
+                                        today,
+                                        until,
+                                        shard.count(),
+                                        shard.index())
+                                .stream()
+                                .collect(
+                                        Collectors.groupingBy(
+                                                ReminderCandidateView::tenantId,
+                                                LinkedHashMap::new,
+                                                Collectors.toList()))
+                                .values());
+        final int batchSize = billingProperties.getReminderBatchSize();
+        int sent = 0;
+        for (int from = 0; from < byTenant.size(); from += batchSize) {
+            sent += dispatch(byTenant.subList(from, Math.min(from + batchSize, byTenant.size())));
+        }
+        return sent;
+    }
+
+    private int dispatch(final List<List<ReminderCandidateView>> batch) {
+        final List<CompletableFuture<Boolean>> results =
+                batch.stream()
+                        .map(
+                                invoices ->
+                                        CompletableFuture.supplyAsync(
+                                                () -> send(invoices), reminderExecutor))
+                        .toList();
+        final List<Integer> sentIds = new ArrayList<>();
+        final List<Integer> failedIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final List<Integer> invoiceIds =
+                    batch.get(i).stream().map(ReminderCandidateView::invoiceId).toList();
+            if (results.get(i).join()) {
+                sentIds.addAll(invoiceIds);
+            } else {
+                failedIds.addAll(invoiceIds);
+            }
+        }
+        record(sentIds, ReminderStatus.SENT);
+        record(failedIds, ReminderStatus.FAILED);
+        return (int) results.stream().filter(CompletableFuture::join).count();
+    }
+
+    private boolean send(final List<ReminderCandidateView> invoices) {
+        final ReminderCandidateView first = invoices.get(0);
+        try {
+            emailService.sendDueReminderEmail(first.email(), first.tenantName(), invoices);
+            return true;
+        } catch (final RuntimeException e) {
+            log.warn("Due reminder failed: tenantId={}", first.tenantId(), e);
+            return false;
+        }
+    }
+
+    private void record(final List<Integer> invoiceIds, final ReminderStatus status) {
+        if (!invoiceIds.isEmpty()) {
+            invoiceReminderRepository.record(invoiceIds, status.name());
+        }
+    }
+}
@@ -1,39 +1,41 @@
 package com.tpanh.backend.service;
 
 import com.tpanh.backend.dto.InvoiceDetailResponse;
+import com.tpanh.backend.dto.InvoiceEmailBatchResponse;
+import com.tpanh.backend.dto.InvoiceEmailItem;
 import com.tpanh.backend.dto.InvoiceResponse;
 import com.tpanh.backend.dto.PageResponse;
-import com.tpanh.backend.entity.Building;
 import com.tpanh.backend.entity.Invoice;
-import com.tpanh.backend.entity.MeterRecord;
 import com.tpanh.backend.entity.PaymentLog;
 import com.tpanh.backend.entity.Room;
 import com.tpanh.backend.entity.Tenant;
-import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoiceEmailStatus;
 import com.tpanh.backend.enums.InvoiceStatus;
-import com.tpanh.backend.enums.MeterType;
-import com.tpanh.backend.enums.WaterCalcMethod;
 import com.tpanh.backend.exception.AppException;
 import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.InvoiceMapper;
-import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceDetailView;
+import com.tpanh.backend.repository.InvoiceEmailView;
+import com.tpanh.backend.repository.InvoicePaymentView;
 import com.tpanh.backend.repository.InvoiceRepository;
-import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.InvoiceSummaryView;
 import com.tpanh.backend.repository.PaymentLogRepository;
-import com.tpanh.backend.repository.RoomRepository;
-import com.tpanh.backend.repository.TenantRepository;
-import com.tpanh.backend.repository.UtilityReadingRepository;
 import com.tpanh.backend.security.CurrentUser;
-import com.tpanh.backend.util.PeriodUtils;
+import com.tpanh.backend.util.JobShard;
+import com.tpanh.backend.util.KeysetCursor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,135 +43,77 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class InvoiceService {
+    private static final int OVERDUE_CHUNK_SIZE = 1000;
 
-    private static final int DUE_DATE_DAYS = 5;
+    // Hóa đơn mới nhất trước; id phân biệt các hóa đơn cùng kỳ
+    private static final KeysetCursor<InvoiceSummaryView> INVOICE_CURSOR =
+            new KeysetCursor<>(
+                    KeysetCursor.Key.text("period", InvoiceSummaryView::period),
+                    KeysetCursor.Key.integer("id", InvoiceSummaryView::id));
 
     private final InvoiceMapper invoiceMapper;
     private final InvoiceRepository invoiceRepository;
-    private final RoomRepository roomRepository;
-    private final TenantRepository tenantRepository;
-    private final MeterRecordRepository meterRecordRepository;
-    private final UtilityReadingRepository utilityReadingRepository;
-    private final BuildingRepository buildingRepository;
+    private final BillingSnapshotLoader billingSnapshotLoader;
+    private final InvoiceCalculator invoiceCalculator;
     private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final PaymentLogRepository paymentLogRepository;
     private final CurrentUser currentUser;
+    private final InvoiceDetailCache invoiceDetailCache;
+    private final ListingCountCache listingCountCache;
 
     @Transactional
     @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
     public List<InvoiceResponse> createInvoicesForBuilding(
             final Integer buildingId, final String period) {
-        final List<InvoiceResponse> results = new ArrayList<>();
-        final List<Room> rooms = roomRepository.findByBuildingId(buildingId);
+        return generateInvoices(buildingId, period);
+    }
 
-        for (final Room room : rooms) {
-            if (shouldSkipRoom(room.getId(), period)) {
+    /**
+     * Tạo hóa đơn cho job hệ thống (không có authentication). Mỗi lần gọi qua proxy là 1
+     * transaction riêng cho 1 tòa nhà.
+     */
+    @Transactional
+    public List<InvoiceResponse> generateInvoicesForBuilding(
+            final Integer buildingId, final String period) {
+        return generateInvoices(buildingId, period);
+    }
+
+    private List<InvoiceResponse> generateInvoices(final Integer buildingId, final String period) {
+        final BillingSnapshot snapshot = billingSnapshotLoader.load(buildingId, period);
+        final List<Invoice> invoices = new ArrayList<>();
+
+        for (final Room room : snapshot.rooms()) {
+            if (snapshot.hasInvoice(room.getId())) {
                 continue;
             }
 
-            final Tenant tenant = findContractHolder(room.getId());
+            final Tenant tenant = snapshot.contractHolder(room.getId());
             if (tenant == null) {
                 continue;
             }
 
-            final int elecCost = calculateElectricityCost(room.getId(), period, buildingId);
-            final int waterCost = calculateWaterCost(room.getId(), period, buildingId);
-
-            final Invoice invoice = buildInvoice(room, tenant, period, elecCost, waterCost);
-            final Invoice savedInvoice = invoiceRepository.save(invoice);
-            results.add(invoiceMapper.toResponse(savedInvoice));
-        }
-
-        return results;
-    }
-
-    private boolean shouldSkipRoom(final Integer roomId, final String period) {
-        return invoiceRepository.existsByRoomIdAndPeriod(roomId, period);
-    }
-
-    private Tenant findContractHolder(final Integer roomId) {
-        final var tenantOpt = tenantRepository.findByRoomIdAndIsContractHolderTrue(roomId);
-        return tenantOpt.orElse(null);
-    }
-
-    private int calculateElectricityCost(
-            final Integer roomId, final String period, final Integer buildingId) {
-        final var building =
-                buildingRepository
-                        .findById(buildingId)
-                        .orElseThrow(() -> new AppException(ErrorCode.BUILDING_NOT_FOUND));
-
-        final Integer elecUnitPrice = building.getElecUnitPrice();
-        if (elecUnitPrice == null) {
-            return 0;
-        }
-        final var costFromUtilityReading =
-                calculateElectricityCostFromUtilityReading(roomId, period, elecUnitPrice);
-        if (costFromUtilityReading != null) {
-            return costFromUtilityReading;
-        }
-        return calculateElectricityCostFromMeterRecord(roomId, period, elecUnitPrice);
-    }
-
-    private int calculateWaterCost(
-            final Integer roomId, final String period, final Integer buildingId) {
-        final var building =
-                buildingRepository
-                        .findById(buildingId)
-                        .orElseThrow(() -> new AppException(ErrorCode.BUILDING_NOT_FOUND));
-        final var costFromUtilityReading = calculateWaterUsageFromUtilityReading(roomId, period);
-        if (costFromUtilityReading != null) {
-            final int tenantCount = tenantRepository.countByRoomId(roomId);
-            return calculateWaterFee(building, costFromUtilityReading, tenantCount);
-        }
-        final int waterUsageFromMeterRecord = calculateWaterUsageFromMeterRecord(roomId, period);
-        final int tenantCount = tenantRepository.countByRoomId(roomId);
-        return calculateWaterFee(building, waterUsageFromMeterRecord, tenantCount);
-    }
-
-    private Invoice buildInvoice(
-            final Room room,
-            final Tenant tenant,
-            final String period,
-            final int elecCost,
-            final int waterCost) {
-        final Invoice invoice = new Invoice();
-        invoice.setRoom(room);
-        invoice.setTenant(tenant);
-        invoice.setPeriod(period);
-        invoice.setRoomPrice(room.getPrice());
-        invoice.setElecAmount(elecCost);
-        invoice.setWaterAmount(waterCost);
-        invoice.setTotalAmount(room.getPrice() + elecCost + waterCost);
-        invoice.setStatus(InvoiceStatus.DRAFT);
-        invoice.setDueDate(LocalDate.now().plusDays(DUE_DATE_DAYS));
-        return invoice;
-    }
-
-    private Integer calculateWaterFee(
-            final Building building, final Integer usage, final Integer tenantCount) {
-        if (building.getWaterCalcMethod() == null || building.getWaterUnitPrice() == null) {
-            return 0;
-        }
-
-        if (building.getWaterCalcMethod() == WaterCalcMethod.PER_CAPITA) {
-            return building.getWaterUnitPrice() * tenantCount;
-        }
-
-        if (building.getWaterCalcMethod() == WaterCalcMethod.BY_METER) {
-            return building.getWaterUnitPrice() * usage;
+            invoices.add(invoiceCalculator.calculate(room, tenant, snapshot));
         }
 
-        return 0;
+        // Request đồng thời cùng tòa nhà / kỳ: phòng đã có hóa đơn sẽ bị ON CONFLICT bỏ qua
+        return invoiceRepository.insertIfAbsent(invoices).stream()
+                .map(invoiceMapper::toResponse)
+                .toList();
     }
 
+    /**
+     * @param withTotal {@code false} để chỉ trả {@code hasNext}; {@code true} lấy tổng số từ {@link
+     *     ListingCountCache}
+     */
     @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
     public PageResponse<InvoiceResponse> getInvoices(
             final Integer buildingId,
             final String period,
             final InvoiceStatus status,
+            final boolean withTotal,
             final Pageable pageable) {
-        final Page<Invoice> invoicePage =
+        final Slice<InvoiceSummaryView> invoicePage =
                 invoiceRepository.findByBuildingIdWithFilters(buildingId, period, status, pageable);
 
         final var content =
@@ -177,226 +121,86 @@ public class InvoiceService {
 
         return PageResponse.<InvoiceResponse>builder()
                 .content(content)
-                .page(buildPageInfo(invoicePage))
+                .page(
+                        PageResponse.PageInfo.of(
+                                invoicePage,
+                                withTotal,
+                                () -> listingCountCache.countInvoices(buildingId, period, status)))
                 .message("Lấy danh sách hóa đơn thành công")
                 .build();
     }
 
-    @PreAuthorize("@invoicePermission.canAccessInvoice(#id, authentication)")
-    @Cacheable(value = "invoices", key = "#id")
-    public InvoiceDetailResponse getInvoiceDetail(final Integer id) {
-        final Invoice invoice = getInvoiceOrThrow(id);
-        final InvoiceDetailResponse response = invoiceMapper.toDetailResponse(invoice);
-        if (tryPopulateUtilityReadingDetails(invoice, response)) {
-            return response;
-        }
-        populateMeterRecordDetails(invoice, response);
-        return response;
-    }
-
-    private Invoice getInvoiceOrThrow(final Integer id) {
-        return invoiceRepository
-                .findById(id)
-                .orElseThrow(() -> new AppException(ErrorCode.INVOICE_NOT_FOUND));
-    }
-
-    private Integer calculateElectricityCostFromUtilityReading(
-            final Integer roomId, final String period, final Integer elecUnitPrice) {
-        final var currentReading = utilityReadingRepository.findByRoomIdAndMonth(roomId, period);
-        if (currentReading.isEmpty() || currentReading.get().getElectricIndex() == null) {
-            return null;
-        }
-        final var previousReading =
-                utilityReadingRepository.findByRoomIdAndMonth(
-                        roomId, PeriodUtils.getPreviousMonth(period));
-        final int currentValue = currentReading.get().getElectricIndex();
-        final int previousValue =
-                resolvePreviousElectricIndexOrThrow(roomId, period, previousReading);
-        final int usage = currentValue - previousValue;
-        return usage < 0 ? 0 : usage * elecUnitPrice;
-    }
-
-    private int calculateElectricityCostFromMeterRecord(
-            final Integer roomId, final String period, final Integer elecUnitPrice) {
-        final var elecRecord =
-                meterRecordRepository.findByRoomIdAndPeriodAndType(roomId, period, MeterType.ELEC);
-        if (elecRecord.isEmpty()) {
-            return 0;
-        }
-        final int usage = elecRecord.get().getCurrentValue() - elecRecord.get().getPreviousValue();
-        return usage < 0 ? 0 : usage * elecUnitPrice;
-    }
-
-    private Integer calculateWaterUsageFromUtilityReading(
-            final Integer roomId, final String period) {
-        final var currentReading = utilityReadingRepository.findByRoomIdAndMonth(roomId, period);
-        if (currentReading.isEmpty() || currentReading.get().getWaterIndex() == null) {
-            return null;
-        }
-        final var previousReading =
-                utilityReadingRepository.findByRoomIdAndMonth(
-                        roomId, PeriodUtils.getPreviousMonth(period));
-        final int currentValue = currentReading.get().getWaterIndex();
-        final int previousValue = resolvePreviousWaterIndexOrThrow(roomId, period, previousReading);
-        final int usage = currentValue - previousValue;
-        return usage < 0 ? 0 : usage;
-    }
-
-    private int calculateWaterUsageFromMeterRecord(final Integer roomId, final String period) {
-        final var waterRecord =
-                meterRecordRepository.findByRoomIdAndPeriodAndType(roomId, period, MeterType.WATER);
-        if (waterRecord.isEmpty()) {
-            return 0;
-        }
-        final int usage =
-                waterRecord.get().getCurrentValue() - waterRecord.get().getPreviousValue();
-        return usage < 0 ? 0 : usage;
-    }
-
-    private boolean tryPopulateUtilityReadingDetails(
-            final Invoice invoice, final InvoiceDetailResponse response) {
-        final var currentReading =
-                utilityReadingRepository.findByRoomIdAndMonth(
-                        invoice.getRoom().getId(), invoice.getPeriod());
-        if (currentReading.isEmpty()) {
-            return false;
-        }
-        final var previousReading =
-                utilityReadingRepository.findByRoomIdAndMonth(
-                        invoice.getRoom().getId(),
-                        PeriodUtils.getPreviousMonth(invoice.getPeriod()));
-        populateElectricityFromUtilityReading(
-                invoice, response, currentReading.get(), previousReading);
-        populateWaterFromUtilityReading(invoice, response, currentReading.get(), previousReading);
-        return true;
-    }
-
-    private void populateElectricityFromUtilityReading(
-            final Invoice invoice,
-            final InvoiceDetailResponse response,
-            final UtilityReading currentReading,
-            final Optional<UtilityReading> previousReading) {
-        if (currentReading.getElectricIndex() == null) {
-            return;
-        }
-        final int currentValue = currentReading.getElectricIndex();
-        final Integer previousValue =
-                resolvePreviousElectricIndexForDisplay(
-                        invoice.getRoom().getId(), invoice.getPeriod(), previousReading);
-        response.setElecPreviousValue(previousValue);
-        response.setElecCurrentValue(currentValue);
-        response.setElecUsage(previousValue != null ? currentValue - previousValue : null);
-        response.setElecUnitPrice(invoice.getRoom().getBuilding().getElecUnitPrice());
-    }
-
-    private void populateWaterFromUtilityReading(
-            final Invoice invoice,
-            final InvoiceDetailResponse response,
-            final UtilityReading currentReading,
-            final Optional<UtilityReading> previousReading) {
-        if (currentReading.getWaterIndex() == null) {
-            return;
-        }
-        final int currentValue = currentReading.getWaterIndex();
-        final Integer previousValue =
-                resolvePreviousWaterIndexForDisplay(
-                        invoice.getRoom().getId(), invoice.getPeriod(), previousReading);
-        response.setWaterPreviousValue(previousValue);
-        response.setWaterCurrentValue(currentValue);
-        response.setWaterUsage(previousValue != null ? currentValue - previousValue : null);
-        response.setWaterUnitPrice(invoice.getRoom().getBuilding().getWaterUnitPrice());
-    }
-
-    private void populateMeterRecordDetails(
-            final Invoice invoice, final InvoiceDetailResponse response) {
-        populateElectricityFromMeterRecord(invoice, response);
-        populateWaterFromMeterRecord(invoice, response);
-    }
-
-    private void populateElectricityFromMeterRecord(
-            final Invoice invoice, final InvoiceDetailResponse response) {
-        final var elecRecord =
-                meterRecordRepository.findByRoomIdAndPeriodAndType(
-                        invoice.getRoom().getId(), invoice.getPeriod(), MeterType.ELEC);
-        if (elecRecord.isEmpty()) {
-            return;
-        }
-        final MeterRecord record = elecRecord.get();
-        response.setElecPreviousValue(record.getPreviousValue());
-        response.setElecCurrentValue(record.getCurrentValue());
-        response.setElecUsage(record.getCurrentValue() - record.getPreviousValue());
-        response.setElecUnitPrice(invoice.getRoom().getBuilding().getElecUnitPrice());
-    }
-
-    private void populateWaterFromMeterRecord(
-            final Invoice invoice, final InvoiceDetailResponse response) {
-        final var waterRecord =
-                meterRecordRepository.findByRoomIdAndPeriodAndType(
-                        invoice.getRoom().getId(), invoice.getPeriod(), MeterType.WATER);
-        if (waterRecord.isEmpty()) {
-            return;
-        }
-        final MeterRecord record = waterRecord.get();
-        response.setWaterPreviousValue(record.getPreviousValue());
-        response.setWaterCurrentValue(record.getCurrentValue());
-        response.setWaterUsage(record.getCurrentValue() - record.getPreviousValue());
-        response.setWaterUnitPrice(invoice.getRoom().getBuilding().getWaterUnitPrice());
-    }
-
-    private int resolvePreviousElectricIndexOrThrow(
-            final Integer roomId,
-            final String period,
-            final Optional<UtilityReading> previousReading) {
-        if (previousReading.isPresent() && previousReading.get().getElectricIndex() != null) {
-            return previousReading.get().getElectricIndex();
-        }
-
-        final boolean hasHistoryBeforeCurrentMonth =
-                utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, period);
-        if (hasHistoryBeforeCurrentMonth) {
-            throw new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING);
-        }
-        return 0;
-    }
-
-    private int resolvePreviousWaterIndexOrThrow(
-            final Integer roomId,
+    /**
+     * Như {@link #getInvoices} nhưng phân trang keyset theo {@code (period, id)} giảm dần, không
+     * đếm tổng số dòng.
+     *
+     * @param cursor {@code nextCursor} của trang trước, rỗng để lấy trang đầu
+     */
+    @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
+    public PageResponse<InvoiceResponse> scrollInvoices(
+            final Integer buildingId,
             final String period,
-            final Optional<UtilityReading> previousReading) {
-        if (previousReading.isPresent() && previousReading.get().getWaterIndex() != null) {
-            return previousReading.get().getWaterIndex();
-        }
-
-        final boolean hasHistoryBeforeCurrentMonth =
-                utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, period);
-        if (hasHistoryBeforeCurrentMonth) {
-            throw new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING);
-        }
-        return 0;
+            final InvoiceStatus status,
+            final String cursor,
+            final int size) {
+        final Map<String, Object> after = INVOICE_CURSOR.decode(cursor);
+        final Limit limit = Limit.of(size + 1);
+        final List<InvoiceSummaryView> rows =
+                after.isEmpty()
+                        ? invoiceRepository.scrollByBuildingIdWithFilters(
+                                buildingId, period, status, limit)
+                        : invoiceRepository.scrollByBuildingIdWithFiltersAfter(
+                                buildingId,
+                                period,
+                                status,
+                                (String) after.get("period"),
+                                (Integer) after.get("id"),
+                                limit);
+        final Window<InvoiceSummaryView> window = INVOICE_CURSOR.window(rows, size);
+        return PageResponse.<InvoiceResponse>builder()
+                .content(window.getContent().stream().map(invoiceMapper::toResponse).toList())
+                .nextCursor(INVOICE_CURSOR.nextCursor(window))
+                .message("Lấy danh sách hóa đơn thành công")
+                .build();
     }
 
-    private Integer resolvePreviousElectricIndexForDisplay(
-            final Integer roomId,
-            final String period,
-            final Optional<UtilityReading> previousReading) {
-        if (previousReading.isPresent() && previousReading.get().getElectricIndex() != null) {
-            return previousReading.get().getElectricIndex();
-        }
-        final boolean hasHistoryBeforeCurrentMonth =
-                utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, period);
-        return hasHistoryBeforeCurrentMonth ? null : 0;
+    @PreAuthorize("@invoicePermission.canAccessInvoice(#id, authentication)")
+    @Cacheable(value = "invoices", key = "#id")
+    public InvoiceDetailResponse getInvoiceDetail(final Integer id) {
+        final InvoiceDetailView view =
+                invoiceRepository
+                        .findDetailById(id)
+                        .orElseThrow(() -> new AppException(ErrorCode.INVOICE_NOT_FOUND));
+        // Chỉ số và giá lấy từ ảnh chụp trên hóa đơn, không tra lại chỉ số hay giá hiện tại
+        return invoiceMapper.toDetailResponse(view);
     }
 
-    private Integer resolvePreviousWaterIndexForDisplay(
-            final Integer roomId,
-            final String period,
-            final Optional<UtilityReading> previousReading) {
-        if (previousReading.isPresent() && previousReading.get().getWaterIndex() != null) {
-            return previousReading.get().getWaterIndex();
+    /**
+     * Chi tiết nhiều hóa đơn theo thứ tự {@code ids} (bỏ id trùng): quyền kiểm tra bằng 1 query,
+     * hóa đơn đã có trong cache lấy bằng 1 lần MGET, phần còn lại đọc bằng 1 query rồi ghi lại
+     * cache.
+     *
+     * @throws AppException {@link ErrorCode#INVOICE_NOT_FOUND} nếu có id không tồn tại
+     */
+    @PreAuthorize("@invoicePermission.canAccessInvoices(#ids, authentication)")
+    public List<InvoiceDetailResponse> getInvoiceDetails(final List<Integer> ids) {
+        final List<Integer> distinctIds = ids.stream().distinct().toList();
+        final Map<Integer, InvoiceDetailResponse> details =
+                new HashMap<>(invoiceDetailCache.getAll(distinctIds));
+        final List<Integer> missingIds =
+                distinctIds.stream().filter(id -> !details.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            final List<InvoiceDetailResponse> loaded =
+                    invoiceRepository.findDetailsByIds(missingIds).stream()
+                            .map(invoiceMapper::toDetailResponse)
+                            .toList();
+            if (loaded.size() < missingIds.size()) {
+                throw new AppException(ErrorCode.INVOICE_NOT_FOUND);
+            }
+            invoiceDetailCache.putAll(loaded);
+            loaded.forEach(detail -> details.put(detail.getId(), detail));
         }
-        final boolean hasHistoryBeforeCurrentMonth =
-                utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, period);
-        return hasHistoryBeforeCurrentMonth ? null : 0;
+        return distinctIds.stream().map(details::get).toList();
     }
 
     @PreAuthorize("@invoicePermission.canAccessInvoice(#id, authentication)")
@@ -433,14 +237,61 @@ public class InvoiceService {
         return invoiceMapper.toResponse(savedInvoice);
     }
 
-    private PageResponse.PageInfo buildPageInfo(final Page<?> page) {
-        return PageResponse.PageInfo.builder()
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .first(page.isFirst())
-                .last(page.isLast())
+    /**
+     * Thanh toán nhiều hóa đơn trong 1 transaction: quyền kiểm tra bằng 1 query, các hóa đơn được
+     * khóa và kiểm tra trạng thái trong bộ nhớ, rồi đổi trạng thái bằng 1 câu UPDATE và ghi log
+     * theo batch. Chỉ cache chi tiết của các hóa đơn này bị xóa.
+     *
+     * @return hóa đơn sau thanh toán theo thứ tự {@code ids} (bỏ id trùng)
+     * @throws AppException nếu có hóa đơn không tồn tại hoặc không thanh toán được; khi đó không
+     *     hóa đơn nào được thanh toán
+     */
+    @Transactional
+    @PreAuthorize("@invoicePermission.canAccessInvoices(#ids, authentication)")
+    public List<InvoiceResponse> payInvoices(final List<Integer> ids) {
+        final List<Integer> distinctIds = ids.stream().distinct().toList();
+        final List<InvoicePaymentView> invoices = invoiceRepository.lockForPayment(distinctIds);
+        validatePayable(distinctIds, invoices);
+
+        invoiceRepository.markPaid(distinctIds, LocalDateTime.now());
+        final String performedBy = currentUser.getUserId();
+        paymentLogRepository.saveAll(
+                invoices.stream().map(invoice -> paidLog(invoice, performedBy)).toList());
+        invoiceDetailCache.evictAllAfterCommit(distinctIds);
+
+        final Map<Integer, InvoiceResponse> responses = new HashMap<>();
+        for (final InvoiceSummaryView view : invoiceRepository.findSummariesByIds(distinctIds)) {
+            responses.put(view.id(), invoiceMapper.toResponse(view));
+        }
+        return distinctIds.stream().map(responses::get).toList();
+    }
+
+    private static void validatePayable(
+            final List<Integer> ids, final List<InvoicePaymentView> invoices) {
+        if (invoices.size() < ids.size()) {
+            throw new AppException(ErrorCode.INVOICE_NOT_FOUND);
+        }
+        for (final InvoicePaymentView invoice : invoices) {
+            if (invoice.status() == InvoiceStatus.PAID) {
+                throw new AppException(ErrorCode.INVOICE_ALREADY_PAID);
+            }
+            if (invoice.status() != InvoiceStatus.UNPAID
+                    && invoice.status() != InvoiceStatus.DRAFT) {
+                throw new AppException(ErrorCode.INVOICE_CANNOT_BE_PAID);
+            }
+        }
+    }
+
+    // Tham chiếu hóa đơn không đọc lại entity, số tiền lấy từ dòng đã khóa
+    private PaymentLog paidLog(final InvoicePaymentView invoice, final String performedBy) {
+        return PaymentLog.builder()
+                .invoice(invoiceRepository.getReferenceById(invoice.id()))
+                .action("PAID")
+                .oldStatus(invoice.status().name())
+                .newStatus(InvoiceStatus.PAID.name())
+                .amount(invoice.totalAmount())
+                .performedBy(performedBy)
+                .note("Invoice paid manually")
                 .build();
     }
 
@@ -461,39 +312,86 @@ public class InvoiceService {
             throw new AppException(ErrorCode.EMAIL_REQUIRED);
         }
 
-        emailService.sendInvoiceEmail(
-                email,
-                invoice.getTenant().getName(),
-                invoice.getRoom().getRoomNo(),
-                invoice.getPeriod(),
-                invoice.getTotalAmount(),
-                invoice.getDueDate());
+        emailOutboxService.enqueue(
+                emailService.invoiceEmail(
+                        email,
+                        invoice.getTenant().getName(),
+                        invoice.getRoom().getRoomNo(),
+                        invoice.getPeriod(),
+                        invoice.getTotalAmount(),
+                        invoice.getDueDate()));
     }
 
+    /**
+     * Xếp email hóa đơn của cả tòa nhà trong kỳ vào outbox trong 1 transaction; worker gửi cả đợt
+     * qua 1 kết nối SMTP. Hóa đơn chưa có khách thuê hoặc email được bỏ qua và báo trong kết quả.
+     */
     @Transactional
-    @CacheEvict(value = "invoices", allEntries = true)
-    public int markOverdueInvoices() {
-        final List<Invoice> overdueInvoices =
-                invoiceRepository.findOverdueInvoices(LocalDate.now());
-        if (overdueInvoices.isEmpty()) {
-            return 0;
-        }
+    @PreAuthorize("@invoicePermission.canAccessBuildingInvoices(#buildingId, authentication)")
+    public InvoiceEmailBatchResponse sendInvoiceEmails(
+            final Integer buildingId, final String period) {
+        final List<InvoiceEmailItem> items =
+                invoiceRepository.findEmailRecipients(buildingId, period).stream()
+                        .map(this::queueInvoiceEmail)
+                        .toList();
+        final int queued =
+                (int)
+                        items.stream()
+                                .filter(item -> item.getStatus() == InvoiceEmailStatus.QUEUED)
+                                .count();
+        return InvoiceEmailBatchResponse.builder()
+                .buildingId(buildingId)
+                .period(period)
+                .queuedCount(queued)
+                .skippedCount(items.size() - queued)
+                .invoices(items)
+                .build();
+    }
 
-        for (final Invoice invoice : overdueInvoices) {
-            final String oldStatus = invoice.getStatus().name();
-            invoice.setStatus(InvoiceStatus.OVERDUE);
-            final Invoice savedInvoice = invoiceRepository.save(invoice);
-
-            paymentLogRepository.save(
-                    PaymentLog.create(
-                            savedInvoice,
-                            "MARKED_OVERDUE",
-                            oldStatus,
-                            InvoiceStatus.OVERDUE.name(),
-                            "SYSTEM",
-                            "Auto marked overdue by scheduler"));
+    private InvoiceEmailItem queueInvoiceEmail(final InvoiceEmailView invoice) {
+        final InvoiceEmailStatus status;
+        if (invoice.tenantId() == null) {
+            status = InvoiceEmailStatus.NO_TENANT;
+        } else if (invoice.email() == null || invoice.email().isBlank()) {
+            status = InvoiceEmailStatus.NO_EMAIL;
+        } else {
+            status = InvoiceEmailStatus.QUEUED;
+            emailOutboxService.enqueue(
+                    emailService.invoiceEmail(
+                            invoice.email(),
+                            invoice.tenantName(),
+                            invoice.roomNo(),
+                            invoice.period(),
+                            invoice.totalAmount(),
+                            invoice.dueDate()));
         }
+        return InvoiceEmailItem.builder()
+                .invoiceId(invoice.invoiceId())
+                .roomNo(invoice.roomNo())
+                .tenantName(invoice.tenantName())
+                .email(invoice.email())
+                .status(status)
+                .build();
+    }
 
-        return overdueInvoices.size();
+    /**
+     * Chuyển hóa đơn quá hạn thuộc phân vùng {@code shard} sang OVERDUE theo từng đợt {@value
+     * #OVERDUE_CHUNK_SIZE} hóa đơn. Mỗi đợt là 1 câu SQL trong transaction riêng nên không nạp
+     * entity nào và khóa dòng được nhả ngay sau đợt; cache chỉ bị xóa cho đúng các hóa đơn vừa đổi
+     * trạng thái.
+     *
+     * @param today ngày hiện tại theo múi giờ của lịch chạy; hạn trước ngày này là quá hạn
+     */
+    public int markOverdueInvoices(final LocalDate today, final JobShard shard) {
+        int total = 0;
+        List<Integer> marked;
+        do {
+            marked = invoiceRepository.markOverdue(today, shard, OVERDUE_CHUNK_SIZE);
+            // markOverdue tự commit đợt của mình trước khi trả về (hàm này không chạy trong
+            // transaction), nên xóa cache ngay ở đây đã là sau commit
+            invoiceDetailCache.evictAll(marked);
+            total += marked.size();
+        } while (marked.size() == OVERDUE_CHUNK_SIZE);
+        return total;
     }
 }
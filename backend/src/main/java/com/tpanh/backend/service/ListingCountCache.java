@@ -0,0 +1,57 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.RedisConfig;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.RoomStatus;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tổng số dòng của các danh sách phân trang, cache theo từng bộ lọc trong {@link
+ * RedisConfig#LISTING_COUNT_TTL}. Trang dữ liệu chỉ lấy {@code size + 1} dòng (Slice), nên trong
+ * TTL mỗi request phân trang chỉ còn 1 query thay vì query trang + COUNT(*).
+ *
+ * <p>Cache không bị xóa khi thêm/sửa/xóa dữ liệu: tổng số là xấp xỉ, có thể lệch trong tối đa 1
+ * TTL. Key chứa id tòa nhà/phòng/quản lý nên các quản lý không dùng chung entry.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingCountCache {
+    private final InvoiceRepository invoiceRepository;
+    private final RoomRepository roomRepository;
+    private final TenantRepository tenantRepository;
+    private final BuildingRepository buildingRepository;
+
+    @Cacheable(
+            value = RedisConfig.LISTING_COUNT_CACHE,
+            key = "'invoices:' + #buildingId + ':' + #period + ':' + #status")
+    public long countInvoices(
+            final Integer buildingId, final String period, final InvoiceStatus status) {
+        return invoiceRepository.count(
+                InvoiceRepository.byBuildingWithFilters(buildingId, period, status));
+    }
+
+    @Cacheable(
+            value = RedisConfig.LISTING_COUNT_CACHE,
+            key = "'rooms:' + #buildingId + ':' + #status")
+    public long countRooms(final Integer buildingId, final RoomStatus status) {
+        return roomRepository.count(RoomRepository.byBuildingAndStatus(buildingId, status));
+    }
+
+    @Cacheable(
+            value = RedisConfig.LISTING_COUNT_CACHE,
+            key = "'tenants:' + #buildingId + ':' + #roomId + ':' + #active")
+    public long countTenants(final Integer buildingId, final Integer roomId, final Boolean active) {
+        return tenantRepository.count(TenantRepository.withFilters(buildingId, roomId, active));
+    }
+
+    @Cacheable(value = RedisConfig.LISTING_COUNT_CACHE, key = "'buildings:' + #managerId")
+    public long countBuildings(final String managerId) {
+        return buildingRepository.countByManagerId(managerId);
+    }
+}
@@ -0,0 +1,171 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.enums.ReconciliationStatus;
+import com.tpanh.backend.repository.OpenInvoiceView;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Chỉ mục hóa đơn chờ thanh toán của 1 tòa nhà theo (số tiền, số phòng), để khớp từng giao dịch
+ * trong sao kê mà không truy vấn DB. Số phòng được tìm trong nội dung chuyển khoản đã bỏ dấu (VD:
+ * "P.101", "p101", "phong 101"); phòng nợ nhiều kỳ cùng số tiền thì chọn theo kỳ ghi trong nội
+ * dung (VD: "T1", "thang 01", "01/2025"). Mỗi hóa đơn chỉ được khớp 1 lần.
+ */
+final class PaymentMatcher {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^A-Z0-9]+");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern PERIOD = Pattern.compile("\\d{4}-\\d{2}");
+
+    // Khóa "số tiền|số phòng": số phòng viết liền ("P101"), hoặc chỉ phần số ("101") khi nội dung
+    // không ghi đủ tiền tố
+    private final Map<String, List<OpenInvoiceView>> byRoom = new HashMap<>();
+    private final Map<String, List<OpenInvoiceView>> byRoomDigits = new HashMap<>();
+    private final Set<Integer> matched = new HashSet<>();
+
+    PaymentMatcher(final List<OpenInvoiceView> invoices) {
+        for (final OpenInvoiceView invoice : invoices) {
+            final long amount = invoice.totalAmount();
+            final String room = compact(invoice.roomNo());
+            if (!room.isEmpty()) {
+                byRoom.computeIfAbsent(key(amount, room), k -> new ArrayList<>()).add(invoice);
+            }
+            final String digits = room.replaceAll("\\D", "");
+            if (!digits.isEmpty()) {
+                byRoomDigits
+                        .computeIfAbsent(key(amount, digits), k -> new ArrayList<>())
+                        .add(invoice);
+            }
+        }
+    }
+
+    Match match(final long amount, final String note) {
+        final List<String> words = words(note);
+        final Set<String> tokens = new HashSet<>(words);
+        for (int i = 1; i < words.size(); i++) {
+            tokens.add(words.get(i - 1) + words.get(i));
+        }
+        Collection<OpenInvoiceView> candidates = lookup(byRoom, amount, tokens);
+        if (candidates.isEmpty()) {
+            candidates = lookup(byRoomDigits, amount, digitRuns(words));
+        }
+        return choose(candidates, tokens);
+    }
+
+    private Match choose(final Collection<OpenInvoiceView> candidates, final Set<String> tokens) {
+        if (candidates.isEmpty()) {
+            return new Match(ReconciliationStatus.UNMATCHED, null);
+        }
+        final List<OpenInvoiceView> open =
+                candidates.stream().filter(invoice -> !matched.contains(invoice.id())).toList();
+        if (open.isEmpty()) {
+            final OpenInvoiceView paid = candidates.size() == 1 ? first(candidates) : null;
+            return new Match(ReconciliationStatus.DUPLICATE, paid);
+        }
+        final List<OpenInvoiceView> chosen =
+                open.size() == 1
+                        ? open
+                        : open.stream()
+                                .filter(invoice -> mentionsPeriod(tokens, invoice.period()))
+                                .toList();
+        if (chosen.size() != 1) {
+            return new Match(ReconciliationStatus.AMBIGUOUS, null);
+        }
+        final OpenInvoiceView invoice = chosen.get(0);
+        matched.add(invoice.id());
+        return new Match(ReconciliationStatus.MATCHED, invoice);
+    }
+
+    private static OpenInvoiceView first(final Collection<OpenInvoiceView> candidates) {
+        return candidates.iterator().next();
+    }
+
+    // Cùng 1 hóa đơn có thể khớp qua nhiều token (VD: "P101" và "P" + "101")
+    private static Collection<OpenInvoiceView> lookup(
+            final Map<String, List<OpenInvoiceView>> index,
+            final long amount,
+            final Collection<String> tokens) {
+        final Map<Integer, OpenInvoiceView> candidates = new LinkedHashMap<>();
+        for (final String token : tokens) {
+            final List<OpenInvoiceView> invoices = index.get(key(amount, token));
+            if (invoices != null) {
+                invoices.forEach(invoice -> candidates.putIfAbsent(invoice.id(), invoice));
+            }
+        }
+        return candidates.values();
+    }
+
+    private static boolean mentionsPeriod(final Set<String> tokens, final String period) {
+        if (period == null || !PERIOD.matcher(period).matches()) {
+            return false;
+        }
+        final String year = period.substring(0, 4);
+        final String mm = period.substring(5);
+        final String m = String.valueOf(Integer.parseInt(mm));
+        return Stream.of(
+                        year + mm,
+                        mm + year,
+                        m + year,
+                        "T" + m,
+                        "T" + mm,
+                        "THANG" + m,
+                        "THANG" + mm)
+                .anyMatch(tokens::contains);
+    }
+
+    private static Set<String> digitRuns(final List<String> words) {
+        final Set<String> runs = new HashSet<>();
+        for (final String word : words) {
+            final Matcher matcher = DIGITS.matcher(word);
+            while (matcher.find()) {
+                runs.add(matcher.group());
+            }
+        }
+        return runs;
+    }
+
+    private static String key(final long amount, final String room) {
+        return amount + "|" + room;
+    }
+
+    /** Bỏ dấu tiếng Việt và viết hoa: "Phòng 101 tháng 1" thành "PHONG 101 THANG 1". */
+    static String fold(final String text) {
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed)
+                .replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toUpperCase(Locale.ROOT);
+    }
+
+    /** Các từ chỉ gồm chữ và số của {@code text} đã {@link #fold bỏ dấu}. */
+    static List<String> words(final String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(NON_ALNUM.split(fold(text))).filter(word -> !word.isEmpty()).toList();
+    }
+
+    /** Các từ viết liền: "Số tiền" thành "SOTIEN", "P.101" thành "P101". */
+    static String compact(final String text) {
+        return String.join("", words(text));
+    }
+
+    /**
+     * @param invoice hóa đơn khớp; với {@link ReconciliationStatus#DUPLICATE} là hóa đơn đã được
+     *     dòng trước thanh toán nếu chỉ có 1
+     */
+    record Match(ReconciliationStatus status, OpenInvoiceView invoice) {}
+}
@@ -27,17 +27,20 @@ public class RegistrationService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final RedisTemplate<String, String> redisTemplate;
 
     public RegistrationService(
             final UserRepository userRepository,
             final PasswordEncoder passwordEncoder,
             final EmailService emailService,
+            final EmailOutboxService emailOutboxService,
             @Qualifier("customStringRedisTemplate")
                     final RedisTemplate<String, String> redisTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
         this.redisTemplate = redisTemplate;
     }
 
@@ -51,8 +54,10 @@ public class RegistrationService {
         final var activationToken = generateActivationToken();
         storeActivationToken(savedUser.getId(), activationToken);
 
-        emailService.sendActivationEmail(
-                savedUser.getEmail(), savedUser.getFullName(), activationToken);
+        // Email được gửi sau khi commit, request không chờ SMTP
+        emailOutboxService.enqueue(
+                emailService.activationEmail(
+                        savedUser.getEmail(), savedUser.getFullName(), activationToken));
 
         log.info(
                 "User registered successfully: userId={}, email={}",
@@ -0,0 +1,9 @@
+package com.tpanh.backend.service;
+
+/** Tiền điện và nước của 1 phòng trong 1 kỳ, chưa gồm tiền phòng. */
+public record RoomCharges(UtilityCharge electricity, UtilityCharge water) {
+
+    public int utilityAmount() {
+        return electricity.amount() + water.amount();
+    }
+}
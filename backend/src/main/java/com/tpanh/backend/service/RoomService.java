@@ -11,13 +11,18 @@ import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.RoomMapper;
 import com.tpanh.backend.repository.BuildingRepository;
 import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.RoomSummaryView;
+import com.tpanh.backend.util.KeysetCursor;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,9 +30,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class RoomService {
+    // Cùng thứ tự mặc định của danh sách phân trang theo số trang
+    private static final KeysetCursor<RoomSummaryView> ROOM_CURSOR =
+            new KeysetCursor<>(
+                    KeysetCursor.Key.text("roomNo", RoomSummaryView::roomNo),
+                    KeysetCursor.Key.integer("id", RoomSummaryView::id));
+
     private final RoomRepository roomRepository;
     private final BuildingRepository buildingRepository;
     private final RoomMapper roomMapper;
+    private final ListingCountCache listingCountCache;
 
     @Transactional
     @PreAuthorize("@buildingPermission.canAccessBuilding(#request.buildingId, authentication)")
@@ -102,40 +114,58 @@ public class RoomService {
     @PreAuthorize("@buildingPermission.canAccessBuilding(#buildingId, authentication)")
     public PageResponse<RoomResponse> getRoomsByBuildingId(
             final Integer buildingId, final Pageable pageable) {
-        return getRoomsByBuildingId(buildingId, null, pageable);
+        return getRoomsByBuildingId(buildingId, null, true, pageable);
     }
 
     @PreAuthorize("@buildingPermission.canAccessBuilding(#buildingId, authentication)")
     public PageResponse<RoomResponse> getRoomsByBuildingId(
-            final Integer buildingId, final RoomStatus status, final Pageable pageable) {
-
-        final Page<Room> page;
-        if (status != null) {
-            page = roomRepository.findByBuildingIdAndStatus(buildingId, status, pageable);
-        } else {
-            page = roomRepository.findByBuildingId(buildingId, pageable);
-        }
-
-        return buildPageResponse(page);
-    }
+            final Integer buildingId,
+            final RoomStatus status,
+            final boolean withTotal,
+            final Pageable pageable) {
 
-    private PageResponse<RoomResponse> buildPageResponse(final Page<Room> page) {
+        final Slice<RoomSummaryView> page =
+                roomRepository.findSummariesByBuildingId(buildingId, status, pageable);
         final var content = page.getContent().stream().map(roomMapper::toResponse).toList();
         return PageResponse.<RoomResponse>builder()
                 .content(content)
-                .page(buildPageInfo(page))
+                .page(
+                        PageResponse.PageInfo.of(
+                                page,
+                                withTotal,
+                                () -> listingCountCache.countRooms(buildingId, status)))
                 .message("Lấy danh sách phòng thành công")
                 .build();
     }
 
-    private PageResponse.PageInfo buildPageInfo(final Page<?> page) {
-        return PageResponse.PageInfo.builder()
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .first(page.isFirst())
-                .last(page.isLast())
+    /**
+     * Như {@link #getRoomsByBuildingId(Integer, RoomStatus, boolean, Pageable)} nhưng phân trang
+     * keyset theo {@code (roomNo, id)}, không đếm tổng số dòng.
+     *
+     * @param cursor {@code nextCursor} của trang trước, rỗng để lấy trang đầu
+     */
+    @PreAuthorize("@buildingPermission.canAccessBuilding(#buildingId, authentication)")
+    public PageResponse<RoomResponse> scrollRoomsByBuildingId(
+            final Integer buildingId,
+            final RoomStatus status,
+            final String cursor,
+            final int size) {
+        final Map<String, Object> after = ROOM_CURSOR.decode(cursor);
+        final Limit limit = Limit.of(size + 1);
+        final List<RoomSummaryView> rows =
+                after.isEmpty()
+                        ? roomRepository.scrollSummariesByBuildingId(buildingId, status, limit)
+                        : roomRepository.scrollSummariesByBuildingIdAfter(
+                                buildingId,
+                                status,
+                                (String) after.get("roomNo"),
+                                (Integer) after.get("id"),
+                                limit);
+        final Window<RoomSummaryView> window = ROOM_CURSOR.window(rows, size);
+        return PageResponse.<RoomResponse>builder()
+                .content(window.getContent().stream().map(roomMapper::toResponse).toList())
+                .nextCursor(ROOM_CURSOR.nextCursor(window))
+                .message("Lấy danh sách phòng thành công")
                 .build();
     }
 }
@@ -0,0 +1,150 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.config.EmailOutboxProperties;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gửi 1 đợt email qua 1 kết nối SMTP đã xác thực, thay vì mở kết nối (TLS + AUTH) cho từng email.
+ * Các email cách nhau ít nhất {@code 1 / app.email-outbox.send-rate} giây; lỗi của 1 email không
+ * chặn các email còn lại, kết nối bị máy chủ đóng giữa chừng thì được mở lại cho email kế tiếp.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpBatchSender {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final JavaMailSender mailSender;
+    private final EmailOutboxProperties emailOutboxProperties;
+
+    /**
+     * @param messages email đã dựng sẵn ({@link EmailService#toMimeMessage})
+     * @param beforeSend nhận vị trí của email sắp gửi, gọi sau khi đã chờ tới lượt gửi email đó
+     * @return lỗi theo vị trí trong {@code messages}; email không có trong map là đã gửi
+     */
+    public Map<Integer, Exception> send(
+            final List<MimeMessage> messages, final IntConsumer beforeSend) {
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+        // Bean do Spring Boot tạo luôn là JavaMailSenderImpl; cài đặt khác thì gửi từng email
+        if (mailSender instanceof final JavaMailSenderImpl smtp) {
+            return sendOverOneConnection(smtp, messages, beforeSend);
+        }
+        return sendEach(messages, beforeSend);
+    }
+
+    private Map<Integer, Exception> sendOverOneConnection(
+            final JavaMailSenderImpl smtp,
+            final List<MimeMessage> messages,
+            final IntConsumer beforeSend) {
+        final Map<Integer, Exception> failures = new HashMap<>();
+        final long interval = sendIntervalNanos();
+        long nextSendAt = System.nanoTime();
+        Transport transport = null;
+        int index = 0;
+        try {
+            for (; index < messages.size(); index++) {
+                if (transport == null || !transport.isConnected()) {
+                    close(transport);
+                    transport = connect(smtp);
+                }
+                nextSendAt = awaitTurn(nextSendAt, interval);
+                beforeSend.accept(index);
+                sendMessage(transport, messages.get(index), index, failures);
+            }
+        } catch (final MessagingException e) {
+            // Không kết nối được: các email chưa gửi của đợt đều lỗi, outbox sẽ thử lại sau
+            log.warn("Cannot connect to SMTP server {}:{}", smtp.getHost(), smtp.getPort(), e);
+            for (; index < messages.size(); index++) {
+                failures.put(index, e);
+            }
+        } finally {
+            close(transport);
+        }
+        return failures;
+    }
+
+    private static void sendMessage(
+            final Transport transport,
+            final MimeMessage message,
+            final int index,
+            final Map<Integer, Exception> failures) {
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (final MessagingException e) {
+            failures.put(index, e);
+        }
+    }
+
+    private Map<Integer, Exception> sendEach(
+            final List<MimeMessage> messages, final IntConsumer beforeSend) {
+        final Map<Integer, Exception> failures = new HashMap<>();
+        final long interval = sendIntervalNanos();
+        long nextSendAt = System.nanoTime();
+        for (int i = 0; i < messages.size(); i++) {
+            nextSendAt = awaitTurn(nextSendAt, interval);
+            beforeSend.accept(i);
+            try {
+                mailSender.send(messages.get(i));
+            } catch (final MailException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures;
+    }
+
+    // Cùng cách JavaMailSenderImpl kết nối: username/password rỗng nghĩa là không AUTH
+    private static Transport connect(final JavaMailSenderImpl smtp) throws MessagingException {
+        String username = smtp.getUsername();
+        String password = smtp.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        final Transport transport = smtp.getSession().getTransport(smtp.getProtocol());
+        transport.connect(smtp.getHost(), smtp.getPort(), username, password);
+        return transport;
+    }
+
+    private static void close(final Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (final MessagingException e) {
+            log.debug("Failed to close SMTP connection", e);
+        }
+    }
+
+    private long sendIntervalNanos() {
+        final double rate = emailOutboxProperties.getSendRate();
+        return rate > 0 ? (long) (NANOS_PER_SECOND / rate) : 0;
+    }
+
+    /** Chờ tới lượt gửi {@code nextSendAt}, trả về lượt kế tiếp. */
+    private static long awaitTurn(final long nextSendAt, final long interval) {
+        long remaining = nextSendAt - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = nextSendAt - System.nanoTime();
+        }
+        return Math.max(nextSendAt, System.nanoTime()) + interval;
+    }
+}
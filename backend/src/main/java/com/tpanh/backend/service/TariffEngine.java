@@ -0,0 +1,72 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.enums.WaterCalcMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Công thức tính tiền điện, nước. Chỉ nhận tham số nguyên thủy, không truy cập DB hay entity JPA
+ * nên dùng chung được cho tạo hóa đơn, xem chi tiết hóa đơn và benchmark.
+ *
+ * <p>Đơn giá {@code 0} nghĩa là tòa nhà chưa cấu hình đơn giá, khi đó tiền luôn bằng 0.
+ */
+@Component
+public class TariffEngine {
+
+    /** Lượng tiêu thụ giữa 2 lần chốt chỉ số; chỉ số bị reset (hiện tại nhỏ hơn) tính là 0. */
+    public int usage(final int previousIndex, final int currentIndex) {
+        return Math.max(0, currentIndex - previousIndex);
+    }
+
+    public int electricityCost(final int usage, final int unitPrice) {
+        return usage * unitPrice;
+    }
+
+    /** Tiền điện theo biểu giá của tòa nhà, kể cả bậc thang: 1 lần tìm nhị phân + 1 phép nhân. */
+    public int electricityCost(final int usage, final ElectricityTariff tariff) {
+        return tariff.cost(usage);
+    }
+
+    public int waterCost(
+            final WaterCalcMethod method,
+            final int usage,
+            final int unitPrice,
+            final int tenantCount) {
+        if (method == null) {
+            return 0;
+        }
+        return switch (method) {
+            case BY_METER -> unitPrice * usage;
+            case PER_CAPITA -> unitPrice * tenantCount;
+        };
+    }
+
+    public UtilityCharge electricity(
+            final int previousIndex, final int currentIndex, final int unitPrice) {
+        final int usage = usage(previousIndex, currentIndex);
+        return new UtilityCharge(
+                previousIndex, currentIndex, usage, unitPrice, electricityCost(usage, unitPrice));
+    }
+
+    /** {@link UtilityCharge#unitPrice()} là đơn giá bậc đầu tiên khi tính theo bậc thang. */
+    public UtilityCharge electricity(
+            final int previousIndex, final int currentIndex, final ElectricityTariff tariff) {
+        final int usage = usage(previousIndex, currentIndex);
+        return new UtilityCharge(
+                previousIndex,
+                currentIndex,
+                usage,
+                tariff.basePrice(),
+                electricityCost(usage, tariff));
+    }
+
+    public UtilityCharge water(
+            final WaterCalcMethod method,
+            final int previousIndex,
+            final int currentIndex,
+            final int unitPrice,
+            final int tenantCount) {
+        final int usage = usage(previousIndex, currentIndex);
+        final int amount = waterCost(method, usage, unitPrice, tenantCount);
+        return new UtilityCharge(previousIndex, currentIndex, usage, unitPrice, amount);
+    }
+}
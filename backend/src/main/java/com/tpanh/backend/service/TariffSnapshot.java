@@ -0,0 +1,14 @@
+package com.tpanh.backend.service;
+
+import com.tpanh.backend.entity.Building;
+
+/**
+ * Giá điện nước của 1 tòa nhà tại 1 {@code version}, bất biến nên dùng chung được giữa các lượt
+ * tạo hóa đơn và các thread.
+ */
+public record TariffSnapshot(int version, BuildingTariff tariff) {
+
+    public static TariffSnapshot of(final Building building) {
+        return new TariffSnapshot(building.getTariffVersion(), BuildingTariff.of(building));
+    }
+}
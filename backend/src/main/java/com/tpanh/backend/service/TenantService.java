@@ -11,15 +11,20 @@ import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.TenantMapper;
 import com.tpanh.backend.repository.RoomRepository;
 import com.tpanh.backend.repository.TenantRepository;
+import com.tpanh.backend.repository.TenantSummaryView;
 import com.tpanh.backend.security.CurrentUser;
+import com.tpanh.backend.util.KeysetCursor;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,10 +33,15 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class TenantService {
 
+    // Khách thêm sau trước; khác ngày bắt đầu, id luôn có giá trị nên dùng được làm khóa keyset
+    private static final KeysetCursor<TenantSummaryView> TENANT_CURSOR =
+            new KeysetCursor<>(KeysetCursor.Key.integer("id", TenantSummaryView::id));
+
     private final TenantRepository tenantRepository;
     private final RoomRepository roomRepository;
     private final TenantMapper tenantMapper;
     private final CurrentUser currentUser;
+    private final ListingCountCache listingCountCache;
 
     @PreAuthorize("@tenantPermission.canAccessRoomTenants(#request.roomId, authentication)")
     @Transactional
@@ -110,27 +120,16 @@ public class TenantService {
             throw new AppException(ErrorCode.ROOM_NOT_FOUND);
         }
 
-        final var page = tenantRepository.findByRoomIdOrderByStartDateDesc(roomId, pageable);
+        final var page = tenantRepository.findSummariesByRoomId(roomId, pageable);
         final var content = page.getContent().stream().map(tenantMapper::toResponse).toList();
 
         return PageResponse.<TenantResponse>builder()
                 .content(content)
-                .page(buildPageInfo(page))
+                .page(PageResponse.PageInfo.of(page))
                 .message("Lấy danh sách khách thuê thành công")
                 .build();
     }
 
-    private PageResponse.PageInfo buildPageInfo(final Page<?> page) {
-        return PageResponse.PageInfo.builder()
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .first(page.isFirst())
-                .last(page.isLast())
-                .build();
-    }
-
     @PreAuthorize("@tenantPermission.canAccessTenant(#id, authentication)")
     @Transactional
     public TenantResponse endTenantContract(final Integer id) {
@@ -230,8 +229,9 @@ public class TenantService {
             final Integer buildingId,
             final Integer roomId,
             final Boolean active,
+            final boolean withTotal,
             final Pageable pageable) {
-        final Page<Tenant> page;
+        final Slice<TenantSummaryView> page;
         if (buildingId != null) {
             page = tenantRepository.findByRoomBuildingId(buildingId, roomId, active, pageable);
         } else if (roomId != null) {
@@ -244,7 +244,44 @@ public class TenantService {
 
         return PageResponse.<TenantResponse>builder()
                 .content(content)
-                .page(buildPageInfo(page))
+                .page(
+                        PageResponse.PageInfo.of(
+                                page,
+                                withTotal,
+                                () -> listingCountCache.countTenants(buildingId, roomId, active)))
+                .message("Lấy danh sách khách thuê thành công")
+                .build();
+    }
+
+    /**
+     * Như {@link #getTenants} nhưng phân trang keyset theo {@code id} giảm dần, không đếm tổng số
+     * dòng.
+     *
+     * @param cursor {@code nextCursor} của trang trước, rỗng để lấy trang đầu
+     */
+    @PreAuthorize(
+"""
+    (#buildingId == null || @tenantPermission.canAccessBuildingTenants(#buildingId, authentication))
+    and
+    (#roomId == null || @tenantPermission.canAccessRoomTenants(#roomId, authentication))
+""")
+    public PageResponse<TenantResponse> scrollTenants(
+            final Integer buildingId,
+            final Integer roomId,
+            final Boolean active,
+            final String cursor,
+            final int size) {
+        final Map<String, Object> after = TENANT_CURSOR.decode(cursor);
+        final Limit limit = Limit.of(size + 1);
+        final List<TenantSummaryView> rows =
+                after.isEmpty()
+                        ? tenantRepository.scrollWithFilters(buildingId, roomId, active, limit)
+                        : tenantRepository.scrollWithFiltersAfter(
+                                buildingId, roomId, active, (Integer) after.get("id"), limit);
+        final Window<TenantSummaryView> window = TENANT_CURSOR.window(rows, size);
+        return PageResponse.<TenantResponse>builder()
+                .content(window.getContent().stream().map(tenantMapper::toResponse).toList())
+                .nextCursor(TENANT_CURSOR.nextCursor(window))
                 .message("Lấy danh sách khách thuê thành công")
                 .build();
     }
@@ -47,22 +47,11 @@ public class UserService {
 
         return PageResponse.<UserDTO>builder()
                 .content(content)
-                .page(buildPageInfo(page))
+                .page(PageResponse.PageInfo.of(page))
                 .message("Lấy danh sách người dùng thành công")
                 .build();
     }
 
-    private PageResponse.PageInfo buildPageInfo(final Page<?> page) {
-        return PageResponse.PageInfo.builder()
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalElements(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .first(page.isFirst())
-                .last(page.isLast())
-                .build();
-    }
-
     @Transactional
     public UserDTO toggleUserActive(final String userId) {
         final var user =
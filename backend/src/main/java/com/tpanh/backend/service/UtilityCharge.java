@@ -0,0 +1,10 @@
+package com.tpanh.backend.service;
+
+/**
+ * Kết quả tính tiền 1 loại tiện ích (điện hoặc nước) của 1 phòng trong 1 kỳ. Chỉ số cũ/mới là
+ * {@code null} khi phòng không có chỉ số nào cho kỳ đó.
+ */
+public record UtilityCharge(
+        Integer previousIndex, Integer currentIndex, int usage, int unitPrice, int amount) {
+    public static final UtilityCharge NONE = new UtilityCharge(null, null, 0, 0, 0);
+}
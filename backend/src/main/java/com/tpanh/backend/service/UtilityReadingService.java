@@ -26,6 +26,7 @@ public class UtilityReadingService {
     private final UtilityReadingRepository utilityReadingRepository;
     private final RoomRepository roomRepository;
     private final UtilityReadingMapper utilityReadingMapper;
+    private final InvoiceRebillingService invoiceRebillingService;
 
     @Transactional
     @PreAuthorize(
@@ -60,7 +61,7 @@ public class UtilityReadingService {
 
     @PreAuthorize("@utilityReadingPermission.canAccessRoomUtilityReadings(#roomId, authentication)")
     public List<UtilityReadingResponse> getUtilityReadingsByRoomId(final Integer roomId) {
-        final var readings = utilityReadingRepository.findByRoomIdOrderByMonthDesc(roomId);
+        final var readings = utilityReadingRepository.findSummariesByRoomId(roomId);
         return readings.stream().map(utilityReadingMapper::toResponse).collect(Collectors.toList());
     }
 
@@ -69,7 +70,7 @@ public class UtilityReadingService {
     public List<UtilityReadingResponse> getUtilityReadingsByBuildingAndMonth(
             final Integer buildingId, final String month) {
         final var readings =
-                utilityReadingRepository.findByRoomBuildingIdAndMonth(buildingId, month);
+                utilityReadingRepository.findSummariesByBuildingIdAndMonth(buildingId, month);
         return readings.stream().map(utilityReadingMapper::toResponse).collect(Collectors.toList());
     }
 
@@ -174,6 +175,9 @@ public class UtilityReadingService {
 
     private UtilityReadingResponse saveAndMap(final UtilityReading reading) {
         final UtilityReading savedReading = utilityReadingRepository.save(reading);
+        // Hóa đơn DRAFT kỳ này và kỳ sau đang dùng chỉ số cũ
+        invoiceRebillingService.rebillDraftInvoices(
+                savedReading.getRoom(), savedReading.getMonth());
         return utilityReadingMapper.toResponse(savedReading);
     }
 }
@@ -0,0 +1,88 @@
+package com.tpanh.backend.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) lần lượt từng bản ghi: ô trong dấu nháy kép được chứa dấu phân cách, xuống
+ * dòng và {@code ""}. Chỉ giữ bản ghi đang đọc nên bộ nhớ không phụ thuộc kích thước file; bản ghi
+ * dài quá {@value #MAX_RECORD_LENGTH} ký tự (VD: file nhị phân, thiếu dấu nháy đóng) bị từ chối.
+ */
+public final class CsvReader implements Closeable {
+    public static final int MAX_RECORD_LENGTH = 1 << 16;
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+    private int recordLength;
+
+    public CsvReader(final Reader reader, final char delimiter) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return các ô của bản ghi tiếp theo (dòng trống là 1 ô rỗng), {@code null} khi hết file
+     * @throws IOException khi đọc lỗi, thiếu dấu nháy đóng hoặc bản ghi quá dài
+     */
+    public List<String> next() throws IOException {
+        recordLength = 0;
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        while (c != '\n' && c != EOF) {
+            if (c == '"' && field.length() == 0) {
+                c = readQuoted(field);
+                continue;
+            }
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Đọc phần trong dấu nháy (đã qua dấu nháy mở), trả về ký tự ngay sau dấu nháy đóng. */
+    private int readQuoted(final StringBuilder field) throws IOException {
+        while (true) {
+            final int c = read();
+            if (c == EOF) {
+                throw new IOException("Unterminated quoted field");
+            }
+            if (c != '"') {
+                field.append((char) c);
+                continue;
+            }
+            final int next = read();
+            if (next != '"') {
+                return next;
+            }
+            field.append('"');
+        }
+    }
+
+    private int read() throws IOException {
+        if (++recordLength > MAX_RECORD_LENGTH) {
+            throw new IOException("CSV record exceeds " + MAX_RECORD_LENGTH + " characters");
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.tpanh.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template HTML với placeholder {@code {{name}}} (giá trị được escape HTML) và {@code {{{name}}}}
+ * (chèn nguyên văn, dành cho đoạn HTML đã dựng từ template khác). Template được tách 1 lần thành
+ * các đoạn chữ cố định xen kẽ placeholder; mỗi lần render chỉ nối các đoạn vào 1 {@link
+ * StringBuilder} dùng lại theo thread, không quét lại template hay tạo chuỗi trung gian cho từng
+ * lần thay thế. Đối tượng bất biến, dùng chung giữa các thread.
+ */
+public final class HtmlTemplate {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\{(\\w+)}}}|\\{\\{(\\w+)}}");
+
+    // Builder phình quá mức này (email bất thường) không được giữ lại cho thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(StringBuilder::new);
+
+    /** {@code literals[i]} đứng trước placeholder thứ i; phần tử cuối đứng sau placeholder cuối. */
+    private final String[] literals;
+
+    private final String[] names;
+    private final boolean[] raw;
+    private final int literalLength;
+
+    private HtmlTemplate(final String[] literals, final String[] names, final boolean[] raw) {
+        this.literals = literals;
+        this.names = names;
+        this.raw = raw;
+        int length = 0;
+        for (final String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static HtmlTemplate parse(final String source) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Boolean> raw = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(source);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(source.substring(start, matcher.start()));
+            final boolean isRaw = matcher.group(1) != null;
+            names.add(isRaw ? matcher.group(1) : matcher.group(2));
+            raw.add(isRaw);
+            start = matcher.end();
+        }
+        literals.add(source.substring(start));
+        final boolean[] rawFlags = new boolean[raw.size()];
+        for (int i = 0; i < rawFlags.length; i++) {
+            rawFlags[i] = raw.get(i);
+        }
+        return new HtmlTemplate(
+                literals.toArray(String[]::new), names.toArray(String[]::new), rawFlags);
+    }
+
+    /**
+     * @throws IllegalArgumentException khi {@code values} thiếu giá trị cho 1 placeholder
+     */
+    public String render(final Map<String, String> values) {
+        final StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(out, values);
+        final String html = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return html;
+    }
+
+    /** Như {@link #render} nhưng nối vào {@code out}, dùng khi ghép nhiều lần render. */
+    public void renderTo(final StringBuilder out, final Map<String, String> values) {
+        out.ensureCapacity(out.length() + literalLength);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            final String value = values.get(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template value: " + names[i]);
+            }
+            if (raw[i]) {
+                out.append(value);
+            } else {
+                escapeTo(out, value);
+            }
+        }
+        out.append(literals[names.length]);
+    }
+
+    private static void escapeTo(final StringBuilder out, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tpanh.backend.util;
+
+/**
+ * Phân vùng thứ {@code index} trong {@code count} phân vùng của 1 job. Bản ghi thuộc phân vùng
+ * {@code id mod count}, nên các phân vùng rời nhau và phủ đủ mọi bản ghi.
+ */
+public record JobShard(int index, int count) {
+    /** Cả job trong 1 phân vùng. */
+    public static final JobShard ALL = new JobShard(0, 1);
+
+    public boolean contains(final int id) {
+        return Math.floorMod(id, count) == index;
+    }
+}
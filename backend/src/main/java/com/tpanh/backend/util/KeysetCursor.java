@@ -0,0 +1,110 @@
+package com.tpanh.backend.util;
+
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+/**
+ * Phân trang keyset (seek) cho 1 danh sách: thứ tự sắp xếp cố định, khóa cuối luôn là {@code id}
+ * để mỗi dòng có vị trí duy nhất. Trang sau bắt đầu ngay sau giá trị khóa của dòng cuối trang
+ * trước thay vì bỏ qua OFFSET dòng, nên chi phí mỗi trang không tăng theo độ sâu.
+ *
+ * <p>Query của danh sách tự viết điều kiện "sau vị trí" và {@code ORDER BY} theo đúng thứ tự các
+ * khóa, rồi lấy {@code size + 1} dòng để biết còn trang sau hay không.
+ *
+ * <p>Client chỉ thấy cursor là chuỗi base64url mờ chứa giá trị các khóa; cursor rỗng là trang đầu.
+ *
+ * @param <T> kiểu 1 dòng của danh sách
+ */
+public final class KeysetCursor<T> {
+    private static final String SEPARATOR = "\u001F";
+
+    private final List<Key<T>> keys;
+
+    @SafeVarargs
+    public KeysetCursor(final Key<T>... keys) {
+        this.keys = List.of(keys);
+    }
+
+    /**
+     * Giá trị các khóa của dòng cuối trang trước theo tên thuộc tính; rỗng nếu là trang đầu.
+     *
+     * @throws AppException {@link ErrorCode#INVALID_CURSOR} nếu cursor không do danh sách này tạo
+     */
+    public Map<String, Object> decode(final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Map.of();
+        }
+        try {
+            final String raw =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final String[] values = raw.split(SEPARATOR, -1);
+            if (values.length != keys.size()) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            final Map<String, Object> position = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                position.put(keys.get(i).property(), keys.get(i).parser().apply(values[i]));
+            }
+            return position;
+        } catch (final IllegalArgumentException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Cắt {@code rows} (tối đa {@code size + 1} dòng lấy từ query) thành 1 trang {@code size} dòng;
+     * dòng dư chỉ để biết còn trang sau.
+     */
+    public Window<T> window(final List<T> rows, final int size) {
+        final List<T> content = rows.size() > size ? rows.subList(0, size) : rows;
+        return Window.from(
+                content, index -> positionOf(content.get(index)), rows.size() > size);
+    }
+
+    /** Cursor của trang kế tiếp, {@code null} nếu {@code window} là trang cuối. */
+    public String nextCursor(final Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        final Map<String, Object> position =
+                ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+        final String raw =
+                String.join(
+                        SEPARATOR,
+                        keys.stream()
+                                .map(key -> String.valueOf(position.get(key.property())))
+                                .toArray(String[]::new));
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ScrollPosition positionOf(final T row) {
+        final Map<String, Object> position = new LinkedHashMap<>();
+        keys.forEach(key -> position.put(key.property(), key.value().apply(row)));
+        return ScrollPosition.forward(position);
+    }
+
+    /** 1 khóa sắp xếp; giá trị khóa không được {@code null}. */
+    public record Key<T>(
+            String property, Function<String, Object> parser, Function<T, ?> value) {
+
+        public static <T> Key<T> text(final String property, final Function<T, String> value) {
+            return new Key<>(property, raw -> raw, value);
+        }
+
+        public static <T> Key<T> integer(
+                final String property, final Function<T, Integer> value) {
+            return new Key<>(property, Integer::valueOf, value);
+        }
+    }
+}
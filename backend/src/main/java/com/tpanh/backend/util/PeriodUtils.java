@@ -13,4 +13,12 @@ public final class PeriodUtils {
             return "";
         }
     }
+
+    public static String getNextMonth(final String period) {
+        try {
+            return YearMonth.parse(period).plusMonths(1).toString();
+        } catch (final Exception e) {
+            return "";
+        }
+    }
 }
@@ -0,0 +1,15 @@
+-- Cấp phát ID theo block cho các bảng ghi số lượng lớn để Hibernate gom INSERT thành JDBC batch
+-- (pooled optimizer). INCREMENT BY phải khớp với IdGeneration.ALLOCATION_SIZE (= 50).
+-- setval(seq, MAX(id)) => nextval kế tiếp = MAX(id) + 50, block được cấp là (MAX(id), MAX(id) + 50].
+
+ALTER SEQUENCE invoices_id_seq INCREMENT BY 50;
+SELECT setval('invoices_id_seq', GREATEST((SELECT MAX(id) FROM invoices), 1));
+
+ALTER SEQUENCE payment_logs_id_seq INCREMENT BY 50;
+SELECT setval('payment_logs_id_seq', GREATEST((SELECT MAX(id) FROM payment_logs), 1));
+
+ALTER SEQUENCE utility_readings_id_seq INCREMENT BY 50;
+SELECT setval('utility_readings_id_seq', GREATEST((SELECT MAX(id) FROM utility_readings), 1));
+
+ALTER SEQUENCE meter_records_id_seq INCREMENT BY 50;
+SELECT setval('meter_records_id_seq', GREATEST((SELECT MAX(id) FROM meter_records), 1));
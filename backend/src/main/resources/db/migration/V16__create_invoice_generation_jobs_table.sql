@@ -0,0 +1,25 @@
+-- Job tạo hóa đơn bất đồng bộ: client submit rồi polling tiến độ thay vì giữ HTTP request
+CREATE TABLE invoice_generation_jobs (
+    id UUID PRIMARY KEY,
+    building_id INTEGER NOT NULL REFERENCES buildings(id) ON DELETE CASCADE,
+    period VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_rooms INTEGER NOT NULL DEFAULT 0,
+    processed_rooms INTEGER NOT NULL DEFAULT 0, -- Bao gồm cả phòng bỏ qua và phòng lỗi
+    skipped_rooms INTEGER NOT NULL DEFAULT 0,
+    failed_rooms INTEGER NOT NULL DEFAULT 0,
+    created_invoices INTEGER NOT NULL DEFAULT 0,
+    error_message TEXT,
+    requested_by VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_invoice_generation_jobs_building ON invoice_generation_jobs(building_id);
+
+-- Hóa đơn do job nào tạo ra, để phân trang kết quả của job
+ALTER TABLE invoices ADD COLUMN generation_job_id UUID;
+
+CREATE INDEX idx_invoices_generation_job ON invoices(generation_job_id)
+    WHERE generation_job_id IS NOT NULL;
@@ -0,0 +1,25 @@
+-- Mỗi phòng chỉ có 1 hóa đơn cho mỗi kỳ. Trước đây chỉ được kiểm tra ở tầng ứng dụng nên 2 request
+-- tạo hóa đơn đồng thời có thể chèn trùng. Giữ lại 1 bản ghi cho mỗi (room_id, period): ưu tiên
+-- hóa đơn đã thanh toán, sau đó là bản ghi tạo sớm nhất.
+CREATE TEMPORARY TABLE invoice_duplicates ON COMMIT DROP AS
+SELECT id,
+       FIRST_VALUE(id) OVER w AS keeper_id,
+       ROW_NUMBER() OVER w AS rn
+FROM invoices
+WINDOW w AS (PARTITION BY room_id, period ORDER BY (status = 'PAID') DESC, id);
+
+-- payment_logs bị xóa dây chuyền theo hóa đơn (ON DELETE CASCADE): chuyển lịch sử thanh toán của
+-- bản trùng sang hóa đơn được giữ lại trước khi xóa
+UPDATE payment_logs l
+SET invoice_id = d.keeper_id
+FROM invoice_duplicates d
+WHERE l.invoice_id = d.id
+  AND d.rn > 1;
+
+DELETE FROM invoices i
+USING invoice_duplicates d
+WHERE i.id = d.id
+  AND d.rn > 1;
+
+ALTER TABLE invoices
+    ADD CONSTRAINT uq_invoices_room_period UNIQUE (room_id, period);
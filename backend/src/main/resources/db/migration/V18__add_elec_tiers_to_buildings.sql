@@ -0,0 +1,12 @@
+-- Giá điện bậc thang theo từng tòa nhà. elec_tier_thresholds là ngưỡng kWh tích lũy kết thúc mỗi
+-- bậc (trừ bậc cuối), elec_tier_prices là đơn giá từng bậc nên luôn dài hơn đúng 1 phần tử.
+-- NULL nghĩa là tòa nhà tính theo elec_unit_price như trước.
+ALTER TABLE buildings
+    ADD COLUMN elec_tier_thresholds INTEGER[],
+    ADD COLUMN elec_tier_prices INTEGER[];
+
+ALTER TABLE buildings
+    ADD CONSTRAINT chk_buildings_elec_tiers CHECK (
+        (elec_tier_thresholds IS NULL AND elec_tier_prices IS NULL)
+        OR cardinality(elec_tier_prices) = cardinality(elec_tier_thresholds) + 1
+    );
@@ -0,0 +1,4 @@
+-- Tăng mỗi khi giá điện nước của tòa nhà thay đổi. Cache giá trong bộ nhớ so version này với dòng
+-- buildings vừa đọc để biết bản tính sẵn còn dùng được hay không.
+ALTER TABLE buildings
+    ADD COLUMN tariff_version INTEGER NOT NULL DEFAULT 0;
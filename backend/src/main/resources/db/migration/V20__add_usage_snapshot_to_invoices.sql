@@ -0,0 +1,75 @@
+-- Chỉ số, lượng tiêu thụ và giá điện nước đã dùng để tính hóa đơn, ghi 1 lần khi lập hóa đơn.
+-- Chi tiết hóa đơn đọc thẳng từ các cột này thay vì tra lại utility_readings / meter_records và
+-- giá hiện tại của tòa nhà, nên hóa đơn cũ không đổi khi chỉ số hay giá bị sửa về sau.
+ALTER TABLE invoices
+    ADD COLUMN elec_previous_index INTEGER,
+    ADD COLUMN elec_current_index INTEGER,
+    ADD COLUMN elec_usage INTEGER,
+    ADD COLUMN elec_unit_price INTEGER,
+    ADD COLUMN elec_tier_thresholds INTEGER[],
+    ADD COLUMN elec_tier_prices INTEGER[],
+    ADD COLUMN water_previous_index INTEGER,
+    ADD COLUMN water_current_index INTEGER,
+    ADD COLUMN water_usage INTEGER,
+    ADD COLUMN water_unit_price INTEGER,
+    ADD COLUMN water_calc_method VARCHAR(50);
+
+-- Backfill hóa đơn đã có theo đúng cách màn chi tiết hiển thị trước đây: ưu tiên utility_readings
+-- của kỳ (chỉ số cũ là của tháng liền trước, 0 nếu phòng chưa có lịch sử), nếu không có thì dùng
+-- meter_records; giá lấy theo giá hiện tại của tòa nhà vì không còn giá tại thời điểm lập.
+WITH readings AS (
+    SELECT u.room_id,
+           u.month,
+           u.electric_index,
+           u.water_index,
+           LAG(u.month) OVER w          AS previous_month,
+           LAG(u.electric_index) OVER w AS previous_electric_index,
+           LAG(u.water_index) OVER w    AS previous_water_index
+    FROM utility_readings u
+    WINDOW w AS (PARTITION BY u.room_id ORDER BY u.month)
+),
+indices AS (
+    SELECT i.id,
+           CASE
+               WHEN r.month IS NULL THEN me.previous_value
+               WHEN r.previous_month IS NULL THEN 0
+               WHEN r.previous_month = to_char(to_date(i.period, 'YYYY-MM') - INTERVAL '1 month',
+                                               'YYYY-MM') THEN r.previous_electric_index
+           END AS elec_previous,
+           CASE WHEN r.month IS NULL THEN me.current_value ELSE r.electric_index END AS elec_current,
+           CASE
+               WHEN r.month IS NULL THEN mw.previous_value
+               WHEN r.previous_month IS NULL THEN 0
+               WHEN r.previous_month = to_char(to_date(i.period, 'YYYY-MM') - INTERVAL '1 month',
+                                               'YYYY-MM') THEN r.previous_water_index
+           END AS water_previous,
+           CASE WHEN r.month IS NULL THEN mw.current_value ELSE r.water_index END AS water_current,
+           b.elec_unit_price,
+           b.elec_tier_thresholds,
+           b.elec_tier_prices,
+           b.water_unit_price,
+           b.water_calc_method
+    FROM invoices i
+    JOIN rooms ro ON ro.id = i.room_id
+    JOIN buildings b ON b.id = ro.building_id
+    LEFT JOIN readings r ON r.room_id = i.room_id AND r.month = i.period
+    LEFT JOIN meter_records me ON me.room_id = i.room_id AND me.period = i.period AND me.type = 'ELEC'
+    LEFT JOIN meter_records mw ON mw.room_id = i.room_id AND mw.period = i.period AND mw.type = 'WATER'
+)
+UPDATE invoices i
+SET elec_previous_index  = CASE WHEN s.elec_current IS NOT NULL THEN s.elec_previous END,
+    elec_current_index   = s.elec_current,
+    -- GREATEST bỏ qua NULL nên phải loại trường hợp thiếu chỉ số cũ trước
+    elec_usage           = CASE WHEN s.elec_previous IS NOT NULL
+                                THEN GREATEST(0, s.elec_current - s.elec_previous) END,
+    elec_unit_price      = COALESCE(s.elec_tier_prices[1], s.elec_unit_price),
+    elec_tier_thresholds = CASE WHEN cardinality(s.elec_tier_prices) > 1 THEN s.elec_tier_thresholds END,
+    elec_tier_prices     = CASE WHEN cardinality(s.elec_tier_prices) > 1 THEN s.elec_tier_prices END,
+    water_previous_index = CASE WHEN s.water_current IS NOT NULL THEN s.water_previous END,
+    water_current_index  = s.water_current,
+    water_usage          = CASE WHEN s.water_previous IS NOT NULL
+                                THEN GREATEST(0, s.water_current - s.water_previous) END,
+    water_unit_price     = s.water_unit_price,
+    water_calc_method    = s.water_calc_method
+FROM indices s
+WHERE s.id = i.id;
@@ -0,0 +1,13 @@
+-- Index cho phân trang keyset: mỗi trang là 1 lần seek theo đúng thứ tự sắp xếp của danh sách
+-- rồi đọc tiếp tối đa {size} dòng, thay vì quét và bỏ qua OFFSET dòng.
+
+-- Danh sách hóa đơn: ORDER BY period DESC, id DESC. Hóa đơn không có building_id nên điều kiện
+-- tòa nhà được lọc qua rooms trong lúc đi theo index này.
+CREATE INDEX idx_invoices_period_id ON invoices(period DESC, id DESC);
+
+-- Danh sách phòng của tòa nhà: ORDER BY room_no, id (có và không lọc theo status)
+CREATE INDEX idx_rooms_building_room_no_id ON rooms(building_id, room_no, id);
+CREATE INDEX idx_rooms_building_status_room_no_id ON rooms(building_id, status, room_no, id);
+
+-- Danh sách khách thuê theo phòng: ORDER BY id DESC
+CREATE INDEX idx_tenants_room_id_id ON tenants(room_id, id DESC);
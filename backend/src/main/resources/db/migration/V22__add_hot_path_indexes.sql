@@ -0,0 +1,21 @@
+-- Index cho các truy vấn nóng còn đang quét tuần tự. QueryPlanIntegrationTest chạy EXPLAIN mọi
+-- query của repository trên dữ liệu lớn và fail khi gặp Seq Scan trên các bảng lớn.
+--
+-- Các đường đã có index, không thêm lại:
+--   invoices(room_id, period)  -> uq_invoices_room_period (V17), cũng dùng khi join invoices qua
+--                                 rooms theo tòa nhà: rooms(building_id) -> invoices(room_id)
+--   rooms(building_id, status) -> idx_rooms_building_status (V1)
+--   tenants(user_id)           -> idx_tenants_user_id (V13)
+
+-- Người đại diện hợp đồng đang ở của phòng: room_id = ? AND is_contract_holder AND end_date IS NULL
+CREATE INDEX idx_tenants_room_holder_end ON tenants(room_id, is_contract_holder, end_date);
+
+-- Danh sách khách thuê không lọc tòa nhà/phòng: ORDER BY start_date DESC LIMIT {size}
+CREATE INDEX idx_tenants_start_date ON tenants(start_date);
+
+-- Lời mời của phòng theo trạng thái. uq_invite_room_email_pending chỉ dùng được khi status là
+-- hằng 'PENDING' trong câu SQL; index này còn phục vụ FK room_id khi xóa phòng.
+CREATE INDEX idx_tenant_invitations_room_status ON tenant_invitations(room_id, status);
+
+-- FK tenant_id ON DELETE SET NULL: xóa khách thuê không phải quét toàn bộ hóa đơn
+CREATE INDEX idx_invoices_tenant_id ON invoices(tenant_id);
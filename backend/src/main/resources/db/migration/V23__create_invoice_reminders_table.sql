@@ -0,0 +1,15 @@
+-- Kết quả gửi nhắc hạn thanh toán: mỗi hóa đơn được nhắc 1 lần cho mỗi hạn thanh toán, job chạy
+-- lại trong ngày (hoặc node khác nhận lại phân vùng) không gửi trùng. Lần gửi lỗi (FAILED) được thử
+-- lại ở lần chạy sau; đổi hạn thanh toán thì hóa đơn được nhắc lại theo hạn mới.
+CREATE TABLE invoice_reminders (
+    id SERIAL PRIMARY KEY,
+    invoice_id INTEGER NOT NULL REFERENCES invoices(id) ON DELETE CASCADE,
+    due_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Phục vụ cả upsert kết quả lẫn NOT EXISTS khi chọn hóa đơn cần nhắc
+    CONSTRAINT uq_invoice_reminders_invoice_due UNIQUE (invoice_id, due_date)
+);
+
+-- Hóa đơn cần nhắc: status IN ('DRAFT', 'UNPAID') AND due_date BETWEEN ? AND ? đọc theo range trên
+-- idx_invoices_status_due(status, due_date) đã có, không thêm index trên invoices.
@@ -0,0 +1,18 @@
+-- Outbox email: request chỉ ghi email vào bảng trong cùng transaction với dữ liệu nghiệp vụ, worker
+-- nền gửi qua SMTP sau khi commit. Rollback thì email cũng không được gửi; SMTP chậm không giữ
+-- thread request hay connection DB.
+CREATE TABLE email_outbox (
+    id SERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,        -- PENDING, SENT, DEAD (hết số lần thử)
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL, -- Lần gửi tiếp theo; worker đang gửi thì là hạn lease
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Worker lấy email đến lượt: status = 'PENDING' AND next_attempt_at <= now() ORDER BY next_attempt_at
+CREATE INDEX idx_email_outbox_pending ON email_outbox(next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,8 @@
+-- Thời điểm job cập nhật tiến độ lần cuối (mỗi chunk). Job PENDING/RUNNING quá lâu không cập nhật là
+-- job của node đã chết, được chuyển sang FAILED
+ALTER TABLE invoice_generation_jobs ADD COLUMN updated_at TIMESTAMP;
+
+UPDATE invoice_generation_jobs SET updated_at = COALESCE(finished_at, started_at, created_at);
+
+CREATE INDEX idx_invoice_generation_jobs_active ON invoice_generation_jobs(updated_at)
+    WHERE status IN ('PENDING', 'RUNNING');
@@ -0,0 +1,14 @@
+-- Danh sách hóa đơn của 1 tòa nhà sắp theo (period DESC, id DESC). idx_invoices_period_id (V21) là
+-- index toàn bảng: mỗi trang phải đi qua hóa đơn của mọi tòa nhà rồi mới lọc theo rooms. Chép
+-- building_id của phòng sang hóa đơn để index bắt đầu bằng tòa nhà; phòng không đổi tòa nhà nên
+-- cột này không phải đồng bộ lại.
+ALTER TABLE invoices ADD COLUMN building_id INTEGER;
+
+UPDATE invoices i SET building_id = r.building_id FROM rooms r WHERE r.id = i.room_id;
+
+ALTER TABLE invoices ALTER COLUMN building_id SET NOT NULL;
+ALTER TABLE invoices ADD CONSTRAINT fk_building_invoice
+    FOREIGN KEY (building_id) REFERENCES buildings(id) ON DELETE CASCADE;
+
+DROP INDEX idx_invoices_period_id;
+CREATE INDEX idx_invoices_building_period_id ON invoices(building_id, period DESC, id DESC);
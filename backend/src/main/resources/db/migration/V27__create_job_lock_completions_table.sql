@@ -0,0 +1,6 @@
+-- Dấu "đã xong" của 1 phân vùng job định kỳ khi khóa chạy bằng advisory lock (Redis không truy cập
+-- được), để node chạy trễ không làm lại phân vùng đã xong trong cùng lượt
+CREATE TABLE job_lock_completions (
+    name VARCHAR(255) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,46 @@
+package com.tpanh.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+class BillingExecutorConfigTest {
+    private static final int POOL_SIZE = 6;
+
+    private final BillingProperties billingProperties = new BillingProperties();
+
+    @Test
+    void billingParallelism_ByDefault_ShouldLeaveHeadroomInConnectionPool() {
+        final int parallelism =
+                BillingExecutorConfig.billingParallelism(billingProperties, pool(POOL_SIZE));
+
+        assertTrue(parallelism >= 1);
+        assertTrue(parallelism <= POOL_SIZE - billingProperties.getPoolHeadroom());
+    }
+
+    @Test
+    void billingParallelism_WithConfiguredValue_ShouldUseIt() {
+        billingProperties.setParallelism(2);
+
+        assertEquals(
+                2, BillingExecutorConfig.billingParallelism(billingProperties, pool(POOL_SIZE)));
+    }
+
+    @Test
+    void billingParallelism_WhenConfiguredAbovePool_ShouldFailFast() {
+        billingProperties.setParallelism(POOL_SIZE);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> BillingExecutorConfig.billingParallelism(billingProperties, pool(POOL_SIZE)));
+    }
+
+    private static HikariDataSource pool(final int size) {
+        final HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(size);
+        return dataSource;
+    }
+}
@@ -1,7 +1,9 @@
 package com.tpanh.backend.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -11,12 +13,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tpanh.backend.dto.AuthenticationRequest;
 import com.tpanh.backend.dto.BuildingCreationRequest;
 import com.tpanh.backend.dto.InvoiceCreationRequest;
+import com.tpanh.backend.dto.InvoiceDetailsRequest;
+import com.tpanh.backend.dto.InvoicePaymentsRequest;
+import com.tpanh.backend.dto.InvoicePreviewRequest;
 import com.tpanh.backend.dto.RoomCreationRequest;
 import com.tpanh.backend.dto.TenantCreationRequest;
 import com.tpanh.backend.entity.Building;
 import com.tpanh.backend.entity.MeterRecord;
 import com.tpanh.backend.entity.Room;
 import com.tpanh.backend.entity.User;
+import com.tpanh.backend.entity.UtilityReading;
 import com.tpanh.backend.enums.MeterType;
 import com.tpanh.backend.enums.Role;
 import com.tpanh.backend.enums.RoomStatus;
@@ -24,15 +30,19 @@ import com.tpanh.backend.enums.WaterCalcMethod;
 import com.tpanh.backend.repository.BuildingRepository;
 import com.tpanh.backend.repository.InvoiceRepository;
 import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.PaymentLogRepository;
 import com.tpanh.backend.repository.RoomRepository;
 import com.tpanh.backend.repository.TenantRepository;
 import com.tpanh.backend.repository.UserRepository;
 import com.tpanh.backend.repository.UtilityReadingRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -76,6 +86,7 @@ class InvoiceControllerIntegrationTest {
     @Autowired private MeterRecordRepository meterRecordRepository;
     @Autowired private InvoiceRepository invoiceRepository;
     @Autowired private UtilityReadingRepository utilityReadingRepository;
+    @Autowired private PaymentLogRepository paymentLogRepository;
     @Autowired private PasswordEncoder passwordEncoder;
 
     private static final String USERNAME = "testmanager";
@@ -460,6 +471,59 @@ class InvoiceControllerIntegrationTest {
 
     // ===== Tests for getInvoices endpoint =====
 
+    @Test
+    void previewInvoices_ShouldReturnBreakdownWithoutPersistingInvoices() throws Exception {
+        // Given
+        final Room room = roomRepository.findById(roomId).orElseThrow();
+        final MeterRecord elecRecord = new MeterRecord();
+        elecRecord.setRoom(room);
+        elecRecord.setType(MeterType.ELEC);
+        elecRecord.setPeriod("2025-01");
+        elecRecord.setPreviousValue(100);
+        elecRecord.setCurrentValue(150);
+        meterRecordRepository.save(elecRecord);
+
+        final var request = new InvoicePreviewRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod("2025-01");
+        // Giá điện thử 4000 thay cho giá đang lưu 3000
+        request.setElecUnitPrice(4000);
+
+        // When & Then
+        mockMvc.perform(
+                        post("/api/v1/invoices/preview")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.invoiceCount").value(1))
+                .andExpect(jsonPath("$.result.rooms[0].status").value("READY"))
+                .andExpect(jsonPath("$.result.rooms[0].elecUsage").value(50))
+                .andExpect(jsonPath("$.result.rooms[0].elecAmount").value(200000))
+                .andExpect(jsonPath("$.result.totalAmount").value(3200000));
+
+        assertEquals(0, invoiceRepository.count());
+        final Building building = buildingRepository.findById(buildingId).orElseThrow();
+        assertEquals(3000, building.getElecUnitPrice());
+    }
+
+    @Test
+    void previewInvoices_WithMalformedPeriod_ShouldReturnBadRequest() throws Exception {
+        // Given
+        final var request = new InvoicePreviewRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod("2025-1");
+
+        // When & Then
+        mockMvc.perform(
+                        post("/api/v1/invoices/preview")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1018)); // INVALID_PERIOD_FORMAT
+    }
+
     @Test
     void getInvoices_WithValidParams_ShouldReturnPageResponse() throws Exception {
         // Given - Create invoice first
@@ -584,9 +648,161 @@ class InvoiceControllerIntegrationTest {
                 .andExpect(jsonPath("$.result.id").value(invoiceId))
                 .andExpect(jsonPath("$.result.roomNo").value("P.101"))
                 .andExpect(jsonPath("$.result.period").value("2025-01"))
+                .andExpect(jsonPath("$.result.buildingName").value("Trọ Xanh"))
+                .andExpect(jsonPath("$.result.tenantName").value("Nguyễn Văn A"))
+                .andExpect(jsonPath("$.result.elecPreviousValue").value(100))
+                .andExpect(jsonPath("$.result.elecCurrentValue").value(150))
+                .andExpect(jsonPath("$.result.elecUsage").value(50))
+                .andExpect(jsonPath("$.result.elecUnitPrice").value(3000))
+                .andExpect(jsonPath("$.result.waterCalcMethod").value("BY_METER"))
                 .andExpect(jsonPath("$.message").value("Lấy chi tiết hóa đơn thành công"));
     }
 
+    @Test
+    void getInvoiceDetail_AfterTariffAndMeterChange_ShouldKeepBillingSnapshot() throws Exception {
+        // Given: hóa đơn lập với giá 3000 và chỉ số 100 -> 150
+        final Room room = roomRepository.findById(roomId).orElseThrow();
+        final MeterRecord elecRecord = new MeterRecord();
+        elecRecord.setRoom(room);
+        elecRecord.setType(MeterType.ELEC);
+        elecRecord.setPeriod("2025-01");
+        elecRecord.setPreviousValue(100);
+        elecRecord.setCurrentValue(150);
+        meterRecordRepository.save(elecRecord);
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod("2025-01");
+        mockMvc.perform(
+                        post("/api/v1/invoices/generate")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        final Integer invoiceId = invoiceRepository.findAll().get(0).getId();
+
+        // Sau đó giá điện tăng và chỉ số bị sửa
+        final Building building = buildingRepository.findById(buildingId).orElseThrow();
+        building.setElecUnitPrice(5000);
+        buildingRepository.save(building);
+        elecRecord.setCurrentValue(200);
+        meterRecordRepository.save(elecRecord);
+
+        // When & Then
+        mockMvc.perform(
+                        get("/api/v1/invoices/" + invoiceId)
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.elecCurrentValue").value(150))
+                .andExpect(jsonPath("$.result.elecUsage").value(50))
+                .andExpect(jsonPath("$.result.elecUnitPrice").value(3000))
+                .andExpect(jsonPath("$.result.elecAmount").value(150000));
+    }
+
+    @Test
+    void getInvoiceDetail_WithUtilityReadings_ShouldReturnPreviousMonthIndices() throws Exception {
+        // Given: tháng 11 và tháng 12 đều có chỉ số, tháng 12 là chỉ số liền trước
+        final Room room = roomRepository.findById(roomId).orElseThrow();
+        saveReading(room, "2024-11", 80, 5);
+        saveReading(room, "2024-12", 100, 10);
+        saveReading(room, "2025-01", 150, 15);
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod("2025-01");
+        final var createResponse =
+                mockMvc.perform(
+                                post("/api/v1/invoices/generate")
+                                        .header("Authorization", "Bearer " + authToken)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk())
+                        .andReturn();
+        final var invoiceId =
+                objectMapper
+                        .readTree(createResponse.getResponse().getContentAsString())
+                        .get("result")
+                        .get(0)
+                        .get("id")
+                        .asInt();
+
+        // When & Then
+        mockMvc.perform(
+                        get("/api/v1/invoices/" + invoiceId)
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.elecPreviousValue").value(100))
+                .andExpect(jsonPath("$.result.elecUsage").value(50))
+                .andExpect(jsonPath("$.result.waterPreviousValue").value(10))
+                .andExpect(jsonPath("$.result.waterUsage").value(5))
+                .andExpect(jsonPath("$.result.waterUnitPrice").value(20000));
+    }
+
+    private void saveReading(
+            final Room room, final String month, final int electricIndex, final int waterIndex) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setRoom(room);
+        reading.setMonth(month);
+        reading.setElectricIndex(electricIndex);
+        reading.setWaterIndex(waterIndex);
+        utilityReadingRepository.save(reading);
+    }
+
+    @Test
+    void getInvoiceDetails_ShouldReturnDetailsInRequestedOrder() throws Exception {
+        // Given: 2 hóa đơn của cùng phòng ở 2 kỳ
+        final Integer januaryId = generateInvoice("2025-01");
+        final Integer februaryId = generateInvoice("2025-02");
+        final var request = new InvoiceDetailsRequest();
+        request.setIds(List.of(februaryId, januaryId));
+
+        // When & Then
+        mockMvc.perform(
+                        post("/api/v1/invoices/details")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.length()").value(2))
+                .andExpect(jsonPath("$.result[0].id").value(februaryId))
+                .andExpect(jsonPath("$.result[0].period").value("2025-02"))
+                .andExpect(jsonPath("$.result[1].id").value(januaryId))
+                .andExpect(jsonPath("$.result[1].roomNo").value("P.101"));
+    }
+
+    @Test
+    void getInvoiceDetails_WithUnknownId_ShouldReturnForbidden() throws Exception {
+        // Given
+        final var request = new InvoiceDetailsRequest();
+        request.setIds(List.of(generateInvoice("2025-01"), 99999));
+
+        // When & Then: manager không sở hữu hóa đơn 99999
+        mockMvc.perform(
+                        post("/api/v1/invoices/details")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    private Integer generateInvoice(final String period) throws Exception {
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod(period);
+        final var response =
+                mockMvc.perform(
+                                post("/api/v1/invoices/generate")
+                                        .header("Authorization", "Bearer " + authToken)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk())
+                        .andReturn();
+        return objectMapper
+                .readTree(response.getResponse().getContentAsString())
+                .get("result")
+                .get(0)
+                .get("id")
+                .asInt();
+    }
+
     @Test
     void getInvoiceDetail_WithInvalidId_ShouldReturnNotFound() throws Exception {
         mockMvc.perform(
@@ -659,6 +875,55 @@ class InvoiceControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void payInvoices_WithPayableInvoices_ShouldPayAllAndLogEach() throws Exception {
+        // Given
+        final Integer january = generateInvoice("2025-01");
+        final Integer february = generateInvoice("2025-02");
+        final var request = new InvoicePaymentsRequest();
+        request.setIds(List.of(february, january));
+
+        // When & Then
+        mockMvc.perform(
+                        put("/api/v1/invoices/pay")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[0].id").value(february))
+                .andExpect(jsonPath("$.result[0].status").value("PAID"))
+                .andExpect(jsonPath("$.result[1].id").value(january))
+                .andExpect(jsonPath("$.result[1].status").value("PAID"));
+        for (final Integer id : List.of(january, february)) {
+            final var logs = paymentLogRepository.findByInvoiceIdOrderByCreatedAtDesc(id);
+            assertEquals(1, logs.size());
+            assertEquals("DRAFT", logs.get(0).getOldStatus());
+        }
+    }
+
+    @Test
+    void payInvoices_WithOnePaidInvoice_ShouldPayNothing() throws Exception {
+        // Given
+        final Integer january = generateInvoice("2025-01");
+        final Integer february = generateInvoice("2025-02");
+        mockMvc.perform(
+                        put("/api/v1/invoices/" + january + "/pay")
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        final var request = new InvoicePaymentsRequest();
+        request.setIds(List.of(january, february));
+
+        // When & Then
+        mockMvc.perform(
+                        put("/api/v1/invoices/pay")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        assertEquals(
+                "DRAFT", invoiceRepository.findById(february).orElseThrow().getStatus().name());
+    }
+
     @Test
     void payInvoice_WithInvalidId_ShouldReturnForbidden() throws Exception {
         mockMvc.perform(
@@ -705,4 +970,80 @@ class InvoiceControllerIntegrationTest {
                                 .header("Authorization", "Bearer " + authToken))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void sendInvoiceEmails_WithTenantWithoutEmail_ShouldReportSkippedInvoice() throws Exception {
+        // Given - Create invoice (tenant has no email)
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod("2025-01");
+        mockMvc.perform(
+                        post("/api/v1/invoices/generate")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(
+                        post("/api/v1/invoices/send-email")
+                                .header("Authorization", "Bearer " + authToken)
+                                .param("buildingId", buildingId.toString())
+                                .param("period", "2025-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.queuedCount").value(0))
+                .andExpect(jsonPath("$.result.skippedCount").value(1))
+                .andExpect(jsonPath("$.result.invoices[0].status").value("NO_EMAIL"));
+    }
+
+    @Test
+    void reconcileStatement_ShouldPayMatchedInvoiceAndReportUnmatchedLine() throws Exception {
+        // Given
+        final Integer invoiceId = generateInvoice("2025-01");
+        final Integer totalAmount =
+                invoiceRepository.findById(invoiceId).orElseThrow().getTotalAmount();
+        final String csv =
+                "Ngày;Số tiền;Nội dung\n"
+                        + "05/02/2025;"
+                        + totalAmount
+                        + ";P101 tien phong thang 1\n"
+                        + "06/02/2025;150.000;chuyen nham\n";
+        final var file =
+                new MockMultipartFile(
+                        "file", "saoke.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        mockMvc.perform(
+                        multipart("/api/v1/invoices/reconciliation")
+                                .file(file)
+                                .param("buildingId", buildingId.toString())
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Đối soát sao kê thành công"))
+                .andExpect(jsonPath("$.result.totalRows").value(2))
+                .andExpect(jsonPath("$.result.counts.MATCHED").value(1))
+                .andExpect(jsonPath("$.result.lines[0].invoiceId").value(invoiceId))
+                .andExpect(jsonPath("$.result.lines[1].status").value("UNMATCHED"));
+        final var logs = paymentLogRepository.findByInvoiceIdOrderByCreatedAtDesc(invoiceId);
+        assertEquals(1, logs.size());
+        assertEquals("PAID", logs.get(0).getNewStatus());
+    }
+
+    @Test
+    void reconcileStatement_WithoutRequiredColumns_ShouldReturnBadRequest() throws Exception {
+        final var file =
+                new MockMultipartFile(
+                        "file",
+                        "saoke.csv",
+                        "text/csv",
+                        "Ngày,Ghi chú\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(
+                        multipart("/api/v1/invoices/reconciliation")
+                                .file(file)
+                                .param("buildingId", buildingId.toString())
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1017)); // STATEMENT_INVALID
+    }
 }
@@ -0,0 +1,249 @@
+package com.tpanh.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tpanh.backend.dto.AuthenticationRequest;
+import com.tpanh.backend.dto.InvoiceCreationRequest;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.User;
+import com.tpanh.backend.enums.MeterType;
+import com.tpanh.backend.enums.Role;
+import com.tpanh.backend.enums.RoomStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.TenantRepository;
+import com.tpanh.backend.repository.UserRepository;
+import com.tpanh.backend.repository.UtilityReadingRepository;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Không dùng @Transactional: job chạy trên thread khác nên dữ liệu test phải được commit
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+class InvoiceGenerationJobControllerIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final String USERNAME = "jobmanager";
+    private static final String PASSWORD = "testpass123";
+    private static final String PERIOD = "2025-01";
+    private static final int POLL_ATTEMPTS = 50;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BuildingRepository buildingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private MeterRecordRepository meterRecordRepository;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private UtilityReadingRepository utilityReadingRepository;
+    @Autowired private InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockMvc mockMvc;
+    private String authToken;
+    private Integer buildingId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc =
+                MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                        .apply(springSecurity())
+                        .build();
+
+        invoiceRepository.deleteAll();
+        invoiceGenerationJobRepository.deleteAll();
+        utilityReadingRepository.deleteAll();
+        meterRecordRepository.deleteAll();
+        tenantRepository.deleteAll();
+        roomRepository.deleteAll();
+        buildingRepository.deleteAll();
+        userRepository.deleteAll();
+
+        final User manager =
+                userRepository.save(
+                        User.builder()
+                                .username(USERNAME)
+                                .password(passwordEncoder.encode(PASSWORD))
+                                .fullName("Job Manager")
+                                .roles(new HashSet<>(Set.of(Role.MANAGER)))
+                                .active(true)
+                                .build());
+        authToken = authenticate();
+
+        final Building building = new Building();
+        building.setName("Trọ Xanh");
+        building.setElecUnitPrice(3000);
+        building.setWaterUnitPrice(20000);
+        building.setWaterCalcMethod(WaterCalcMethod.BY_METER);
+        building.setManager(manager);
+        buildingId = buildingRepository.save(building).getId();
+
+        createRoomWithTenant(building, "P.101", true);
+        createRoomWithTenant(building, "P.102", false);
+    }
+
+    @Test
+    void submitJob_ShouldCreateInvoicesInBackgroundAndReportProgress() throws Exception {
+        // Given
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod(PERIOD);
+
+        // When
+        final var submitResponse =
+                mockMvc.perform(
+                                post("/api/v1/invoices/generation-jobs")
+                                        .header("Authorization", "Bearer " + authToken)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isAccepted())
+                        .andExpect(jsonPath("$.result.id").exists())
+                        .andExpect(jsonPath("$.result.status").value("PENDING"))
+                        .andReturn();
+        final String jobId =
+                objectMapper
+                        .readTree(submitResponse.getResponse().getContentAsString())
+                        .get("result")
+                        .get("id")
+                        .asText();
+
+        // Then
+        final JsonNode job = awaitFinished(jobId);
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(2, job.get("totalRooms").asInt());
+        assertEquals(2, job.get("processedRooms").asInt());
+        assertEquals(1, job.get("skippedRooms").asInt()); // P.102 không có người đại diện
+        assertEquals(0, job.get("failedRooms").asInt());
+        assertEquals(1, job.get("createdInvoices").asInt());
+
+        mockMvc.perform(
+                        get("/api/v1/invoices/generation-jobs/" + jobId + "/invoices")
+                                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].roomNo").value("P.101"))
+                .andExpect(jsonPath("$.content[0].elecAmount").value(150000))
+                .andExpect(jsonPath("$.content[0].waterAmount").value(200000))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+    }
+
+    @Test
+    void submitJob_WithoutAuthentication_ShouldReturnUnauthorized() throws Exception {
+        final var request = new InvoiceCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setPeriod(PERIOD);
+
+        mockMvc.perform(
+                        post("/api/v1/invoices/generation-jobs")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private JsonNode awaitFinished(final String jobId) throws Exception {
+        for (int attempt = 0; attempt < POLL_ATTEMPTS; attempt++) {
+            final var response =
+                    mockMvc.perform(
+                                    get("/api/v1/invoices/generation-jobs/" + jobId)
+                                            .header("Authorization", "Bearer " + authToken))
+                            .andExpect(status().isOk())
+                            .andReturn();
+            final JsonNode job =
+                    objectMapper
+                            .readTree(response.getResponse().getContentAsString())
+                            .get("result");
+            final String status = job.get("status").asText();
+            if ("COMPLETED".equals(status) || "FAILED".equals(status)) {
+                return job;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish in time");
+    }
+
+    private String authenticate() throws Exception {
+        final var authRequest = new AuthenticationRequest();
+        authRequest.setUsername(USERNAME);
+        authRequest.setPassword(PASSWORD);
+        final var authResponse =
+                mockMvc.perform(
+                                post("/api/v1/auth/token")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(authRequest)))
+                        .andReturn();
+        return objectMapper
+                .readTree(authResponse.getResponse().getContentAsString())
+                .get("result")
+                .get("token")
+                .asText();
+    }
+
+    private void createRoomWithTenant(
+            final Building building, final String roomNo, final boolean contractHolder) {
+        final Room room = new Room();
+        room.setBuilding(building);
+        room.setRoomNo(roomNo);
+        room.setPrice(3000000);
+        room.setStatus(RoomStatus.OCCUPIED);
+        roomRepository.save(room);
+
+        final Tenant tenant = new Tenant();
+        tenant.setRoom(room);
+        tenant.setName("Khách " + roomNo);
+        tenant.setIsContractHolder(contractHolder);
+        tenantRepository.save(tenant);
+
+        meterRecordRepository.save(meterRecord(room, MeterType.ELEC, 100, 150));
+        meterRecordRepository.save(meterRecord(room, MeterType.WATER, 50, 60));
+    }
+
+    private MeterRecord meterRecord(
+            final Room room, final MeterType type, final int previous, final int current) {
+        final MeterRecord record = new MeterRecord();
+        record.setRoom(room);
+        record.setType(type);
+        record.setPeriod(PERIOD);
+        record.setPreviousValue(previous);
+        record.setCurrentValue(current);
+        return record;
+    }
+}
@@ -15,14 +15,10 @@ import com.tpanh.backend.entity.User;
 import com.tpanh.backend.enums.Role;
 import com.tpanh.backend.enums.UserStatus;
 import com.tpanh.backend.repository.UserRepository;
-import com.tpanh.backend.service.EmailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.context.TestConfiguration;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -43,21 +39,6 @@ import org.testcontainers.utility.DockerImageName;
 @Transactional
 class RegistrationControllerIntegrationTest {
 
-    @TestConfiguration
-    static class TestConfig {
-        @Bean
-        @Primary
-        public EmailService emailService() {
-            return new EmailService(
-                    org.mockito.Mockito.mock(
-                            org.springframework.mail.javamail.JavaMailSender.class)) {
-                @Override
-                public void sendActivationEmail(
-                        final String email, final String fullName, final String token) {}
-            };
-        }
-    }
-
     @Container
     static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
 
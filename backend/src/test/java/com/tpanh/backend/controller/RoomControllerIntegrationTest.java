@@ -400,4 +400,64 @@ class RoomControllerIntegrationTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.result.status").value("MAINTENANCE"));
     }
+
+    @Test
+    void getRoomsByBuildingId_WithCursor_ShouldPageByRoomNoWithoutTotals() throws Exception {
+        // Given
+        for (final String roomNo : new String[] {"P.103", "P.101", "P.102"}) {
+            createRoom(roomNo);
+        }
+
+        // When - trang đầu: cursor rỗng
+        final var firstPage =
+                mockMvc.perform(
+                                get("/api/v1/buildings/" + buildingId + "/rooms")
+                                        .header("Authorization", "Bearer " + authToken)
+                                        .param("cursor", "")
+                                        .param("size", "2"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[0].roomNo").value("P.101"))
+                        .andExpect(jsonPath("$.content[1].roomNo").value("P.102"))
+                        .andExpect(jsonPath("$.page").doesNotExist())
+                        .andReturn();
+        final String cursor =
+                objectMapper
+                        .readTree(firstPage.getResponse().getContentAsString())
+                        .get("nextCursor")
+                        .asText();
+
+        // Then - trang sau bắt đầu ngay sau P.102 và là trang cuối
+        mockMvc.perform(
+                        get("/api/v1/buildings/" + buildingId + "/rooms")
+                                .header("Authorization", "Bearer " + authToken)
+                                .param("cursor", cursor)
+                                .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].roomNo").value("P.103"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getRoomsByBuildingId_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(
+                        get("/api/v1/buildings/" + buildingId + "/rooms")
+                                .header("Authorization", "Bearer " + authToken)
+                                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1016)); // INVALID_CURSOR
+    }
+
+    private void createRoom(final String roomNo) throws Exception {
+        final var request = new RoomCreationRequest();
+        request.setBuildingId(buildingId);
+        request.setRoomNo(roomNo);
+        request.setPrice(3000000);
+        mockMvc.perform(
+                        post("/api/v1/rooms")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
 }
@@ -0,0 +1,154 @@
+package com.tpanh.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.MeterType;
+import com.tpanh.backend.enums.RoomStatus;
+import com.tpanh.backend.service.BillingSnapshot;
+import com.tpanh.backend.service.BillingSnapshotLoader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Số statement để nạp {@link BillingSnapshot} của 1 tòa nhà không phụ thuộc số phòng: chỉ số,
+ * chỉ số đồng hồ và người đại diện được nạp kèm phòng trong cùng query.
+ */
+@SpringBootTest
+@Testcontainers
+@Transactional
+class BillingSnapshotQueryIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    private static final int MANY_ROOMS = 30;
+    private static final int ROOM_PRICE = 3000000;
+    private static final String PERIOD = "2025-02";
+    private static final String PREVIOUS_PERIOD = "2025-01";
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Autowired private BuildingRepository buildingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private UtilityReadingRepository utilityReadingRepository;
+    @Autowired private MeterRecordRepository meterRecordRepository;
+    @Autowired private BillingSnapshotLoader billingSnapshotLoader;
+
+    private Statistics statistics;
+    private Building smallBuilding;
+    private Building largeBuilding;
+
+    @BeforeEach
+    void setUp() {
+        smallBuilding = seedBuilding("Small Building", 1);
+        largeBuilding = seedBuilding("Large Building", MANY_ROOMS);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics =
+                entityManager
+                        .getEntityManagerFactory()
+                        .unwrap(SessionFactory.class)
+                        .getStatistics();
+    }
+
+    @Test
+    void load_ShouldUseSameStatementCountRegardlessOfRoomCount() {
+        // When
+        final long smallStatements = statementsToLoad(smallBuilding);
+        final long largeStatements = statementsToLoad(largeBuilding);
+
+        // Then
+        assertEquals(smallStatements, largeStatements);
+        final BillingSnapshot snapshot = billingSnapshotLoader.load(largeBuilding.getId(), PERIOD);
+        assertEquals(MANY_ROOMS, snapshot.rooms().size());
+        assertEquals(MANY_ROOMS, snapshot.currentReadings().size());
+        assertEquals(MANY_ROOMS, snapshot.previousReadings().size());
+        assertEquals(MANY_ROOMS, snapshot.elecRecords().size());
+        assertEquals(MANY_ROOMS, snapshot.waterRecords().size());
+        assertEquals(MANY_ROOMS, snapshot.contractHolders().size());
+    }
+
+    private long statementsToLoad(final Building building) {
+        entityManager.clear();
+        statistics.clear();
+        billingSnapshotLoader.load(building.getId(), PERIOD);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Building seedBuilding(final String name, final int roomCount) {
+        final Building building = new Building();
+        building.setName(name);
+        buildingRepository.save(building);
+        for (int i = 1; i <= roomCount; i++) {
+            seedRoom(building, "P." + (100 + i));
+        }
+        return building;
+    }
+
+    private void seedRoom(final Building building, final String roomNo) {
+        final Room room = new Room();
+        room.setBuilding(building);
+        room.setRoomNo(roomNo);
+        room.setPrice(ROOM_PRICE);
+        room.setStatus(RoomStatus.OCCUPIED);
+        roomRepository.save(room);
+
+        final Tenant tenant = new Tenant();
+        tenant.setRoom(room);
+        tenant.setName("Tenant " + roomNo);
+        tenant.setIsContractHolder(true);
+        tenant.setStartDate(LocalDate.of(2024, 1, 1));
+        tenantRepository.save(tenant);
+
+        seedReading(room, PREVIOUS_PERIOD, 100);
+        seedReading(room, PERIOD, 150);
+        seedMeterRecord(room, MeterType.ELEC);
+        seedMeterRecord(room, MeterType.WATER);
+    }
+
+    private void seedReading(final Room room, final String month, final int index) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setRoom(room);
+        reading.setMonth(month);
+        reading.setElectricIndex(index);
+        reading.setWaterIndex(index / 10);
+        utilityReadingRepository.save(reading);
+    }
+
+    private void seedMeterRecord(final Room room, final MeterType type) {
+        final MeterRecord record = new MeterRecord();
+        record.setRoom(room);
+        record.setType(type);
+        record.setPeriod(PERIOD);
+        record.setPreviousValue(100);
+        record.setCurrentValue(150);
+        meterRecordRepository.save(record);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tpanh.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tpanh.backend.entity.EmailOutbox;
+import com.tpanh.backend.enums.EmailOutboxStatus;
+import com.tpanh.backend.service.EmailMessage;
+import com.tpanh.backend.service.EmailOutboxService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Ghi outbox trong transaction của người gọi và worker nhận email bằng lease. */
+@SpringBootTest
+@Testcontainers
+@Transactional
+class EmailOutboxIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final int LIMIT = 10;
+
+    @Autowired private EmailOutboxRepository emailOutboxRepository;
+    @Autowired private EmailOutboxService emailOutboxService;
+
+    @Test
+    void enqueue_ShouldJoinCallerTransaction() {
+        final long before = emailOutboxRepository.count();
+
+        emailOutboxService.enqueue(new EmailMessage("a@example.com", "Subject", "<p></p>"));
+
+        assertEquals(before + 1, emailOutboxRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void enqueue_WithoutTransaction_ShouldBeRejected() {
+        assertThrows(
+                IllegalTransactionStateException.class,
+                () ->
+                        emailOutboxService.enqueue(
+                                new EmailMessage("a@example.com", "Subject", "<p></p>")));
+    }
+
+    @Test
+    void claimDue_ShouldLeaseOnlyDuePendingEmailsOnce() {
+        // Given: now() của Postgres là thời điểm bắt đầu transaction test nên hẹn giờ theo nó
+        final LocalDateTime past = LocalDateTime.now().minusHours(1);
+        final Integer due = save(EmailOutboxStatus.PENDING, past).getId();
+        save(EmailOutboxStatus.PENDING, LocalDateTime.now().plusHours(1));
+        save(EmailOutboxStatus.DEAD, past);
+        save(EmailOutboxStatus.SENT, past);
+
+        // When
+        final List<PendingEmailView> first = emailOutboxRepository.claimDue(LIMIT, LEASE);
+        final List<PendingEmailView> second = emailOutboxRepository.claimDue(LIMIT, LEASE);
+
+        // Then: email đã nhận bị dời sang hết lease, lần lấy sau không thấy lại
+        assertEquals(List.of(due), first.stream().map(PendingEmailView::id).toList());
+        assertTrue(second.isEmpty());
+    }
+
+    private EmailOutbox save(final EmailOutboxStatus status, final LocalDateTime nextAttemptAt) {
+        return emailOutboxRepository.saveAndFlush(
+                EmailOutbox.builder()
+                        .recipient("user@example.com")
+                        .subject("Subject")
+                        .body("<p></p>")
+                        .status(status)
+                        .nextAttemptAt(nextAttemptAt)
+                        .build());
+    }
+}
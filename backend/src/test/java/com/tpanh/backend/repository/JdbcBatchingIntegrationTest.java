@@ -0,0 +1,177 @@
+package com.tpanh.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.IdGeneration;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.PaymentLog;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.RoomStatus;
+import com.tpanh.backend.service.InvoiceDetailCache;
+import com.tpanh.backend.service.InvoiceService;
+import com.tpanh.backend.util.JobShard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Kiểm tra số statement JDBC thực sự gửi xuống DB khi ghi hàng loạt. */
+@SpringBootTest
+@Testcontainers
+@Transactional
+class JdbcBatchingIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    private static final int INVOICE_COUNT = 120;
+    // InvoiceService đánh dấu quá hạn tối đa 1000 hóa đơn mỗi đợt
+    private static final int OVERDUE_CHUNK_SIZE = 1000;
+    private static final int OVERDUE_COUNT = OVERDUE_CHUNK_SIZE + 20;
+    // ceil(120 / 50) = 3 batch cho mỗi loại statement
+    private static final int BATCHES =
+            (INVOICE_COUNT + IdGeneration.ALLOCATION_SIZE - 1) / IdGeneration.ALLOCATION_SIZE;
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Autowired private BuildingRepository buildingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private PaymentLogRepository paymentLogRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private InvoiceService invoiceService;
+
+    // Cache chi tiết nằm trên Redis; mỗi đợt evict đúng các hóa đơn câu SQL của đợt đó trả về
+    @MockitoBean private InvoiceDetailCache invoiceDetailCache;
+
+    private Statistics statistics;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        final Building building = new Building();
+        building.setName("Batching Building");
+        buildingRepository.save(building);
+
+        room = new Room();
+        room.setBuilding(building);
+        room.setRoomNo("P.101");
+        room.setPrice(3000000);
+        room.setStatus(RoomStatus.OCCUPIED);
+        roomRepository.save(room);
+        entityManager.flush();
+
+        statistics =
+                entityManager
+                        .getEntityManagerFactory()
+                        .unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAllInvoices_ShouldSendInsertsInJdbcBatches() {
+        // When
+        invoiceRepository.saveAll(newInvoices(INVOICE_COUNT));
+        entityManager.flush();
+
+        // Then: mỗi batch gồm 1 lần gọi nextval + 1 INSERT batch, thay vì 120 INSERT
+        assertEquals(INVOICE_COUNT, statistics.getEntityInsertCount());
+        assertStatementCountAtMost(2 * BATCHES + 1);
+    }
+
+    @Test
+    void markOverdueInvoices_ShouldUpdateAndLogWithOneStatementPerChunk() {
+        // Given
+        final List<Invoice> invoices = invoiceRepository.saveAll(newInvoices(OVERDUE_COUNT));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When: đợt đầu đầy 1000 hóa đơn, đợt sau 20 hóa đơn
+        final int marked = invoiceService.markOverdueInvoices(LocalDate.now(), JobShard.ALL);
+
+        // Then: mỗi đợt là 1 câu SQL vừa cập nhật vừa ghi log, không nạp entity qua Hibernate
+        assertEquals(OVERDUE_COUNT, marked);
+        verify(invoiceDetailCache, times(2)).evictAll(any());
+        verify(invoiceDetailCache).evictAll(argThat(ids -> ids.size() == OVERDUE_CHUNK_SIZE));
+        verify(invoiceDetailCache)
+                .evictAll(argThat(ids -> ids.size() == OVERDUE_COUNT - OVERDUE_CHUNK_SIZE));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(
+                OVERDUE_COUNT,
+                countRows("SELECT count(*) FROM invoices WHERE status = 'OVERDUE'"));
+        assertEquals(
+                OVERDUE_COUNT,
+                countRows(
+                        "SELECT count(*) FROM payment_logs WHERE action = 'MARKED_OVERDUE'"
+                                + " AND old_status = 'UNPAID' AND new_status = 'OVERDUE'"
+                                + " AND amount = 3000000"));
+        assertEquals(
+                OVERDUE_COUNT, countRows("SELECT count(DISTINCT invoice_id) FROM payment_logs"));
+
+        // Id log cấp trong SQL không trùng block id Hibernate cấp sau đó
+        paymentLogRepository.save(
+                PaymentLog.create(invoices.get(0), "PAID", "OVERDUE", "PAID", "SYSTEM", null));
+        entityManager.flush();
+    }
+
+    private List<Invoice> newInvoices(final int count) {
+        final YearMonth firstPeriod = YearMonth.of(2015, 1);
+        return IntStream.range(0, count)
+                .mapToObj(
+                        i -> {
+                            final Invoice invoice = new Invoice();
+                            invoice.setRoom(room);
+                            invoice.setPeriod(firstPeriod.plusMonths(i).toString());
+                            invoice.setRoomPrice(room.getPrice());
+                            invoice.setTotalAmount(room.getPrice());
+                            invoice.setStatus(InvoiceStatus.UNPAID);
+                            invoice.setDueDate(LocalDate.now().minusDays(1));
+                            return invoice;
+                        })
+                .toList();
+    }
+
+    private long countRows(final String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private void assertStatementCountAtMost(final long maxStatements) {
+        final long statements = statistics.getPrepareStatementCount();
+        assertTrue(
+                statements <= maxStatements,
+                "Expected at most " + maxStatements + " statements but was " + statements);
+    }
+}
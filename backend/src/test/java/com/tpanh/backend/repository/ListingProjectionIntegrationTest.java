@@ -0,0 +1,244 @@
+package com.tpanh.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.RoomStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Mỗi trang danh sách, kể cả trang keyset, là đúng 1 statement: projection không nạp entity nên
+ * các quan hệ EAGER (phòng, tòa nhà, người thuê) không kéo thêm SELECT theo từng dòng.
+ */
+@SpringBootTest
+@Testcontainers
+@Transactional
+class ListingProjectionIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    private static final int ROOM_COUNT = 5;
+    private static final int PAGE_SIZE = 3;
+    private static final int ROOM_PRICE = 3000000;
+    private static final String PERIOD = "2025-01";
+    private static final Limit SCROLL_LIMIT = Limit.of(PAGE_SIZE + 1);
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Autowired private BuildingRepository buildingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private UtilityReadingRepository utilityReadingRepository;
+
+    private Statistics statistics;
+    private Building building;
+
+    @BeforeEach
+    void setUp() {
+        building = new Building();
+        building.setName("Projection Building");
+        buildingRepository.save(building);
+        for (int i = 1; i <= ROOM_COUNT; i++) {
+            seedRoom("P.10" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics =
+                entityManager
+                        .getEntityManagerFactory()
+                        .unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findInvoicePage_ShouldUseOneStatement() {
+        // When
+        final Slice<InvoiceSummaryView> page =
+                invoiceRepository.findByBuildingIdWithFilters(
+                        building.getId(), PERIOD, null, pageOf("createdAt"));
+
+        // Then
+        assertEquals(PAGE_SIZE, page.getNumberOfElements());
+        assertTrue(page.hasNext());
+        assertTrue(page.getContent().get(0).tenantName().startsWith("Tenant "));
+        assertStatementCount(1);
+    }
+
+    @Test
+    void findRoomPage_ShouldUseOneStatement() {
+        // When
+        final Slice<RoomSummaryView> page =
+                roomRepository.findSummariesByBuildingId(
+                        building.getId(), RoomStatus.OCCUPIED, pageOf("roomNo"));
+
+        // Then
+        assertEquals("P.101", page.getContent().get(0).roomNo());
+        assertEquals("Projection Building", page.getContent().get(0).buildingName());
+        assertStatementCount(1);
+    }
+
+    @Test
+    void findTenantPage_ShouldUseOneStatement() {
+        // When
+        final Slice<TenantSummaryView> page =
+                tenantRepository.findByRoomBuildingId(
+                        building.getId(), null, true, pageOf("startDate"));
+
+        // Then
+        assertEquals(PAGE_SIZE, page.getNumberOfElements());
+        assertTrue(page.getContent().get(0).roomNo().startsWith("P.10"));
+        assertStatementCount(1);
+    }
+
+    @Test
+    void scrollInvoicePages_ShouldUseOneStatementPerPage() {
+        // When
+        final List<InvoiceSummaryView> first =
+                invoiceRepository.scrollByBuildingIdWithFilters(
+                        building.getId(), PERIOD, null, SCROLL_LIMIT);
+        final InvoiceSummaryView last = first.get(PAGE_SIZE - 1);
+        final List<InvoiceSummaryView> second =
+                invoiceRepository.scrollByBuildingIdWithFiltersAfter(
+                        building.getId(), PERIOD, null, last.period(), last.id(), SCROLL_LIMIT);
+
+        // Then
+        assertEquals(PAGE_SIZE + 1, first.size());
+        assertEquals(ROOM_COUNT - PAGE_SIZE, second.size());
+        assertTrue(second.get(0).id() < last.id());
+        assertTrue(second.get(0).tenantName().startsWith("Tenant "));
+        assertStatementCount(2);
+    }
+
+    @Test
+    void scrollRoomPages_ShouldUseOneStatementPerPage() {
+        // When
+        final List<RoomSummaryView> first =
+                roomRepository.scrollSummariesByBuildingId(
+                        building.getId(), RoomStatus.OCCUPIED, SCROLL_LIMIT);
+        final RoomSummaryView last = first.get(PAGE_SIZE - 1);
+        final List<RoomSummaryView> second =
+                roomRepository.scrollSummariesByBuildingIdAfter(
+                        building.getId(),
+                        RoomStatus.OCCUPIED,
+                        last.roomNo(),
+                        last.id(),
+                        SCROLL_LIMIT);
+
+        // Then
+        assertEquals("P.101", first.get(0).roomNo());
+        assertEquals("P.104", second.get(0).roomNo());
+        assertEquals("Projection Building", second.get(0).buildingName());
+        assertEquals(ROOM_COUNT - PAGE_SIZE, second.size());
+        assertStatementCount(2);
+    }
+
+    @Test
+    void scrollTenantPages_ShouldUseOneStatementPerPage() {
+        // When
+        final List<TenantSummaryView> first =
+                tenantRepository.scrollWithFilters(building.getId(), null, true, SCROLL_LIMIT);
+        final TenantSummaryView last = first.get(PAGE_SIZE - 1);
+        final List<TenantSummaryView> second =
+                tenantRepository.scrollWithFiltersAfter(
+                        building.getId(), null, true, last.id(), SCROLL_LIMIT);
+
+        // Then
+        assertEquals(PAGE_SIZE + 1, first.size());
+        assertEquals(ROOM_COUNT - PAGE_SIZE, second.size());
+        assertTrue(second.get(0).id() < last.id());
+        assertTrue(second.get(0).roomNo().startsWith("P.10"));
+        assertStatementCount(2);
+    }
+
+    @Test
+    void findUtilityReadings_ShouldUseOneStatement() {
+        // When
+        final List<UtilityReadingSummaryView> readings =
+                utilityReadingRepository.findSummariesByBuildingIdAndMonth(
+                        building.getId(), PERIOD);
+
+        // Then
+        assertEquals(ROOM_COUNT, readings.size());
+        assertStatementCount(1);
+    }
+
+    private void seedRoom(final String roomNo) {
+        final Room room = new Room();
+        room.setBuilding(building);
+        room.setRoomNo(roomNo);
+        room.setPrice(ROOM_PRICE);
+        room.setStatus(RoomStatus.OCCUPIED);
+        roomRepository.save(room);
+
+        final Tenant tenant = new Tenant();
+        tenant.setRoom(room);
+        tenant.setName("Tenant " + roomNo);
+        tenant.setIsContractHolder(true);
+        tenant.setStartDate(LocalDate.of(2024, 1, 1));
+        tenantRepository.save(tenant);
+
+        final Invoice invoice = new Invoice();
+        invoice.setRoom(room);
+        invoice.setTenant(tenant);
+        invoice.setPeriod(PERIOD);
+        invoice.setRoomPrice(ROOM_PRICE);
+        invoice.setTotalAmount(ROOM_PRICE);
+        invoice.setStatus(InvoiceStatus.UNPAID);
+        invoiceRepository.save(invoice);
+        seedReading(room);
+    }
+
+    private void seedReading(final Room room) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setRoom(room);
+        reading.setMonth(PERIOD);
+        reading.setElectricIndex(100);
+        reading.setWaterIndex(10);
+        utilityReadingRepository.save(reading);
+    }
+
+    private static Pageable pageOf(final String sortProperty) {
+        return PageRequest.of(0, PAGE_SIZE, Sort.by(sortProperty));
+    }
+
+    private void assertStatementCount(final long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
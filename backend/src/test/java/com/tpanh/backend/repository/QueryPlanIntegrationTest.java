@@ -0,0 +1,444 @@
+package com.tpanh.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tpanh.backend.enums.InvitationStatus;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.MeterType;
+import com.tpanh.backend.enums.RoomStatus;
+import com.tpanh.backend.util.JobShard;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Chạy {@code EXPLAIN (FORMAT JSON)} cho từng câu SELECT mà các query của repository thực sự gửi
+ * xuống (ghi lại ở tầng JDBC cùng giá trị tham số), trên dữ liệu đủ lớn để planner chọn index
+ * thay vì quét hết bảng. Fail khi plan có Seq Scan trên 1 bảng lớn: query mới hoặc query sửa lại
+ * cần index đi kèm trong migration.
+ */
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIntegrationTest {
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(
+                        final Object bean, final String beanName) {
+                    return bean instanceof final DataSource dataSource
+                            ? recording(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /** Bảng có thể lớn theo số phòng/tháng; bảng buildings nhỏ nên được phép quét. */
+    private static final Set<String> LARGE_TABLES =
+            Set.of(
+                    "rooms",
+                    "tenants",
+                    "invoices",
+                    "payment_logs",
+                    "utility_readings",
+                    "meter_records",
+                    "tenant_invitations",
+                    "users",
+                    "user_roles");
+
+    // 200 tòa nhà x 40 phòng, mỗi phòng 3 khách thuê, 12 kỳ hóa đơn và chỉ số
+    private static final List<String> SEED_SQL =
+            List.of(
+                    "INSERT INTO buildings (name, manager_id) "
+                            + "SELECT 'Plan ' || g, 'manager-' || (g % 20) "
+                            + "FROM generate_series(1, 200) g",
+                    "INSERT INTO rooms (building_id, room_no, price, status) "
+                            + "SELECT b.id, 'P.' || g, 3000000, "
+                            + "CASE WHEN g % 5 = 0 THEN 'VACANT' ELSE 'OCCUPIED' END "
+                            + "FROM buildings b CROSS JOIN generate_series(1, 40) g",
+                    "INSERT INTO tenants (room_id, name, email, is_contract_holder, start_date, "
+                            + "end_date, user_id) "
+                            + "SELECT r.id, 'Tenant ' || r.id || '-' || g, "
+                            + "'t' || r.id || '-' || g || '@plan.vn', g = 1, "
+                            + "DATE '2023-01-01' + (r.id % 365), "
+                            + "CASE WHEN g = 3 THEN DATE '2024-06-01' END, "
+                            + "'user-' || r.id || '-' || g "
+                            + "FROM rooms r CROSS JOIN generate_series(1, 3) g",
+                    "INSERT INTO invoices (room_id, building_id, tenant_id, period, room_price, "
+                            + "total_amount, status, due_date) "
+                            + "SELECT t.room_id, r.building_id, t.id, "
+                            + "to_char(DATE '2024-01-01' + (g - 1) * INTERVAL '1 month', "
+                            + "'YYYY-MM'), 3000000, 3500000, "
+                            + "CASE WHEN g < 12 OR t.room_id % 100 <> 0 THEN 'PAID' "
+                            + "ELSE 'UNPAID' END, "
+                            + "(DATE '2024-01-10' + (g - 1) * INTERVAL '1 month')::date "
+                            + "FROM tenants t JOIN rooms r ON r.id = t.room_id "
+                            + "CROSS JOIN generate_series(1, 12) g "
+                            + "WHERE t.is_contract_holder",
+                    "INSERT INTO payment_logs (invoice_id, action, old_status, new_status, "
+                            + "amount, performed_by) "
+                            + "SELECT id, 'PAID', 'UNPAID', 'PAID', total_amount, 'SYSTEM' "
+                            + "FROM invoices WHERE status = 'PAID'",
+                    "INSERT INTO utility_readings (room_id, month, electric_index, water_index) "
+                            + "SELECT room_id, period, 100, 10 FROM invoices",
+                    "INSERT INTO meter_records (room_id, type, period, previous_value, "
+                            + "current_value) "
+                            + "SELECT room_id, m.type, period, 0, 100 FROM invoices "
+                            + "CROSS JOIN (VALUES ('ELEC'), ('WATER')) m(type) "
+                            + "WHERE period >= '2024-10'",
+                    "INSERT INTO tenant_invitations (id, room_id, email, status, expired_at) "
+                            + "SELECT gen_random_uuid(), r.id, 'invite-' || r.id || '-' || g "
+                            + "|| '@plan.vn', CASE WHEN g = 1 THEN 'PENDING' ELSE 'ACCEPTED' "
+                            + "END, now() + INTERVAL '1 day' "
+                            + "FROM rooms r CROSS JOIN generate_series(1, 2) g",
+                    "INSERT INTO users (id, username, zalo_id, full_name, email, status) "
+                            + "SELECT 'user-' || g, 'user' || g, 'zalo' || g, 'User ' || g, "
+                            + "'user' || g || '@plan.vn', 'ACTIVE' "
+                            + "FROM generate_series(1, 20000) g",
+                    "INSERT INTO user_roles (user_id, role) "
+                            + "SELECT id, 'USER' FROM users WHERE id LIKE 'user-%'",
+                    "ANALYZE");
+
+    private static final List<RecordedQuery> RECORDED =
+            Collections.synchronizedList(new ArrayList<>());
+    private static volatile boolean capturing;
+
+    private static final String PERIOD = "2024-12";
+    private static final String MANAGER_ID = "manager-1";
+    private static final int PAGE_SIZE = 20;
+    private static final Pageable PAGE = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+    private static final Limit SCROLL_LIMIT = Limit.of(PAGE_SIZE + 1);
+    private static final LocalDate TODAY = LocalDate.parse("2025-01-01");
+    private static final int REMINDER_DAYS = 3;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private BuildingRepository buildingRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private TenantInvitationRepository tenantInvitationRepository;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    @Autowired private PaymentLogRepository paymentLogRepository;
+    @Autowired private UtilityReadingRepository utilityReadingRepository;
+    @Autowired private MeterRecordRepository meterRecordRepository;
+    @Autowired private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Integer buildingId;
+    private Integer roomId;
+    private Integer invoiceId;
+
+    @BeforeAll
+    void seed() {
+        SEED_SQL.forEach(jdbcTemplate::execute);
+        buildingId =
+                jdbcTemplate.queryForObject(
+                        "SELECT id FROM buildings WHERE name = 'Plan 1'", Integer.class);
+        roomId =
+                jdbcTemplate.queryForObject(
+                        "SELECT min(id) FROM rooms WHERE building_id = ?", Integer.class, buildingId);
+        invoiceId =
+                jdbcTemplate.queryForObject(
+                        "SELECT min(id) FROM invoices WHERE room_id = ?", Integer.class, roomId);
+    }
+
+    @Test
+    void invoiceQueries_ShouldNotSeqScanLargeTables() {
+        assertNoSeqScan(
+                () -> {
+                    invoiceRepository.findByBuildingIdWithFilters(
+                            buildingId, PERIOD, InvoiceStatus.UNPAID, sortedBy("createdAt"));
+                    invoiceRepository.findByBuildingIdWithFilters(
+                            buildingId, null, null, sortedBy("createdAt"));
+                    invoiceRepository.findByRoomBuildingIdAndPeriod(buildingId, PERIOD);
+                    invoiceRepository.findRoomIdsByBuildingIdAndPeriod(buildingId, PERIOD);
+                    invoiceRepository.findByRoomIdAndPeriodInAndStatus(
+                            roomId, List.of(PERIOD), InvoiceStatus.DRAFT);
+                    invoiceRepository.existsByIdAndRoomBuildingManagerId(invoiceId, MANAGER_ID);
+                    invoiceRepository.countByIdInAndRoomBuildingManagerId(
+                            List.of(invoiceId), MANAGER_ID);
+                    invoiceRepository.findSummariesByGenerationJobId(UUID.randomUUID(), PAGE);
+                    invoiceRepository.markOverdue(TODAY, JobShard.ALL, PAGE_SIZE);
+                    invoiceRepository.findDetailById(invoiceId);
+                    invoiceRepository.findDetailsByIds(List.of(invoiceId, invoiceId + 1));
+                    invoiceRepository.count(
+                            InvoiceRepository.byBuildingWithFilters(buildingId, PERIOD, null));
+                    invoiceRepository.scrollByBuildingIdWithFilters(
+                            buildingId, null, null, SCROLL_LIMIT);
+                    invoiceRepository.scrollByBuildingIdWithFiltersAfter(
+                            buildingId, null, null, PERIOD, invoiceId, SCROLL_LIMIT);
+                });
+    }
+
+    @Test
+    void reminderQueries_ShouldNotSeqScanLargeTables() {
+        final LocalDate due = LocalDate.parse(PERIOD + "-10");
+        assertNoSeqScan(
+                () ->
+                        invoiceRepository.findReminderCandidates(
+                                List.of(InvoiceStatus.DRAFT, InvoiceStatus.UNPAID),
+                                due.minusDays(REMINDER_DAYS),
+                                due,
+                                JobShard.ALL.count(),
+                                JobShard.ALL.index()));
+    }
+
+    @Test
+    void roomAndBuildingQueries_ShouldNotSeqScanLargeTables() {
+        assertNoSeqScan(
+                () -> {
+                    roomRepository.findSummariesByBuildingId(
+                            buildingId, RoomStatus.OCCUPIED, sortedBy("roomNo"));
+                    roomRepository.findSummariesByBuildingId(buildingId, null, sortedBy("roomNo"));
+                    roomRepository.scrollSummariesByBuildingId(buildingId, null, SCROLL_LIMIT);
+                    roomRepository.scrollSummariesByBuildingIdAfter(
+                            buildingId, RoomStatus.OCCUPIED, "P.1", roomId, SCROLL_LIMIT);
+                    roomRepository.findByBuildingId(buildingId);
+                    roomRepository.findByBuildingIdAndStatus(buildingId, RoomStatus.VACANT);
+                    roomRepository.findByBuildingIdAndBuildingManagerId(buildingId, MANAGER_ID);
+                    roomRepository.findByIdAndBuildingManagerId(roomId, MANAGER_ID);
+                    roomRepository.existsByIdAndBuildingManagerId(roomId, MANAGER_ID);
+                    roomRepository.existsByBuildingIdAndBuildingManagerId(buildingId, MANAGER_ID);
+                    roomRepository.count(
+                            RoomRepository.byBuildingAndStatus(buildingId, RoomStatus.OCCUPIED));
+                    buildingRepository.findByManagerId(MANAGER_ID, PAGE);
+                    buildingRepository.findByIdAndManagerId(buildingId, MANAGER_ID);
+                    invoiceGenerationJobRepository.existsByIdAndBuildingManagerId(
+                            UUID.randomUUID(), MANAGER_ID);
+                });
+    }
+
+    @Test
+    void tenantQueries_ShouldNotSeqScanLargeTables() {
+        assertNoSeqScan(
+                () -> {
+                    tenantRepository.findByRoomIdAndIsContractHolderTrue(roomId);
+                    tenantRepository.findByRoomIdAndIsContractHolderTrueAndEndDateIsNull(roomId);
+                    tenantRepository.findByRoomBuildingIdAndIsContractHolderTrueAndEndDateIsNull(
+                            buildingId);
+                    tenantRepository.countByRoomId(roomId);
+                    tenantRepository.countByRoomBuildingIdGroupByRoom(buildingId);
+                    tenantRepository.findByRoomIdOrderByStartDateDesc(roomId);
+                    tenantRepository.findSummariesByRoomId(roomId, PAGE);
+                    tenantRepository.findByRoomBuildingId(
+                            buildingId, null, true, sortedBy("startDate"));
+                    tenantRepository.findByRoomIdWithFilter(roomId, false, sortedBy("startDate"));
+                    tenantRepository.findAllWithFilter(true, sortedBy("startDate"));
+                    tenantRepository.scrollWithFilters(buildingId, null, true, SCROLL_LIMIT);
+                    tenantRepository.scrollWithFiltersAfter(
+                            buildingId, roomId, null, Integer.MAX_VALUE, SCROLL_LIMIT);
+                    tenantRepository.count(TenantRepository.withFilters(buildingId, null, true));
+                    tenantInvitationRepository.existsByRoomIdAndEmailAndStatus(
+                            roomId, "invite@plan.vn", InvitationStatus.PENDING);
+                });
+    }
+
+    @Test
+    void readingPaymentAndUserQueries_ShouldNotSeqScanLargeTables() {
+        assertNoSeqScan(
+                () -> {
+                    utilityReadingRepository.findByRoomIdAndMonth(roomId, PERIOD);
+                    utilityReadingRepository.findSummariesByRoomId(roomId);
+                    utilityReadingRepository.findSummariesByBuildingIdAndMonth(buildingId, PERIOD);
+                    utilityReadingRepository.findByRoomBuildingIdAndMonthIn(
+                            buildingId, List.of(PERIOD));
+                    utilityReadingRepository.findByRoomIdAndMonthIn(roomId, List.of(PERIOD));
+                    utilityReadingRepository.existsByRoomIdAndMonthLessThan(roomId, PERIOD);
+                    utilityReadingRepository.findRoomIdsWithReadingBefore(buildingId, PERIOD);
+                    utilityReadingRepository.countByRoomId(roomId);
+                    meterRecordRepository.findByRoomIdAndPeriodAndType(
+                            roomId, PERIOD, MeterType.ELEC);
+                    meterRecordRepository.findByRoomIdAndPeriod(roomId, PERIOD);
+                    meterRecordRepository.findByRoomBuildingIdAndPeriod(buildingId, PERIOD);
+                    paymentLogRepository.findByInvoiceIdOrderByCreatedAtDesc(invoiceId);
+                    userRepository.findByUsername("user42");
+                    userRepository.findByZaloId("zalo42");
+                    userRepository.findByEmail("user42@plan.vn");
+                });
+    }
+
+    private void assertNoSeqScan(final Runnable queries) {
+        RECORDED.clear();
+        capturing = true;
+        try {
+            queries.run();
+        } finally {
+            capturing = false;
+        }
+        // Quan hệ EAGER sinh cùng 1 câu SQL cho mỗi dòng, chỉ cần EXPLAIN 1 lần
+        final Map<String, RecordedQuery> distinct = new LinkedHashMap<>();
+        List.copyOf(RECORDED).forEach(query -> distinct.putIfAbsent(query.sql(), query));
+        assertFalse(distinct.isEmpty());
+
+        final List<String> violations = new ArrayList<>();
+        for (final RecordedQuery query : distinct.values()) {
+            final List<String> scanned = new ArrayList<>();
+            collectSeqScans(explain(query).get(0).get("Plan"), scanned);
+            if (!scanned.isEmpty()) {
+                violations.add("Seq Scan " + scanned + " in: " + query.sql());
+            }
+        }
+        assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+    }
+
+    private JsonNode explain(final RecordedQuery query) {
+        final String plan =
+                jdbcTemplate.query(
+                        connection -> {
+                            final PreparedStatement statement =
+                                    connection.prepareStatement(
+                                            "EXPLAIN (FORMAT JSON) " + query.sql());
+                            query.bindings().forEach(binding -> binding.applyTo(statement));
+                            return statement;
+                        },
+                        resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+        try {
+            return objectMapper.readTree(plan);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void collectSeqScans(final JsonNode node, final List<String> relations) {
+        final String relation = node.path("Relation Name").asText();
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && LARGE_TABLES.contains(relation)) {
+            relations.add(relation);
+        }
+        for (final JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+
+    private static Pageable sortedBy(final String property) {
+        return PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, property));
+    }
+
+    private static DataSource recording(final DataSource target) {
+        return (DataSource)
+                Proxy.newProxyInstance(
+                        DataSource.class.getClassLoader(),
+                        new Class<?>[] {DataSource.class},
+                        (proxy, method, args) -> {
+                            final Object result = invoke(target, method, args);
+                            return result instanceof final Connection connection
+                                    ? recording(connection)
+                                    : result;
+                        });
+    }
+
+    private static Connection recording(final Connection target) {
+        return (Connection)
+                Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[] {Connection.class},
+                        (proxy, method, args) -> {
+                            final Object result = invoke(target, method, args);
+                            return "prepareStatement".equals(method.getName())
+                                            && result instanceof final PreparedStatement statement
+                                    ? recording(statement, (String) args[0])
+                                    : result;
+                        });
+    }
+
+    // Ghi lại các lệnh set tham số để phát lại y hệt trên câu EXPLAIN
+    private static PreparedStatement recording(final PreparedStatement target, final String sql) {
+        final List<Binding> bindings = new ArrayList<>();
+        return (PreparedStatement)
+                Proxy.newProxyInstance(
+                        PreparedStatement.class.getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class},
+                        (proxy, method, args) -> {
+                            if (isParameterSetter(method, args)) {
+                                bindings.add(new Binding(method, args.clone()));
+                            } else if (method.getName().startsWith("execute")
+                                    && capturing
+                                    && isSelect(sql)) {
+                                RECORDED.add(new RecordedQuery(sql, List.copyOf(bindings)));
+                            }
+                            return invoke(target, method, args);
+                        });
+    }
+
+    private static boolean isParameterSetter(final Method method, final Object[] args) {
+        return method.getName().startsWith("set")
+                && args != null
+                && args.length > 1
+                && args[0] instanceof Integer;
+    }
+
+    private static boolean isSelect(final String sql) {
+        final String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("select") || statement.startsWith("with");
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record RecordedQuery(String sql, List<Binding> bindings) {}
+
+    private record Binding(Method method, Object[] args) {
+        void applyTo(final PreparedStatement statement) {
+            try {
+                method.invoke(statement, args);
+            } catch (final ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.tpanh.backend.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+@ExtendWith(MockitoExtension.class)
+class JobLockTest {
+    private static final String NAME = "mark-overdue:2025-01-15:0";
+    private static final String KEY = "room-management:job-lock:" + NAME;
+    private static final Duration LEASE_TIME = Duration.ofMinutes(15);
+
+    @Mock private RedisTemplate<String, String> redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+    @Mock private DataSource dataSource;
+    @Mock private Connection connection;
+    @Mock private PreparedStatement statement;
+    @Mock private ResultSet resultSet;
+
+    private JobLock jobLock;
+
+    @BeforeEach
+    void setUp() {
+        jobLock = new JobLock(redisTemplate, dataSource);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void tryAcquire_WhenKeyIsFree_ShouldReturnRedisLeaseThatMarksCompleted() {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME))).thenReturn(true);
+
+        // When
+        final Optional<JobLock.Lease> lease = jobLock.tryAcquire(NAME, LEASE_TIME);
+        lease.orElseThrow().complete(Duration.ofMinutes(1));
+
+        // Then: chỉ ghi đè key khi vẫn còn đúng token của lease
+        verify(redisTemplate)
+                .execute(
+                        any(RedisScript.class),
+                        eq(List.of(KEY)),
+                        anyString(),
+                        eq("completed"),
+                        eq("60000"));
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void renew_WhileLeaseIsHeld_ShouldExtendExpiryOnlyForOwnToken() {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME))).thenReturn(true);
+        when(redisTemplate.execute(
+                        any(RedisScript.class), eq(List.of(KEY)), anyString(), eq("900000")))
+                .thenReturn(1L);
+
+        // When
+        final JobLock.Lease lease = jobLock.tryAcquire(NAME, LEASE_TIME).orElseThrow();
+
+        // Then
+        assertTrue(lease.renew(LEASE_TIME));
+    }
+
+    @Test
+    void tryAcquire_WhenKeyIsHeld_ShouldReturnEmpty() {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME))).thenReturn(false);
+
+        // When
+        final Optional<JobLock.Lease> lease = jobLock.tryAcquire(NAME, LEASE_TIME);
+
+        // Then
+        assertTrue(lease.isEmpty());
+    }
+
+    @Test
+    void tryAcquire_WhenRedisIsDown_ShouldFallBackToAdvisoryLock() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        // Nhận được khóa, phân vùng chưa xong trong lượt này, nhả khóa thành công
+        when(resultSet.getBoolean(1)).thenReturn(true, false, true);
+
+        // When
+        final Optional<JobLock.Lease> lease = jobLock.tryAcquire(NAME, LEASE_TIME);
+        lease.orElseThrow().release();
+
+        // Then: khóa phiên được nhả rồi mới trả connection về pool
+        verify(connection).prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))");
+        verify(connection).prepareStatement("SELECT pg_advisory_unlock(hashtext(?))");
+        verify(statement, times(3)).setString(1, KEY);
+        verify(statement, never()).executeUpdate();
+        verify(connection).close();
+    }
+
+    @Test
+    void tryAcquire_WhenRedisIsDown_CompleteShouldRecordCompletionInDatabase() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true, false, true);
+
+        // When
+        jobLock.tryAcquire(NAME, LEASE_TIME).orElseThrow().complete(Duration.ofMinutes(1));
+
+        // Then: ghi dấu "đã xong" rồi mới nhả khóa
+        verify(statement).setLong(2, 60000);
+        verify(statement).executeUpdate();
+        verify(connection).prepareStatement("SELECT pg_advisory_unlock(hashtext(?))");
+        verify(connection).close();
+    }
+
+    @Test
+    void tryAcquire_WhenRedisIsDownAndShardAlreadyCompleted_ShouldReturnEmpty() throws Exception {
+        // Given: nhận được khóa nhưng phân vùng đã có dấu "đã xong" trong DB
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        // When
+        final Optional<JobLock.Lease> lease = jobLock.tryAcquire(NAME, LEASE_TIME);
+
+        // Then
+        assertTrue(lease.isEmpty());
+        verify(connection).prepareStatement("SELECT pg_advisory_unlock(hashtext(?))");
+        verify(connection).close();
+    }
+
+    @Test
+    void tryAcquire_WhenRedisIsDownAndAdvisoryLockIsHeld_ShouldReturnEmpty() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(LEASE_TIME)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(false);
+
+        // When
+        final Optional<JobLock.Lease> lease = jobLock.tryAcquire(NAME, LEASE_TIME);
+
+        // Then
+        assertTrue(lease.isEmpty());
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,180 @@
+package com.tpanh.backend.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.SchedulerProperties;
+import com.tpanh.backend.util.JobShard;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedJobRunnerTest {
+    private static final int SHARD_COUNT = 4;
+    private static final String RUN_KEY = "2025-01-15";
+
+    @Mock private JobLock jobLock;
+
+    private final SchedulerProperties schedulerProperties = new SchedulerProperties();
+    private final List<Integer> processedShards = new ArrayList<>();
+
+    private ShardedJobRunner shardedJobRunner;
+
+    @BeforeEach
+    void setUp() {
+        schedulerProperties.setShardCount(SHARD_COUNT);
+        shardedJobRunner = new ShardedJobRunner(jobLock, schedulerProperties);
+    }
+
+    @Test
+    void run_WithAllShardsFree_ShouldProcessEveryShardAndMarkCompleted() {
+        // Given
+        final JobLock.Lease lease = mock(JobLock.Lease.class);
+        when(jobLock.tryAcquire(anyString(), eq(schedulerProperties.getLeaseTime())))
+                .thenReturn(Optional.of(lease));
+
+        // When
+        final int total = shardedJobRunner.run("mark-overdue", RUN_KEY, this::process);
+
+        // Then
+        assertEquals(List.of(0, 1, 2, 3), processedShards.stream().sorted().toList());
+        assertEquals(SHARD_COUNT * 10, total);
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            verify(jobLock)
+                    .tryAcquire(
+                            "mark-overdue:" + RUN_KEY + ":" + shard,
+                            schedulerProperties.getLeaseTime());
+        }
+        verify(lease, times(SHARD_COUNT)).complete(schedulerProperties.getCompletedTtl());
+    }
+
+    @Test
+    void run_WithShardsClaimedByOtherNode_ShouldOnlyProcessFreeShards() {
+        // Given: node khác đang giữ hoặc đã làm xong phân vùng 0 và 2
+        final JobLock.Lease lease = mock(JobLock.Lease.class);
+        when(jobLock.tryAcquire(anyString(), eq(schedulerProperties.getLeaseTime())))
+                .thenAnswer(
+                        invocation ->
+                                invocation.<String>getArgument(0).matches(".*:[02]")
+                                        ? Optional.empty()
+                                        : Optional.of(lease));
+
+        // When
+        final int total = shardedJobRunner.run("mark-overdue", RUN_KEY, this::process);
+
+        // Then
+        assertEquals(List.of(1, 3), processedShards.stream().sorted().toList());
+        assertEquals(2 * 10, total);
+    }
+
+    @Test
+    void run_WhenShardFails_ShouldReleaseLeaseAndContinue() {
+        // Given
+        final JobLock.Lease failedLease = mock(JobLock.Lease.class);
+        final JobLock.Lease lease = mock(JobLock.Lease.class);
+        when(jobLock.tryAcquire(anyString(), eq(schedulerProperties.getLeaseTime())))
+                .thenAnswer(
+                        invocation ->
+                                Optional.of(
+                                        invocation.<String>getArgument(0).endsWith(":1")
+                                                ? failedLease
+                                                : lease));
+
+        // When
+        final int total =
+                shardedJobRunner.run(
+                        "monthly-billing",
+                        RUN_KEY,
+                        shard -> {
+                            if (shard.index() == 1) {
+                                throw new IllegalStateException("boom");
+                            }
+                            return process(shard);
+                        });
+
+        // Then
+        assertEquals((SHARD_COUNT - 1) * 10, total);
+        verify(failedLease).release();
+        verify(failedLease, never()).complete(any());
+    }
+
+    @Test
+    void run_WhenReleaseFails_ShouldStillProcessRemainingShards() {
+        // Given: phân vùng 1 lỗi và nhả khóa cũng lỗi (Redis vừa mất kết nối)
+        final JobLock.Lease failedLease = mock(JobLock.Lease.class);
+        final JobLock.Lease lease = mock(JobLock.Lease.class);
+        doThrow(new IllegalStateException("redis down")).when(failedLease).release();
+        when(jobLock.tryAcquire(anyString(), eq(schedulerProperties.getLeaseTime())))
+                .thenAnswer(
+                        invocation ->
+                                Optional.of(
+                                        invocation.<String>getArgument(0).endsWith(":1")
+                                                ? failedLease
+                                                : lease));
+
+        // When
+        final int total =
+                shardedJobRunner.run(
+                        "monthly-billing",
+                        RUN_KEY,
+                        shard -> {
+                            if (shard.index() == 1) {
+                                throw new IllegalStateException("boom");
+                            }
+                            return process(shard);
+                        });
+
+        // Then
+        assertEquals((SHARD_COUNT - 1) * 10, total);
+        verify(lease, times(SHARD_COUNT - 1)).complete(schedulerProperties.getCompletedTtl());
+    }
+
+    @Test
+    void run_WhenShardOutlivesHalfLease_ShouldRenewLease() {
+        // Given
+        final Duration leaseTime = Duration.ofMillis(40);
+        schedulerProperties.setShardCount(1);
+        schedulerProperties.setLeaseTime(leaseTime);
+        final JobLock.Lease lease = mock(JobLock.Lease.class);
+        when(jobLock.tryAcquire(anyString(), eq(leaseTime))).thenReturn(Optional.of(lease));
+        when(lease.renew(leaseTime)).thenReturn(true);
+
+        // When: phân vùng chạy lâu hơn cả lease
+        shardedJobRunner.run("monthly-billing", RUN_KEY, shard -> sleep(leaseTime.multipliedBy(5)));
+
+        // Then
+        verify(lease, atLeastOnce()).renew(leaseTime);
+        verify(lease).complete(schedulerProperties.getCompletedTtl());
+    }
+
+    private static int sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private int process(final JobShard shard) {
+        assertEquals(SHARD_COUNT, shard.count());
+        processedShards.add(shard.index());
+        return 10;
+    }
+}
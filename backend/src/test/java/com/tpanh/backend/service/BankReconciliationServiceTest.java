@@ -0,0 +1,247 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.ReconciliationProperties;
+import com.tpanh.backend.dto.ReconciliationLine;
+import com.tpanh.backend.dto.ReconciliationReport;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.ReconciliationStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.OpenInvoiceView;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+
+@ExtendWith(MockitoExtension.class)
+class BankReconciliationServiceTest {
+    private static final int BUILDING_ID = 1;
+    private static final List<InvoiceStatus> PAYABLE_STATUSES =
+            List.of(InvoiceStatus.DRAFT, InvoiceStatus.UNPAID);
+
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private InvoiceService invoiceService;
+    @Spy private ReconciliationProperties reconciliationProperties = new ReconciliationProperties();
+
+    @InjectMocks private BankReconciliationService bankReconciliationService;
+
+    @Test
+    void reconcile_ShouldMatchByAmountRoomAndPeriod() {
+        // Given: P.101 nợ 2 kỳ cùng số tiền; file xuất từ Excel (BOM, dấu chấm phẩy)
+        givenOpenInvoices(
+                new OpenInvoiceView(1, "P.101", "2025-01", 3000000),
+                new OpenInvoiceView(2, "P.101", "2025-02", 3000000),
+                new OpenInvoiceView(3, "P.102", "2025-02", 3500000));
+        final String csv =
+                "\uFEFFNgày;Số tiền;Nội dung\n"
+                        + "01/02/2025;3.000.000;P101 chuyen khoan\n"
+                        + "01/02/2025;3.000.000;P101 tien phong thang 1\n"
+                        + "02/02/2025;\"3,500,000.00\";Phòng 102 chuyển tiền\n"
+                        + "03/02/2025;3000000;P.101 T2/2025\n"
+                        + "03/02/2025;3000000;P101 T1 chuyen lai\n"
+                        + "04/02/2025;-200.000;Rút tiền\n"
+                        + "04/02/2025;;\n"
+                        + "05/02/2025;abc;P101\n"
+                        + "05/02/2025;999.000;Nguyen Van A\n";
+
+        // When
+        final ReconciliationReport report =
+                bankReconciliationService.reconcile(BUILDING_ID, statement(csv));
+
+        // Then
+        verify(invoiceService).payInvoices(List.of(1, 3, 2));
+        assertEquals(
+                List.of(
+                        ReconciliationStatus.AMBIGUOUS,
+                        ReconciliationStatus.MATCHED,
+                        ReconciliationStatus.MATCHED,
+                        ReconciliationStatus.MATCHED,
+                        ReconciliationStatus.DUPLICATE,
+                        ReconciliationStatus.INVALID,
+                        ReconciliationStatus.UNMATCHED),
+                report.getLines().stream().map(ReconciliationLine::getStatus).toList());
+        assertEquals(
+                List.of(2, 3, 4, 5, 6, 9, 10),
+                report.getLines().stream().map(ReconciliationLine::getRow).toList());
+        assertEquals(9, report.getTotalRows());
+        assertEquals(2, report.getIgnoredCount());
+        assertEquals(3, report.getCounts().get(ReconciliationStatus.MATCHED));
+        assertEquals(0, report.getCounts().get(ReconciliationStatus.FAILED));
+        assertEquals(9500000, report.getPaidAmount());
+        final ReconciliationLine byDigits = report.getLines().get(2);
+        assertEquals(3, byDigits.getInvoiceId());
+        assertEquals("P.102", byDigits.getRoomNo());
+    }
+
+    @Test
+    void reconcile_WhenBatchFails_ShouldRetryEachInvoiceAndReportFailures() {
+        // Given: lô [1, 2] lỗi vì hóa đơn 2 vừa được thanh toán tay
+        reconciliationProperties.setBatchSize(2);
+        givenOpenInvoices(
+                new OpenInvoiceView(1, "P.101", "2025-01", 3000000),
+                new OpenInvoiceView(2, "P.102", "2025-01", 3000000),
+                new OpenInvoiceView(3, "P.103", "2025-01", 3000000));
+        when(invoiceService.payInvoices(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            if (invocation.<List<Integer>>getArgument(0).contains(2)) {
+                                throw new AppException(ErrorCode.INVOICE_ALREADY_PAID);
+                            }
+                            return List.of();
+                        });
+        final String csv = "Amount,Description\n3000000,P101\n3000000,P102\n3000000,P103\n";
+
+        // When
+        final ReconciliationReport report =
+                bankReconciliationService.reconcile(BUILDING_ID, statement(csv));
+
+        // Then
+        verify(invoiceService).payInvoices(List.of(1, 2));
+        verify(invoiceService).payInvoices(List.of(1));
+        verify(invoiceService).payInvoices(List.of(2));
+        verify(invoiceService).payInvoices(List.of(3));
+        assertEquals(2, report.getCounts().get(ReconciliationStatus.MATCHED));
+        assertEquals(1, report.getCounts().get(ReconciliationStatus.FAILED));
+        assertEquals(6000000, report.getPaidAmount());
+        final ReconciliationLine failed = report.getLines().get(1);
+        assertEquals(ReconciliationStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getInvoiceId());
+        assertEquals(ErrorCode.INVOICE_ALREADY_PAID.name(), failed.getError());
+    }
+
+    @Test
+    void reconcile_WithLargeStatement_ShouldPayInBatchesAndCapReportedLines() {
+        // Given: 100000 dòng sinh dần khi đọc; 100 dòng đầu khớp hóa đơn P.100 - P.199
+        reconciliationProperties.setBatchSize(40);
+        reconciliationProperties.setMaxReportedLines(50);
+        final int rows = 100_000;
+        final List<OpenInvoiceView> invoices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            invoices.add(new OpenInvoiceView(i + 1, "P." + (100 + i), "2025-01", 3000000));
+        }
+        when(invoiceRepository.findOpenInvoices(BUILDING_ID, PAYABLE_STATUSES))
+                .thenReturn(invoices);
+
+        // When
+        final ReconciliationReport report =
+                bankReconciliationService.reconcile(
+                        BUILDING_ID, () -> new GeneratedStatement(rows));
+
+        // Then
+        verify(invoiceService, times(3)).payInvoices(anyList());
+        assertEquals(rows, report.getTotalRows());
+        assertEquals(100, report.getCounts().get(ReconciliationStatus.MATCHED));
+        assertEquals(rows - 100, report.getCounts().get(ReconciliationStatus.UNMATCHED));
+        assertEquals(150, report.getLines().size());
+        assertTrue(report.isTruncated());
+    }
+
+    @Test
+    void reconcile_WithoutAmountColumn_ShouldThrow() {
+        givenOpenInvoices();
+
+        final var exception =
+                assertThrows(
+                        AppException.class,
+                        () ->
+                                bankReconciliationService.reconcile(
+                                        BUILDING_ID, statement("Ngày,Nội dung\n01/02,P101\n")));
+
+        assertEquals(ErrorCode.STATEMENT_INVALID, exception.getErrorCode());
+        verifyNoInteractions(invoiceService);
+    }
+
+    @Test
+    void reconcile_WithNonUtf8File_ShouldThrow() {
+        givenOpenInvoices();
+        // "ô", "ê" trong Latin-1 là byte đơn, không hợp lệ trong UTF-8
+        final byte[] latin1 = "Sô tiên,Nôi dung\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        final var exception =
+                assertThrows(
+                        AppException.class,
+                        () ->
+                                bankReconciliationService.reconcile(
+                                        BUILDING_ID, new ByteArrayResource(latin1)));
+
+        assertEquals(ErrorCode.STATEMENT_INVALID, exception.getErrorCode());
+    }
+
+    @Test
+    void reconcile_WithUnterminatedQuote_ShouldKeepMatchedLinesAndReportRest() {
+        // Given
+        givenOpenInvoices(new OpenInvoiceView(1, "P.101", "2025-01", 3000000));
+        final String csv = "Amount,Description\n3000000,P101\n150000,\"unterminated\n";
+
+        // When
+        final ReconciliationReport report =
+                bankReconciliationService.reconcile(BUILDING_ID, statement(csv));
+
+        // Then
+        verify(invoiceService).payInvoices(List.of(1));
+        final ReconciliationLine unreadable = report.getLines().get(1);
+        assertEquals(3, unreadable.getRow());
+        assertEquals(ReconciliationStatus.INVALID, unreadable.getStatus());
+        assertEquals(ErrorCode.STATEMENT_INVALID.name(), unreadable.getError());
+        assertNull(unreadable.getAmount());
+    }
+
+    private void givenOpenInvoices(final OpenInvoiceView... invoices) {
+        when(invoiceRepository.findOpenInvoices(BUILDING_ID, PAYABLE_STATUSES))
+                .thenReturn(List.of(invoices));
+    }
+
+    private static InputStreamSource statement(final String csv) {
+        return new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Sao kê được sinh từng dòng khi đọc, không có sẵn trong bộ nhớ. */
+    private static final class GeneratedStatement extends InputStream {
+        private final int rows;
+        private int row;
+        private byte[] line = "Số tiền,Nội dung\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        GeneratedStatement(final int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                line = nextLine().getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        private String nextLine() {
+            final int index = row++;
+            return index < 100
+                    ? "3.000.000,Phong " + (100 + index) + " thang 1\n"
+                    : "150.000,chuyen tien lan " + index + "\n";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.dto.InvoiceResponse;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.util.JobShard;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRunServiceTest {
+    private static final String PERIOD = "2025-01";
+
+    @Mock private BuildingRepository buildingRepository;
+    @Mock private InvoiceService invoiceService;
+
+    private BillingRunService billingRunService;
+
+    @BeforeEach
+    void setUp() {
+        billingRunService =
+                new BillingRunService(buildingRepository, invoiceService, new SyncTaskExecutor());
+    }
+
+    @Test
+    void generateForAllBuildings_ShouldReportEachBuilding() {
+        // Given
+        when(buildingRepository.findAllIds()).thenReturn(List.of(1, 2));
+        when(invoiceService.generateInvoicesForBuilding(1, PERIOD))
+                .thenReturn(List.of(new InvoiceResponse(), new InvoiceResponse()));
+        when(invoiceService.generateInvoicesForBuilding(2, PERIOD))
+                .thenReturn(List.of(new InvoiceResponse()));
+
+        // When
+        final BillingRunReport report =
+                billingRunService.generateForAllBuildings(PERIOD, JobShard.ALL);
+
+        // Then
+        assertEquals(PERIOD, report.period());
+        assertEquals(2, report.succeededCount());
+        assertEquals(0, report.failedCount());
+        assertEquals(3, report.invoicesCreated());
+        assertTrue(report.failures().isEmpty());
+    }
+
+    @Test
+    void generateForAllBuildings_WithFailingBuilding_ShouldContinueWithOthers() {
+        // Given
+        when(buildingRepository.findAllIds()).thenReturn(List.of(1, 2, 3));
+        when(invoiceService.generateInvoicesForBuilding(1, PERIOD))
+                .thenReturn(List.of(new InvoiceResponse()));
+        when(invoiceService.generateInvoicesForBuilding(2, PERIOD))
+                .thenThrow(new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING));
+        when(invoiceService.generateInvoicesForBuilding(3, PERIOD))
+                .thenReturn(List.of(new InvoiceResponse()));
+
+        // When
+        final BillingRunReport report =
+                billingRunService.generateForAllBuildings(PERIOD, JobShard.ALL);
+
+        // Then
+        assertEquals(2, report.succeededCount());
+        assertEquals(1, report.failedCount());
+        assertEquals(2, report.invoicesCreated());
+        final var failure = report.failures().get(0);
+        assertEquals(2, failure.buildingId());
+        assertFalse(failure.success());
+        assertEquals(ErrorCode.MISSING_PREVIOUS_UTILITY_READING.getMessage(), failure.error());
+        verify(invoiceService).generateInvoicesForBuilding(3, PERIOD);
+    }
+
+    @Test
+    void generateForAllBuildings_WithShard_ShouldOnlyBillBuildingsInShard() {
+        // Given: phân vùng 1/2 gồm các tòa nhà id lẻ
+        when(buildingRepository.findAllIds()).thenReturn(List.of(1, 2, 3, 4));
+        when(invoiceService.generateInvoicesForBuilding(anyInt(), eq(PERIOD)))
+                .thenReturn(List.of(new InvoiceResponse()));
+
+        // When
+        final BillingRunReport report =
+                billingRunService.generateForAllBuildings(PERIOD, new JobShard(1, 2));
+
+        // Then
+        assertEquals(
+                List.of(1, 3),
+                report.results().stream()
+                        .map(BillingRunReport.BuildingResult::buildingId)
+                        .toList());
+        verify(invoiceService, never()).generateInvoicesForBuilding(2, PERIOD);
+        verify(invoiceService, never()).generateInvoicesForBuilding(4, PERIOD);
+    }
+
+    @Test
+    void generateForAllBuildings_WithNoBuildings_ShouldReturnEmptyReport() {
+        // Given
+        when(buildingRepository.findAllIds()).thenReturn(List.of());
+
+        // When
+        final BillingRunReport report =
+                billingRunService.generateForAllBuildings(PERIOD, JobShard.ALL);
+
+        // Then
+        assertTrue(report.results().isEmpty());
+        verify(invoiceService, never()).generateInvoicesForBuilding(anyInt(), anyString());
+    }
+}
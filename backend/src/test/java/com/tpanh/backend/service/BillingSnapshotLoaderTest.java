@@ -0,0 +1,205 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.MeterType;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.TenantRepository;
+import com.tpanh.backend.repository.UtilityReadingRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BillingSnapshotLoaderTest {
+    private static final int BUILDING_ID = 1;
+    private static final int ROOM_ID_1 = 1;
+    private static final int ROOM_ID_2 = 2;
+    private static final String PERIOD = "2025-01";
+    private static final String PREVIOUS_PERIOD = "2024-12";
+
+    @Mock private BuildingRepository buildingRepository;
+    @Mock private RoomRepository roomRepository;
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private TenantRepository tenantRepository;
+    @Mock private UtilityReadingRepository utilityReadingRepository;
+    @Mock private MeterRecordRepository meterRecordRepository;
+    @Spy private BuildingTariffCache buildingTariffCache = new BuildingTariffCache();
+
+    @InjectMocks private BillingSnapshotLoader billingSnapshotLoader;
+
+    private Building building;
+    private Room room1;
+    private Room room2;
+
+    @BeforeEach
+    void setUp() {
+        building = new Building();
+        building.setId(BUILDING_ID);
+
+        room1 = new Room();
+        room1.setId(ROOM_ID_1);
+        room1.setBuilding(building);
+
+        room2 = new Room();
+        room2.setId(ROOM_ID_2);
+        room2.setBuilding(building);
+    }
+
+    @Test
+    void load_WithBuildingData_ShouldIndexEverythingByRoom() {
+        // Given
+        final Tenant holder = new Tenant();
+        holder.setId(1);
+        holder.setRoom(room1);
+
+        final UtilityReading current = reading(room1, PERIOD);
+        final UtilityReading previous = reading(room1, PREVIOUS_PERIOD);
+
+        final MeterRecord elecRecord = meterRecord(room2, MeterType.ELEC);
+        final MeterRecord waterRecord = meterRecord(room2, MeterType.WATER);
+
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(building));
+        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(List.of(room1, room2));
+        when(invoiceRepository.findRoomIdsByBuildingIdAndPeriod(BUILDING_ID, PERIOD))
+                .thenReturn(List.of(ROOM_ID_2));
+        when(tenantRepository.findByRoomBuildingIdAndIsContractHolderTrueAndEndDateIsNull(
+                        BUILDING_ID))
+                .thenReturn(List.of(holder));
+        when(tenantRepository.countByRoomBuildingIdGroupByRoom(BUILDING_ID))
+                .thenReturn(List.of(tenantCount(ROOM_ID_1, 3L)));
+        when(utilityReadingRepository.findByRoomBuildingIdAndMonthIn(
+                        BUILDING_ID, List.of(PERIOD, PREVIOUS_PERIOD)))
+                .thenReturn(List.of(current, previous));
+        when(utilityReadingRepository.findRoomIdsWithReadingBefore(BUILDING_ID, PERIOD))
+                .thenReturn(List.of(ROOM_ID_1));
+        when(meterRecordRepository.findByRoomBuildingIdAndPeriod(BUILDING_ID, PERIOD))
+                .thenReturn(List.of(elecRecord, waterRecord));
+
+        // When
+        final BillingSnapshot snapshot = billingSnapshotLoader.load(BUILDING_ID, PERIOD);
+
+        // Then
+        assertSame(building, snapshot.building());
+        assertEquals(2, snapshot.rooms().size());
+        assertTrue(snapshot.hasInvoice(ROOM_ID_2));
+        assertFalse(snapshot.hasInvoice(ROOM_ID_1));
+        assertSame(holder, snapshot.contractHolder(ROOM_ID_1));
+        assertNull(snapshot.contractHolder(ROOM_ID_2));
+        assertEquals(3, snapshot.tenantCount(ROOM_ID_1));
+        assertEquals(0, snapshot.tenantCount(ROOM_ID_2));
+        assertSame(current, snapshot.currentReading(ROOM_ID_1));
+        assertSame(previous, snapshot.previousReading(ROOM_ID_1));
+        assertTrue(snapshot.hasReadingHistory(ROOM_ID_1));
+        assertFalse(snapshot.hasReadingHistory(ROOM_ID_2));
+        assertSame(elecRecord, snapshot.elecRecord(ROOM_ID_2));
+        assertSame(waterRecord, snapshot.waterRecord(ROOM_ID_2));
+        assertSame(buildingTariffCache.get(building).tariff(), snapshot.tariff());
+
+        // Không có query theo từng phòng
+        verify(tenantRepository, never()).findByRoomIdAndIsContractHolderTrue(anyInt());
+        verify(tenantRepository, never()).countByRoomId(anyInt());
+        verify(utilityReadingRepository, never()).findByRoomIdAndMonth(anyInt(), anyString());
+        verify(meterRecordRepository, never())
+                .findByRoomIdAndPeriodAndType(anyInt(), anyString(), any());
+    }
+
+    @Test
+    void load_WithInvalidBuilding_ShouldThrowException() {
+        // Given
+        when(buildingRepository.findById(999)).thenReturn(Optional.empty());
+
+        // When & Then
+        final var exception =
+                assertThrows(AppException.class, () -> billingSnapshotLoader.load(999, PERIOD));
+        assertEquals(ErrorCode.BUILDING_NOT_FOUND, exception.getErrorCode());
+        verify(roomRepository, never()).findByBuildingId(anyInt());
+    }
+
+    @Test
+    void loadForRoom_ShouldOnlyQueryThatRoom() {
+        // Given
+        final UtilityReading current = reading(room1, PERIOD);
+        final UtilityReading previous = reading(room1, PREVIOUS_PERIOD);
+        final MeterRecord waterRecord = meterRecord(room1, MeterType.WATER);
+        when(utilityReadingRepository.findByRoomIdAndMonthIn(
+                        ROOM_ID_1, List.of(PERIOD, PREVIOUS_PERIOD)))
+                .thenReturn(List.of(current, previous));
+        when(utilityReadingRepository.existsByRoomIdAndMonthLessThan(ROOM_ID_1, PERIOD))
+                .thenReturn(true);
+        when(meterRecordRepository.findByRoomIdAndPeriod(ROOM_ID_1, PERIOD))
+                .thenReturn(List.of(waterRecord));
+        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(2);
+
+        // When
+        final BillingSnapshot snapshot = billingSnapshotLoader.loadForRoom(room1, PERIOD);
+
+        // Then
+        assertSame(building, snapshot.building());
+        assertEquals(List.of(room1), snapshot.rooms());
+        assertEquals(2, snapshot.tenantCount(ROOM_ID_1));
+        assertSame(current, snapshot.currentReading(ROOM_ID_1));
+        assertSame(previous, snapshot.previousReading(ROOM_ID_1));
+        assertTrue(snapshot.hasReadingHistory(ROOM_ID_1));
+        assertNull(snapshot.elecRecord(ROOM_ID_1));
+        assertSame(waterRecord, snapshot.waterRecord(ROOM_ID_1));
+        verify(buildingRepository, never()).findById(anyInt());
+        verify(roomRepository, never()).findByBuildingId(anyInt());
+    }
+
+    private UtilityReading reading(final Room room, final String month) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setRoom(room);
+        reading.setMonth(month);
+        return reading;
+    }
+
+    private MeterRecord meterRecord(final Room room, final MeterType type) {
+        final MeterRecord record = new MeterRecord();
+        record.setRoom(room);
+        record.setType(type);
+        record.setPeriod(PERIOD);
+        return record;
+    }
+
+    private TenantRepository.RoomTenantCount tenantCount(final Integer roomId, final Long count) {
+        return new TenantRepository.RoomTenantCount() {
+            @Override
+            public Integer getRoomId() {
+                return roomId;
+            }
+
+            @Override
+            public Long getTenantCount() {
+                return count;
+            }
+        };
+    }
+}
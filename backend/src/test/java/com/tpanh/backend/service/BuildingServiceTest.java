@@ -1,13 +1,16 @@
 package com.tpanh.backend.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,6 +18,7 @@ import com.tpanh.backend.config.BuildingProperties;
 import com.tpanh.backend.dto.BuildingCreationRequest;
 import com.tpanh.backend.dto.BuildingResponse;
 import com.tpanh.backend.dto.BuildingUpdateRequest;
+import com.tpanh.backend.dto.ElectricityTier;
 import com.tpanh.backend.entity.Building;
 import com.tpanh.backend.entity.User;
 import com.tpanh.backend.enums.Role;
@@ -27,6 +31,7 @@ import com.tpanh.backend.repository.UserRepository;
 import com.tpanh.backend.security.CurrentUser;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +60,7 @@ class BuildingServiceTest {
 
     // Use CurrentUser here instead of SecurityContext mock
     @Mock private CurrentUser currentUser;
+    @Mock private ListingCountCache listingCountCache;
 
     @InjectMocks private BuildingService buildingService;
 
@@ -213,7 +219,7 @@ class BuildingServiceTest {
         when(buildingRepository.findByManagerId(MANAGER_ID, pageable)).thenReturn(page);
 
         // When
-        final var response = buildingService.getMyBuildings(pageable);
+        final var response = buildingService.getMyBuildings(true, pageable);
 
         // Then
         assertNotNull(response);
@@ -327,6 +333,69 @@ class BuildingServiceTest {
         assertNotNull(response);
         assertEquals(BUILDING_NAME, response.getName());
         assertEquals(OWNER_NAME, response.getOwnerName());
+        verify(buildingRepository, never()).incrementTariffVersion(any());
+    }
+
+    @Test
+    void updateBuilding_WithElecTiers_ShouldStoreCumulativeThresholdsAndPrices() {
+        // Given
+        final var request = new BuildingUpdateRequest();
+        request.setElecTiers(
+                List.of(
+                        new ElectricityTier(50, 1806),
+                        new ElectricityTier(100, 1866),
+                        new ElectricityTier(null, 2167)));
+
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(savedBuilding));
+        when(buildingRepository.save(any(Building.class))).thenReturn(savedBuilding);
+
+        // When
+        buildingService.updateBuilding(BUILDING_ID, request);
+
+        // Then
+        assertArrayEquals(new int[] {50, 100}, savedBuilding.getElecTierThresholds());
+        assertArrayEquals(new int[] {1806, 1866, 2167}, savedBuilding.getElecTierPrices());
+        verify(buildingRepository).incrementTariffVersion(BUILDING_ID);
+    }
+
+    @Test
+    void updateBuilding_WithEmptyElecTiers_ShouldClearTiers() {
+        // Given
+        savedBuilding.setElecTierThresholds(new int[] {50});
+        savedBuilding.setElecTierPrices(new int[] {1806, 1866});
+        final var request = new BuildingUpdateRequest();
+        request.setElecTiers(List.of());
+
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(savedBuilding));
+        when(buildingRepository.save(any(Building.class))).thenReturn(savedBuilding);
+
+        // When
+        buildingService.updateBuilding(BUILDING_ID, request);
+
+        // Then
+        assertNull(savedBuilding.getElecTierThresholds());
+        assertNull(savedBuilding.getElecTierPrices());
+    }
+
+    @Test
+    void updateBuilding_WithDecreasingElecTiers_ShouldThrowElecTiersInvalid() {
+        // Given
+        final var request = new BuildingUpdateRequest();
+        request.setElecTiers(
+                List.of(
+                        new ElectricityTier(100, 1806),
+                        new ElectricityTier(50, 1866),
+                        new ElectricityTier(null, 2167)));
+
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(savedBuilding));
+
+        // When & Then
+        final var exception =
+                assertThrows(
+                        AppException.class,
+                        () -> buildingService.updateBuilding(BUILDING_ID, request));
+        assertEquals(ErrorCode.ELEC_TIERS_INVALID, exception.getErrorCode());
+        verify(buildingRepository, never()).save(any(Building.class));
     }
 
     // ===== Tests for deleteBuilding =====
@@ -381,7 +450,7 @@ class BuildingServiceTest {
         when(buildingRepository.findByManagerId(MANAGER_ID, pageable)).thenReturn(emptyPage);
 
         // When
-        final var response = buildingService.getMyBuildings(pageable);
+        final var response = buildingService.getMyBuildings(true, pageable);
 
         // Then
         assertNotNull(response);
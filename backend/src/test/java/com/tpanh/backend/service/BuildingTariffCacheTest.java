@@ -0,0 +1,64 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.tpanh.backend.entity.Building;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BuildingTariffCacheTest {
+    private static final int BUILDING_ID = 1;
+
+    private final BuildingTariffCache buildingTariffCache = new BuildingTariffCache();
+
+    private Building building;
+
+    @BeforeEach
+    void setUp() {
+        building = new Building();
+        building.setId(BUILDING_ID);
+        building.setElecUnitPrice(3000);
+        building.setWaterUnitPrice(20000);
+    }
+
+    @Test
+    void get_WithSameVersion_ShouldReuseSnapshot() {
+        final TariffSnapshot first = buildingTariffCache.get(building);
+
+        // Cùng version: không dựng lại dù entity là bản khác
+        final Building reloaded = new Building();
+        reloaded.setId(BUILDING_ID);
+        reloaded.setElecUnitPrice(9999);
+
+        assertSame(first, buildingTariffCache.get(reloaded));
+        assertEquals(100 * 3000, first.tariff().electricity().cost(100));
+    }
+
+    @Test
+    void get_WithNewVersion_ShouldRebuildSnapshot() {
+        final TariffSnapshot first = buildingTariffCache.get(building);
+        building.setElecUnitPrice(3500);
+        building.setTariffVersion(1);
+
+        final TariffSnapshot second = buildingTariffCache.get(building);
+
+        assertNotSame(first, second);
+        assertEquals(1, second.version());
+        assertEquals(100 * 3500, second.tariff().electricity().cost(100));
+        assertSame(second, buildingTariffCache.get(building));
+    }
+
+    @Test
+    void get_WithOlderVersion_ShouldNotReplaceNewerSnapshot() {
+        building.setTariffVersion(2);
+        final TariffSnapshot newer = buildingTariffCache.get(building);
+        final Building stale = new Building();
+        stale.setId(BUILDING_ID);
+        stale.setTariffVersion(1);
+
+        assertEquals(1, buildingTariffCache.get(stale).version());
+        assertSame(newer, buildingTariffCache.get(building));
+    }
+}
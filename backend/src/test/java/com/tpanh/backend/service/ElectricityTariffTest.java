@@ -0,0 +1,75 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ElectricityTariffTest {
+    // Biểu giá sinh hoạt EVN 6 bậc
+    private static final int[] EVN_THRESHOLDS = {50, 100, 200, 300, 400};
+    private static final int[] EVN_PRICES = {1806, 1866, 2167, 2729, 3050, 3151};
+
+    private final ElectricityTariff evn = ElectricityTariff.tiered(EVN_THRESHOLDS, EVN_PRICES);
+
+    @Test
+    void cost_WithinFirstTier_ShouldUseFirstPrice() {
+        assertEquals(0, evn.cost(0));
+        assertEquals(30 * 1806, evn.cost(30));
+        assertEquals(50 * 1806, evn.cost(50));
+    }
+
+    @Test
+    void cost_AcrossTiers_ShouldMatchTierByTierSum() {
+        // 50*1806 + 50*1866 + 100*2167 + 20*2729
+        assertEquals(50 * 1806 + 50 * 1866 + 100 * 2167 + 20 * 2729, evn.cost(220));
+    }
+
+    @Test
+    void cost_AboveLastThreshold_ShouldUseLastPrice() {
+        final int upTo400 = 50 * 1806 + 50 * 1866 + 100 * 2167 + 100 * 2729 + 100 * 3050;
+        assertEquals(upTo400 + 100 * 3151, evn.cost(500));
+    }
+
+    @Test
+    void flat_ShouldMultiplyUsageByUnitPrice() {
+        final ElectricityTariff flat = ElectricityTariff.flat(3500);
+
+        assertEquals(120 * 3500, flat.cost(120));
+        assertFalse(flat.isTiered());
+        assertTrue(evn.isTiered());
+    }
+
+    @Test
+    void of_ShouldPreferTiersOverUnitPrice() {
+        final ElectricityTariff tiered = ElectricityTariff.of(3500, EVN_THRESHOLDS, EVN_PRICES);
+
+        assertEquals(evn.cost(220), tiered.cost(220));
+        assertEquals(220 * 3500, ElectricityTariff.of(3500, null, null).cost(220));
+        assertSame(ElectricityTariff.NONE, ElectricityTariff.of(null, null, null));
+    }
+
+    @Test
+    void tiers_ShouldRoundTripConfiguredTiers() {
+        assertArrayEquals(EVN_THRESHOLDS, evn.tierThresholds());
+        assertArrayEquals(EVN_PRICES, evn.tierPrices());
+        assertNull(ElectricityTariff.flat(3500).tierThresholds());
+        assertNull(ElectricityTariff.flat(3500).tierPrices());
+    }
+
+    @Test
+    void tiered_WithInvalidTiers_ShouldThrow() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ElectricityTariff.tiered(new int[] {100, 50}, new int[] {1, 2, 3}));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ElectricityTariff.tiered(new int[] {50}, new int[] {1806}));
+        assertFalse(ElectricityTariff.isValidTiers(new int[] {50}, new int[] {1806, -1}));
+    }
+}
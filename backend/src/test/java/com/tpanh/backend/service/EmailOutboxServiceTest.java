@@ -0,0 +1,228 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.EmailOutboxProperties;
+import com.tpanh.backend.entity.EmailOutbox;
+import com.tpanh.backend.enums.EmailOutboxStatus;
+import com.tpanh.backend.repository.EmailOutboxRepository;
+import com.tpanh.backend.repository.PendingEmailView;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock private EmailOutboxRepository emailOutboxRepository;
+    @Mock private EmailService emailService;
+    @Mock private SmtpBatchSender smtpBatchSender;
+
+    private final EmailOutboxProperties emailOutboxProperties = new EmailOutboxProperties();
+
+    private EmailOutboxService emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxProperties.setBatchSize(BATCH_SIZE);
+        emailOutboxProperties.setMaxAttempts(MAX_ATTEMPTS);
+        emailOutboxService =
+                new EmailOutboxService(
+                        emailOutboxRepository,
+                        emailService,
+                        emailOutboxProperties,
+                        new SyncTaskExecutor(),
+                        smtpBatchSender);
+    }
+
+    @Test
+    void enqueue_ShouldSavePendingEmailDueNow() {
+        // When
+        emailOutboxService.enqueue(new EmailMessage("a@example.com", "Hóa đơn", "<p>1</p>"));
+
+        // Then
+        final var captor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository).save(captor.capture());
+        final EmailOutbox saved = captor.getValue();
+        assertEquals("a@example.com", saved.getRecipient());
+        assertEquals("Hóa đơn", saved.getSubject());
+        assertEquals("<p>1</p>", saved.getBody());
+        assertEquals(EmailOutboxStatus.PENDING, saved.getStatus());
+        assertTrue(!saved.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void deliverDue_ShouldSendEachBatchTogetherAndMarkSent() {
+        // Given: đợt đầu đầy nên worker lấy tiếp, đợt 2 thiếu nghĩa là đã hết
+        givenClaims(List.of(pending(1, 0), pending(2, 0)), List.of(pending(3, 0)));
+        final MimeMessage first = givenMimeMessage(1);
+        final MimeMessage second = givenMimeMessage(2);
+        final MimeMessage third = givenMimeMessage(3);
+        when(smtpBatchSender.send(anyList(), any())).thenReturn(Map.of());
+
+        // When
+        final int sent = emailOutboxService.deliverDue();
+
+        // Then: mỗi đợt là 1 lần gửi qua cùng 1 kết nối SMTP
+        assertEquals(3, sent);
+        verify(smtpBatchSender).send(eq(List.of(first, second)), any());
+        verify(smtpBatchSender).send(eq(List.of(third)), any());
+        verify(emailOutboxRepository).markSent(eq(1), any(LocalDateTime.class));
+        verify(emailOutboxRepository).markSent(eq(2), any(LocalDateTime.class));
+        verify(emailOutboxRepository).markSent(eq(3), any(LocalDateTime.class));
+        verify(emailOutboxRepository, never()).markFailed(anyInt(), any(), any(), anyString());
+        verify(emailOutboxRepository, never()).renewLease(anyList(), any());
+    }
+
+    @Test
+    void deliverDue_WhenBatchOutlivesHalfLease_ShouldRenewLeaseOfUnsentEmails() {
+        // Given: lease 0 nên lần gửi nào cũng đã qua nửa lease
+        emailOutboxProperties.setLeaseTime(Duration.ZERO);
+        givenClaims(List.of(pending(1, 0), pending(2, 0)));
+        givenMimeMessage(1);
+        givenMimeMessage(2);
+        when(smtpBatchSender.send(anyList(), any()))
+                .thenAnswer(
+                        invocation -> {
+                            final IntConsumer beforeSend = invocation.getArgument(1);
+                            beforeSend.accept(0);
+                            beforeSend.accept(1);
+                            return Map.of();
+                        });
+
+        // When
+        emailOutboxService.deliverDue();
+
+        // Then: trước mỗi email, các email còn lại của đợt được giữ thêm 1 lease
+        verify(emailOutboxRepository).renewLease(eq(List.of(1, 2)), any(LocalDateTime.class));
+        verify(emailOutboxRepository).renewLease(eq(List.of(2)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void deliverDue_WhenSendFails_ShouldRetryLaterWithBackoff() {
+        // Given: email 1 đã lỗi 1 lần trước đó và lỗi tiếp, email 2 gửi được
+        givenClaims(List.of(pending(1, 1), pending(3, 0)));
+        givenMimeMessage(1);
+        givenMimeMessage(3);
+        when(smtpBatchSender.send(anyList(), any()))
+                .thenReturn(Map.of(0, new MessagingException("SMTP timeout")));
+        final LocalDateTime before = LocalDateTime.now();
+
+        // When
+        final int sent = emailOutboxService.deliverDue();
+
+        // Then: lần lỗi thứ 2 chờ gấp đôi initialBackoff
+        assertEquals(1, sent);
+        final var nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(emailOutboxRepository)
+                .markFailed(
+                        eq(1),
+                        eq(EmailOutboxStatus.PENDING),
+                        nextAttempt.capture(),
+                        eq("jakarta.mail.MessagingException: SMTP timeout"));
+        final Duration delay = Duration.between(before, nextAttempt.getValue());
+        assertTrue(delay.compareTo(emailOutboxProperties.getInitialBackoff().multipliedBy(2)) >= 0);
+        verify(emailOutboxRepository, never()).markSent(eq(1), any());
+        verify(emailOutboxRepository).markSent(eq(3), any(LocalDateTime.class));
+    }
+
+    @Test
+    void deliverDue_WhenMessageCannotBeBuilt_ShouldRecordFailureWithoutSending() {
+        // Given: email 1 có địa chỉ không hợp lệ nên không dựng được MimeMessage
+        givenClaims(List.of(pending(1, 0)));
+        when(emailService.toMimeMessage(any()))
+                .thenThrow(new RuntimeException("Failed to build email"));
+
+        // When
+        final int sent = emailOutboxService.deliverDue();
+
+        // Then
+        assertEquals(0, sent);
+        verify(smtpBatchSender).send(eq(List.of()), any());
+        verify(emailOutboxRepository)
+                .markFailed(
+                        eq(1),
+                        eq(EmailOutboxStatus.PENDING),
+                        any(LocalDateTime.class),
+                        eq("java.lang.RuntimeException: Failed to build email"));
+    }
+
+    @Test
+    void deliverDue_WhenAttemptsExhausted_ShouldMoveToDead() {
+        // Given
+        givenClaims(List.of(pending(1, MAX_ATTEMPTS - 1)));
+        givenMimeMessage(1);
+        when(smtpBatchSender.send(anyList(), any()))
+                .thenReturn(Map.of(0, new MessagingException("Mailbox unavailable")));
+
+        // When
+        emailOutboxService.deliverDue();
+
+        // Then
+        verify(emailOutboxRepository)
+                .markFailed(
+                        eq(1),
+                        eq(EmailOutboxStatus.DEAD),
+                        any(LocalDateTime.class),
+                        eq("jakarta.mail.MessagingException: Mailbox unavailable"));
+    }
+
+    @Test
+    void backoff_ShouldDoubleEachAttemptUpToMax() {
+        emailOutboxProperties.setInitialBackoff(Duration.ofSeconds(30));
+        emailOutboxProperties.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertEquals(Duration.ofSeconds(30), emailOutboxService.backoff(1));
+        assertEquals(Duration.ofSeconds(60), emailOutboxService.backoff(2));
+        assertEquals(Duration.ofSeconds(240), emailOutboxService.backoff(4));
+        assertEquals(Duration.ofMinutes(5), emailOutboxService.backoff(5));
+        assertEquals(Duration.ofMinutes(5), emailOutboxService.backoff(Integer.MAX_VALUE));
+    }
+
+    @SafeVarargs
+    private void givenClaims(final List<PendingEmailView>... batches) {
+        var stubbing =
+                when(emailOutboxRepository.claimDue(
+                        BATCH_SIZE, emailOutboxProperties.getLeaseTime()));
+        for (final List<PendingEmailView> batch : batches) {
+            stubbing = stubbing.thenReturn(batch);
+        }
+    }
+
+    private MimeMessage givenMimeMessage(final int id) {
+        final MimeMessage message = mock(MimeMessage.class);
+        when(emailService.toMimeMessage(
+                        new EmailMessage(
+                                "user" + id + "@example.com", "Subject " + id, "<p>" + id + "</p>")))
+                .thenReturn(message);
+        return message;
+    }
+
+    private static PendingEmailView pending(final int id, final int attempts) {
+        return new PendingEmailView(
+                id, "user" + id + "@example.com", "Subject " + id, "<p>" + id + "</p>", attempts);
+    }
+}
@@ -1,18 +1,22 @@
 package com.tpanh.backend.service;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.tpanh.backend.repository.ReminderCandidateView;
 import jakarta.mail.Message;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
 import jakarta.mail.Session;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
+import java.util.List;
 import java.util.Properties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,44 +36,67 @@ class EmailServiceTest {
 
     @BeforeEach
     void setUp() {
-        emailService = new EmailService(mailSender);
+        emailService = new EmailService(mailSender, new EmailTemplates());
         ReflectionTestUtils.setField(emailService, "frontendUrl", "http://localhost:5173");
         ReflectionTestUtils.setField(emailService, "fromEmail", "");
     }
 
     @Test
-    void sendInvoiceEmail_withBlankEmail_shouldNotSend() {
-        assertDoesNotThrow(
-                () ->
-                        emailService.sendInvoiceEmail(
-                                "  ",
-                                "Nguyễn Văn A",
-                                "P.101",
-                                "2025-01",
-                                100_000,
-                                java.time.LocalDate.of(2025, 1, 10)));
-        verify(mailSender, never()).send(any(MimeMessage.class));
+    void invoiceEmail_ShouldRenderSubjectAmountAndDueDate() {
+        final EmailMessage email =
+                emailService.invoiceEmail(
+                        "tenant@example.com",
+                        "Nguyễn Văn B",
+                        "P.202",
+                        "2025-06",
+                        12_345_678,
+                        java.time.LocalDate.of(2025, 6, 20));
+
+        assertEquals("tenant@example.com", email.to());
+        assertEquals("Hóa đơn phòng P.202 - Tháng 2025-06", email.subject());
+        assertTrue(email.html().contains("Nguyễn Văn B"));
+        assertTrue(email.html().contains("12,345,678 VNĐ"));
+        assertTrue(email.html().contains("20/06/2025"));
+    }
+
+    @Test
+    void activationEmail_ShouldRenderActivationLink() {
+        final EmailMessage email =
+                emailService.activationEmail("admin@example.com", "Test Admin", "token-123");
+
+        assertEquals("admin@example.com", email.to());
+        assertEquals("Kích hoạt tài khoản Manager", email.subject());
+        assertTrue(email.html().contains("Test Admin"));
+        assertTrue(email.html().contains("http://localhost:5173/activate?token=token-123"));
+    }
+
+    @Test
+    void invoiceEmail_ShouldEscapeHtmlInValues() {
+        final EmailMessage email =
+                emailService.invoiceEmail(
+                        "tenant@example.com",
+                        "<b>Tom & \"Jerry\"</b>",
+                        "P.101",
+                        "2025-01",
+                        100_000,
+                        java.time.LocalDate.of(2025, 1, 10));
+
+        assertTrue(email.html().contains("&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;"));
     }
 
     @Test
-    void sendInvoiceEmail_withValidEmail_shouldSend() throws Exception {
+    void send_withValidEmail_shouldSend() throws Exception {
         final var session = Session.getDefaultInstance(new Properties());
         final var mimeMessage = new MimeMessage(session);
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
 
-        emailService.sendInvoiceEmail(
-                "tenant@example.com",
-                "Nguyễn Văn A",
-                "P.101",
-                "2025-01",
-                123_456,
-                java.time.LocalDate.of(2025, 1, 10));
+        emailService.send(new EmailMessage("tenant@example.com", "Hóa đơn", "<p>Nội dung</p>"));
 
         final var captor = ArgumentCaptor.forClass(MimeMessage.class);
         verify(mailSender).send(captor.capture());
 
         final MimeMessage sent = captor.getValue();
-        assertEquals("Hóa đơn phòng P.101 - Tháng 2025-01", sent.getSubject());
+        assertEquals("Hóa đơn", sent.getSubject());
         assertNotNull(sent.getFrom());
         assertEquals("noreply@phongtro.com", ((InternetAddress) sent.getFrom()[0]).getAddress());
 
@@ -80,7 +107,7 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendInvoiceEmail_whenMessagingException_shouldThrowRuntimeException() throws Exception {
+    void send_whenMessagingException_shouldThrowRuntimeException() throws Exception {
         // Use an invalid email to deterministically trigger MessagingException (AddressException)
         final var session = Session.getDefaultInstance(new Properties());
         final var mimeMessage = new MimeMessage(session);
@@ -90,51 +117,31 @@ class EmailServiceTest {
                 assertThrows(
                         RuntimeException.class,
                         () ->
-                                emailService.sendInvoiceEmail(
-                                        "invalid@@example.com",
-                                        "Nguyễn Văn A",
-                                        "P.101",
-                                        "2025-01",
-                                        100_000,
-                                        java.time.LocalDate.of(2025, 1, 10)));
+                                emailService.send(
+                                        new EmailMessage(
+                                                "invalid@@example.com", "Hóa đơn", "<p></p>")));
         assertNotNull(ex.getMessage());
         verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     @Test
-    void sendActivationEmail_withValidEmail_shouldSend() throws Exception {
+    void toMimeMessage_ShouldPrepareMessageWithoutSending() throws Exception {
         final var session = Session.getDefaultInstance(new Properties());
-        final var mimeMessage = new MimeMessage(session);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage(session));
 
-        emailService.sendActivationEmail("admin@example.com", "Test Admin", "token-123");
+        final MimeMessage message =
+                emailService.toMimeMessage(
+                        new EmailMessage("tenant@example.com", "Hóa đơn", "<p>Nội dung</p>"));
 
-        final var captor = ArgumentCaptor.forClass(MimeMessage.class);
-        verify(mailSender).send(captor.capture());
-
-        final MimeMessage sent = captor.getValue();
-        assertEquals("Kích hoạt tài khoản Manager", sent.getSubject());
-        assertNotNull(sent.getRecipients(Message.RecipientType.TO));
-    }
-
-    // ===== Additional tests for better branch coverage =====
-
-    @Test
-    void sendInvoiceEmail_withNullEmail_shouldNotSend() {
-        assertDoesNotThrow(
-                () ->
-                        emailService.sendInvoiceEmail(
-                                null,
-                                "Nguyễn Văn A",
-                                "P.101",
-                                "2025-01",
-                                100_000,
-                                java.time.LocalDate.of(2025, 1, 10)));
+        // saveChanges đã chạy nên gửi không phải mã hóa lại nội dung
+        assertNotNull(message.getSentDate());
+        assertNotNull(message.getMessageID());
+        assertEquals("Hóa đơn", message.getSubject());
         verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     @Test
-    void sendInvoiceEmail_withConfiguredFromEmail_shouldUseConfiguredEmail() throws Exception {
+    void send_withConfiguredFromEmail_shouldUseConfiguredEmail() throws Exception {
         // Set non-empty fromEmail
         ReflectionTestUtils.setField(emailService, "fromEmail", "custom@example.com");
 
@@ -142,13 +149,7 @@ class EmailServiceTest {
         final var mimeMessage = new MimeMessage(session);
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
 
-        emailService.sendInvoiceEmail(
-                "tenant@example.com",
-                "Nguyễn Văn A",
-                "P.101",
-                "2025-01",
-                500_000,
-                java.time.LocalDate.of(2025, 1, 15));
+        emailService.send(new EmailMessage("tenant@example.com", "Hóa đơn", "<p></p>"));
 
         final var captor = ArgumentCaptor.forClass(MimeMessage.class);
         verify(mailSender).send(captor.capture());
@@ -158,58 +159,53 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendActivationEmail_withConfiguredFromEmail_shouldUseConfiguredEmail() throws Exception {
-        // Set non-empty fromEmail
-        ReflectionTestUtils.setField(emailService, "fromEmail", "sender@example.com");
-
-        final var session = Session.getDefaultInstance(new Properties());
-        final var mimeMessage = new MimeMessage(session);
+    void sendDueReminderEmail_ShouldListEveryInvoiceInOneMessage() throws Exception {
+        final var mimeMessage = new MimeMessage(Session.getDefaultInstance(new Properties()));
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        final var dueDate = java.time.LocalDate.of(2025, 1, 10);
 
-        emailService.sendActivationEmail("admin@example.com", "Test Admin", "token-456");
+        emailService.sendDueReminderEmail(
+                "tenant@example.com",
+                "Nguyễn Văn A",
+                List.of(
+                        reminderItem(1, "P.101", 123_456, dueDate),
+                        reminderItem(2, "P.102", 200_000, dueDate)));
 
         final var captor = ArgumentCaptor.forClass(MimeMessage.class);
         verify(mailSender).send(captor.capture());
-
         final MimeMessage sent = captor.getValue();
-        assertEquals("sender@example.com", ((InternetAddress) sent.getFrom()[0]).getAddress());
+        sent.saveChanges();
+        assertEquals("Nhắc hạn thanh toán hóa đơn phòng", sent.getSubject());
+        final String body = textOf(sent);
+        assertTrue(body.contains("P.101") && body.contains("P.102"));
+        assertTrue(body.contains("10/01/2025"));
     }
 
-    @Test
-    void sendActivationEmail_whenMessagingException_shouldThrowRuntimeException() throws Exception {
-        // Use an invalid email format to trigger MessagingException
-        final var session = Session.getDefaultInstance(new Properties());
-        final var mimeMessage = new MimeMessage(session);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-        final var ex =
-                assertThrows(
-                        RuntimeException.class,
-                        () ->
-                                emailService.sendActivationEmail(
-                                        "invalid@@email.com", "Test Admin", "token-123"));
-        assertNotNull(ex.getMessage());
-        verify(mailSender, never()).send(any(MimeMessage.class));
+    private static String textOf(final Part part) throws Exception {
+        if (part.isMimeType("text/*")) {
+            return (String) part.getContent();
+        }
+        final Multipart multipart = (Multipart) part.getContent();
+        final var text = new StringBuilder();
+        for (int i = 0; i < multipart.getCount(); i++) {
+            text.append(textOf(multipart.getBodyPart(i)));
+        }
+        return text.toString();
     }
 
-    @Test
-    void sendInvoiceEmail_withLargeAmount_shouldFormatCorrectly() throws Exception {
-        final var session = Session.getDefaultInstance(new Properties());
-        final var mimeMessage = new MimeMessage(session);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-        emailService.sendInvoiceEmail(
+    private static ReminderCandidateView reminderItem(
+            final int invoiceId,
+            final String roomNo,
+            final int totalAmount,
+            final java.time.LocalDate dueDate) {
+        return new ReminderCandidateView(
+                invoiceId,
+                7,
+                "Nguyễn Văn A",
                 "tenant@example.com",
-                "Nguyễn Văn B",
-                "P.202",
-                "2025-06",
-                12_345_678,
-                java.time.LocalDate.of(2025, 6, 20));
-
-        final var captor = ArgumentCaptor.forClass(MimeMessage.class);
-        verify(mailSender).send(captor.capture());
-
-        final MimeMessage sent = captor.getValue();
-        assertEquals("Hóa đơn phòng P.202 - Tháng 2025-06", sent.getSubject());
+                roomNo,
+                "2024-12",
+                totalAmount,
+                dueDate);
     }
 }
@@ -0,0 +1,72 @@
+package com.tpanh.backend.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.tpanh.backend.config.RedisConfig;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceDetailCacheTest {
+    private static final List<String> KEYS =
+            List.of(
+                    RedisConfig.cacheKey(InvoiceDetailCache.CACHE_NAME, 1),
+                    RedisConfig.cacheKey(InvoiceDetailCache.CACHE_NAME, 2));
+
+    @Mock private RedisTemplate<String, Object> cacheRedisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictAllAfterCommit_WithoutTransaction_ShouldEvictImmediately() {
+        new InvoiceDetailCache(cacheRedisTemplate).evictAllAfterCommit(List.of(1, 2));
+
+        verify(cacheRedisTemplate).delete(KEYS);
+    }
+
+    @Test
+    void evictAllAfterCommit_InTransaction_ShouldWaitForCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        new InvoiceDetailCache(cacheRedisTemplate).evictAllAfterCommit(List.of(1, 2));
+
+        // Then: chưa commit thì chưa xóa, commit xong mới xóa
+        verify(cacheRedisTemplate, never()).delete(any(List.class));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+        verify(cacheRedisTemplate).delete(KEYS);
+    }
+
+    @Test
+    void evictAllAfterCommit_WhenRolledBack_ShouldNotEvict() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        new InvoiceDetailCache(cacheRedisTemplate).evictAllAfterCommit(List.of(1, 2));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(
+                        synchronization ->
+                                synchronization.afterCompletion(
+                                        TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verify(cacheRedisTemplate, never()).delete(any(List.class));
+    }
+}
@@ -0,0 +1,222 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceGenerationJobRunnerTest {
+    private static final int BUILDING_ID = 1;
+    private static final String PERIOD = "2025-01";
+    private static final int ROOM_PRICE = 3000000;
+
+    @Mock private InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private BillingSnapshotLoader billingSnapshotLoader;
+    @Mock private InvoiceCalculator invoiceCalculator;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private InvoiceGenerationJobRunner runner;
+    private InvoiceGenerationJob job;
+    private Building building;
+    private BillingSnapshot snapshot;
+    private final List<List<Invoice>> savedChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        final BillingProperties billingProperties = new BillingProperties();
+        billingProperties.setJobChunkSize(2);
+        runner =
+                new InvoiceGenerationJobRunner(
+                        invoiceGenerationJobRepository,
+                        invoiceRepository,
+                        billingSnapshotLoader,
+                        invoiceCalculator,
+                        billingProperties,
+                        transactionTemplate);
+
+        building = new Building();
+        building.setId(BUILDING_ID);
+        job =
+                InvoiceGenerationJob.builder()
+                        .id(UUID.randomUUID())
+                        .building(building)
+                        .period(PERIOD)
+                        .status(InvoiceGenerationJobStatus.PENDING)
+                        .build();
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(
+                        invocation ->
+                                invocation
+                                        .<TransactionCallback<?>>getArgument(0)
+                                        .doInTransaction(null));
+        when(invoiceGenerationJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        lenient()
+                .when(invoiceRepository.insertIfAbsent(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            savedChunks.add(new ArrayList<>(invocation.getArgument(0)));
+                            return invocation.getArgument(0);
+                        });
+    }
+
+    @Test
+    void run_ShouldProcessRoomsInChunksAndTrackProgress() {
+        // Given: 1 phòng đã có hóa đơn, 1 phòng không có người đại diện, 1 phòng lỗi, 2 phòng OK
+        final Room invoiced = room(1, "P.101");
+        final Room vacant = room(2, "P.102");
+        final Room missingReading = room(3, "P.103");
+        final Room ok1 = room(4, "P.104");
+        final Room ok2 = room(5, "P.105");
+        final Map<Integer, Tenant> holders =
+                Map.of(1, tenant(1), 3, tenant(3), 4, tenant(4), 5, tenant(5));
+        givenSnapshot(List.of(invoiced, vacant, missingReading, ok1, ok2), Set.of(1), holders);
+        when(invoiceCalculator.calculate(missingReading, holders.get(3), snapshot))
+                .thenThrow(new AppException(ErrorCode.MISSING_PREVIOUS_UTILITY_READING));
+        when(invoiceCalculator.calculate(ok1, holders.get(4), snapshot))
+                .thenReturn(new Invoice());
+        when(invoiceCalculator.calculate(ok2, holders.get(5), snapshot))
+                .thenReturn(new Invoice());
+
+        // When
+        runner.run(job.getId());
+
+        // Then
+        assertEquals(InvoiceGenerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getTotalRooms());
+        assertEquals(5, job.getProcessedRooms());
+        assertEquals(2, job.getSkippedRooms());
+        assertEquals(1, job.getFailedRooms());
+        assertEquals(2, job.getCreatedInvoices());
+        assertTrue(job.getErrorMessage().startsWith("P.103"));
+        assertNotNull(job.getStartedAt());
+        assertNotNull(job.getFinishedAt());
+
+        // 5 phòng, chunk size 2 => 3 chunk, mỗi chunk 1 transaction riêng
+        verify(invoiceRepository, times(3)).insertIfAbsent(anyList());
+        savedChunks.stream()
+                .flatMap(List::stream)
+                .forEach(invoice -> assertEquals(job.getId(), invoice.getGenerationJobId()));
+    }
+
+    @Test
+    void run_WhenInvoiceInsertedConcurrently_ShouldCountConflictAsSkipped() {
+        // Given: hóa đơn của P.101 bị request khác chèn trước (ON CONFLICT DO NOTHING)
+        final Room room1 = room(1, "P.101");
+        final Room room2 = room(2, "P.102");
+        final Map<Integer, Tenant> holders = Map.of(1, tenant(1), 2, tenant(2));
+        givenSnapshot(List.of(room1, room2), Set.of(), holders);
+        final Invoice conflicting = new Invoice();
+        final Invoice inserted = new Invoice();
+        when(invoiceCalculator.calculate(room1, holders.get(1), snapshot)).thenReturn(conflicting);
+        when(invoiceCalculator.calculate(room2, holders.get(2), snapshot)).thenReturn(inserted);
+        when(invoiceRepository.insertIfAbsent(anyList())).thenReturn(List.of(inserted));
+
+        // When
+        runner.run(job.getId());
+
+        // Then
+        assertEquals(InvoiceGenerationJobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getProcessedRooms());
+        assertEquals(1, job.getSkippedRooms());
+        assertEquals(1, job.getCreatedInvoices());
+    }
+
+    @Test
+    void run_WhenSnapshotCannotBeLoaded_ShouldMarkJobFailed() {
+        // Given
+        when(billingSnapshotLoader.load(BUILDING_ID, PERIOD))
+                .thenThrow(new AppException(ErrorCode.BUILDING_NOT_FOUND));
+
+        // When
+        runner.run(job.getId());
+
+        // Then
+        assertEquals(InvoiceGenerationJobStatus.FAILED, job.getStatus());
+        assertEquals(ErrorCode.BUILDING_NOT_FOUND.getMessage(), job.getErrorMessage());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void run_WhenJobAlreadyFailedBySweep_ShouldNotProcessRooms() {
+        // Given: job chờ trong hàng đợi quá lâu, đã bị sweep chuyển sang FAILED
+        job.setStatus(InvoiceGenerationJobStatus.FAILED);
+
+        // When
+        runner.run(job.getId());
+
+        // Then
+        assertEquals(InvoiceGenerationJobStatus.FAILED, job.getStatus());
+        assertEquals(ErrorCode.INVOICE_GENERATION_JOB_STALE.getMessage(), job.getErrorMessage());
+        verify(billingSnapshotLoader, never()).load(any(), any());
+        verify(invoiceRepository, never()).insertIfAbsent(anyList());
+    }
+
+    private void givenSnapshot(
+            final List<Room> rooms,
+            final Set<Integer> invoicedRoomIds,
+            final Map<Integer, Tenant> holders) {
+        snapshot =
+                new BillingSnapshot(
+                        building,
+                        PERIOD,
+                        rooms,
+                        invoicedRoomIds,
+                        holders,
+                        Map.of(),
+                        Map.of(),
+                        Map.of(),
+                        Set.of(),
+                        Map.of(),
+                        Map.of());
+        when(billingSnapshotLoader.load(BUILDING_ID, PERIOD)).thenReturn(snapshot);
+    }
+
+    private Room room(final int id, final String roomNo) {
+        final Room room = new Room();
+        room.setId(id);
+        room.setRoomNo(roomNo);
+        room.setPrice(ROOM_PRICE);
+        room.setBuilding(building);
+        return room;
+    }
+
+    private Tenant tenant(final int id) {
+        final Tenant tenant = new Tenant();
+        tenant.setId(id);
+        return tenant;
+    }
+}
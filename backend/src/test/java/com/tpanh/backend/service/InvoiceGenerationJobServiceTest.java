@@ -0,0 +1,206 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.dto.InvoiceGenerationJobResponse;
+import com.tpanh.backend.dto.InvoiceResponse;
+import com.tpanh.backend.dto.PageResponse;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.InvoiceGenerationJob;
+import com.tpanh.backend.enums.InvoiceGenerationJobStatus;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import com.tpanh.backend.mapper.InvoiceGenerationJobMapper;
+import com.tpanh.backend.mapper.InvoiceMapper;
+import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceGenerationJobRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.InvoiceSummaryView;
+import com.tpanh.backend.security.CurrentUser;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceGenerationJobServiceTest {
+    private static final int BUILDING_ID = 1;
+    private static final String PERIOD = "2025-01";
+    private static final String USER_ID = "manager-1";
+
+    @Mock private InvoiceGenerationJobRepository invoiceGenerationJobRepository;
+    @Mock private BuildingRepository buildingRepository;
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private InvoiceGenerationJobMapper invoiceGenerationJobMapper;
+    @Mock private InvoiceMapper invoiceMapper;
+    @Mock private InvoiceGenerationJobRunner invoiceGenerationJobRunner;
+    @Mock private TaskExecutor rejectingExecutor;
+    @Mock private CurrentUser currentUser;
+
+    private final BillingProperties billingProperties = new BillingProperties();
+
+    private Building building;
+
+    @BeforeEach
+    void setUp() {
+        building = new Building();
+        building.setId(BUILDING_ID);
+    }
+
+    @Test
+    void submitJob_ShouldSaveJobAndRunItOnExecutor() {
+        // Given
+        final InvoiceGenerationJobService service = newService(new SyncTaskExecutor());
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(building));
+        when(currentUser.getUserId()).thenReturn(USER_ID);
+        when(invoiceGenerationJobRepository.save(any(InvoiceGenerationJob.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        final InvoiceGenerationJobResponse response = new InvoiceGenerationJobResponse();
+        when(invoiceGenerationJobMapper.toResponse(any(InvoiceGenerationJob.class)))
+                .thenReturn(response);
+
+        // When
+        final var result = service.submitJob(BUILDING_ID, PERIOD);
+
+        // Then
+        assertEquals(response, result);
+        final ArgumentCaptor<InvoiceGenerationJob> captor =
+                ArgumentCaptor.forClass(InvoiceGenerationJob.class);
+        verify(invoiceGenerationJobRepository).save(captor.capture());
+        final InvoiceGenerationJob job = captor.getValue();
+        assertEquals(InvoiceGenerationJobStatus.PENDING, job.getStatus());
+        assertEquals(PERIOD, job.getPeriod());
+        assertEquals(USER_ID, job.getRequestedBy());
+        verify(invoiceGenerationJobRunner).run(job.getId());
+    }
+
+    @Test
+    void submitJob_WithInvalidBuilding_ShouldThrowException() {
+        // Given
+        final InvoiceGenerationJobService service = newService(new SyncTaskExecutor());
+        when(buildingRepository.findById(999)).thenReturn(Optional.empty());
+
+        // When & Then
+        final var exception =
+                assertThrows(AppException.class, () -> service.submitJob(999, PERIOD));
+        assertEquals(ErrorCode.BUILDING_NOT_FOUND, exception.getErrorCode());
+        verify(invoiceGenerationJobRepository, never()).save(any());
+    }
+
+    @Test
+    void submitJob_WhenExecutorIsFull_ShouldMarkJobFailedAndThrow() {
+        // Given
+        final InvoiceGenerationJobService service = newService(rejectingExecutor);
+        when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(building));
+        when(currentUser.getUserId()).thenReturn(USER_ID);
+        when(invoiceGenerationJobRepository.save(any(InvoiceGenerationJob.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new TaskRejectedException("queue full")).when(rejectingExecutor).execute(any());
+
+        // When & Then
+        final var exception =
+                assertThrows(AppException.class, () -> service.submitJob(BUILDING_ID, PERIOD));
+        assertEquals(ErrorCode.INVOICE_GENERATION_JOB_REJECTED, exception.getErrorCode());
+        final ArgumentCaptor<InvoiceGenerationJob> captor =
+                ArgumentCaptor.forClass(InvoiceGenerationJob.class);
+        verify(invoiceGenerationJobRepository, times(2)).save(captor.capture());
+        assertEquals(InvoiceGenerationJobStatus.FAILED, captor.getValue().getStatus());
+        verify(invoiceGenerationJobRunner, never()).run(any());
+    }
+
+    @Test
+    void getJob_WithInvalidId_ShouldThrowException() {
+        // Given
+        final InvoiceGenerationJobService service = newService(new SyncTaskExecutor());
+        final UUID jobId = UUID.randomUUID();
+        when(invoiceGenerationJobRepository.findById(jobId)).thenReturn(Optional.empty());
+
+        // When & Then
+        final var exception = assertThrows(AppException.class, () -> service.getJob(jobId));
+        assertEquals(ErrorCode.INVOICE_GENERATION_JOB_NOT_FOUND, exception.getErrorCode());
+    }
+
+    @Test
+    void getJobInvoices_ShouldReturnInvoicesCreatedByJob() {
+        // Given
+        final InvoiceGenerationJobService service = newService(new SyncTaskExecutor());
+        final UUID jobId = UUID.randomUUID();
+        final Pageable pageable = PageRequest.of(0, 20);
+        final InvoiceSummaryView invoice =
+                new InvoiceSummaryView(
+                        1, "P.101", "Nguyễn Văn A", PERIOD, 3000000, 0, 0, 3000000, null, null);
+        final InvoiceResponse invoiceResponse = new InvoiceResponse();
+        when(invoiceGenerationJobRepository.findById(jobId))
+                .thenReturn(Optional.of(InvoiceGenerationJob.builder().id(jobId).build()));
+        when(invoiceRepository.findSummariesByGenerationJobId(eq(jobId), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(invoice), pageable, 1));
+        when(invoiceMapper.toResponse(invoice)).thenReturn(invoiceResponse);
+
+        // When
+        final PageResponse<InvoiceResponse> result = service.getJobInvoices(jobId, pageable);
+
+        // Then
+        assertEquals(List.of(invoiceResponse), result.getContent());
+        assertEquals(1, result.getPage().getTotalElements());
+    }
+
+    @Test
+    void failStaleJobs_ShouldFailActiveJobsNotUpdatedWithinStaleWindow() {
+        // Given
+        final InvoiceGenerationJobService service = newService(new SyncTaskExecutor());
+        final ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        final ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(invoiceGenerationJobRepository.failStale(
+                        eq(
+                                List.of(
+                                        InvoiceGenerationJobStatus.PENDING,
+                                        InvoiceGenerationJobStatus.RUNNING)),
+                        eq(InvoiceGenerationJobStatus.FAILED),
+                        before.capture(),
+                        now.capture(),
+                        eq(ErrorCode.INVOICE_GENERATION_JOB_STALE.getMessage())))
+                .thenReturn(2);
+
+        // When
+        final int failed = service.failStaleJobs();
+
+        // Then
+        assertEquals(2, failed);
+        assertEquals(
+                now.getValue().minus(billingProperties.getJobStaleAfter()), before.getValue());
+    }
+
+    private InvoiceGenerationJobService newService(final TaskExecutor executor) {
+        return new InvoiceGenerationJobService(
+                invoiceGenerationJobRepository,
+                buildingRepository,
+                invoiceRepository,
+                invoiceGenerationJobMapper,
+                invoiceMapper,
+                invoiceGenerationJobRunner,
+                executor,
+                currentUser,
+                billingProperties);
+    }
+}
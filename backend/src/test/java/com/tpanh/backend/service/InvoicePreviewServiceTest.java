@@ -0,0 +1,180 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.dto.ElectricityTier;
+import com.tpanh.backend.dto.InvoicePreviewItem;
+import com.tpanh.backend.dto.InvoicePreviewRequest;
+import com.tpanh.backend.dto.InvoicePreviewResponse;
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.MeterRecord;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.Tenant;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoicePreviewStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import com.tpanh.backend.exception.AppException;
+import com.tpanh.backend.exception.ErrorCode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InvoicePreviewServiceTest {
+    private static final int BUILDING_ID = 1;
+    private static final String PERIOD = "2025-01";
+    private static final int ROOM_PRICE = 3000000;
+    private static final int ELEC_UNIT_PRICE = 3000;
+    private static final int WATER_UNIT_PRICE = 20000;
+
+    @Mock private BillingSnapshotLoader billingSnapshotLoader;
+    @Spy private InvoiceCalculator invoiceCalculator = new InvoiceCalculator(new TariffEngine());
+
+    @InjectMocks private InvoicePreviewService invoicePreviewService;
+
+    private Building building;
+    private final Map<Integer, Tenant> contractHolders = new HashMap<>();
+    private final Map<Integer, MeterRecord> elecRecords = new HashMap<>();
+    private final Map<Integer, UtilityReading> currentReadings = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        building = new Building();
+        building.setId(BUILDING_ID);
+        building.setElecUnitPrice(ELEC_UNIT_PRICE);
+        building.setWaterUnitPrice(WATER_UNIT_PRICE);
+        building.setWaterCalcMethod(WaterCalcMethod.PER_CAPITA);
+    }
+
+    @Test
+    void previewInvoices_ShouldReportEachRoomAndTotalOnlyReadyRooms() {
+        // Given: P.101 sẵn sàng, P.102 đã có hóa đơn, P.103 không có người đại diện,
+        // P.104 thiếu chỉ số tháng trước
+        final Room ready = room(1, "P.101");
+        final Room invoiced = room(2, "P.102");
+        final Room vacant = room(3, "P.103");
+        final Room missingReading = room(4, "P.104");
+        contractHolders.put(1, tenant("Nguyễn Văn A"));
+        contractHolders.put(2, tenant("Nguyễn Văn B"));
+        contractHolders.put(4, tenant("Nguyễn Văn D"));
+        elecRecords.put(1, elecRecord(100, 150));
+        final UtilityReading reading = new UtilityReading();
+        reading.setElectricIndex(200);
+        currentReadings.put(4, reading);
+        givenSnapshot(Set.of(2), Set.of(4), ready, invoiced, vacant, missingReading);
+
+        // When
+        final InvoicePreviewResponse response = invoicePreviewService.previewInvoices(request());
+
+        // Then
+        assertEquals(1, response.getInvoiceCount());
+        assertEquals(
+                ROOM_PRICE + 50 * ELEC_UNIT_PRICE + WATER_UNIT_PRICE, response.getTotalAmount());
+        final List<InvoicePreviewItem> rooms = response.getRooms();
+        assertEquals(InvoicePreviewStatus.READY, rooms.get(0).getStatus());
+        assertEquals(50, rooms.get(0).getElecUsage());
+        assertEquals("Nguyễn Văn A", rooms.get(0).getTenantName());
+        assertEquals(InvoicePreviewStatus.ALREADY_INVOICED, rooms.get(1).getStatus());
+        assertNull(rooms.get(1).getTotalAmount());
+        assertEquals(InvoicePreviewStatus.NO_CONTRACT_HOLDER, rooms.get(2).getStatus());
+        assertEquals(InvoicePreviewStatus.ERROR, rooms.get(3).getStatus());
+        assertEquals(
+                ErrorCode.MISSING_PREVIOUS_UTILITY_READING.getMessage(), rooms.get(3).getError());
+    }
+
+    @Test
+    void previewInvoices_WithTariffOverrides_ShouldUseOverridesWithoutTouchingBuilding() {
+        // Given
+        contractHolders.put(1, tenant("Nguyễn Văn A"));
+        elecRecords.put(1, elecRecord(100, 150));
+        givenSnapshot(Set.of(), Set.of(), room(1, "P.101"));
+        final InvoicePreviewRequest request = request();
+        request.setElecTiers(
+                List.of(new ElectricityTier(20, 1000), new ElectricityTier(null, 2000)));
+        request.setWaterCalcMethod(WaterCalcMethod.BY_METER);
+
+        // When
+        final InvoicePreviewItem item =
+                invoicePreviewService.previewInvoices(request).getRooms().get(0);
+
+        // Then: 20*1000 + 30*2000, không có chỉ số nước nên tiền nước theo đồng hồ bằng 0
+        assertEquals(80000, item.getElecAmount());
+        assertEquals(0, item.getWaterAmount());
+        assertNull(building.getElecTierPrices());
+        assertEquals(WaterCalcMethod.PER_CAPITA, building.getWaterCalcMethod());
+    }
+
+    @Test
+    void previewInvoices_WithInvalidTiers_ShouldThrowElecTiersInvalid() {
+        // Given
+        givenSnapshot(Set.of(), Set.of());
+        final InvoicePreviewRequest request = request();
+        request.setElecTiers(List.of(new ElectricityTier(null, -1)));
+
+        // When & Then
+        final AppException exception =
+                assertThrows(
+                        AppException.class, () -> invoicePreviewService.previewInvoices(request));
+        assertEquals(ErrorCode.ELEC_TIERS_INVALID, exception.getErrorCode());
+    }
+
+    private void givenSnapshot(
+            final Set<Integer> invoicedRoomIds,
+            final Set<Integer> roomsWithReadingHistory,
+            final Room... rooms) {
+        when(billingSnapshotLoader.load(BUILDING_ID, PERIOD))
+                .thenReturn(
+                        new BillingSnapshot(
+                                building,
+                                PERIOD,
+                                List.of(rooms),
+                                invoicedRoomIds,
+                                contractHolders,
+                                Map.of(1, 1),
+                                currentReadings,
+                                Map.of(),
+                                roomsWithReadingHistory,
+                                elecRecords,
+                                Map.of()));
+    }
+
+    private InvoicePreviewRequest request() {
+        final InvoicePreviewRequest request = new InvoicePreviewRequest();
+        request.setBuildingId(BUILDING_ID);
+        request.setPeriod(PERIOD);
+        return request;
+    }
+
+    private Room room(final int id, final String roomNo) {
+        final Room room = new Room();
+        room.setId(id);
+        room.setRoomNo(roomNo);
+        room.setPrice(ROOM_PRICE);
+        room.setBuilding(building);
+        return room;
+    }
+
+    private Tenant tenant(final String name) {
+        final Tenant tenant = new Tenant();
+        tenant.setName(name);
+        return tenant;
+    }
+
+    private MeterRecord elecRecord(final int previousValue, final int currentValue) {
+        final MeterRecord record = new MeterRecord();
+        record.setPreviousValue(previousValue);
+        record.setCurrentValue(currentValue);
+        return record;
+    }
+}
@@ -0,0 +1,173 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.entity.Building;
+import com.tpanh.backend.entity.Invoice;
+import com.tpanh.backend.entity.Room;
+import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.enums.WaterCalcMethod;
+import com.tpanh.backend.repository.InvoiceRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceRebillingServiceTest {
+    private static final int ROOM_ID = 10;
+    private static final int ROOM_PRICE = 3000000;
+    private static final int ELEC_UNIT_PRICE = 3000;
+    private static final int WATER_UNIT_PRICE = 20000;
+    private static final String MONTH = "2025-02";
+    private static final String NEXT_MONTH = "2025-03";
+
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private BillingSnapshotLoader billingSnapshotLoader;
+    @Mock private CacheManager cacheManager;
+    @Mock private Cache invoiceCache;
+    @Spy private InvoiceCalculator invoiceCalculator = new InvoiceCalculator(new TariffEngine());
+
+    @InjectMocks private InvoiceRebillingService invoiceRebillingService;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        final Building building = new Building();
+        building.setId(1);
+        building.setElecUnitPrice(ELEC_UNIT_PRICE);
+        building.setWaterUnitPrice(WATER_UNIT_PRICE);
+        building.setWaterCalcMethod(WaterCalcMethod.BY_METER);
+
+        room = new Room();
+        room.setId(ROOM_ID);
+        room.setPrice(ROOM_PRICE);
+        room.setBuilding(building);
+    }
+
+    @Test
+    void rebillDraftInvoices_ShouldRecomputeCurrentAndNextPeriodAndEvictOnlyThoseKeys() {
+        // Given: chỉ số tháng 01 = 100/10, tháng 02 sửa thành 180/15, tháng 03 = 200/20
+        final Invoice current = draft(1, MONTH);
+        final Invoice next = draft(2, NEXT_MONTH);
+        when(invoiceRepository.findByRoomIdAndPeriodInAndStatus(
+                        ROOM_ID, List.of(MONTH, NEXT_MONTH), InvoiceStatus.DRAFT))
+                .thenReturn(List.of(current, next));
+        givenRoomSnapshot(MONTH, reading(180, 15), reading(100, 10));
+        givenRoomSnapshot(NEXT_MONTH, reading(200, 20), reading(180, 15));
+        when(cacheManager.getCache("invoices")).thenReturn(invoiceCache);
+
+        // When
+        final List<Integer> ids = invoiceRebillingService.rebillDraftInvoices(room, MONTH);
+
+        // Then
+        assertEquals(List.of(1, 2), ids);
+        assertEquals(80 * ELEC_UNIT_PRICE, current.getElecAmount());
+        assertEquals(5 * WATER_UNIT_PRICE, current.getWaterAmount());
+        assertEquals(
+                ROOM_PRICE + 80 * ELEC_UNIT_PRICE + 5 * WATER_UNIT_PRICE, current.getTotalAmount());
+        assertEquals(180, current.getElecCurrentIndex());
+        assertEquals(80, current.getElecUsage());
+        assertEquals(20 * ELEC_UNIT_PRICE, next.getElecAmount());
+        assertEquals(180, next.getElecPreviousIndex());
+        assertEquals(5 * WATER_UNIT_PRICE, next.getWaterAmount());
+        verify(invoiceRepository).saveAll(List.of(current, next));
+        verify(invoiceCache).evict(1);
+        verify(invoiceCache).evict(2);
+    }
+
+    @Test
+    void rebillDraftInvoices_WithoutDraftInvoices_ShouldNotTouchCache() {
+        // Given
+        when(invoiceRepository.findByRoomIdAndPeriodInAndStatus(
+                        ROOM_ID, List.of(MONTH, NEXT_MONTH), InvoiceStatus.DRAFT))
+                .thenReturn(List.of());
+
+        // When
+        final List<Integer> ids = invoiceRebillingService.rebillDraftInvoices(room, MONTH);
+
+        // Then
+        assertTrue(ids.isEmpty());
+        verify(invoiceRepository, never()).saveAll(any());
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void rebillDraftInvoices_WhenCalculationFails_ShouldKeepOldAmounts() {
+        // Given: phòng đã có lịch sử chỉ số nhưng kỳ sau không tìm thấy chỉ số tháng này
+        final Invoice next = draft(2, NEXT_MONTH);
+        next.setElecAmount(12345);
+        when(invoiceRepository.findByRoomIdAndPeriodInAndStatus(
+                        ROOM_ID, List.of(MONTH, NEXT_MONTH), InvoiceStatus.DRAFT))
+                .thenReturn(List.of(next));
+        when(billingSnapshotLoader.loadForRoom(room, NEXT_MONTH))
+                .thenReturn(snapshot(NEXT_MONTH, Map.of(ROOM_ID, reading(200, 20)), Map.of()));
+
+        // When
+        final List<Integer> ids = invoiceRebillingService.rebillDraftInvoices(room, MONTH);
+
+        // Then
+        assertTrue(ids.isEmpty());
+        assertEquals(12345, next.getElecAmount());
+        verify(invoiceRepository, never()).saveAll(any());
+    }
+
+    private void givenRoomSnapshot(
+            final String period, final UtilityReading current, final UtilityReading previous) {
+        when(billingSnapshotLoader.loadForRoom(room, period))
+                .thenReturn(
+                        snapshot(
+                                period, Map.of(ROOM_ID, current), Map.of(ROOM_ID, previous)));
+    }
+
+    private BillingSnapshot snapshot(
+            final String period,
+            final Map<Integer, UtilityReading> currentReadings,
+            final Map<Integer, UtilityReading> previousReadings) {
+        return new BillingSnapshot(
+                room.getBuilding(),
+                period,
+                List.of(room),
+                Set.of(),
+                Map.of(),
+                Map.of(ROOM_ID, 1),
+                currentReadings,
+                previousReadings,
+                Set.of(ROOM_ID),
+                Map.of(),
+                Map.of());
+    }
+
+    private Invoice draft(final int id, final String period) {
+        final Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setRoom(room);
+        invoice.setPeriod(period);
+        invoice.setRoomPrice(ROOM_PRICE);
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        return invoice;
+    }
+
+    private static UtilityReading reading(final int electricIndex, final int waterIndex) {
+        final UtilityReading reading = new UtilityReading();
+        reading.setElectricIndex(electricIndex);
+        reading.setWaterIndex(waterIndex);
+        return reading;
+    }
+}
@@ -0,0 +1,143 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tpanh.backend.config.BillingProperties;
+import com.tpanh.backend.enums.InvoiceStatus;
+import com.tpanh.backend.repository.InvoiceReminderRepository;
+import com.tpanh.backend.repository.InvoiceRepository;
+import com.tpanh.backend.repository.ReminderCandidateView;
+import com.tpanh.backend.util.JobShard;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceReminderServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 7);
+    private static final LocalDate DUE_DATE = LocalDate.of(2025, 1, 10);
+    private static final JobShard SHARD = new JobShard(1, 4);
+    private static final int AMOUNT = 3_500_000;
+
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private InvoiceReminderRepository invoiceReminderRepository;
+    @Mock private EmailService emailService;
+
+    private final BillingProperties billingProperties = new BillingProperties();
+
+    private InvoiceReminderService invoiceReminderService;
+
+    @BeforeEach
+    void setUp() {
+        invoiceReminderService =
+                new InvoiceReminderService(
+                        invoiceRepository,
+                        invoiceReminderRepository,
+                        emailService,
+                        billingProperties,
+                        new SyncTaskExecutor());
+    }
+
+    @Test
+    void sendDueReminders_ShouldSendOneEmailPerTenantAndRecordSent() {
+        // Given: khách thuê 5 có 2 hóa đơn, khách thuê 9 có 1 hóa đơn
+        final var first = candidate(1, 5);
+        final var second = candidate(2, 5);
+        final var third = candidate(3, 9);
+        givenCandidates(List.of(first, second, third));
+
+        // When
+        final int sent = invoiceReminderService.sendDueReminders(TODAY, SHARD);
+
+        // Then
+        assertEquals(2, sent);
+        verify(emailService)
+                .sendDueReminderEmail("tenant5@example.com", "Tenant 5", List.of(first, second));
+        verify(emailService)
+                .sendDueReminderEmail("tenant9@example.com", "Tenant 9", List.of(third));
+        verify(invoiceReminderRepository).record(List.of(1, 2, 3), "SENT");
+        verify(invoiceReminderRepository, never()).record(anyList(), eq("FAILED"));
+    }
+
+    @Test
+    void sendDueReminders_WhenEmailFails_ShouldRecordFailedAndContinue() {
+        // Given
+        givenCandidates(List.of(candidate(1, 5), candidate(2, 9)));
+        lenient()
+                .doThrow(new RuntimeException("SMTP down"))
+                .when(emailService)
+                .sendDueReminderEmail(eq("tenant5@example.com"), anyString(), anyList());
+
+        // When
+        final int sent = invoiceReminderService.sendDueReminders(TODAY, SHARD);
+
+        // Then
+        assertEquals(1, sent);
+        verify(invoiceReminderRepository).record(List.of(2), "SENT");
+        verify(invoiceReminderRepository).record(List.of(1), "FAILED");
+    }
+
+    @Test
+    void sendDueReminders_ShouldRecordResultsAfterEachBatch() {
+        // Given: đợt 2 khách thuê, 3 khách thuê thành 2 đợt
+        billingProperties.setReminderBatchSize(2);
+        givenCandidates(List.of(candidate(1, 5), candidate(2, 6), candidate(3, 7)));
+
+        // When
+        final int sent = invoiceReminderService.sendDueReminders(TODAY, SHARD);
+
+        // Then
+        assertEquals(3, sent);
+        verify(invoiceReminderRepository).record(List.of(1, 2), "SENT");
+        verify(invoiceReminderRepository).record(List.of(3), "SENT");
+    }
+
+    @Test
+    void sendDueReminders_WithNothingDue_ShouldNotSendOrRecord() {
+        // Given
+        givenCandidates(List.of());
+
+        // When
+        final int sent = invoiceReminderService.sendDueReminders(TODAY, SHARD);
+
+        // Then
+        assertEquals(0, sent);
+        verify(emailService, never()).sendDueReminderEmail(anyString(), anyString(), anyList());
+        verify(invoiceReminderRepository, never()).record(anyList(), any());
+    }
+
+    private void givenCandidates(final List<ReminderCandidateView> candidates) {
+        when(invoiceRepository.findReminderCandidates(
+                        List.of(InvoiceStatus.DRAFT, InvoiceStatus.UNPAID),
+                        TODAY,
+                        TODAY.plusDays(billingProperties.getReminderDaysBefore()),
+                        SHARD.count(),
+                        SHARD.index()))
+                .thenReturn(candidates);
+    }
+
+    private static ReminderCandidateView candidate(final int invoiceId, final int tenantId) {
+        return new ReminderCandidateView(
+                invoiceId,
+                tenantId,
+                "Tenant " + tenantId,
+                "tenant" + tenantId + "@example.com",
+                "P." + tenantId,
+                "2024-12",
+                AMOUNT,
+                DUE_DATE);
+    }
+}
@@ -1,22 +1,26 @@
 package com.tpanh.backend.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.tpanh.backend.dto.InvoiceDetailResponse;
+import com.tpanh.backend.dto.InvoiceEmailItem;
 import com.tpanh.backend.dto.InvoiceResponse;
 import com.tpanh.backend.entity.Building;
 import com.tpanh.backend.entity.Invoice;
@@ -25,6 +29,7 @@ import com.tpanh.backend.entity.PaymentLog;
 import com.tpanh.backend.entity.Room;
 import com.tpanh.backend.entity.Tenant;
 import com.tpanh.backend.entity.UtilityReading;
+import com.tpanh.backend.enums.InvoiceEmailStatus;
 import com.tpanh.backend.enums.InvoiceStatus;
 import com.tpanh.backend.enums.MeterType;
 import com.tpanh.backend.enums.RoomStatus;
@@ -32,30 +37,38 @@ import com.tpanh.backend.enums.WaterCalcMethod;
 import com.tpanh.backend.exception.AppException;
 import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.InvoiceMapper;
-import com.tpanh.backend.repository.BuildingRepository;
+import com.tpanh.backend.repository.InvoiceDetailView;
+import com.tpanh.backend.repository.InvoiceEmailView;
+import com.tpanh.backend.repository.InvoicePaymentView;
 import com.tpanh.backend.repository.InvoiceRepository;
-import com.tpanh.backend.repository.MeterRecordRepository;
+import com.tpanh.backend.repository.InvoiceSummaryView;
 import com.tpanh.backend.repository.PaymentLogRepository;
-import com.tpanh.backend.repository.RoomRepository;
-import com.tpanh.backend.repository.TenantRepository;
-import com.tpanh.backend.repository.UtilityReadingRepository;
 import com.tpanh.backend.security.CurrentUser;
+import com.tpanh.backend.util.JobShard;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 @ExtendWith(MockitoExtension.class)
 class InvoiceServiceTest {
@@ -69,18 +82,23 @@ class InvoiceServiceTest {
     private static final int WATER_UNIT_PRICE = 20000;
     private static final String ROOM_NO_1 = "P.101";
     private static final String ROOM_NO_2 = "P.102";
+    private static final JobShard SHARD = new JobShard(1, 4);
     private static final String TENANT_NAME = "Nguyễn Văn A";
 
     @Mock private InvoiceMapper invoiceMapper;
     @Mock private InvoiceRepository invoiceRepository;
-    @Mock private RoomRepository roomRepository;
-    @Mock private TenantRepository tenantRepository;
-    @Mock private MeterRecordRepository meterRecordRepository;
-    @Mock private UtilityReadingRepository utilityReadingRepository;
     @Mock private EmailService emailService;
-    @Mock private BuildingRepository buildingRepository;
+    @Mock private EmailOutboxService emailOutboxService;
+    @Mock private BillingSnapshotLoader billingSnapshotLoader;
     @Mock private PaymentLogRepository paymentLogRepository;
     @Mock private CurrentUser currentUser;
+    @Mock private InvoiceDetailCache invoiceDetailCache;
+    @Mock private ListingCountCache listingCountCache;
+    @Spy private TariffEngine tariffEngine = new TariffEngine();
+    @Spy private InvoiceCalculator invoiceCalculator = new InvoiceCalculator(tariffEngine);
+
+    @Captor private ArgumentCaptor<List<Invoice>> invoicesCaptor;
+    @Captor private ArgumentCaptor<List<PaymentLog>> paymentLogsCaptor;
 
     @InjectMocks private InvoiceService invoiceService;
 
@@ -91,6 +109,15 @@ class InvoiceServiceTest {
     private MeterRecord elecRecord;
     private MeterRecord waterRecord;
 
+    private final Set<Integer> invoicedRoomIds = new HashSet<>();
+    private final Map<Integer, Tenant> contractHolders = new HashMap<>();
+    private final Map<Integer, Integer> tenantCounts = new HashMap<>();
+    private final Map<Integer, UtilityReading> currentReadings = new HashMap<>();
+    private final Map<Integer, UtilityReading> previousReadings = new HashMap<>();
+    private final Set<Integer> roomsWithReadingHistory = new HashSet<>();
+    private final Map<Integer, MeterRecord> elecRecords = new HashMap<>();
+    private final Map<Integer, MeterRecord> waterRecords = new HashMap<>();
+
     @BeforeEach
     void setUp() {
         building = new Building();
@@ -160,46 +187,40 @@ class InvoiceServiceTest {
                             return response;
                         });
 
-        // Mock UtilityReadingRepository to return empty (fallback to MeterRecord for existing
-        // tests)
         lenient()
-                .when(utilityReadingRepository.findByRoomIdAndMonth(anyInt(), any(String.class)))
-                .thenReturn(Optional.empty());
-        lenient()
-                .when(
-                        utilityReadingRepository.existsByRoomIdAndMonthLessThan(
-                                anyInt(), anyString()))
-                .thenReturn(false);
+                .when(invoiceRepository.insertIfAbsent(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private void givenContractHolder(final Tenant tenant) {
+        contractHolders.put(tenant.getRoom().getId(), tenant);
+    }
 
-        lenient().when(buildingRepository.findById(BUILDING_ID)).thenReturn(Optional.of(building));
+    private void givenSnapshot(final String period, final Room... rooms) {
+        when(billingSnapshotLoader.load(BUILDING_ID, period))
+                .thenReturn(
+                        new BillingSnapshot(
+                                building,
+                                period,
+                                List.of(rooms),
+                                invoicedRoomIds,
+                                contractHolders,
+                                tenantCounts,
+                                currentReadings,
+                                previousReadings,
+                                roomsWithReadingHistory,
+                                elecRecords,
+                                waterRecords));
     }
 
     @Test
     void createInvoice_WithValidData_ShouldCreateInvoice() {
         // Given
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000); // (150-100) * 3000
-        savedInvoice.setWaterAmount(200000); // (60-50) * 20000
-        savedInvoice.setTotalAmount(3350000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-        savedInvoice.setDueDate(LocalDate.now().plusDays(5));
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -213,23 +234,100 @@ class InvoiceServiceTest {
         assertEquals(TENANT_NAME, response.getTenantName());
         assertEquals(PERIOD, response.getPeriod());
         assertEquals(ROOM_PRICE, response.getRoomPrice());
-        assertEquals(150000, response.getElecAmount());
-        assertEquals(200000, response.getWaterAmount());
+        assertEquals(150000, response.getElecAmount()); // (150-100) * 3000
+        assertEquals(200000, response.getWaterAmount()); // (60-50) * 20000
         assertEquals(3350000, response.getTotalAmount());
         assertEquals(InvoiceStatus.DRAFT, response.getStatus());
         assertNotNull(response.getDueDate());
 
-        verify(roomRepository).findByBuildingId(BUILDING_ID);
-        verify(invoiceRepository).existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD);
-        verify(tenantRepository).findByRoomIdAndIsContractHolderTrue(ROOM_ID_1);
-        verify(invoiceRepository).save(any(Invoice.class));
+        verify(billingSnapshotLoader).load(BUILDING_ID, PERIOD);
+        verify(invoiceRepository).insertIfAbsent(anyList());
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+    }
+
+    @Test
+    void createInvoice_ShouldSnapshotIndicesAndPricesOnInvoice() {
+        // Given
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        givenSnapshot(PERIOD, room1);
+
+        // When
+        invoiceService.createInvoicesForBuilding(BUILDING_ID, PERIOD);
+
+        // Then
+        verify(invoiceRepository).insertIfAbsent(invoicesCaptor.capture());
+        final Invoice invoice = invoicesCaptor.getValue().get(0);
+        assertEquals(100, invoice.getElecPreviousIndex());
+        assertEquals(150, invoice.getElecCurrentIndex());
+        assertEquals(50, invoice.getElecUsage());
+        assertEquals(ELEC_UNIT_PRICE, invoice.getElecUnitPrice());
+        assertNull(invoice.getElecTierPrices());
+        assertEquals(50, invoice.getWaterPreviousIndex());
+        assertEquals(60, invoice.getWaterCurrentIndex());
+        assertEquals(10, invoice.getWaterUsage());
+        assertEquals(WATER_UNIT_PRICE, invoice.getWaterUnitPrice());
+        assertEquals(WaterCalcMethod.BY_METER, invoice.getWaterCalcMethod());
+    }
+
+    @Test
+    void createInvoice_WithTieredElecTariff_ShouldChargeEachTierAtItsPrice() {
+        // Given: 20 kWh đầu giá 1000, phần còn lại giá 3000; dùng 50 kWh
+        building.setElecTierThresholds(new int[] {20});
+        building.setElecTierPrices(new int[] {1000, 3000});
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        givenSnapshot(PERIOD, room1);
+
+        // When
+        final List<InvoiceResponse> result =
+                invoiceService.createInvoicesForBuilding(BUILDING_ID, PERIOD);
+
+        // Then
+        assertEquals(110000, result.get(0).getElecAmount()); // 20*1000 + 30*3000
+        verify(invoiceRepository).insertIfAbsent(invoicesCaptor.capture());
+        final Invoice invoice = invoicesCaptor.getValue().get(0);
+        assertArrayEquals(new int[] {20}, invoice.getElecTierThresholds());
+        assertArrayEquals(new int[] {1000, 3000}, invoice.getElecTierPrices());
+    }
+
+    @Test
+    void createInvoice_WhenInvoiceInsertedConcurrently_ShouldReturnOnlyInsertedInvoices() {
+        // Given - request khác đã chèn hóa đơn cho room1 sau khi snapshot được nạp
+        final Tenant tenant2 = new Tenant();
+        tenant2.setId(2);
+        tenant2.setRoom(room2);
+        tenant2.setName("Nguyễn Văn B");
+        tenant2.setIsContractHolder(true);
+
+        givenContractHolder(tenant1);
+        givenContractHolder(tenant2);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        givenSnapshot(PERIOD, room1, room2);
+        when(invoiceRepository.insertIfAbsent(anyList()))
+                .thenAnswer(
+                        invocation ->
+                                invocation.<List<Invoice>>getArgument(0).stream()
+                                        .filter(invoice -> invoice.getRoom() != room1)
+                                        .toList());
+
+        // When
+        final List<InvoiceResponse> result =
+                invoiceService.createInvoicesForBuilding(BUILDING_ID, PERIOD);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(ROOM_NO_2, result.get(0).getRoomNo());
     }
 
     @Test
     void createInvoice_WithExistingInvoice_ShouldSkipRoom() {
         // Given
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(true);
+        givenContractHolder(tenant1);
+        invoicedRoomIds.add(ROOM_ID_1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -238,18 +336,13 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(invoiceRepository).existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD);
-        verify(tenantRepository, never()).findByRoomIdAndIsContractHolderTrue(anyInt());
-        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceRepository).insertIfAbsent(List.of());
     }
 
     @Test
     void createInvoice_WithNoTenant_ShouldSkipRoom() {
         // Given
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.empty());
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -258,35 +351,16 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(tenantRepository).findByRoomIdAndIsContractHolderTrue(ROOM_ID_1);
-        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceRepository).insertIfAbsent(List.of());
     }
 
     @Test
     void createInvoice_WithNoElectricityRecord_ShouldSetElecAmountToZero() {
         // Given
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.empty());
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(0);
-        savedInvoice.setWaterAmount(200000);
-        savedInvoice.setTotalAmount(3200000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -304,28 +378,11 @@ class InvoiceServiceTest {
     void createInvoice_WithPerCapitaWaterMethod_ShouldCalculateCorrectly() {
         // Given
         building.setWaterCalcMethod(WaterCalcMethod.PER_CAPITA);
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(2); // 2 tenants
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(40000); // 2 * 20000
-        savedInvoice.setTotalAmount(3340000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 2); // 2 tenants
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -335,35 +392,18 @@ class InvoiceServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(40000, result.get(0).getWaterAmount()); // PER_CAPITA: 2 tenants * 20000
-        assertEquals(3340000, result.get(0).getTotalAmount());
+        assertEquals(3190000, result.get(0).getTotalAmount());
     }
 
     @Test
     void createInvoice_WithNoWaterCalcMethod_ShouldSetWaterAmountToZero() {
         // Given
         building.setWaterCalcMethod(null);
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(0);
-        savedInvoice.setTotalAmount(3150000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -385,47 +425,13 @@ class InvoiceServiceTest {
         tenant2.setName("Nguyễn Văn B");
         tenant2.setIsContractHolder(true);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1, room2));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_2, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_2))
-                .thenReturn(Optional.of(tenant2));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_2, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.empty());
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_2, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.empty());
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-        when(tenantRepository.countByRoomId(ROOM_ID_2)).thenReturn(1);
-
-        final Invoice invoice1 = new Invoice();
-        invoice1.setId(1);
-        invoice1.setRoom(room1);
-        invoice1.setTenant(tenant1);
-        invoice1.setPeriod(PERIOD);
-        invoice1.setRoomPrice(ROOM_PRICE);
-        invoice1.setElecAmount(150000);
-        invoice1.setWaterAmount(200000);
-        invoice1.setTotalAmount(3350000);
-        invoice1.setStatus(InvoiceStatus.DRAFT);
-
-        final Invoice invoice2 = new Invoice();
-        invoice2.setId(2);
-        invoice2.setRoom(room2);
-        invoice2.setTenant(tenant2);
-        invoice2.setPeriod(PERIOD);
-        invoice2.setRoomPrice(ROOM_PRICE);
-        invoice2.setElecAmount(0);
-        invoice2.setWaterAmount(0);
-        invoice2.setTotalAmount(ROOM_PRICE);
-        invoice2.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice1).thenReturn(invoice2);
+        givenContractHolder(tenant1);
+        givenContractHolder(tenant2);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        tenantCounts.put(ROOM_ID_2, 1);
+        givenSnapshot(PERIOD, room1, room2);
 
         // When
         final List<InvoiceResponse> result =
@@ -434,13 +440,16 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(invoiceRepository, org.mockito.Mockito.times(2)).save(any(Invoice.class));
+        assertEquals(3350000, result.get(0).getTotalAmount());
+        assertEquals(ROOM_PRICE, result.get(1).getTotalAmount());
+        verify(invoiceRepository).insertIfAbsent(anyList());
+        verify(billingSnapshotLoader).load(BUILDING_ID, PERIOD);
     }
 
     @Test
     void createInvoice_WithNoRooms_ShouldReturnEmptyList() {
         // Given
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Collections.emptyList());
+        givenSnapshot(PERIOD);
 
         // When
         final List<InvoiceResponse> result =
@@ -449,35 +458,17 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceRepository).insertIfAbsent(List.of());
     }
 
     @Test
     void createInvoice_WithNoWaterRecord_ShouldCalculateWaterByMeterAsZero() {
         // Given
         building.setWaterCalcMethod(WaterCalcMethod.BY_METER);
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.empty());
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(0); // No water record, usage = 0
-        savedInvoice.setTotalAmount(3150000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -494,20 +485,9 @@ class InvoiceServiceTest {
     @Test
     void getInvoices_WithFilters_ShouldReturnPageResponse() {
         // Given
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setRoomPrice(ROOM_PRICE);
-        invoice.setElecAmount(150000);
-        invoice.setWaterAmount(200000);
-        invoice.setTotalAmount(3350000);
-        invoice.setStatus(InvoiceStatus.UNPAID);
-        invoice.setDueDate(LocalDate.now().plusDays(5));
-
         final Pageable pageable = PageRequest.of(0, 10);
-        final Page<Invoice> page = new PageImpl<>(Arrays.asList(invoice), pageable, 1);
+        final Page<InvoiceSummaryView> page =
+                new PageImpl<>(List.of(summary(1, InvoiceStatus.UNPAID)), pageable, 1);
 
         when(invoiceRepository.findByBuildingIdWithFilters(
                         BUILDING_ID, PERIOD, InvoiceStatus.UNPAID, pageable))
@@ -515,7 +495,8 @@ class InvoiceServiceTest {
 
         // When
         final var result =
-                invoiceService.getInvoices(BUILDING_ID, PERIOD, InvoiceStatus.UNPAID, pageable);
+                invoiceService.getInvoices(
+                        BUILDING_ID, PERIOD, InvoiceStatus.UNPAID, true, pageable);
 
         // Then
         assertNotNull(result);
@@ -532,189 +513,150 @@ class InvoiceServiceTest {
     @Test
     void getInvoices_WithNullFilters_ShouldReturnAllInvoices() {
         // Given
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setStatus(InvoiceStatus.DRAFT);
-
         final Pageable pageable = PageRequest.of(0, 10);
-        final Page<Invoice> page = new PageImpl<>(Arrays.asList(invoice), pageable, 1);
+        final Page<InvoiceSummaryView> page =
+                new PageImpl<>(List.of(summary(1, InvoiceStatus.DRAFT)), pageable, 1);
 
         when(invoiceRepository.findByBuildingIdWithFilters(BUILDING_ID, null, null, pageable))
                 .thenReturn(page);
 
         // When
-        final var result = invoiceService.getInvoices(BUILDING_ID, null, null, pageable);
+        final var result = invoiceService.getInvoices(BUILDING_ID, null, null, true, pageable);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
     }
 
-    // ===== Tests for getInvoiceDetail =====
-
     @Test
-    void getInvoiceDetail_WithValidId_ShouldReturnDetailResponse() {
-        // Given
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setRoomPrice(ROOM_PRICE);
-        invoice.setElecAmount(150000);
-        invoice.setWaterAmount(200000);
-        invoice.setTotalAmount(3350000);
-        invoice.setStatus(InvoiceStatus.DRAFT);
-
-        final InvoiceDetailResponse detailResponse = new InvoiceDetailResponse();
-        detailResponse.setId(1);
-        detailResponse.setRoomNo(ROOM_NO_1);
-        detailResponse.setPeriod(PERIOD);
-
-        when(invoiceRepository.findById(1)).thenReturn(Optional.of(invoice));
-        when(invoiceMapper.toDetailResponse(invoice)).thenReturn(detailResponse);
+    void getInvoices_WithMorePages_ShouldTakeTotalFromCountCache() {
+        // Given: Slice không có tổng số, còn trang sau
+        final Pageable pageable = PageRequest.of(0, 1);
+        when(invoiceRepository.findByBuildingIdWithFilters(BUILDING_ID, PERIOD, null, pageable))
+                .thenReturn(
+                        new SliceImpl<>(List.of(summary(1, InvoiceStatus.UNPAID)), pageable, true));
+        when(listingCountCache.countInvoices(BUILDING_ID, PERIOD, null)).thenReturn(5L);
 
         // When
-        final var result = invoiceService.getInvoiceDetail(1);
+        final var result = invoiceService.getInvoices(BUILDING_ID, PERIOD, null, true, pageable);
 
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.getId());
-        assertEquals(ROOM_NO_1, result.getRoomNo());
-        verify(invoiceRepository).findById(1);
+        assertEquals(5L, result.getPage().getTotalElements());
+        assertEquals(5, result.getPage().getTotalPages());
+        assertTrue(result.getPage().isHasNext());
     }
 
     @Test
-    void getInvoiceDetail_WithInvalidId_ShouldThrowException() {
+    void getInvoices_WithoutTotal_ShouldNotCount() {
         // Given
-        when(invoiceRepository.findById(999)).thenReturn(Optional.empty());
+        final Pageable pageable = PageRequest.of(0, 1);
+        when(invoiceRepository.findByBuildingIdWithFilters(BUILDING_ID, PERIOD, null, pageable))
+                .thenReturn(
+                        new SliceImpl<>(List.of(summary(1, InvoiceStatus.UNPAID)), pageable, true));
 
-        // When & Then
-        final var exception =
-                assertThrows(AppException.class, () -> invoiceService.getInvoiceDetail(999));
-        assertEquals(ErrorCode.INVOICE_NOT_FOUND, exception.getErrorCode());
+        // When
+        final var result = invoiceService.getInvoices(BUILDING_ID, PERIOD, null, false, pageable);
+
+        // Then
+        assertNull(result.getPage().getTotalElements());
+        assertNull(result.getPage().getTotalPages());
+        assertTrue(result.getPage().isHasNext());
+        verify(listingCountCache, never()).countInvoices(any(), any(), any());
     }
 
+    // ===== Tests for getInvoiceDetail =====
+
     @Test
-    void getInvoiceDetail_WithUtilityReading_ShouldReturnMeterDetails() {
+    void getInvoiceDetail_WithValidId_ShouldReturnDetailResponse() {
         // Given
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setStatus(InvoiceStatus.DRAFT);
-
+        final InvoiceDetailView view = detailView(1);
         final InvoiceDetailResponse detailResponse = new InvoiceDetailResponse();
         detailResponse.setId(1);
         detailResponse.setRoomNo(ROOM_NO_1);
-
-        final UtilityReading currentReading = new UtilityReading();
-        currentReading.setRoom(room1);
-        currentReading.setMonth(PERIOD);
-        currentReading.setElectricIndex(150);
-        currentReading.setWaterIndex(60);
-
-        final UtilityReading previousReading = new UtilityReading();
-        previousReading.setRoom(room1);
-        previousReading.setMonth("2024-12");
-        previousReading.setElectricIndex(100);
-        previousReading.setWaterIndex(50);
-
-        when(invoiceRepository.findById(1)).thenReturn(Optional.of(invoice));
-        when(invoiceMapper.toDetailResponse(invoice)).thenReturn(detailResponse);
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
+        when(invoiceRepository.findDetailById(1)).thenReturn(Optional.of(view));
+        when(invoiceMapper.toDetailResponse(view)).thenReturn(detailResponse);
 
         // When
         final var result = invoiceService.getInvoiceDetail(1);
 
         // Then
-        assertNotNull(result);
-        assertEquals(100, result.getElecPreviousValue());
-        assertEquals(150, result.getElecCurrentValue());
-        assertEquals(50, result.getElecUsage());
-        assertEquals(50, result.getWaterPreviousValue());
-        assertEquals(60, result.getWaterCurrentValue());
-        assertEquals(10, result.getWaterUsage());
+        assertSame(detailResponse, result);
+        verify(invoiceRepository).findDetailById(1);
+        verify(invoiceMapper).toDetailResponse(view);
     }
 
     @Test
-    void
-            getInvoiceDetail_WithUtilityReadingMissingPreviousButHasHistory_ShouldReturnNullPreviousValues() {
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setStatus(InvoiceStatus.DRAFT);
+    void getInvoiceDetail_WithInvalidId_ShouldThrowException() {
+        // Given
+        when(invoiceRepository.findDetailById(999)).thenReturn(Optional.empty());
 
-        final InvoiceDetailResponse detailResponse = new InvoiceDetailResponse();
-        detailResponse.setId(1);
-        detailResponse.setRoomNo(ROOM_NO_1);
+        // When & Then
+        final var exception =
+                assertThrows(AppException.class, () -> invoiceService.getInvoiceDetail(999));
+        assertEquals(ErrorCode.INVOICE_NOT_FOUND, exception.getErrorCode());
+    }
 
-        final UtilityReading currentReading = new UtilityReading();
-        currentReading.setRoom(room1);
-        currentReading.setMonth(PERIOD);
-        currentReading.setElectricIndex(150);
-        currentReading.setWaterIndex(60);
+    @Test
+    void getInvoiceDetails_ShouldServeCacheHitsAndLoadOnlyMisses() {
+        // Given: hóa đơn 1 đã có trong cache, hóa đơn 2 chưa
+        final InvoiceDetailResponse cached = new InvoiceDetailResponse();
+        cached.setId(1);
+        final InvoiceDetailResponse loaded = new InvoiceDetailResponse();
+        loaded.setId(2);
+        final InvoiceDetailView view = detailView(2);
+        when(invoiceDetailCache.getAll(List.of(2, 1))).thenReturn(Map.of(1, cached));
+        when(invoiceRepository.findDetailsByIds(List.of(2))).thenReturn(List.of(view));
+        when(invoiceMapper.toDetailResponse(view)).thenReturn(loaded);
 
-        when(invoiceRepository.findById(1)).thenReturn(Optional.of(invoice));
-        when(invoiceMapper.toDetailResponse(invoice)).thenReturn(detailResponse);
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.empty());
-        when(utilityReadingRepository.existsByRoomIdAndMonthLessThan(ROOM_ID_1, PERIOD))
-                .thenReturn(true);
+        // When
+        final List<InvoiceDetailResponse> result =
+                invoiceService.getInvoiceDetails(List.of(2, 1, 2));
 
-        final var result = invoiceService.getInvoiceDetail(1);
-        assertNotNull(result);
-        assertNull(result.getElecPreviousValue());
-        assertNull(result.getElecUsage());
-        assertNull(result.getWaterPreviousValue());
-        assertNull(result.getWaterUsage());
+        // Then: đúng thứ tự yêu cầu, bỏ id trùng
+        assertEquals(List.of(loaded, cached), result);
+        verify(invoiceDetailCache).putAll(List.of(loaded));
     }
 
     @Test
-    void getInvoiceDetail_WithMeterRecord_ShouldReturnMeterDetails() {
+    void getInvoiceDetails_WithUnknownId_ShouldThrowException() {
         // Given
-        final Invoice invoice = new Invoice();
-        invoice.setId(1);
-        invoice.setRoom(room1);
-        invoice.setTenant(tenant1);
-        invoice.setPeriod(PERIOD);
-        invoice.setStatus(InvoiceStatus.DRAFT);
-
-        final InvoiceDetailResponse detailResponse = new InvoiceDetailResponse();
-        detailResponse.setId(1);
-        detailResponse.setRoomNo(ROOM_NO_1);
+        when(invoiceDetailCache.getAll(List.of(1, 999))).thenReturn(Map.of());
+        when(invoiceRepository.findDetailsByIds(List.of(1, 999)))
+                .thenReturn(List.of(detailView(1)));
 
-        when(invoiceRepository.findById(1)).thenReturn(Optional.of(invoice));
-        when(invoiceMapper.toDetailResponse(invoice)).thenReturn(detailResponse);
-        when(utilityReadingRepository.findByRoomIdAndMonth(anyInt(), anyString()))
-                .thenReturn(Optional.empty());
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-
-        // When
-        final var result = invoiceService.getInvoiceDetail(1);
+        // When & Then
+        final var exception =
+                assertThrows(
+                        AppException.class,
+                        () -> invoiceService.getInvoiceDetails(List.of(1, 999)));
+        assertEquals(ErrorCode.INVOICE_NOT_FOUND, exception.getErrorCode());
+        verify(invoiceDetailCache, never()).putAll(any());
+    }
 
-        // Then
-        assertNotNull(result);
-        assertEquals(100, result.getElecPreviousValue());
-        assertEquals(150, result.getElecCurrentValue());
-        assertEquals(50, result.getElecUsage());
-        assertEquals(50, result.getWaterPreviousValue());
-        assertEquals(60, result.getWaterCurrentValue());
-        assertEquals(10, result.getWaterUsage());
+    private InvoiceDetailView detailView(final int id) {
+        return new InvoiceDetailView(
+                id,
+                PERIOD,
+                ROOM_PRICE,
+                150000,
+                200000,
+                3350000,
+                InvoiceStatus.DRAFT,
+                null,
+                null,
+                null,
+                ROOM_ID_1,
+                ROOM_NO_1,
+                BUILDING_ID,
+                "Trọ Xanh",
+                TENANT_ID,
+                TENANT_NAME,
+                null,
+                new InvoiceDetailView.Usage(100, 150, 50, ELEC_UNIT_PRICE),
+                new InvoiceDetailView.Usage(50, 60, 10, WATER_UNIT_PRICE),
+                null,
+                null,
+                WaterCalcMethod.BY_METER);
     }
 
     // ===== Tests for payInvoice =====
@@ -817,55 +759,116 @@ class InvoiceServiceTest {
     }
 
     @Test
-    void markOverdueInvoices_ShouldMarkInvoicesAsOverdueAndLog() {
-        // Given
-        final Invoice invoice1 = new Invoice();
-        invoice1.setId(1);
-        invoice1.setStatus(InvoiceStatus.UNPAID);
-        invoice1.setTotalAmount(100000);
-        invoice1.setDueDate(LocalDate.now().minusDays(1));
-
-        final Invoice invoice2 = new Invoice();
-        invoice2.setId(2);
-        invoice2.setStatus(InvoiceStatus.DRAFT);
-        invoice2.setTotalAmount(200000);
-        invoice2.setDueDate(LocalDate.now().minusDays(1));
-
-        when(invoiceRepository.findOverdueInvoices(any(LocalDate.class)))
-                .thenReturn(Arrays.asList(invoice1, invoice2));
-        when(invoiceRepository.save(any(Invoice.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+    void payInvoices_ShouldUpdateOnceAndBatchLogsInRequestOrder() {
+        // Given: id 2 bị truyền trùng
+        when(invoiceRepository.lockForPayment(List.of(2, 1)))
+                .thenReturn(
+                        List.of(
+                                new InvoicePaymentView(1, InvoiceStatus.DRAFT, 3000000),
+                                new InvoicePaymentView(2, InvoiceStatus.UNPAID, 3350000)));
+        when(currentUser.getUserId()).thenReturn("manager-1");
+        final InvoiceSummaryView first = summary(1, InvoiceStatus.PAID);
+        final InvoiceSummaryView second = summary(2, InvoiceStatus.PAID);
+        when(invoiceRepository.findSummariesByIds(List.of(2, 1)))
+                .thenReturn(List.of(first, second));
+        final var firstResponse = new InvoiceResponse();
+        firstResponse.setId(1);
+        final var secondResponse = new InvoiceResponse();
+        secondResponse.setId(2);
+        when(invoiceMapper.toResponse(first)).thenReturn(firstResponse);
+        when(invoiceMapper.toResponse(second)).thenReturn(secondResponse);
 
         // When
-        final int count = invoiceService.markOverdueInvoices();
+        final var result = invoiceService.payInvoices(List.of(2, 1, 2));
 
         // Then
-        assertEquals(2, count);
-        assertEquals(InvoiceStatus.OVERDUE, invoice1.getStatus());
-        assertEquals(InvoiceStatus.OVERDUE, invoice2.getStatus());
-        verify(invoiceRepository, org.mockito.Mockito.times(2)).save(any(Invoice.class));
-        verify(paymentLogRepository, org.mockito.Mockito.times(2)).save(any(PaymentLog.class));
+        assertEquals(List.of(secondResponse, firstResponse), result);
+        verify(invoiceRepository).markPaid(eq(List.of(2, 1)), any(LocalDateTime.class));
+        verify(invoiceDetailCache).evictAllAfterCommit(List.of(2, 1));
+        verify(paymentLogRepository).saveAll(paymentLogsCaptor.capture());
+        final List<PaymentLog> logs = paymentLogsCaptor.getValue();
+        assertEquals(
+                List.of("DRAFT", "UNPAID"),
+                logs.stream().map(PaymentLog::getOldStatus).toList());
+        assertEquals(
+                List.of(3000000, 3350000),
+                logs.stream().map(PaymentLog::getAmount).toList());
+        assertTrue(logs.stream().allMatch(log -> "manager-1".equals(log.getPerformedBy())));
+    }
+
+    @Test
+    void payInvoices_WithAlreadyPaidInvoice_ShouldPayNothing() {
+        // Given
+        when(invoiceRepository.lockForPayment(List.of(1, 2)))
+                .thenReturn(
+                        List.of(
+                                new InvoicePaymentView(1, InvoiceStatus.UNPAID, 3000000),
+                                new InvoicePaymentView(2, InvoiceStatus.PAID, 3350000)));
+
+        // When & Then
+        final var exception =
+                assertThrows(AppException.class, () -> invoiceService.payInvoices(List.of(1, 2)));
+        assertEquals(ErrorCode.INVOICE_ALREADY_PAID, exception.getErrorCode());
+        verify(invoiceRepository, never()).markPaid(anyList(), any());
+        verifyNoInteractions(paymentLogRepository, invoiceDetailCache);
+    }
+
+    @Test
+    void payInvoices_WithVoidOrMissingInvoice_ShouldThrowException() {
+        // Given
+        when(invoiceRepository.lockForPayment(List.of(1)))
+                .thenReturn(List.of(new InvoicePaymentView(1, InvoiceStatus.VOID, 3000000)));
+        when(invoiceRepository.lockForPayment(List.of(1, 999)))
+                .thenReturn(List.of(new InvoicePaymentView(1, InvoiceStatus.UNPAID, 3000000)));
+
+        // When & Then
+        final var voidInvoice =
+                assertThrows(AppException.class, () -> invoiceService.payInvoices(List.of(1)));
+        assertEquals(ErrorCode.INVOICE_CANNOT_BE_PAID, voidInvoice.getErrorCode());
+        final var missingInvoice =
+                assertThrows(AppException.class, () -> invoiceService.payInvoices(List.of(1, 999)));
+        assertEquals(ErrorCode.INVOICE_NOT_FOUND, missingInvoice.getErrorCode());
+        verifyNoInteractions(paymentLogRepository);
+    }
+
+    @Test
+    void markOverdueInvoices_ShouldMarkInChunksAndEvictOnlyMarkedIds() {
+        // Given: đợt đầu đầy 1000 hóa đơn nên còn đợt tiếp theo
+        final List<Integer> firstChunk = IntStream.rangeClosed(1, 1000).boxed().toList();
+        final LocalDate today = LocalDate.of(2025, 2, 1);
+        when(invoiceRepository.markOverdue(today, SHARD, 1000))
+                .thenReturn(firstChunk, List.of(1001, 1002));
+
+        // When
+        final int count = invoiceService.markOverdueInvoices(today, SHARD);
+
+        // Then: dùng đúng ngày được truyền vào, không tự lấy theo múi giờ của JVM
+        assertEquals(1002, count);
+        verify(invoiceRepository, times(2)).markOverdue(today, SHARD, 1000);
+        verify(invoiceDetailCache).evictAll(firstChunk);
+        verify(invoiceDetailCache).evictAll(List.of(1001, 1002));
+        verifyNoInteractions(paymentLogRepository);
     }
 
     @Test
     void markOverdueInvoices_WithNoOverdueInvoices_ShouldReturnZero() {
         // Given
-        when(invoiceRepository.findOverdueInvoices(any(LocalDate.class)))
-                .thenReturn(Collections.emptyList());
+        when(invoiceRepository.markOverdue(any(LocalDate.class), eq(SHARD), eq(1000)))
+                .thenReturn(List.of());
 
         // When
-        final int count = invoiceService.markOverdueInvoices();
+        final int count = invoiceService.markOverdueInvoices(LocalDate.now(), SHARD);
 
         // Then
         assertEquals(0, count);
-        verify(invoiceRepository, never()).save(any(Invoice.class));
-        verify(paymentLogRepository, never()).save(any(PaymentLog.class));
+        verify(invoiceRepository).markOverdue(any(LocalDate.class), eq(SHARD), eq(1000));
+        verifyNoInteractions(paymentLogRepository);
     }
 
     // ===== Tests for sendInvoiceEmail =====
 
     @Test
-    void sendInvoiceEmail_WithValidInvoice_ShouldSendEmail() {
+    void sendInvoiceEmail_WithValidInvoice_ShouldQueueEmail() {
         // Given
         tenant1.setEmail("tenant@example.com");
         final Invoice invoice = new Invoice();
@@ -877,26 +880,19 @@ class InvoiceServiceTest {
         invoice.setDueDate(LocalDate.now().plusDays(5));
 
         when(invoiceRepository.findById(1)).thenReturn(Optional.of(invoice));
-        doNothing()
-                .when(emailService)
-                .sendInvoiceEmail(
-                        anyString(),
-                        anyString(),
-                        anyString(),
-                        anyString(),
-                        anyInt(),
-                        any(LocalDate.class));
-
-        // When & Then
-        assertDoesNotThrow(() -> invoiceService.sendInvoiceEmail(1));
-        verify(emailService)
-                .sendInvoiceEmail(
+        final var email = new EmailMessage("tenant@example.com", "Hóa đơn", "<p></p>");
+        when(emailService.invoiceEmail(
                         eq("tenant@example.com"),
                         eq(TENANT_NAME),
                         eq(ROOM_NO_1),
                         eq(PERIOD),
                         eq(3350000),
-                        any(LocalDate.class));
+                        any(LocalDate.class)))
+                .thenReturn(email);
+
+        // When & Then
+        assertDoesNotThrow(() -> invoiceService.sendInvoiceEmail(1));
+        verify(emailOutboxService).enqueue(email);
     }
 
     @Test
@@ -960,6 +956,47 @@ class InvoiceServiceTest {
         assertEquals(ErrorCode.EMAIL_REQUIRED, exception.getErrorCode());
     }
 
+    @Test
+    void sendInvoiceEmails_ShouldQueueInvoicesWithEmailAndReportSkipped() {
+        // Given: phòng 1 có email, phòng 2 khách chưa có email, phòng 3 chưa có khách thuê
+        final LocalDate dueDate = LocalDate.now().plusDays(5);
+        when(invoiceRepository.findEmailRecipients(BUILDING_ID, PERIOD))
+                .thenReturn(
+                        List.of(
+                                new InvoiceEmailView(
+                                        1,
+                                        ROOM_NO_1,
+                                        1,
+                                        TENANT_NAME,
+                                        "tenant@example.com",
+                                        PERIOD,
+                                        3350000,
+                                        dueDate),
+                                new InvoiceEmailView(
+                                        2, "P.102", 2, "Trần B", " ", PERIOD, 3000000, dueDate),
+                                new InvoiceEmailView(
+                                        3, "P.103", null, null, null, PERIOD, 0, dueDate)));
+        final var email = new EmailMessage("tenant@example.com", "Hóa đơn", "<p></p>");
+        when(emailService.invoiceEmail(
+                        "tenant@example.com", TENANT_NAME, ROOM_NO_1, PERIOD, 3350000, dueDate))
+                .thenReturn(email);
+
+        // When
+        final var response = invoiceService.sendInvoiceEmails(BUILDING_ID, PERIOD);
+
+        // Then
+        verify(emailOutboxService, times(1)).enqueue(any());
+        verify(emailOutboxService).enqueue(email);
+        assertEquals(1, response.getQueuedCount());
+        assertEquals(2, response.getSkippedCount());
+        assertEquals(
+                List.of(
+                        InvoiceEmailStatus.QUEUED,
+                        InvoiceEmailStatus.NO_EMAIL,
+                        InvoiceEmailStatus.NO_TENANT),
+                response.getInvoices().stream().map(InvoiceEmailItem::getStatus).toList());
+    }
+
     // ===== Tests for createInvoice with UtilityReading =====
 
     @Test
@@ -976,30 +1013,12 @@ class InvoiceServiceTest {
         previousReading.setMonth("2024-12");
         previousReading.setElectricIndex(100);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000); // (150-100) * 3000
-        savedInvoice.setWaterAmount(200000);
-        savedInvoice.setTotalAmount(3350000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        previousReadings.put(ROOM_ID_1, previousReading);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1008,7 +1027,8 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(150000, result.get(0).getElecAmount());
+        assertEquals(150000, result.get(0).getElecAmount()); // (150-100) * 3000
+        assertEquals(200000, result.get(0).getWaterAmount()); // fallback MeterRecord
     }
 
     @Test
@@ -1018,23 +1038,17 @@ class InvoiceServiceTest {
         currentReading.setMonth(PERIOD);
         currentReading.setElectricIndex(150);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.empty());
-        when(utilityReadingRepository.existsByRoomIdAndMonthLessThan(ROOM_ID_1, PERIOD))
-                .thenReturn(true);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        roomsWithReadingHistory.add(ROOM_ID_1);
+        givenSnapshot(PERIOD, room1);
 
         final var ex =
                 assertThrows(
                         AppException.class,
                         () -> invoiceService.createInvoicesForBuilding(BUILDING_ID, PERIOD));
         assertEquals(ErrorCode.MISSING_PREVIOUS_UTILITY_READING, ex.getErrorCode());
+        verify(invoiceRepository, never()).insertIfAbsent(anyList());
     }
 
     @Test
@@ -1051,30 +1065,12 @@ class InvoiceServiceTest {
         previousReading.setMonth("2024-12");
         previousReading.setWaterIndex(50);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(200000); // (60-50) * 20000
-        savedInvoice.setTotalAmount(3350000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        previousReadings.put(ROOM_ID_1, previousReading);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1083,7 +1079,8 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(200000, result.get(0).getWaterAmount());
+        assertEquals(150000, result.get(0).getElecAmount()); // fallback MeterRecord
+        assertEquals(200000, result.get(0).getWaterAmount()); // (60-50) * 20000
     }
 
     @Test
@@ -1099,30 +1096,11 @@ class InvoiceServiceTest {
         previousReading.setMonth("2024-12");
         previousReading.setElectricIndex(100);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.empty());
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(0); // Guard clause kicks in
-        savedInvoice.setWaterAmount(0);
-        savedInvoice.setTotalAmount(ROOM_PRICE);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        previousReadings.put(ROOM_ID_1, previousReading);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1132,6 +1110,7 @@ class InvoiceServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(0, result.get(0).getElecAmount());
+        assertEquals(ROOM_PRICE, result.get(0).getTotalAmount());
     }
 
     @Test
@@ -1147,30 +1126,11 @@ class InvoiceServiceTest {
         previousReading.setMonth("2024-12");
         previousReading.setWaterIndex(50);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, PERIOD))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.empty());
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(0);
-        savedInvoice.setWaterAmount(0); // Guard clause kicks in
-        savedInvoice.setTotalAmount(ROOM_PRICE);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        previousReadings.put(ROOM_ID_1, previousReading);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1183,8 +1143,8 @@ class InvoiceServiceTest {
     }
 
     @Test
-    void createInvoice_WithJanuaryPeriod_ShouldGetDecemberPreviousMonth() {
-        // Given - Testing getPreviousMonth for January -> December transition
+    void createInvoice_WithJanuaryPeriod_ShouldUseDecemberReadingAsPrevious() {
+        // Given - previous reading của tháng 1 là tháng 12 năm trước
         final String januaryPeriod = "2025-01";
 
         final UtilityReading currentReading = new UtilityReading();
@@ -1199,28 +1159,12 @@ class InvoiceServiceTest {
         previousReading.setElectricIndex(100);
         previousReading.setWaterIndex(50);
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, januaryPeriod)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, januaryPeriod))
-                .thenReturn(Optional.of(currentReading));
-        when(utilityReadingRepository.findByRoomIdAndMonth(ROOM_ID_1, "2024-12"))
-                .thenReturn(Optional.of(previousReading));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(januaryPeriod);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(200000);
-        savedInvoice.setTotalAmount(3350000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        currentReadings.put(ROOM_ID_1, currentReading);
+        previousReadings.put(ROOM_ID_1, previousReading);
+        roomsWithReadingHistory.add(ROOM_ID_1);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(januaryPeriod, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1229,46 +1173,18 @@ class InvoiceServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(utilityReadingRepository, org.mockito.Mockito.atLeast(1))
-                .findByRoomIdAndMonth(ROOM_ID_1, "2024-12");
+        assertEquals(150000, result.get(0).getElecAmount());
+        assertEquals(200000, result.get(0).getWaterAmount());
     }
 
     @Test
     void createInvoice_WithNullElecUnitPrice_ShouldReturnZeroElecAmount() {
         // Given
         building.setElecUnitPrice(null);
-
-        // UtilityReading path is skipped when elecUnitPrice is null,
-        // so the code falls back to MeterRecord
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        // When elecUnitPrice is null, calculateElectricityCost returns 0 immediately
-        // and calculateWaterCost is still called, so we need to mock water meter record
-        lenient()
-                .when(
-                        meterRecordRepository.findByRoomIdAndPeriodAndType(
-                                ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.empty());
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-        // UtilityReadingRepository is not called when elecUnitPrice is null, but lenient mock in
-        // setUp handles it
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(0); // No elecUnitPrice
-        savedInvoice.setWaterAmount(0);
-        savedInvoice.setTotalAmount(ROOM_PRICE);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1284,29 +1200,11 @@ class InvoiceServiceTest {
     void createInvoice_WithNullWaterUnitPrice_ShouldReturnZeroWaterAmount() {
         // Given
         building.setWaterUnitPrice(null);
-
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(elecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(waterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(150000);
-        savedInvoice.setWaterAmount(0); // No waterUnitPrice
-        savedInvoice.setTotalAmount(3150000);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, elecRecord);
+        waterRecords.put(ROOM_ID_1, waterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1316,6 +1214,7 @@ class InvoiceServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(0, result.get(0).getWaterAmount());
+        assertEquals(3150000, result.get(0).getTotalAmount());
     }
 
     @Test
@@ -1335,28 +1234,11 @@ class InvoiceServiceTest {
         negativeWaterRecord.setPreviousValue(100);
         negativeWaterRecord.setCurrentValue(50); // Less than previous
 
-        when(roomRepository.findByBuildingId(BUILDING_ID)).thenReturn(Arrays.asList(room1));
-        when(invoiceRepository.existsByRoomIdAndPeriod(ROOM_ID_1, PERIOD)).thenReturn(false);
-        when(tenantRepository.findByRoomIdAndIsContractHolderTrue(ROOM_ID_1))
-                .thenReturn(Optional.of(tenant1));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.ELEC))
-                .thenReturn(Optional.of(negativeElecRecord));
-        when(meterRecordRepository.findByRoomIdAndPeriodAndType(ROOM_ID_1, PERIOD, MeterType.WATER))
-                .thenReturn(Optional.of(negativeWaterRecord));
-        when(tenantRepository.countByRoomId(ROOM_ID_1)).thenReturn(1);
-
-        final Invoice savedInvoice = new Invoice();
-        savedInvoice.setId(1);
-        savedInvoice.setRoom(room1);
-        savedInvoice.setTenant(tenant1);
-        savedInvoice.setPeriod(PERIOD);
-        savedInvoice.setRoomPrice(ROOM_PRICE);
-        savedInvoice.setElecAmount(0); // Guard clause
-        savedInvoice.setWaterAmount(0); // Guard clause
-        savedInvoice.setTotalAmount(ROOM_PRICE);
-        savedInvoice.setStatus(InvoiceStatus.DRAFT);
-
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        givenContractHolder(tenant1);
+        elecRecords.put(ROOM_ID_1, negativeElecRecord);
+        waterRecords.put(ROOM_ID_1, negativeWaterRecord);
+        tenantCounts.put(ROOM_ID_1, 1);
+        givenSnapshot(PERIOD, room1);
 
         // When
         final List<InvoiceResponse> result =
@@ -1373,17 +1255,32 @@ class InvoiceServiceTest {
     void getInvoices_WithEmptyResult_ShouldReturnEmptyPageResponse() {
         // Given
         final Pageable pageable = PageRequest.of(0, 10);
-        final Page<Invoice> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+        final Page<InvoiceSummaryView> emptyPage =
+                new PageImpl<>(Collections.emptyList(), pageable, 0);
 
         when(invoiceRepository.findByBuildingIdWithFilters(BUILDING_ID, PERIOD, null, pageable))
                 .thenReturn(emptyPage);
 
         // When
-        final var result = invoiceService.getInvoices(BUILDING_ID, PERIOD, null, pageable);
+        final var result = invoiceService.getInvoices(BUILDING_ID, PERIOD, null, true, pageable);
 
         // Then
         assertNotNull(result);
         assertTrue(result.getContent().isEmpty());
         assertEquals(0, result.getPage().getTotalElements());
     }
+
+    private static InvoiceSummaryView summary(final int id, final InvoiceStatus status) {
+        return new InvoiceSummaryView(
+                id,
+                "P.101",
+                "Nguyễn Văn A",
+                PERIOD,
+                ROOM_PRICE,
+                150000,
+                200000,
+                3350000,
+                status,
+                LocalDate.now().plusDays(5));
+    }
 }
@@ -44,6 +44,7 @@ class RegistrationServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private EmailService emailService;
+    @Mock private EmailOutboxService emailOutboxService;
     @Mock private RedisTemplate<String, String> redisTemplate;
     @Mock private ValueOperations<String, String> valueOperations;
 
@@ -75,6 +76,9 @@ class RegistrationServiceTest {
                             user.setId(USER_ID);
                             return user;
                         });
+        final var activationEmail = new EmailMessage(EMAIL, "Kích hoạt", "<p></p>");
+        when(emailService.activationEmail(eq(EMAIL), eq(FULL_NAME), anyString()))
+                .thenReturn(activationEmail);
 
         // When
         final var response = registrationService.register(registrationRequest);
@@ -96,7 +100,7 @@ class RegistrationServiceTest {
         assertEquals(UserStatus.PENDING, savedUser.getStatus());
         assertEquals(false, savedUser.getActive());
 
-        verify(emailService).sendActivationEmail(eq(EMAIL), eq(FULL_NAME), anyString());
+        verify(emailOutboxService).enqueue(activationEmail);
         verify(valueOperations).set(anyString(), eq(USER_ID), any());
     }
 
@@ -114,7 +118,7 @@ class RegistrationServiceTest {
         assertEquals(ErrorCode.USERNAME_ALREADY_EXISTS, exception.getErrorCode());
         verify(userRepository, never()).save(any(User.class));
         verify(userRepository, never()).findByEmail(anyString());
-        verify(emailService, never()).sendActivationEmail(anyString(), anyString(), anyString());
+        verify(emailOutboxService, never()).enqueue(any());
     }
 
     @Test
@@ -131,7 +135,7 @@ class RegistrationServiceTest {
                         () -> registrationService.register(registrationRequest));
         assertEquals(ErrorCode.EMAIL_ALREADY_EXISTS, exception.getErrorCode());
         verify(userRepository, never()).save(any(User.class));
-        verify(emailService, never()).sendActivationEmail(anyString(), anyString(), anyString());
+        verify(emailOutboxService, never()).enqueue(any());
     }
 
     @Test
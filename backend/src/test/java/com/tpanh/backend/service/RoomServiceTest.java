@@ -20,7 +20,9 @@ import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.RoomMapper;
 import com.tpanh.backend.repository.BuildingRepository;
 import com.tpanh.backend.repository.RoomRepository;
+import com.tpanh.backend.repository.RoomSummaryView;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,6 +48,7 @@ class RoomServiceTest {
     @Mock private RoomRepository roomRepository;
     @Mock private BuildingRepository buildingRepository;
     @Mock private RoomMapper roomMapper;
+    @Mock private ListingCountCache listingCountCache;
 
     @InjectMocks private RoomService roomService;
 
@@ -213,13 +216,11 @@ class RoomServiceTest {
     @Test
     void getRoomsByBuildingId_WrappedPageable_ShouldReturnPage() {
         // Given
-        final var room2 = new Room();
-        room2.setId(2);
-        room2.setBuilding(building);
-
         final Pageable pageable = PageRequest.of(0, 10);
-        final Page<Room> page = new PageImpl<>(Arrays.asList(room, room2), pageable, 2);
-        when(roomRepository.findByBuildingId(BUILDING_ID, pageable)).thenReturn(page);
+        final List<RoomSummaryView> rooms = List.of(summary(ROOM_ID, ROOM_NO), summary(2, "P.102"));
+        final Page<RoomSummaryView> page = new PageImpl<>(rooms, pageable, 2);
+        when(roomRepository.findSummariesByBuildingId(BUILDING_ID, null, pageable))
+                .thenReturn(page);
 
         // When
         final var response = roomService.getRoomsByBuildingId(BUILDING_ID, pageable);
@@ -228,6 +229,12 @@ class RoomServiceTest {
         assertNotNull(response);
         assertEquals(2, response.getContent().size());
 
-        verify(roomRepository).findByBuildingId(BUILDING_ID, pageable);
+        assertEquals(2, response.getPage().getTotalElements());
+        verify(roomRepository).findSummariesByBuildingId(BUILDING_ID, null, pageable);
+    }
+
+    private RoomSummaryView summary(final Integer id, final String roomNo) {
+        return new RoomSummaryView(
+                id, BUILDING_ID, BUILDING_NAME, roomNo, ROOM_PRICE, STATUS_VACANT);
     }
 }
@@ -0,0 +1,124 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.tpanh.backend.config.EmailOutboxProperties;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+/** Gửi thật qua SMTP tới GreenMail chạy trong cùng JVM. */
+class SmtpBatchSenderTest {
+    private static final int BATCH_SIZE = 20;
+
+    @RegisterExtension
+    static final GreenMailExtension GREEN_MAIL = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailOutboxProperties emailOutboxProperties = new EmailOutboxProperties();
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+
+    private SmtpBatchSender smtpBatchSender;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(GREEN_MAIL.getSmtp().getPort());
+        emailOutboxProperties.setSendRate(0);
+        smtpBatchSender = new SmtpBatchSender(mailSender, emailOutboxProperties);
+    }
+
+    @Test
+    void send_ShouldDeliverWholeBatchInOrder() throws Exception {
+        // Given
+        final List<MimeMessage> messages = messages(BATCH_SIZE);
+        final List<Integer> announced = new ArrayList<>();
+
+        // When
+        final Map<Integer, Exception> failures = smtpBatchSender.send(messages, announced::add);
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(IntStream.range(0, BATCH_SIZE).boxed().toList(), announced);
+        final MimeMessage[] received = GREEN_MAIL.getReceivedMessages();
+        assertEquals(BATCH_SIZE, received.length);
+        assertEquals(
+                IntStream.range(0, BATCH_SIZE).mapToObj(i -> "Hóa đơn " + i).toList(),
+                Arrays.stream(received).map(SmtpBatchSenderTest::subject).toList());
+    }
+
+    @Test
+    void send_WithSendRate_ShouldSpaceOutMessages() throws Exception {
+        // Given: 20 email/giây nên 5 email cần ít nhất 4 khoảng 50ms
+        emailOutboxProperties.setSendRate(20);
+        final List<MimeMessage> messages = messages(5);
+        final long start = System.nanoTime();
+
+        // When
+        final Map<Integer, Exception> failures = smtpBatchSender.send(messages, index -> {});
+
+        // Then
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        assertTrue(failures.isEmpty());
+        assertEquals(5, GREEN_MAIL.getReceivedMessages().length);
+        assertTrue(elapsed.compareTo(Duration.ofMillis(200)) >= 0, elapsed::toString);
+    }
+
+    @Test
+    void send_WhenServerUnavailable_ShouldReportEveryMessageAsFailed() throws Exception {
+        // Given
+        final List<MimeMessage> messages = messages(3);
+        GREEN_MAIL.stop();
+
+        // When
+        final Map<Integer, Exception> failures = smtpBatchSender.send(messages, index -> {});
+
+        // Then
+        assertEquals(3, failures.size());
+        assertTrue(failures.values().stream().allMatch(MessagingException.class::isInstance));
+    }
+
+    @Test
+    void send_WithEmptyBatch_ShouldNotConnect() {
+        GREEN_MAIL.stop();
+
+        assertTrue(smtpBatchSender.send(List.of(), index -> {}).isEmpty());
+    }
+
+    private List<MimeMessage> messages(final int count) throws MessagingException {
+        final List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final MimeMessage message = mailSender.createMimeMessage();
+            final MimeMessageHelper helper =
+                    new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+            helper.setFrom("noreply@phongtro.com");
+            helper.setTo("tenant" + i + "@example.com");
+            helper.setSubject("Hóa đơn " + i);
+            helper.setText("<p>" + i + "</p>", true);
+            message.saveChanges();
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static String subject(final MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (final MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
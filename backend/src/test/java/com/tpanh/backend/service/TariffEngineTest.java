@@ -0,0 +1,55 @@
+package com.tpanh.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tpanh.backend.enums.WaterCalcMethod;
+import org.junit.jupiter.api.Test;
+
+class TariffEngineTest {
+    private static final int ELEC_UNIT_PRICE = 3000;
+    private static final int WATER_UNIT_PRICE = 20000;
+
+    private final TariffEngine tariffEngine = new TariffEngine();
+
+    @Test
+    void usage_WhenMeterWasReset_ShouldReturnZero() {
+        assertEquals(50, tariffEngine.usage(100, 150));
+        assertEquals(0, tariffEngine.usage(150, 100));
+    }
+
+    @Test
+    void electricity_ShouldMultiplyUsageByUnitPrice() {
+        // When
+        final UtilityCharge charge = tariffEngine.electricity(100, 150, ELEC_UNIT_PRICE);
+
+        // Then
+        assertEquals(new UtilityCharge(100, 150, 50, ELEC_UNIT_PRICE, 150000), charge);
+    }
+
+    @Test
+    void water_ByMeter_ShouldChargeUsage() {
+        // When
+        final UtilityCharge charge =
+                tariffEngine.water(WaterCalcMethod.BY_METER, 50, 60, WATER_UNIT_PRICE, 3);
+
+        // Then
+        assertEquals(10, charge.usage());
+        assertEquals(200000, charge.amount());
+    }
+
+    @Test
+    void water_PerCapita_ShouldChargeTenantCount() {
+        // When
+        final UtilityCharge charge =
+                tariffEngine.water(WaterCalcMethod.PER_CAPITA, 50, 60, WATER_UNIT_PRICE, 3);
+
+        // Then
+        assertEquals(10, charge.usage());
+        assertEquals(60000, charge.amount());
+    }
+
+    @Test
+    void waterCost_WithoutCalcMethod_ShouldReturnZero() {
+        assertEquals(0, tariffEngine.waterCost(null, 10, WATER_UNIT_PRICE, 3));
+    }
+}
@@ -20,6 +20,7 @@ import com.tpanh.backend.exception.ErrorCode;
 import com.tpanh.backend.mapper.UtilityReadingMapper;
 import com.tpanh.backend.repository.RoomRepository;
 import com.tpanh.backend.repository.UtilityReadingRepository;
+import com.tpanh.backend.repository.UtilityReadingSummaryView;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,6 +36,7 @@ class UtilityReadingServiceTest {
     @Mock private UtilityReadingRepository utilityReadingRepository;
     @Mock private RoomRepository roomRepository;
     @Mock private UtilityReadingMapper utilityReadingMapper;
+    @Mock private InvoiceRebillingService invoiceRebillingService;
 
     @InjectMocks private UtilityReadingService utilityReadingService;
 
@@ -65,6 +67,18 @@ class UtilityReadingServiceTest {
                             res.setImageEvidence(r.getImageEvidence());
                             return res;
                         });
+        lenient()
+                .when(utilityReadingMapper.toResponse(any(UtilityReadingSummaryView.class)))
+                .thenAnswer(
+                        invocation -> {
+                            final var v =
+                                    invocation.getArgument(0, UtilityReadingSummaryView.class);
+                            final var res = new UtilityReadingResponse();
+                            res.setId(v.id());
+                            res.setRoomNo(v.roomNo());
+                            res.setMonth(v.month());
+                            return res;
+                        });
     }
 
     @Test
@@ -183,6 +197,7 @@ class UtilityReadingServiceTest {
         assertEquals(room.getId(), res.getRoomId());
         assertEquals("2025-02", res.getMonth());
         verify(utilityReadingRepository).save(any(UtilityReading.class));
+        verify(invoiceRebillingService).rebillDraftInvoices(room, "2025-02");
     }
 
     @Test
@@ -279,6 +294,7 @@ class UtilityReadingServiceTest {
         assertEquals(150, res.getElectricIndex());
         assertEquals(200, res.getWaterIndex());
         verify(utilityReadingRepository).save(eq(reading));
+        verify(invoiceRebillingService).rebillDraftInvoices(room, "2025-02");
     }
 
     @Test
@@ -292,17 +308,8 @@ class UtilityReadingServiceTest {
 
     @Test
     void getUtilityReadingsByRoomId_shouldMapList() {
-        final var r1 = new UtilityReading();
-        r1.setId(1);
-        r1.setRoom(room);
-        r1.setMonth("2025-02");
-        final var r2 = new UtilityReading();
-        r2.setId(2);
-        r2.setRoom(room);
-        r2.setMonth("2025-01");
-
-        when(utilityReadingRepository.findByRoomIdOrderByMonthDesc(room.getId()))
-                .thenReturn(List.of(r1, r2));
+        when(utilityReadingRepository.findSummariesByRoomId(room.getId()))
+                .thenReturn(List.of(summary(1, "2025-02"), summary(2, "2025-01")));
 
         final var res = utilityReadingService.getUtilityReadingsByRoomId(room.getId());
         assertEquals(2, res.size());
@@ -312,13 +319,8 @@ class UtilityReadingServiceTest {
 
     @Test
     void getUtilityReadingsByBuildingAndMonth_shouldMapList() {
-        final var r1 = new UtilityReading();
-        r1.setId(1);
-        r1.setRoom(room);
-        r1.setMonth("2025-01");
-
-        when(utilityReadingRepository.findByRoomBuildingIdAndMonth(1, "2025-01"))
-                .thenReturn(List.of(r1));
+        when(utilityReadingRepository.findSummariesByBuildingIdAndMonth(1, "2025-01"))
+                .thenReturn(List.of(summary(1, "2025-01")));
 
         final var res = utilityReadingService.getUtilityReadingsByBuildingAndMonth(1, "2025-01");
         assertEquals(1, res.size());
@@ -611,8 +613,7 @@ class UtilityReadingServiceTest {
 
     @Test
     void getUtilityReadingsByRoomId_emptyList_shouldReturnEmpty() {
-        when(utilityReadingRepository.findByRoomIdOrderByMonthDesc(room.getId()))
-                .thenReturn(List.of());
+        when(utilityReadingRepository.findSummariesByRoomId(room.getId())).thenReturn(List.of());
 
         final var res = utilityReadingService.getUtilityReadingsByRoomId(room.getId());
         assertNotNull(res);
@@ -621,11 +622,16 @@ class UtilityReadingServiceTest {
 
     @Test
     void getUtilityReadingsByBuildingAndMonth_emptyList_shouldReturnEmpty() {
-        when(utilityReadingRepository.findByRoomBuildingIdAndMonth(1, "2025-01"))
+        when(utilityReadingRepository.findSummariesByBuildingIdAndMonth(1, "2025-01"))
                 .thenReturn(List.of());
 
         final var res = utilityReadingService.getUtilityReadingsByBuildingAndMonth(1, "2025-01");
         assertNotNull(res);
         assertEquals(0, res.size());
     }
+
+    private UtilityReadingSummaryView summary(final int id, final String month) {
+        return new UtilityReadingSummaryView(
+                id, room.getId(), room.getRoomNo(), month, 100, 10, null, null);
+    }
 }
@@ -0,0 +1,52 @@
+package com.tpanh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ShouldSplitRecordsAndHandleQuotedFields() throws IOException {
+        final CsvReader csv =
+                new CsvReader(
+                        new StringReader(
+                                "a,b,c\r\n\"1,5\",\"say \"\"hi\"\"\",\"line 1\nline 2\"\n"),
+                        ',');
+
+        assertEquals(List.of("a", "b", "c"), csv.next());
+        assertEquals(List.of("1,5", "say \"hi\"", "line 1\nline 2"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void next_ShouldKeepEmptyFieldsAndUseGivenDelimiter() throws IOException {
+        final CsvReader csv = new CsvReader(new StringReader(";x;\n\nlast"), ';');
+
+        assertEquals(List.of("", "x", ""), csv.next());
+        assertEquals(List.of(""), csv.next());
+        assertEquals(List.of("last"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void next_WithUnterminatedQuote_ShouldThrow() throws IOException {
+        final CsvReader csv = new CsvReader(new StringReader("ok\n\"never closed,1\n2"), ',');
+
+        assertEquals(List.of("ok"), csv.next());
+        assertThrows(IOException.class, csv::next);
+    }
+
+    @Test
+    void next_WithTooLongRecord_ShouldThrow() {
+        final String longRecord = "x".repeat(CsvReader.MAX_RECORD_LENGTH + 1);
+        final CsvReader csv = new CsvReader(new StringReader(longRecord), ',');
+
+        assertThrows(IOException.class, csv::next);
+    }
+}
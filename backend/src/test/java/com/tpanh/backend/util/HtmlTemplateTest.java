@@ -0,0 +1,62 @@
+package com.tpanh.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class HtmlTemplateTest {
+
+    @Test
+    void render_ShouldReplaceEveryOccurrenceAndKeepLiterals() {
+        final HtmlTemplate template =
+                HtmlTemplate.parse("<a href=\"{{link}}\">{{link}}</a> {{name}}!");
+
+        final String html = template.render(Map.of("link", "https://x.vn/a", "name", "An"));
+
+        assertEquals("<a href=\"https://x.vn/a\">https://x.vn/a</a> An!", html);
+    }
+
+    @Test
+    void render_ShouldEscapeDoubleBracesAndKeepTripleBracesRaw() {
+        final HtmlTemplate template = HtmlTemplate.parse("<p>{{name}}</p><ul>{{{rows}}}</ul>");
+
+        final String html =
+                template.render(Map.of("name", "<Tom & 'Jerry'>", "rows", "<li>1</li>"));
+
+        assertEquals("<p>&lt;Tom &amp; &#39;Jerry&#39;&gt;</p><ul><li>1</li></ul>", html);
+    }
+
+    @Test
+    void render_WithoutPlaceholders_ShouldReturnSource() {
+        assertEquals("<p>static</p>", HtmlTemplate.parse("<p>static</p>").render(Map.of()));
+    }
+
+    @Test
+    void render_WithMissingValue_ShouldThrow() {
+        final HtmlTemplate template = HtmlTemplate.parse("{{a}}{{b}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("a", "1")));
+    }
+
+    @Test
+    void renderTo_ShouldAppendToExistingBuilder() {
+        final HtmlTemplate item = HtmlTemplate.parse("<li>{{value}}</li>");
+        final StringBuilder out = new StringBuilder("<ul>");
+
+        item.renderTo(out, Map.of("value", "1"));
+        item.renderTo(out, Map.of("value", "2"));
+
+        assertEquals("<ul><li>1</li><li>2</li>", out.toString());
+    }
+
+    @Test
+    void render_ShouldNotLeakPreviousRenderOnSameThread() {
+        final HtmlTemplate template = HtmlTemplate.parse("[{{v}}]");
+
+        template.render(Map.of("v", "a much longer first value"));
+
+        assertEquals("[b]", template.render(Map.of("v", "b")));
+    }
+}